@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -39,6 +40,11 @@ public class CompositeContextElement implements IInteractionElement {
 
 	private final IInteractionContextScaling contextScaling;
 
+	/**
+	 * the interest of the nodes, created on first access if there is more than one node
+	 */
+	private volatile CompositeDegreeOfInterest compositeInterest;
+
 	public CompositeContextElement(String handle, List<InteractionContextElement> nodes,
 			IInteractionContextScaling contextScaling) {
 		Assert.isNotNull(handle);
@@ -70,10 +76,14 @@ public class CompositeContextElement implements IInteractionElement {
 		if (nodes.size() == 1) {
 			return nodes.iterator().next().getInterest();
 		} else {
-			// TODO: fix this inefficiency, but not currently used by existing code
-			CompositeDegreeOfInterest degreeOfInterest = new CompositeDegreeOfInterest(contextScaling);
-			for (IInteractionElement node : nodes) {
-				degreeOfInterest.getComposedDegreesOfInterest().add(node.getInterest());
+			// the composed interest objects are live, the composite only needs to be created once
+			CompositeDegreeOfInterest degreeOfInterest = compositeInterest;
+			if (degreeOfInterest == null) {
+				degreeOfInterest = new CompositeDegreeOfInterest(contextScaling);
+				for (IInteractionElement node : nodes) {
+					degreeOfInterest.getComposedDegreesOfInterest().add(node.getInterest());
+				}
+				compositeInterest = degreeOfInterest;
 			}
 			return degreeOfInterest;
 		}
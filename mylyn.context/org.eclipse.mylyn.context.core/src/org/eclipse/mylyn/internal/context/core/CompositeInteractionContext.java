@@ -8,18 +8,24 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.mylyn.context.core.IInteractionContext;
 import org.eclipse.mylyn.context.core.IInteractionContextScaling;
 import org.eclipse.mylyn.context.core.IInteractionElement;
@@ -27,6 +33,11 @@ import org.eclipse.mylyn.monitor.core.InteractionEvent;
 
 /**
  * Delegates to contained contexts. TODO: should info be propagated proportionally to number of taskscapes?
+ * <p>
+ * Composite elements are cached so that repeated lookups of the same handle, for example by filters and decorators, do not allocate. The
+ * contained contexts invalidate the cached element of a handle when an element with that handle is added, removed or renamed. Since
+ * composite elements delegate to the elements of the contained contexts changes of interest do not invalidate the cache.
+ * </p>
  * 
  * @author Mik Kersten
  * @author Shawn Minto
@@ -34,7 +45,107 @@ import org.eclipse.mylyn.monitor.core.InteractionEvent;
  */
 public class CompositeInteractionContext implements IInteractionContext {
 
-	protected Map<String, InteractionContext> contexts = new HashMap<>();
+	/**
+	 * Invalidates cached elements when contexts are added or removed. Wraps a concurrent map since queued interaction events are applied
+	 * in the background. Contexts can only be added and removed through {@link #put(String, InteractionContext)},
+	 * {@link #remove(Object)} and {@link #clear()}, or the default methods of {@link Map} that delegate to them. The collection views
+	 * are unmodifiable so that contexts can not be removed without detaching the listener.
+	 */
+	private class ContextMap extends AbstractMap<String, InteractionContext> {
+
+		private final Map<String, InteractionContext> map = new ConcurrentHashMap<>();
+
+		private final Map<String, InteractionContext> unmodifiableMap = Collections.unmodifiableMap(map);
+
+		@Override
+		public InteractionContext get(Object key) {
+			return map.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return map.isEmpty();
+		}
+
+		@Override
+		public synchronized InteractionContext put(String key, InteractionContext value) {
+			Assert.isNotNull(value);
+			InteractionContext previous = map.put(key, value);
+			if (previous != value) {
+				if (previous != null) {
+					previous.removeElementsListener(elementsListener);
+				}
+				value.addElementsListener(elementsListener);
+				invalidateAll();
+			}
+			return previous;
+		}
+
+		@Override
+		public synchronized InteractionContext remove(Object key) {
+			InteractionContext previous = map.remove(key);
+			if (previous != null) {
+				previous.removeElementsListener(elementsListener);
+				invalidateAll();
+			}
+			return previous;
+		}
+
+		@Override
+		public synchronized void clear() {
+			for (InteractionContext context : map.values()) {
+				context.removeElementsListener(elementsListener);
+			}
+			map.clear();
+			invalidateAll();
+		}
+
+		@Override
+		public Set<String> keySet() {
+			return unmodifiableMap.keySet();
+		}
+
+		@Override
+		public Collection<InteractionContext> values() {
+			return unmodifiableMap.values();
+		}
+
+		@Override
+		public Set<Map.Entry<String, InteractionContext>> entrySet() {
+			return unmodifiableMap.entrySet();
+		}
+
+	}
+
+	private final InteractionContext.IElementsListener elementsListener = (context, handle) -> {
+		if (handle != null) {
+			invalidate(handle);
+		} else {
+			invalidateAll();
+		}
+	};
+
+	/**
+	 * the composite elements of handles that at least one context has an element for
+	 */
+	private final Map<String, CompositeContextElement> elements = new ConcurrentHashMap<>();
+
+	/**
+	 * incremented whenever cached elements are invalidated to detect elements that were computed concurrently with a change
+	 */
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	protected Map<String, InteractionContext> contexts = new ContextMap();
 
 	protected IInteractionElement activeNode = null;
 
@@ -62,41 +173,74 @@ public class CompositeInteractionContext implements IInteractionContext {
 		if (handle == null || contexts.size() == 0) {
 			return null;
 		}
-		List<InteractionContextElement> nodes = new ArrayList<>();
+		CompositeContextElement composite = elements.get(handle);
+		if (composite != null) {
+			return composite;
+		}
+
+		long count = invalidationCount.get();
+		List<InteractionContextElement> nodes = new ArrayList<>(contexts.size());
 		for (InteractionContext taskscape : contexts.values()) {
 			InteractionContextElement node = (InteractionContextElement) taskscape.get(handle);
 			if (node != null) {
 				nodes.add(node);
 			}
 		}
-		CompositeContextElement composite = new CompositeContextElement(handle, nodes, contextScaling);
+		composite = new CompositeContextElement(handle, nodes, contextScaling);
+		if (!nodes.isEmpty() && invalidationCount.get() == count) {
+			elements.put(handle, composite);
+			if (invalidationCount.get() != count) {
+				// a context changed while the element was computed
+				elements.remove(handle, composite);
+			}
+		}
 		return composite;
 	}
 
+	private void invalidate(String handle) {
+		invalidationCount.incrementAndGet();
+		elements.remove(handle);
+	}
+
+	private void invalidateAll() {
+		invalidationCount.incrementAndGet();
+		elements.clear();
+	}
+
 	@Override
 	public List<IInteractionElement> getLandmarks() {
-		Set<IInteractionElement> landmarks = new HashSet<>();
-		for (InteractionContext taskscape : contexts.values()) {
-			for (IInteractionElement concreteNode : taskscape.getLandmarks()) {
-				if (concreteNode != null) {
-					landmarks.add(get(concreteNode.getHandleIdentifier()));
-				}
-			}
+		List<IInteractionElement> landmarks = new ArrayList<>();
+		for (InteractionContext context : contexts.values()) {
+			addComposites(landmarks, context.getLandmarks());
 		}
-		return new ArrayList<>(landmarks);
+		return removeDuplicates(landmarks);
 	}
 
 	@Override
 	public List<IInteractionElement> getInteresting() {
-		Set<IInteractionElement> landmarks = new HashSet<>();
+		List<IInteractionElement> interesting = new ArrayList<>();
 		for (InteractionContext context : contexts.values()) {
-			for (IInteractionElement concreteNode : context.getInteresting()) {
-				if (concreteNode != null) {
-					landmarks.add(get(concreteNode.getHandleIdentifier()));
-				}
+			addComposites(interesting, context.getInteresting());
+		}
+		return removeDuplicates(interesting);
+	}
+
+	private void addComposites(List<IInteractionElement> composites, List<IInteractionElement> concreteNodes) {
+		for (IInteractionElement concreteNode : concreteNodes) {
+			if (concreteNode != null) {
+				composites.add(get(concreteNode.getHandleIdentifier()));
 			}
 		}
-		return new ArrayList<>(landmarks);
+	}
+
+	/**
+	 * Elements of a single context are unique, only elements from several contexts need to be deduplicated.
+	 */
+	private List<IInteractionElement> removeDuplicates(List<IInteractionElement> composites) {
+		if (contexts.size() > 1) {
+			return new ArrayList<>(new LinkedHashSet<>(composites));
+		}
+		return composites;
 	}
 
 	@Override
@@ -144,13 +288,11 @@ public class CompositeInteractionContext implements IInteractionContext {
 
 	@Override
 	public List<IInteractionElement> getAllElements() {
-		Set<IInteractionElement> nodes = new HashSet<>();
+		List<IInteractionElement> nodes = new ArrayList<>();
 		for (InteractionContext context : contexts.values()) {
-			for (IInteractionElement concreteNode : context.getAllElements()) {
-				nodes.add(get(concreteNode.getHandleIdentifier()));
-			}
+			addComposites(nodes, context.getAllElements());
 		}
-		return new ArrayList<>(nodes);
+		return removeDuplicates(nodes);
 	}
 
 	/**
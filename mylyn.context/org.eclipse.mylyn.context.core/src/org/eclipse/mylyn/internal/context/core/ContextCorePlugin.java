@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -31,6 +32,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
+import org.eclipse.core.runtime.Preferences;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.ExtensionPointReader;
 import org.eclipse.mylyn.commons.core.StatusHandler;
@@ -51,6 +53,20 @@ public class ContextCorePlugin extends Plugin {
 
 	public static final String ID_PLUGIN = "org.eclipse.mylyn.context.core"; //$NON-NLS-1$
 
+	/**
+	 * Preference that enables saving the active context by appending new events to a journal.
+	 *
+	 * @see LocalContextStore#setJournalingEnabled(boolean)
+	 */
+	public static final String PREF_CONTEXT_JOURNALING_ENABLED = "context.journaling.enabled"; //$NON-NLS-1$
+
+	/**
+	 * Preference for the number of recent events per element that task contexts retain, -1 retains all events.
+	 *
+	 * @see InteractionContextManager#setMaxRetainedEvents(int)
+	 */
+	public static final String PREF_CONTEXT_MAX_RETAINED_EVENTS = "context.events.retained.max"; //$NON-NLS-1$
+
 	private final Map<String, AbstractContextStructureBridge> bridges = new ConcurrentHashMap<>();
 
 	private final Map<String, Set<String>> childContentTypeMap = new ConcurrentHashMap<>();
@@ -75,6 +91,9 @@ public class ContextCorePlugin extends Plugin {
 
 	private boolean contextContributorInitialized = false;
 
+	@SuppressWarnings("deprecation")
+	private final Preferences.IPropertyChangeListener preferenceListener = event -> updatePreferences();
+
 	private static final AbstractContextStructureBridge DEFAULT_BRIDGE = new AbstractContextStructureBridge() {
 
 		@Override
@@ -156,11 +175,30 @@ public class ContextCorePlugin extends Plugin {
 		}
 		contextStore.setContextDirectory(storeFile);
 		contextManager = new InteractionContextManager(contextStore);
+		initPreferences();
+	}
+
+	@SuppressWarnings("deprecation")
+	private void initPreferences() {
+		Preferences preferences = getPluginPreferences();
+		preferences.setDefault(PREF_CONTEXT_JOURNALING_ENABLED, false);
+		preferences.setDefault(PREF_CONTEXT_MAX_RETAINED_EVENTS, DegreeOfInterest.RETAIN_ALL_EVENTS);
+		updatePreferences();
+		preferences.addPropertyChangeListener(preferenceListener);
+	}
+
+	@SuppressWarnings("deprecation")
+	private void updatePreferences() {
+		Preferences preferences = getPluginPreferences();
+		contextStore.setJournalingEnabled(preferences.getBoolean(PREF_CONTEXT_JOURNALING_ENABLED));
+		contextManager.setMaxRetainedEvents(
+				Math.max(DegreeOfInterest.RETAIN_ALL_EVENTS, preferences.getInt(PREF_CONTEXT_MAX_RETAINED_EVENTS)));
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		try {
+			getPluginPreferences().removePropertyChangeListener(preferenceListener);
 			super.stop(context);
 			INSTANCE = null;
 			for (AbstractRelationProvider provider : getRelationProviders()) {
@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -22,12 +23,24 @@ import org.eclipse.mylyn.context.core.IInteractionContextScaling;
 import org.eclipse.mylyn.monitor.core.InteractionEvent;
 
 /**
+ * Scoring only depends on the sums of interest contributions by event kind and on the aggregate events by kind, which are also what
+ * contexts are collapsed to. In {@link #setMaxRetainedEvents(int) compact mode} the individual events are therefore not retained, except
+ * for a bounded number of recent events.
+ *
  * @author Mik Kersten
  */
 // TODO: make package-visible
 public class DegreeOfInterest implements IDegreeOfInterest {
 
-	private final List<InteractionEvent> events = new ArrayList<>();
+	/**
+	 * retains every event that is added
+	 */
+	public static final int RETAIN_ALL_EVENTS = -1;
+
+	/**
+	 * all events, or only the most recent events in compact mode
+	 */
+	private final ArrayList<InteractionEvent> events = new ArrayList<>();
 
 	private final Map<InteractionEvent.Kind, InteractionEvent> collapsedEvents = new HashMap<>();
 
@@ -49,6 +62,13 @@ public class DegreeOfInterest implements IDegreeOfInterest {
 
 	private final int eventCountOnCreation;
 
+	/**
+	 * the element that this is the interest of, or null for the interest of a relation
+	 */
+	private InteractionContextElement element;
+
+	private int maxRetainedEvents;
+
 	public DegreeOfInterest(InteractionContext context, IInteractionContextScaling scaling) {
 		this(context, scaling, context.getUserEventCount());
 	}
@@ -61,13 +81,19 @@ public class DegreeOfInterest implements IDegreeOfInterest {
 			this.eventCountOnCreation = eventCountOnCreation;
 		}
 		contextScaling = scaling;
+		maxRetainedEvents = (context != null) ? context.getMaxRetainedEvents() : RETAIN_ALL_EVENTS;
 	}
 
 	/**
 	 * TODO: make package-visible
 	 */
 	public void addEvent(InteractionEvent event) {
-		events.add(event); // NOTE: was events.add(0, event);
+		if (maxRetainedEvents != 0) {
+			events.add(event); // NOTE: was events.add(0, event);
+			if (maxRetainedEvents > 0 && events.size() > maxRetainedEvents) {
+				events.remove(0);
+			}
+		}
 		InteractionEvent last = collapsedEvents.get(event.getKind());
 		if (last != null) {
 
@@ -86,6 +112,33 @@ public class DegreeOfInterest implements IDegreeOfInterest {
 		}
 
 		updateEventState(event);
+
+		if (element != null) {
+			context.interestChanged(element);
+		}
+	}
+
+	void setElement(InteractionContextElement element) {
+		this.element = element;
+	}
+
+	/**
+	 * Sets the number of recent events that are retained in addition to the aggregate events, or enables retaining all events if
+	 * <code>maxRetainedEvents</code> is {@link #RETAIN_ALL_EVENTS}. Events that were discarded before are not restored.
+	 */
+	void setMaxRetainedEvents(int maxRetainedEvents) {
+		this.maxRetainedEvents = maxRetainedEvents;
+		if (maxRetainedEvents >= 0 && events.size() > maxRetainedEvents) {
+			events.subList(0, events.size() - maxRetainedEvents).clear();
+			events.trimToSize();
+		}
+	}
+
+	/**
+	 * Returns true, if only the aggregate events and a bounded number of recent events are retained.
+	 */
+	public boolean isCompact() {
+		return maxRetainedEvents != RETAIN_ALL_EVENTS;
 	}
 
 	private void updateEventState(InteractionEvent event) {
@@ -142,6 +195,34 @@ public class DegreeOfInterest implements IDegreeOfInterest {
 		}
 	}
 
+	/**
+	 * Returns the interest without the decay by the user events that happened after this interest object was created, plus the decay by the
+	 * events that happened before. The key does not change as the context decays and orders interest objects of the same context by value.
+	 *
+	 * @see InterestIndex
+	 */
+	double getInterestKey() {
+		double key = (double) selections * contextScaling.get(InteractionEvent.Kind.SELECTION)
+				+ (double) edits * contextScaling.get(InteractionEvent.Kind.EDIT)
+				+ (double) commands * contextScaling.get(InteractionEvent.Kind.COMMAND) + manipulationBias + predictedBias
+				+ propagatedBias;
+		if (context != null) {
+			key += (double) eventCountOnCreation * contextScaling.getDecay();
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the sum of the magnitudes of the terms of {@link #getInterestKey()}, bounds the rounding error of the value.
+	 */
+	double getInterestMagnitude() {
+		return Math.abs((double) selections * contextScaling.get(InteractionEvent.Kind.SELECTION))
+				+ Math.abs((double) edits * contextScaling.get(InteractionEvent.Kind.EDIT))
+				+ Math.abs((double) commands * contextScaling.get(InteractionEvent.Kind.COMMAND))
+				+ Math.abs(manipulationBias) + Math.abs(predictedBias) + Math.abs(propagatedBias)
+				+ Math.abs((double) eventCountOnCreation * contextScaling.getDecay());
+	}
+
 	/**
 	 * Sums predicted and propagated values
 	 */
@@ -175,9 +256,15 @@ public class DegreeOfInterest implements IDegreeOfInterest {
 
 	/**
 	 * TODO: make unmodifiable? Clients should not muck with this list.
+	 * <p>
+	 * In compact mode only the retained recent events are returned, or the aggregate events if no recent events are retained.
+	 * </p>
 	 */
 	@Override
 	public List<InteractionEvent> getEvents() {
+		if (maxRetainedEvents == 0) {
+			return getCollapsedEvents();
+		}
 		return events;
 	}
 
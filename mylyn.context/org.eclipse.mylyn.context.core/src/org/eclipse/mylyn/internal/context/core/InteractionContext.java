@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 package org.eclipse.mylyn.internal.context.core;
 
@@ -20,7 +21,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.mylyn.context.core.IInteractionContext;
 import org.eclipse.mylyn.context.core.IInteractionContextScaling;
 import org.eclipse.mylyn.context.core.IInteractionElement;
@@ -33,13 +36,33 @@ import org.eclipse.mylyn.monitor.core.InteractionEvent;
  */
 public class InteractionContext implements IInteractionContext {
 
+	/**
+	 * Notified when elements are added to or removed from a context, or when their handle changes. Invoked while the context is
+	 * synchronized, implementations must not call back into the context.
+	 */
+	interface IElementsListener {
+
+		/**
+		 * @param handle
+		 *            the handle of the element that changed, or null if all elements may have changed
+		 */
+		void elementsChanged(InteractionContext context, String handle);
+
+	}
+
 	private String handleIdentifier;
 
-	private final List<InteractionEvent> interactionHistory;
+	/**
+	 * all events that were parsed, empty in compact mode since the history is then derived from the collapsed events of the elements
+	 */
+	private final ArrayList<InteractionEvent> interactionHistory;
 
 	private final Map<String, InteractionContextElement> elementMap;
 
-	private final Map<String, IInteractionElement> landmarkMap;
+	/**
+	 * the elements of {@link #elementMap} sorted by interest
+	 */
+	private final InterestIndex interestIndex;
 
 	/**
 	 * The last element that was added to this context.
@@ -56,23 +79,31 @@ public class InteractionContext implements IInteractionContext {
 
 	private final IInteractionContextScaling contextScaling;
 
+	private int maxRetainedEvents = DegreeOfInterest.RETAIN_ALL_EVENTS;
+
+	private final List<IElementsListener> elementsListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * the events that were parsed since the context was last written, null if the context is not journaled
+	 */
+	private List<InteractionEvent> journal;
+
+	/**
+	 * the handle that the context was last written for, null if the stored context can not be updated by appending the journal
+	 */
+	private String journalHandle;
+
 	public InteractionContext(String id, IInteractionContextScaling scaling) {
 		handleIdentifier = id;
 		contextScaling = scaling;
 		interactionHistory = new ArrayList<>();
 		elementMap = new HashMap<>();
-		landmarkMap = new HashMap<>();
+		interestIndex = new InterestIndex(scaling);
 
 		for (InteractionEvent event : interactionHistory) {
 			parseInteractionEvent(event);
 		}
 
-		for (InteractionContextElement node : elementMap.values()) {
-			if (node.getInterest().isLandmark()) {
-				landmarkMap.put(node.getHandleIdentifier(), node);
-			}
-		}
-
 		activeNode = lastEdgeNode;
 	}
 
@@ -83,10 +114,60 @@ public class InteractionContext implements IInteractionContext {
 	}
 
 	public synchronized IInteractionElement parseEvent(InteractionEvent event) {
-		interactionHistory.add(event);
+		if (!isCompact()) {
+			interactionHistory.add(event);
+		}
+		if (journal != null) {
+			journal.add(event);
+		}
 		return parseInteractionEvent(event);
 	}
 
+	/**
+	 * Returns true, if individual events are not retained.
+	 *
+	 * @see #setMaxRetainedEvents(int)
+	 */
+	public synchronized boolean isCompact() {
+		return maxRetainedEvents != DegreeOfInterest.RETAIN_ALL_EVENTS;
+	}
+
+	public synchronized int getMaxRetainedEvents() {
+		return maxRetainedEvents;
+	}
+
+	/**
+	 * Switches to compact mode in which memory use is bounded by the number of elements rather than the number of events: only the
+	 * aggregate events and scalar sums that interest is computed from are kept for each element together with at most
+	 * <code>maxRetainedEvents</code> recent events. The interaction history is then the collapsed history. Contexts that retain all
+	 * events are converted by collapsing their history, specifying {@link DegreeOfInterest#RETAIN_ALL_EVENTS} retains all events that are
+	 * parsed subsequently.
+	 *
+	 * @param maxRetainedEvents
+	 *            the number of recent events to retain per element, or {@link DegreeOfInterest#RETAIN_ALL_EVENTS}
+	 */
+	public synchronized void setMaxRetainedEvents(int maxRetainedEvents) {
+		Assert.isTrue(maxRetainedEvents >= DegreeOfInterest.RETAIN_ALL_EVENTS);
+		if (this.maxRetainedEvents == maxRetainedEvents) {
+			return;
+		}
+		if (maxRetainedEvents == DegreeOfInterest.RETAIN_ALL_EVENTS) {
+			// events that were discarded cannot be restored, continue from the collapsed history
+			collapseHistory(interactionHistory);
+		} else {
+			interactionHistory.clear();
+			interactionHistory.trimToSize();
+		}
+		this.maxRetainedEvents = maxRetainedEvents;
+		invalidateJournal();
+		for (InteractionContextElement element : elementMap.values()) {
+			((DegreeOfInterest) element.getInterest()).setMaxRetainedEvents(maxRetainedEvents);
+			for (InteractionContextRelation relation : element.getRelations()) {
+				((DegreeOfInterest) relation.getInterest()).setMaxRetainedEvents(maxRetainedEvents);
+			}
+		}
+	}
+
 	/**
 	 * Propagations and predictions are not added as edges
 	 */
@@ -108,6 +189,8 @@ public class InteractionContext implements IInteractionContext {
 				node = new InteractionContextElement(event.getStructureKind(), event.getStructureHandle(), this);
 			}
 			elementMap.put(event.getStructureHandle(), node);
+			interestIndex.update(node);
+			fireElementsChanged(node.getHandleIdentifier());
 		}
 
 		if (event.getKind().isUserEvent() && event instanceof AggregateInteractionEvent) {
@@ -133,12 +216,8 @@ public class InteractionContext implements IInteractionContext {
 		}
 		DegreeOfInterest doi = (DegreeOfInterest) node.getInterest();
 
+		// updates the interest index
 		doi.addEvent(event);
-		if (doi.isLandmark()) {
-			landmarkMap.put(node.getHandleIdentifier(), node);
-		} else {
-			landmarkMap.remove(node.getHandleIdentifier()); // TODO: redundant
-		}
 		if (event.getKind().isUserEvent()) {
 			lastEdgeEvent = event;
 			lastEdgeNode = node;
@@ -165,29 +244,51 @@ public class InteractionContext implements IInteractionContext {
 		return false;
 	}
 
+	/**
+	 * Invoked when the interest of <code>element</code> has changed.
+	 */
+	synchronized void interestChanged(InteractionContextElement element) {
+		if (elementMap.get(element.getHandleIdentifier()) == element) {
+			interestIndex.update(element);
+		}
+	}
+
+	/**
+	 * Returns the interesting elements in order of decreasing interest.
+	 */
 	@Override
 	public synchronized List<IInteractionElement> getInteresting() {
-		List<IInteractionElement> elements = new ArrayList<>();
-		for (String key : elementMap.keySet()) {
-			InteractionContextElement info = elementMap.get(key);
-			if (info != null && info.getInterest().isInteresting()) {
-				elements.add(info);
-			}
-		}
-		return elements;
+		return interestIndex.getInteresting(numUserEvents);
 	}
 
+	/**
+	 * Returns the landmarks in order of decreasing interest.
+	 */
 	@Override
 	public synchronized List<IInteractionElement> getLandmarks() {
-		return new ArrayList<>(landmarkMap.values());
+		return interestIndex.getLandmarks(numUserEvents);
+	}
+
+	/**
+	 * Returns the elements with the highest interest in order of decreasing interest.
+	 *
+	 * @param limit
+	 *            the maximum number of elements to return
+	 */
+	public synchronized List<IInteractionElement> getMostInteresting(int limit) {
+		return interestIndex.getMostInteresting(limit, numUserEvents);
 	}
 
 	@Override
 	public synchronized void updateElementHandle(IInteractionElement element, String newHandle) {
-		InteractionContextElement currElement = elementMap.remove(element.getHandleIdentifier());
+		String oldHandle = element.getHandleIdentifier();
+		InteractionContextElement currElement = elementMap.remove(oldHandle);
 		if (currElement != null) {
 			currElement.setHandleIdentifier(newHandle);
 			elementMap.put(newHandle, currElement);
+			invalidateJournal();
+			fireElementsChanged(oldHandle);
+			fireElementsChanged(newHandle);
 		}
 	}
 
@@ -202,8 +303,11 @@ public class InteractionContext implements IInteractionContext {
 		Set<String> handlesToRemove = new HashSet<>();
 		for (IInteractionElement node : nodes) {
 			handlesToRemove.add(node.getHandleIdentifier());
-			landmarkMap.remove(node.getHandleIdentifier());
-			elementMap.remove(node.getHandleIdentifier());
+			InteractionContextElement element = elementMap.remove(node.getHandleIdentifier());
+			if (element != null) {
+				interestIndex.remove(element);
+				fireElementsChanged(node.getHandleIdentifier());
+			}
 
 			if (activeNode != null && node.getHandleIdentifier().equals(activeNode.getHandleIdentifier())) {
 				activeNode = null;
@@ -218,6 +322,7 @@ public class InteractionContext implements IInteractionContext {
 			}
 		}
 		interactionHistory.removeAll(eventsToRemove);
+		invalidateJournal();
 	}
 
 	@Override
@@ -250,24 +355,81 @@ public class InteractionContext implements IInteractionContext {
 	public synchronized void reset() {
 		elementMap.clear();
 		interactionHistory.clear();
-		landmarkMap.clear();
+		interestIndex.clear();
 		activeNode = null;
 		numUserEvents = 0;
 		lastEdgeEvent = null;
 		lastEdgeNode = null;
+		invalidateJournal();
+		fireElementsChanged(null);
+	}
+
+	/**
+	 * Invoked after the context was written completely. If <code>journaled</code> is true, subsequently parsed events are recorded so
+	 * that the next save only needs to append them to the journal of the context.
+	 *
+	 * @see #takeJournal()
+	 */
+	synchronized void resetJournal(boolean journaled) {
+		journal = (journaled) ? new ArrayList<>() : null;
+		journalHandle = (journaled) ? handleIdentifier : null;
+	}
+
+	/**
+	 * Returns the events that were parsed since the context was last written and starts a new journal.
+	 *
+	 * @return the parsed events, or null if the context needs to be written completely since it was changed by other means than parsing
+	 *         events or is not journaled
+	 */
+	synchronized List<InteractionEvent> takeJournal() {
+		if (journal == null || !Objects.equals(handleIdentifier, journalHandle)) {
+			return null;
+		}
+		List<InteractionEvent> events = journal;
+		journal = new ArrayList<>();
+		return events;
+	}
+
+	private void invalidateJournal() {
+		journal = null;
+		journalHandle = null;
+	}
+
+	void addElementsListener(IElementsListener listener) {
+		elementsListeners.add(listener);
+	}
+
+	void removeElementsListener(IElementsListener listener) {
+		elementsListeners.remove(listener);
+	}
+
+	private void fireElementsChanged(String handle) {
+		for (IElementsListener listener : elementsListeners) {
+			listener.elementsChanged(this, handle);
+		}
 	}
 
 	public synchronized int getUserEventCount() {
 		return numUserEvents;
 	}
 
+	/**
+	 * Returns the events that were parsed, or the collapsed history in {@link #isCompact() compact mode}.
+	 */
 	@Override
 	public synchronized List<InteractionEvent> getInteractionHistory() {
+		if (isCompact()) {
+			List<InteractionEvent> collapsedHistory = new ArrayList<>();
+			collapseHistory(collapsedHistory);
+			return collapsedHistory;
+		}
 		return new ArrayList<>(interactionHistory);
 	}
 
 	public synchronized void collapse() {
-		collapseHistory(interactionHistory);
+		if (!isCompact()) {
+			collapseHistory(interactionHistory);
+		}
 	}
 
 	private synchronized void collapseHistory(List<InteractionEvent> interactionHistoryToCollapseTo) {
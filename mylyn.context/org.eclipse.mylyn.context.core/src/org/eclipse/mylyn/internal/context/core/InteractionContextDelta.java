@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.context.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.context.core.IInteractionContext;
+import org.eclipse.mylyn.context.core.IInteractionElement;
+
+/**
+ * Collects the changes of several interaction events per context so that listeners can be notified once. Elements are coalesced by
+ * handle, the most recently reported element of a handle is kept. A landmark that is added and removed again is not reported. Not
+ * thread-safe.
+ */
+class InteractionContextDelta {
+
+	static class Changes {
+
+		private final Map<String, IInteractionElement> interestChanged = new LinkedHashMap<>();
+
+		private final Map<String, IInteractionElement> landmarksAdded = new LinkedHashMap<>();
+
+		private final Map<String, IInteractionElement> landmarksRemoved = new LinkedHashMap<>();
+
+		public List<IInteractionElement> getInterestChanged() {
+			return new ArrayList<>(interestChanged.values());
+		}
+
+		public List<IInteractionElement> getLandmarksAdded() {
+			return new ArrayList<>(landmarksAdded.values());
+		}
+
+		public List<IInteractionElement> getLandmarksRemoved() {
+			return new ArrayList<>(landmarksRemoved.values());
+		}
+
+	}
+
+	private final Map<IInteractionContext, Changes> changesByContext = new LinkedHashMap<>();
+
+	public void interestChanged(IInteractionContext context, List<IInteractionElement> elements) {
+		if (!elements.isEmpty()) {
+			Map<String, IInteractionElement> interestChanged = getChanges(context).interestChanged;
+			for (IInteractionElement element : elements) {
+				interestChanged.remove(element.getHandleIdentifier());
+				interestChanged.put(element.getHandleIdentifier(), element);
+			}
+		}
+	}
+
+	public void landmarkAdded(IInteractionContext context, IInteractionElement element) {
+		Changes changes = getChanges(context);
+		if (changes.landmarksRemoved.remove(element.getHandleIdentifier()) == null) {
+			changes.landmarksAdded.put(element.getHandleIdentifier(), element);
+		}
+	}
+
+	public void landmarkRemoved(IInteractionContext context, IInteractionElement element) {
+		Changes changes = getChanges(context);
+		if (changes.landmarksAdded.remove(element.getHandleIdentifier()) == null) {
+			changes.landmarksRemoved.put(element.getHandleIdentifier(), element);
+		}
+	}
+
+	public Map<IInteractionContext, Changes> getChanges() {
+		return changesByContext;
+	}
+
+	public boolean isEmpty() {
+		return changesByContext.isEmpty();
+	}
+
+	private Changes getChanges(IInteractionContext context) {
+		return changesByContext.computeIfAbsent(context, c -> new Changes());
+	}
+
+}
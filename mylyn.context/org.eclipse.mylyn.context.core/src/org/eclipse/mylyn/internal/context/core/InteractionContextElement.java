@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -47,6 +48,7 @@ public class InteractionContextElement implements IInteractionElement {
 			throw new RuntimeException("malformed context: null handle"); //$NON-NLS-1$
 		}
 		interest = new DegreeOfInterest(context, context.getScaling(), eventCountOnCreation);
+		interest.setElement(this);
 		handle = elementHandle.intern();
 		this.kind = kind != null ? kind.intern() : null;
 		this.context = context;
@@ -13,14 +13,26 @@
 
 package org.eclipse.mylyn.internal.context.core;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -28,15 +40,21 @@ import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.CoreUtil;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.context.core.IContextContributor;
 import org.eclipse.mylyn.context.core.IInteractionContext;
 import org.eclipse.mylyn.context.core.IInteractionContextScaling;
+import org.eclipse.mylyn.monitor.core.InteractionEvent;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
  * @author Mik Kersten
@@ -115,16 +133,48 @@ public class InteractionContextExternalizer {
 	 */
 	public void writeContextToXml(IInteractionContext context, File file, IInteractionContextWriter writer)
 			throws IOException {
+		writeContextToXml(context, file, writer, null);
+	}
+
+	/**
+	 * Writes <code>context</code> and stamps the file with <code>journalGeneration</code>. Only a journal that was started for the same
+	 * generation is applied when the context is read.
+	 *
+	 * @see #appendToJournal(List, File, String)
+	 * @see #getJournalGeneration(File)
+	 */
+	public void writeContextToXml(IInteractionContext context, File file, String journalGeneration) throws IOException {
+		writeContextToXml(context, file, new SaxContextWriter(), journalGeneration);
+	}
+
+	private void writeContextToXml(IInteractionContext context, File file, IInteractionContextWriter writer,
+			String journalGeneration) throws IOException {
 		if (context.getInteractionHistory().isEmpty()) {
 			return;
 		}
 
 		try (FileOutputStream fileOutputStream = new FileOutputStream(file);
 				ZipOutputStream outputStream = new ZipOutputStream(fileOutputStream)) {
+			if (journalGeneration != null) {
+				outputStream.setComment(journalGeneration);
+			}
 			writeContext(context, outputStream, writer);
 		}
 	}
 
+	/**
+	 * Returns the journal generation that a context file was stamped with or <code>null</code>, if the file does not exist or was not
+	 * stamped.
+	 */
+	public String getJournalGeneration(File file) throws IOException {
+		if (!file.exists()) {
+			return null;
+		}
+		try (ZipFile zipFile = new ZipFile(file)) {
+			return zipFile.getComment();
+		}
+	}
+
 	public void writeContext(IInteractionContext context, ZipOutputStream outputStream) throws IOException {
 		writeContext(context, outputStream, new SaxContextWriter());
 	}
@@ -177,6 +227,107 @@ public class InteractionContextExternalizer {
 		}
 	}
 
+	/**
+	 * Appends <code>events</code> to a journal file. The journal is a sequence of lines that each contain an event in the format of the
+	 * context file, it is not compressed so that appending does not require rewriting the file. A trailing line that was not written
+	 * completely is removed before appending, otherwise the appended events would continue the incomplete line. A new journal starts with
+	 * a line that records <code>generation</code>.
+	 *
+	 * @see #readJournal(InteractionContext, File, String)
+	 */
+	public void appendToJournal(List<InteractionEvent> events, File file, String generation) throws IOException {
+		Assert.isNotNull(generation);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			long length = getCompleteLength(channel);
+			if (length < channel.size()) {
+				channel.truncate(length);
+			}
+			channel.position(length);
+			OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel));
+			if (length == 0) {
+				outputStream.write(getJournalHeader(generation));
+			}
+			SaxContextWriter writer = new SaxContextWriter();
+			writer.setOutputStream(outputStream);
+			writer.writeEventsToStream(events);
+			outputStream.flush();
+		}
+	}
+
+	/**
+	 * Returns the length of the journal up to and including the last line break.
+	 */
+	private static long getCompleteLength(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		long end = channel.size();
+		while (end > 0) {
+			long start = Math.max(0, end - buffer.capacity());
+			buffer.clear();
+			buffer.limit((int) (end - start));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of journal"); //$NON-NLS-1$
+				}
+			}
+			for (int i = buffer.limit() - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	/**
+	 * Parses the events of a journal file into <code>context</code>. A trailing line that was not written completely, for example since
+	 * the workbench terminated while writing, is ignored. The journal is not applied if it was started for a different generation than
+	 * <code>generation</code>, for example since the workbench terminated after a new context file was written but before the previous
+	 * journal was deleted. The events of such a journal are already part of the context file.
+	 *
+	 * @return false, if the journal does not belong to <code>generation</code>
+	 */
+	public boolean readJournal(InteractionContext context, File file, String generation) throws IOException {
+		if (!file.exists()) {
+			return true;
+		}
+		byte[] content = Files.readAllBytes(file.toPath());
+		int length = content.length;
+		while (length > 0 && content[length - 1] != '\n') {
+			length--;
+		}
+		if (length == 0) {
+			return true;
+		}
+		byte[] header = (generation != null) ? getJournalHeader(generation) : null;
+		if (header == null || length < header.length
+				|| !Arrays.equals(content, 0, header.length, header, 0, header.length)) {
+			return false;
+		}
+
+		// wrap the events in a root element to parse them as a single document
+		String root = ELMNT_INTERACTION_HISTORY;
+		InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+				new ByteArrayInputStream(("<" + root + ">").getBytes(StandardCharsets.UTF_8)), //$NON-NLS-1$ //$NON-NLS-2$
+				new ByteArrayInputStream(content, header.length, length - header.length),
+				new ByteArrayInputStream(("</" + root + ">").getBytes(StandardCharsets.UTF_8))))); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			XMLReader reader = CoreUtil.newXmlReader();
+			reader.setContentHandler(new SaxContextContentHandler(context));
+			InputSource source = new InputSource(in);
+			source.setEncoding(StandardCharsets.UTF_8.name());
+			reader.parse(source);
+		} catch (SAXException e) {
+			throw new IOException("Could not read journal " + file, e); //$NON-NLS-1$
+		}
+		return true;
+	}
+
+	private static byte[] getJournalHeader(String generation) {
+		return ("<!--" + generation + "-->\n").getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	public InputStream getAdditionalInformation(File file, String contributorIdentifier) throws IOException {
 		if (!file.exists()) {
 			return null;
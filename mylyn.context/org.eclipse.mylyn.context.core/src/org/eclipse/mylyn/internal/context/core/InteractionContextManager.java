@@ -9,6 +9,7 @@
  *
  *     Tasktop Technologies - initial API and implementation
  *     Frank Becker - fixes for bug 420326
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -31,6 +32,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
@@ -68,6 +71,11 @@ public class InteractionContextManager implements IInteractionContextManager {
 
 	public static final String CONTEXT_FILE_EXTENSION = ".xml.zip"; //$NON-NLS-1$
 
+	/**
+	 * appended to the name of a context file to obtain the name of its journal
+	 */
+	public static final String CONTEXT_JOURNAL_FILE_EXTENSION = ".journal"; //$NON-NLS-1$
+
 	public static final String CONTAINMENT_PROPAGATION_ID = "org.eclipse.mylyn.core.model.edges.containment"; //$NON-NLS-1$
 
 	/**
@@ -138,10 +146,15 @@ public class InteractionContextManager implements IInteractionContextManager {
 
 	private final List<String> errorElementHandles = new ArrayList<>();
 
+	/**
+	 * the number of recent events per element that task contexts retain when they are activated
+	 */
+	private volatile int maxRetainedEvents = DegreeOfInterest.RETAIN_ALL_EVENTS;
+
 	/**
 	 * Global contexts do not participate in the regular activation lifecycle but are instead activated and deactivated by clients.
 	 */
-	private final Collection<IInteractionContext> globalContexts = new HashSet<>();
+	private final Collection<IInteractionContext> globalContexts = new CopyOnWriteArraySet<>();
 
 	private int numInterestingErrors = 0;
 
@@ -151,6 +164,16 @@ public class InteractionContextManager implements IInteractionContextManager {
 
 	private final LocalContextStore contextStore;
 
+	/**
+	 * applies events that monitors report in the background, or null if events are processed synchronously
+	 */
+	private volatile InteractionEventQueue eventQueue;
+
+	/**
+	 * collects the changes of the queued event that is processed by the current thread instead of notifying listeners
+	 */
+	private final ThreadLocal<InteractionContextDelta> queuedDelta = new ThreadLocal<>();
+
 	public InteractionContextManager(LocalContextStore contextStore) {
 		this.contextStore = contextStore;
 	}
@@ -158,6 +181,7 @@ public class InteractionContextManager implements IInteractionContextManager {
 	@Override
 	public void activateContext(String handleIdentifier) {
 		try {
+			flushQueuedInteractionEvents();
 			IInteractionContext loadedContext = activeContext.getContextMap().get(handleIdentifier);
 			final IInteractionContext context;
 			if (loadedContext == null) {
@@ -165,6 +189,10 @@ public class InteractionContextManager implements IInteractionContextManager {
 			} else {
 				context = loadedContext;
 			}
+			if (maxRetainedEvents != DegreeOfInterest.RETAIN_ALL_EVENTS && context instanceof InteractionContext) {
+				// contexts that were stored with all events are collapsed when they are loaded
+				((InteractionContext) context).setMaxRetainedEvents(maxRetainedEvents);
+			}
 
 			// make sure contextContributor are initialized
 			ContextCorePlugin.getDefault().initContextContributor();
@@ -282,8 +310,13 @@ public class InteractionContextManager implements IInteractionContextManager {
 		AbstractContextStructureBridge bridge = ContextCorePlugin.getDefault()
 				.getStructureBridge(node.getContentType());
 		if (bridge.canBeLandmark(node.getHandleIdentifier())) {
+			InteractionContextDelta delta = queuedDelta.get();
 			if (previousInterest >= ContextCore.getCommonContextScaling().getLandmark()
 					&& !node.getInterest().isLandmark()) {
+				if (delta != null) {
+					delta.landmarkRemoved(context, node);
+					return;
+				}
 				for (final IContextListener listener : contextListeners) {
 					SafeRunner.run(new ISafeRunnable() {
 						@Override
@@ -305,6 +338,10 @@ public class InteractionContextManager implements IInteractionContextManager {
 				}
 			} else if (previousInterest < ContextCore.getCommonContextScaling().getLandmark()
 					&& node.getInterest().isLandmark()) {
+				if (delta != null) {
+					delta.landmarkAdded(context, node);
+					return;
+				}
 				for (final IContextListener listener : contextListeners) {
 					SafeRunner.run(new ISafeRunnable() {
 						@Override
@@ -454,11 +491,15 @@ public class InteractionContextManager implements IInteractionContextManager {
 	@Override
 	public void deactivateContext(String handleIdentifier) {
 		try {
+			flushQueuedInteractionEvents();
 			System.setProperty(InteractionContextManager.PROPERTY_CONTEXT_ACTIVE, Boolean.FALSE.toString());
 
 			final IInteractionContext context = activeContext.getContextMap().get(handleIdentifier);
 			if (context != null) {
-				saveContext(context);
+				if (contextStore != null) {
+					// write a complete context file so that inactive contexts do not have journals
+					contextStore.compactContext(context);
+				}
 				activeContext.getContextMap().remove(handleIdentifier);
 
 				setContextCapturePaused(true);
@@ -530,6 +571,7 @@ public class InteractionContextManager implements IInteractionContextManager {
 
 	@Override
 	public void deleteContext(final String handleIdentifier) {
+		flushQueuedInteractionEvents();
 		final IInteractionContext context = activeContext.getContextMap().get(handleIdentifier);
 
 		setContextCapturePaused(true);
@@ -812,6 +854,34 @@ public class InteractionContextManager implements IInteractionContextManager {
 		return contextCapturePaused;
 	}
 
+	public int getMaxRetainedEvents() {
+		return maxRetainedEvents;
+	}
+
+	/**
+	 * Sets the number of recent events per element that task contexts retain. The setting is applied to the active contexts and to
+	 * contexts when they are activated. Specify {@link DegreeOfInterest#RETAIN_ALL_EVENTS} to retain all events, which is the default.
+	 * Configured through {@link ContextCorePlugin#PREF_CONTEXT_MAX_RETAINED_EVENTS}.
+	 * <p>
+	 * The activity meta-context is exempt. Compact mode collapses the events of an element into one aggregate event per kind, which
+	 * discards the start and end dates of the individual attention events that task activity and elapsed time are computed from. The
+	 * growth of the activity meta-context is bounded instead by collapsing its attention events by hour when it is saved, see
+	 * {@link #collapseActivityMetaContext(InteractionContext)}.
+	 * </p>
+	 *
+	 * @see InteractionContext#setMaxRetainedEvents(int)
+	 */
+	public void setMaxRetainedEvents(int maxRetainedEvents) {
+		Assert.isTrue(maxRetainedEvents >= DegreeOfInterest.RETAIN_ALL_EVENTS);
+		if (this.maxRetainedEvents == maxRetainedEvents) {
+			return;
+		}
+		this.maxRetainedEvents = maxRetainedEvents;
+		for (InteractionContext context : activeContext.getContextMap().values()) {
+			context.setMaxRetainedEvents(maxRetainedEvents);
+		}
+	}
+
 	protected boolean isInterestDelta(float previousInterest, boolean previouslyPredicted, boolean previouslyPropagated,
 			IInteractionElement node) {
 		float currentInterest = node.getInterest().getValue();
@@ -1222,8 +1292,17 @@ public class InteractionContextManager implements IInteractionContextManager {
 		}
 	}
 
+	/**
+	 * Processes <code>event</code> and notifies listeners. If {@link #enableQueuedProcessing(Executor, long) queued processing} is enabled
+	 * the event is added to the queue instead and the returned element does not reflect the event yet.
+	 */
 	@Override
 	public IInteractionElement processInteractionEvent(InteractionEvent event) {
+		InteractionEventQueue queue = eventQueue;
+		if (queue != null) {
+			queue.add(event);
+			return activeContext.get(event.getStructureHandle());
+		}
 		return processInteractionEvent(event, true);
 	}
 
@@ -1275,6 +1354,124 @@ public class InteractionContextManager implements IInteractionContextManager {
 		return null;
 	}
 
+	/**
+	 * Processes a queued event like {@link #processInteractionEvent(InteractionEvent)} but records the changes in <code>delta</code>
+	 * instead of notifying listeners. Processing an event updates an element and propagates interest to its parents. The event is applied
+	 * while holding the locks of the affected contexts so that readers, which are synchronized on the contexts, do not observe an event
+	 * that was applied partially.
+	 */
+	void processQueuedInteractionEvent(InteractionEvent event, InteractionContextDelta delta) {
+		queuedDelta.set(delta);
+		try {
+			if (isContextActive()) {
+				runLocked(activeContext.getContextMap().values().iterator(), () -> delta.interestChanged(activeContext,
+						internalProcessInteractionEvent(event, activeContext, true)));
+			}
+			for (IInteractionContext globalContext : globalContexts) {
+				if (globalContext.getContentLimitedTo().equals(event.getStructureKind())) {
+					// like processInteractionEvent() changes of global contexts are reported for the active context
+					synchronized (globalContext) {
+						delta.interestChanged(activeContext, internalProcessInteractionEvent(event, globalContext, true));
+					}
+				}
+			}
+		} finally {
+			queuedDelta.remove();
+		}
+	}
+
+	/**
+	 * Runs <code>runnable</code> while holding the locks of all <code>contexts</code>. Only the thread that processes queued events holds
+	 * the locks of several contexts at a time.
+	 */
+	private static void runLocked(Iterator<InteractionContext> contexts, Runnable runnable) {
+		if (contexts.hasNext()) {
+			synchronized (contexts.next()) {
+				runLocked(contexts, runnable);
+			}
+		} else {
+			runnable.run();
+		}
+	}
+
+	/**
+	 * Notifies listeners of the coalesced changes of queued events.
+	 */
+	void notifyDelta(InteractionContextDelta delta) {
+		for (Map.Entry<IInteractionContext, InteractionContextDelta.Changes> entry : delta.getChanges().entrySet()) {
+			IInteractionContext context = entry.getKey();
+			InteractionContextDelta.Changes changes = entry.getValue();
+			notifyContextChanged(ContextChangeKind.LANDMARKS_REMOVED, context, changes.getLandmarksRemoved());
+			notifyContextChanged(ContextChangeKind.LANDMARKS_ADDED, context, changes.getLandmarksAdded());
+			notifyInterestDelta(context, changes.getInterestChanged());
+		}
+	}
+
+	private void notifyContextChanged(final ContextChangeKind kind, final IInteractionContext context,
+			final List<IInteractionElement> elements) {
+		if (!elements.isEmpty()) {
+			for (final IContextListener listener : contextListeners) {
+				SafeRunner.run(new ISafeRunnable() {
+					@Override
+					public void handleException(Throwable e) {
+						StatusHandler.log(new Status(IStatus.WARNING, ContextCorePlugin.ID_PLUGIN, "Listener failed: " //$NON-NLS-1$
+								+ listener.getClass(), e));
+					}
+
+					@Override
+					public void run() throws Exception {
+						ContextChangeEvent event = new ContextChangeEvent(kind, context.getHandleIdentifier(), context,
+								elements);
+						listener.contextChanged(event);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * Switches {@link #processInteractionEvent(InteractionEvent)} to queue events which are then applied in batches by a background
+	 * job. Listeners are notified of the coalesced changes of all events that were applied since the last notification, at most once per
+	 * <code>notificationInterval</code>. Activating, deactivating or deleting a context first applies all queued events and notifies
+	 * listeners on the calling thread. Enabled by the context UI plug-in through a preference.
+	 *
+	 * @param notificationExecutor
+	 *            runs listener notifications, typically on the UI thread since listeners update viewers
+	 * @param notificationInterval
+	 *            the minimum time between notifications in milliseconds
+	 */
+	public synchronized void enableQueuedProcessing(Executor notificationExecutor, long notificationInterval) {
+		Assert.isNotNull(notificationExecutor);
+		Assert.isTrue(notificationInterval >= 0);
+		disableQueuedProcessing();
+		eventQueue = new InteractionEventQueue(this, notificationExecutor, notificationInterval);
+	}
+
+	/**
+	 * Applies all queued events and switches back to processing events synchronously.
+	 */
+	public synchronized void disableQueuedProcessing() {
+		InteractionEventQueue queue = eventQueue;
+		if (queue != null) {
+			eventQueue = null;
+			queue.dispose();
+		}
+	}
+
+	public boolean isQueuedProcessing() {
+		return eventQueue != null;
+	}
+
+	/**
+	 * Applies all queued events on the calling thread and notifies listeners of their changes.
+	 */
+	public void flushQueuedInteractionEvents() {
+		InteractionEventQueue queue = eventQueue;
+		if (queue != null) {
+			queue.flush();
+		}
+	}
+
 	public void processInteractionEvents(List<InteractionEvent> events, boolean propagateToParents) {
 		Set<IInteractionElement> compositeDelta = new HashSet<>();
 		for (InteractionEvent event : events) {
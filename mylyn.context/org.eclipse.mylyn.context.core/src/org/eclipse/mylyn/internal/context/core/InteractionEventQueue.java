@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.context.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.monitor.core.InteractionEvent;
+
+/**
+ * Applies interaction events in batches on a single background job so that monitors do not wait for scoring and propagation. The changes
+ * of all processed events are coalesced and listeners are notified at most once per notification interval.
+ *
+ * @see InteractionContextManager#enableQueuedProcessing(Executor, long)
+ */
+class InteractionEventQueue {
+
+	/**
+	 * the maximum number of events that are applied while holding the lock
+	 */
+	static final int MAX_BATCH_SIZE = 500;
+
+	private final Queue<InteractionEvent> events = new ConcurrentLinkedQueue<>();
+
+	private final InteractionContextManager manager;
+
+	private final Executor notificationExecutor;
+
+	private final long notificationIntervalNanos;
+
+	/**
+	 * serializes the processing of events by the job and by {@link #flush()}
+	 */
+	private final Object lock = new Object();
+
+	private InteractionContextDelta pendingDelta = new InteractionContextDelta();
+
+	private long lastNotificationNanos;
+
+	private final Job job = new Job("Process Interaction Events") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			processBatch();
+			return Status.OK_STATUS;
+		}
+	};
+
+	public InteractionEventQueue(InteractionContextManager manager, Executor notificationExecutor,
+			long notificationInterval) {
+		this.manager = manager;
+		this.notificationExecutor = notificationExecutor;
+		this.notificationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(notificationInterval);
+		this.lastNotificationNanos = System.nanoTime() - notificationIntervalNanos;
+		job.setSystem(true);
+		job.setPriority(Job.SHORT);
+	}
+
+	public void add(InteractionEvent event) {
+		events.add(event);
+		job.schedule();
+	}
+
+	public int size() {
+		return events.size();
+	}
+
+	/**
+	 * Applies all queued events on the calling thread and notifies listeners of pending changes without delay.
+	 */
+	public void flush() {
+		InteractionContextDelta delta;
+		synchronized (lock) {
+			while (!events.isEmpty()) {
+				process(MAX_BATCH_SIZE);
+			}
+			delta = takePendingDelta();
+		}
+		manager.notifyDelta(delta);
+	}
+
+	public void dispose() {
+		job.cancel();
+		flush();
+	}
+
+	private void processBatch() {
+		InteractionContextDelta delta = null;
+		long delay = 0;
+		synchronized (lock) {
+			process(MAX_BATCH_SIZE);
+			if (!pendingDelta.isEmpty()) {
+				delay = lastNotificationNanos + notificationIntervalNanos - System.nanoTime();
+				if (delay <= 0) {
+					delta = takePendingDelta();
+				}
+			}
+		}
+		if (delta != null) {
+			final InteractionContextDelta notification = delta;
+			notificationExecutor.execute(() -> manager.notifyDelta(notification));
+		}
+		if (!events.isEmpty()) {
+			job.schedule();
+		} else if (delay > 0) {
+			// events that are added in the meantime reschedule the job without delay and are applied right away
+			job.schedule(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay)));
+		}
+	}
+
+	private void process(int maxEvents) {
+		InteractionEvent event;
+		for (int i = 0; i < maxEvents && (event = events.poll()) != null; i++) {
+			try {
+				manager.processQueuedInteractionEvent(event, pendingDelta);
+			} catch (RuntimeException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, ContextCorePlugin.ID_PLUGIN,
+						"Failed to process interaction event: " + event, e)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private InteractionContextDelta takePendingDelta() {
+		InteractionContextDelta delta = pendingDelta;
+		pendingDelta = new InteractionContextDelta();
+		lastNotificationNanos = System.nanoTime();
+		return delta;
+	}
+
+}
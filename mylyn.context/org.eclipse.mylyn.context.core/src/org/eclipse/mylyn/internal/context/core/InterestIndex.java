@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.context.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.eclipse.mylyn.context.core.IInteractionContextScaling;
+import org.eclipse.mylyn.context.core.IInteractionElement;
+import org.eclipse.mylyn.monitor.core.InteractionEvent;
+
+/**
+ * Keeps the elements of a context sorted by interest so that the interesting elements, the landmarks and the most interesting elements
+ * can be determined without scoring every element.
+ * <p>
+ * Decay lowers the interest of all elements by the same amount for each user event, the interest of an element is therefore its
+ * {@link DegreeOfInterest#getInterestKey() key}, which does not change as the context decays, minus a decay that is the same for all
+ * elements. Elements are sorted by key and a threshold on the interest translates to a range of keys. Since the key is not computed with
+ * exactly the same floating point operations as the interest, elements within a small margin of a threshold are checked by scoring them.
+ * </p>
+ * Not thread-safe, the context must be synchronized.
+ */
+class InterestIndex {
+
+	private static final class Entry {
+
+		private final InteractionContextElement element;
+
+		/**
+		 * orders elements with the same key
+		 */
+		private final long sequence;
+
+		private double key;
+
+		private Entry(InteractionContextElement element, long sequence) {
+			this.element = element;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * relative error of interest values that is tolerated when translating thresholds into keys, generous compared to the precision of
+	 * float
+	 */
+	private static final double RELATIVE_ERROR = 1e-5;
+
+	private static final double ABSOLUTE_ERROR = 1e-3;
+
+	private final TreeSet<Entry> entries = new TreeSet<>(
+			Comparator.<Entry> comparingDouble(entry -> -entry.key).thenComparingLong(entry -> entry.sequence));
+
+	private final Map<InteractionContextElement, Entry> entryByElement = new IdentityHashMap<>();
+
+	private final IInteractionContextScaling scaling;
+
+	/**
+	 * the scaling factors that keys were computed with
+	 */
+	private float[] scalingFactors;
+
+	/**
+	 * an upper bound of the magnitude of the terms that interest values of indexed elements are summed from
+	 */
+	private double maxMagnitude;
+
+	private long nextSequence;
+
+	public InterestIndex(IInteractionContextScaling scaling) {
+		this.scaling = scaling;
+		this.scalingFactors = getScalingFactors();
+	}
+
+	/**
+	 * Adds <code>element</code> or updates its position after its interest changed.
+	 */
+	public void update(InteractionContextElement element) {
+		Entry entry = entryByElement.get(element);
+		if (entry != null) {
+			entries.remove(entry);
+		} else {
+			entry = new Entry(element, nextSequence++);
+			entryByElement.put(element, entry);
+		}
+		index(entry);
+	}
+
+	public void remove(InteractionContextElement element) {
+		Entry entry = entryByElement.remove(element);
+		if (entry != null) {
+			entries.remove(entry);
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+		entryByElement.clear();
+		maxMagnitude = 0;
+	}
+
+	/**
+	 * Returns the elements that are {@link DegreeOfInterest#isInteresting() interesting} in order of decreasing interest.
+	 */
+	public List<IInteractionElement> getInteresting(int userEventCount) {
+		return getAbove(scaling.getInteresting(), userEventCount, DegreeOfInterest::isInteresting);
+	}
+
+	/**
+	 * Returns the elements that are {@link DegreeOfInterest#isLandmark() landmarks} in order of decreasing interest.
+	 */
+	public List<IInteractionElement> getLandmarks(int userEventCount) {
+		return getAbove(scaling.getLandmark(), userEventCount, DegreeOfInterest::isLandmark);
+	}
+
+	/**
+	 * Returns at most <code>limit</code> elements with the highest interest in order of decreasing interest.
+	 */
+	public List<IInteractionElement> getMostInteresting(int limit, int userEventCount) {
+		checkScaling();
+		double margin = getMargin(userEventCount);
+		List<InteractionContextElement> candidates = new ArrayList<>();
+		double minKey = Double.NEGATIVE_INFINITY;
+		for (Entry entry : entries) {
+			if (entry.key < minKey) {
+				break;
+			}
+			candidates.add(entry.element);
+			if (candidates.size() == limit) {
+				// elements that are ranked lower by key may still have a higher interest within the margin
+				minKey = entry.key - 2 * margin;
+			}
+		}
+		candidates.sort(Comparator.comparingDouble(element -> -element.getInterest().getValue()));
+		return new ArrayList<>(candidates.subList(0, Math.min(limit, candidates.size())));
+	}
+
+	private List<IInteractionElement> getAbove(float threshold, int userEventCount, Predicate<DegreeOfInterest> predicate) {
+		checkScaling();
+		double minKey = threshold + (double) userEventCount * scaling.getDecay() - getMargin(userEventCount);
+		List<IInteractionElement> elements = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (entry.key < minKey) {
+				break;
+			}
+			if (predicate.test((DegreeOfInterest) entry.element.getInterest())) {
+				elements.add(entry.element);
+			}
+		}
+		return elements;
+	}
+
+	private double getMargin(int userEventCount) {
+		return RELATIVE_ERROR * (maxMagnitude + Math.abs((double) userEventCount * scaling.getDecay())) + ABSOLUTE_ERROR;
+	}
+
+	private void index(Entry entry) {
+		DegreeOfInterest interest = (DegreeOfInterest) entry.element.getInterest();
+		entry.key = interest.getInterestKey();
+		maxMagnitude = Math.max(maxMagnitude, interest.getInterestMagnitude());
+		entries.add(entry);
+	}
+
+	/**
+	 * Recomputes all keys if the scaling factors that keys depend on were changed since the keys were computed.
+	 */
+	private void checkScaling() {
+		float[] factors = getScalingFactors();
+		if (!Arrays.equals(factors, scalingFactors)) {
+			scalingFactors = factors;
+			List<Entry> all = new ArrayList<>(entries);
+			entries.clear();
+			maxMagnitude = 0;
+			for (Entry entry : all) {
+				index(entry);
+			}
+		}
+	}
+
+	private float[] getScalingFactors() {
+		return new float[] { scaling.get(InteractionEvent.Kind.SELECTION), scaling.get(InteractionEvent.Kind.EDIT),
+				scaling.get(InteractionEvent.Kind.COMMAND), scaling.getDecay() };
+	}
+
+}
@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -18,10 +19,12 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.zip.ZipOutputStream;
 
 import org.eclipse.core.runtime.Assert;
@@ -33,13 +36,30 @@ import org.eclipse.mylyn.context.core.ContextCore;
 import org.eclipse.mylyn.context.core.IContextStore;
 import org.eclipse.mylyn.context.core.IInteractionContext;
 import org.eclipse.mylyn.context.core.IInteractionContextScaling;
+import org.eclipse.mylyn.monitor.core.InteractionEvent;
 
 /**
+ * Stores contexts as zip files in the context directory.
+ * <p>
+ * If journaling is enabled a context that was saved before is saved by appending the events that were parsed since to a journal file next
+ * to the context file, which takes time proportional to the number of new events rather than the size of the context. The journal is
+ * compacted into a new context file when the journal exceeds the {@link #setMaxJournalSize(long) maximum size}, when the context is
+ * {@link #compactContext(IInteractionContext) compacted}, for example on deactivation, or when the context was changed other than by
+ * parsing events. Contexts are always loaded from the context file and the journal.
+ * </p>
+ * <p>
+ * Each context file that is written completely is stamped with a new generation and a journal is only applied to the context file of
+ * the same generation. If the workbench terminates after a context file was written but before the previous journal was deleted, the
+ * events of the stale journal, which are already part of the context file, are not applied a second time.
+ * </p>
+ *
  * @author Mik Kersten
  * @author Steffen Pingel
  */
 public class LocalContextStore implements IContextStore {
 
+	public static final long DEFAULT_MAX_JOURNAL_SIZE = 1024 * 1024;
+
 	private File contextDirectory;
 
 	/**
@@ -53,6 +73,10 @@ public class LocalContextStore implements IContextStore {
 
 	private final List<IContextStoreListener> listeners = new ArrayList<>();
 
+	private volatile boolean journalingEnabled;
+
+	private volatile long maxJournalSize = DEFAULT_MAX_JOURNAL_SIZE;
+
 	public LocalContextStore(IInteractionContextScaling commonContextScaling) {
 		this.commonContextScaling = commonContextScaling;
 	}
@@ -78,6 +102,29 @@ public class LocalContextStore implements IContextStore {
 		return contextDirectory;
 	}
 
+	public boolean isJournalingEnabled() {
+		return journalingEnabled;
+	}
+
+	/**
+	 * Enables saving contexts by appending new events to a journal. Disabled by default.
+	 */
+	public void setJournalingEnabled(boolean journalingEnabled) {
+		this.journalingEnabled = journalingEnabled;
+	}
+
+	public long getMaxJournalSize() {
+		return maxJournalSize;
+	}
+
+	/**
+	 * Sets the size in bytes that a journal may grow to before it is compacted into a new context file.
+	 */
+	public void setMaxJournalSize(long maxJournalSize) {
+		Assert.isTrue(maxJournalSize >= 0);
+		this.maxJournalSize = maxJournalSize;
+	}
+
 	/**
 	 * @return false if the map could not be read for any reason
 	 */
@@ -111,10 +158,24 @@ public class LocalContextStore implements IContextStore {
 		if (loadedContext == null) {
 			return new InteractionContext(handleIdentifier, contextScaling);
 		} else {
+			readJournal((InteractionContext) loadedContext, fromFile);
 			return loadedContext;
 		}
 	}
 
+	private void readJournal(InteractionContext context, File contextFile) {
+		File journalFile = getJournalFile(contextFile);
+		try {
+			if (!externalizer.readJournal(context, journalFile, externalizer.getJournalGeneration(contextFile))) {
+				// the events of the journal are already part of the context file
+				journalFile.delete();
+			}
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ContextCorePlugin.ID_PLUGIN, "Failed to read context journal " //$NON-NLS-1$
+					+ journalFile, e));
+		}
+	}
+
 	// TODO: interaction activity capture should be locked or queued for the duration of this and other saves
 	public void saveActiveContext() {
 		// FIXME this should not reference the context manager
@@ -126,14 +187,31 @@ public class LocalContextStore implements IContextStore {
 
 	public void saveContext(IInteractionContext context, String fileName) {
 		try {
-			externalizer.writeContextToXml(context, getFileForContext(fileName));
+			File file = getFileForContext(fileName);
+			externalizer.writeContextToXml(context, file);
+			deleteJournal(file);
 		} catch (IOException e) {
 			StatusHandler.log(new Status(IStatus.ERROR, ContextCorePlugin.ID_PLUGIN, "Failed to write context " //$NON-NLS-1$
 					+ context.getHandleIdentifier(), e));
 		}
 	}
 
+	/**
+	 * Saves <code>context</code>, if journaling is enabled by appending the events that were parsed since the context was last saved to
+	 * its journal.
+	 */
 	public void saveContext(IInteractionContext context) {
+		saveContext(context, false);
+	}
+
+	/**
+	 * Saves <code>context</code> to a new context file that includes the events of its journal and removes the journal.
+	 */
+	public void compactContext(IInteractionContext context) {
+		saveContext(context, true);
+	}
+
+	private void saveContext(IInteractionContext context, boolean compact) {
 		// FIXME this should not reference the context manager
 		boolean wasPaused = ContextCore.getContextManager().isContextCapturePaused();
 		try {
@@ -143,12 +221,18 @@ public class LocalContextStore implements IContextStore {
 				ContextCore.getContextManager().setContextCapturePaused(true);
 			}
 			synchronized (context) {
-				IInteractionContext contextToSave = context;
-				if (context instanceof InteractionContext) {
-					contextToSave = ((InteractionContext) context).createCollapsedWritableCopy();
+				if (compact || !appendToJournal(context)) {
+					IInteractionContext contextToSave = context;
+					if (context instanceof InteractionContext) {
+						contextToSave = ((InteractionContext) context).createCollapsedWritableCopy();
+					}
+
+					File file = getFileForContext(contextToSave.getHandleIdentifier());
+					// a new generation invalidates the current journal in case it is not deleted
+					externalizer.writeContextToXml(contextToSave, file, UUID.randomUUID().toString());
+					deleteJournal(file);
+					resetJournal(context);
 				}
-
-				externalizer.writeContextToXml(contextToSave, getFileForContext(contextToSave.getHandleIdentifier()));
 			}
 
 			if (context.getAllElements().size() == 0) {
@@ -166,6 +250,85 @@ public class LocalContextStore implements IContextStore {
 		}
 	}
 
+	/**
+	 * Appends the events that were parsed since <code>context</code> was last saved to its journal.
+	 *
+	 * @return false, if the context needs to be written completely
+	 */
+	private boolean appendToJournal(IInteractionContext context) {
+		InteractionContext interactionContext = getJournaledContext(context);
+		if (!journalingEnabled || interactionContext == null) {
+			return false;
+		}
+		File file = getFileForContext(context.getHandleIdentifier());
+		File journalFile = getJournalFile(file);
+		if (!file.exists() || journalFile.length() > maxJournalSize) {
+			return false;
+		}
+		List<InteractionEvent> events = interactionContext.takeJournal();
+		if (events == null) {
+			return false;
+		}
+		if (!events.isEmpty()) {
+			try {
+				String generation = externalizer.getJournalGeneration(file);
+				if (generation == null) {
+					// the context file was written without a generation
+					return false;
+				}
+				externalizer.appendToJournal(events, journalFile, generation);
+			} catch (IOException e) {
+				// the journal is removed when the context is written completely
+				StatusHandler.log(new Status(IStatus.WARNING, ContextCorePlugin.ID_PLUGIN,
+						"Failed to append to context journal " + journalFile, e)); //$NON-NLS-1$
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Starts recording the events of contexts that were written completely if journaling is enabled.
+	 */
+	private void resetJournal(IInteractionContext context) {
+		InteractionContext interactionContext = getJournaledContext(context);
+		if (interactionContext != null) {
+			interactionContext.resetJournal(journalingEnabled);
+		}
+	}
+
+	/**
+	 * Returns the context that records the events that are appended to the journal when <code>context</code> is saved. The active
+	 * context is a composite that is written under the handle of its only contained context, the events of that context are journaled.
+	 *
+	 * @return null, if <code>context</code> can not be journaled
+	 */
+	private InteractionContext getJournaledContext(IInteractionContext context) {
+		if (context instanceof InteractionContext interactionContext) {
+			return interactionContext;
+		} else if (context instanceof CompositeInteractionContext compositeContext) {
+			Collection<InteractionContext> contexts = compositeContext.getContextMap().values();
+			if (contexts.size() == 1) {
+				InteractionContext containedContext = contexts.iterator().next();
+				if (containedContext.getHandleIdentifier().equals(context.getHandleIdentifier())) {
+					return containedContext;
+				}
+			}
+		}
+		return null;
+	}
+
+	public File getJournalFile(File contextFile) {
+		return new File(contextFile.getPath() + InteractionContextManager.CONTEXT_JOURNAL_FILE_EXTENSION);
+	}
+
+	private void deleteJournal(File contextFile) {
+		File journalFile = getJournalFile(contextFile);
+		if (journalFile.exists()) {
+			journalFile.delete();
+		}
+	}
+
 	private boolean addToCache(IInteractionContext context) {
 		initCache();
 		return contextFiles.add(getFileForContext(context.getHandleIdentifier()));
@@ -202,12 +365,14 @@ public class LocalContextStore implements IContextStore {
 	@Override
 	public IInteractionContext cloneContext(String sourceContextHandle, String destinationContextHandle) {
 
+		File sourceFile = getFileForContext(sourceContextHandle);
 		InteractionContext readContext = (InteractionContext) externalizer.readContextFromXml(sourceContextHandle,
-				getFileForContext(sourceContextHandle), commonContextScaling);
+				sourceFile, commonContextScaling);
 
 		if (readContext == null) {
 			return new InteractionContext(destinationContextHandle, commonContextScaling);
 		} else {
+			readJournal(readContext, sourceFile);
 			readContext.setHandleIdentifier(destinationContextHandle);
 			saveContext(readContext);
 		}
@@ -250,6 +415,7 @@ public class LocalContextStore implements IContextStore {
 			if (file.exists()) {
 				file.delete();
 			}
+			deleteJournal(file);
 
 			if (contextFiles != null) {
 				contextFiles.remove(getFileForContext(handleIdentifier));
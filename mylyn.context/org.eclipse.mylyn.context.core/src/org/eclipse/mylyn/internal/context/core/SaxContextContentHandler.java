@@ -9,6 +9,7 @@
  *
  *     Brock Janiczak - initial API and implementation
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
@@ -58,6 +59,15 @@ public class SaxContextContentHandler extends DefaultHandler {
 		this.contextScaling = contextScaling;
 	}
 
+	/**
+	 * Parses the events of the document into an existing <code>context</code>, the attributes of the root element are ignored.
+	 */
+	public SaxContextContentHandler(InteractionContext context) {
+		this.context = context;
+		this.contextHandleIdentifier = context.getHandleIdentifier();
+		this.contextScaling = context.getScaling();
+	}
+
 	public InteractionContext getContext() {
 		return context;
 	}
@@ -66,10 +76,12 @@ public class SaxContextContentHandler extends DefaultHandler {
 	public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
 		switch (state) {
 			case EXPECTING_ROOT:
-				context = new InteractionContext(contextHandleIdentifier, contextScaling);
-				String limitContentTo = attributes.getValue(ATTRIBUTE_CONTENT);
-				if (limitContentTo != null) {
-					context.setContentLimitedTo(limitContentTo);
+				if (context == null) {
+					context = new InteractionContext(contextHandleIdentifier, contextScaling);
+					String limitContentTo = attributes.getValue(ATTRIBUTE_CONTENT);
+					if (limitContentTo != null) {
+						context.setContentLimitedTo(limitContentTo);
+					}
 				}
 				state = EXPECTING_EVENT;
 				break;
@@ -9,15 +9,19 @@
  *
  *     Brock Janiczak - initial API and implementation
  *     Tasktop Technologies - improvements
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.core;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Locale;
 
+import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -71,6 +75,45 @@ public class SaxContextWriter implements IInteractionContextWriter {
 		}
 	}
 
+	/**
+	 * Writes each event as an <code>InteractionEvent</code> element on a separate line without an enclosing root element so that events
+	 * can be appended to a journal.
+	 */
+	public void writeEventsToStream(List<InteractionEvent> events) throws IOException {
+		if (outputStream == null) {
+			IOException ioe = new IOException("OutputStream not set"); //$NON-NLS-1$
+			throw ioe;
+		}
+
+		try {
+			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes"); //$NON-NLS-1$
+			transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+			for (InteractionEvent event : events) {
+				transformer.transform(new SAXSource(new SaxWriter(), new InteractionEventInputSource(event)),
+						new StreamResult(outputStream));
+				outputStream.write('\n');
+			}
+		} catch (TransformerException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ContextCorePlugin.ID_PLUGIN, "Could not write events", e)); //$NON-NLS-1$
+			throw new IOException(e.getMessage());
+		}
+	}
+
+	private static class InteractionEventInputSource extends InputSource {
+
+		private final InteractionEvent event;
+
+		public InteractionEventInputSource(InteractionEvent event) {
+			this.event = event;
+		}
+
+		public InteractionEvent getEvent() {
+			return event;
+		}
+
+	}
+
 	private static class InteractionContextInputSource extends InputSource {
 
 		private final IInteractionContext context;
@@ -152,6 +195,16 @@ public class SaxContextWriter implements IInteractionContextWriter {
 
 		@Override
 		public void parse(InputSource input) throws IOException, SAXException {
+			if (input instanceof InteractionEventInputSource) {
+				handler.startDocument();
+				InteractionEvent event = ((InteractionEventInputSource) input).getEvent();
+				handler.startElement("", SaxContextContentHandler.ATTRIBUTE_INTERACTION_EVENT, //$NON-NLS-1$
+						SaxContextContentHandler.ATTRIBUTE_INTERACTION_EVENT, createEventAttributes(event));
+				handler.endElement("", SaxContextContentHandler.ATTRIBUTE_INTERACTION_EVENT, //$NON-NLS-1$
+						SaxContextContentHandler.ATTRIBUTE_INTERACTION_EVENT);
+				handler.endDocument();
+				return;
+			}
 			if (!(input instanceof InteractionContextInputSource)) {
 				throw new SAXException("Can only parse writable input sources"); //$NON-NLS-1$
 			}
@@ -29,6 +29,8 @@ public class AllContextTests {
 		suite.addTestSuite(InteractionContextListeningTest.class);
 		suite.addTestSuite(ScalingFactorsTest.class);
 		suite.addTestSuite(InteractionContextTest.class);
+		suite.addTestSuite(CompositeInteractionContextTest.class);
+		suite.addTestSuite(CompositeInteractionContextBenchmark.class);
 		suite.addTestSuite(ContextExternalizerTest.class);
 		suite.addTestSuite(DegreeOfInterestTest.class);
 		suite.addTestSuite(ContextTest.class);
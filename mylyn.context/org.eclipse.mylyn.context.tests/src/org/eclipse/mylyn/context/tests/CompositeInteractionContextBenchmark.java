@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.context.tests;
+
+import org.eclipse.mylyn.commons.sdk.util.CommonTestUtil;
+import org.eclipse.mylyn.context.sdk.util.AbstractContextTest;
+import org.eclipse.mylyn.internal.context.core.CompositeInteractionContext;
+import org.eclipse.mylyn.internal.context.core.InteractionContext;
+import org.eclipse.mylyn.internal.context.core.InteractionContextScaling;
+
+/**
+ * Measures the element lookup and the interest filter of {@link CompositeInteractionContext} over a composite of two
+ * contexts with 1000 elements each. Every benchmark runs a number of warm up iterations followed by measured iterations
+ * and reports the average, minimum and maximum time per operation. Only runs if all tests are enabled.
+ */
+@SuppressWarnings("nls")
+public class CompositeInteractionContextBenchmark extends AbstractContextTest {
+
+	private static final int ELEMENTS = 1000;
+
+	private static final int WARMUP_ITERATIONS = 5;
+
+	private static final int MEASUREMENT_ITERATIONS = 10;
+
+	private static final long ITERATION_NANOS = 200 * 1000 * 1000L;
+
+	private CompositeInteractionContext composite;
+
+	private String[] handles;
+
+	// consumes results so that the measured operations are not optimized away
+	private int sink;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		InteractionContextScaling scaling = new InteractionContextScaling();
+		composite = new CompositeInteractionContext(scaling);
+		InteractionContext context1 = new InteractionContext("1", scaling);
+		InteractionContext context2 = new InteractionContext("2", scaling);
+		handles = new String[ELEMENTS];
+		for (int i = 0; i < ELEMENTS; i++) {
+			handles[i] = Integer.toString(i);
+			context1.parseEvent(mockSelection(handles[i]));
+			context2.parseEvent(mockSelection(handles[i]));
+		}
+		composite.getContextMap().put(context1.getHandleIdentifier(), context1);
+		composite.getContextMap().put(context2.getHandleIdentifier(), context2);
+	}
+
+	public void testLookup() {
+		if (CommonTestUtil.runHeartbeatTestsOnly()) {
+			return;
+		}
+		run("get()", () -> {
+			for (String handle : handles) {
+				sink += composite.get(handle).getHandleIdentifier().length();
+			}
+		}, ELEMENTS);
+	}
+
+	public void testGetInteresting() {
+		if (CommonTestUtil.runHeartbeatTestsOnly()) {
+			return;
+		}
+		run("getInteresting()", () -> sink += composite.getInteresting().size(), 1);
+	}
+
+	public void testGetLandmarks() {
+		if (CommonTestUtil.runHeartbeatTestsOnly()) {
+			return;
+		}
+		run("getLandmarks()", () -> sink += composite.getLandmarks().size(), 1);
+	}
+
+	/**
+	 * Invokes <code>operation</code> repeatedly for the duration of each iteration and prints the time per operation
+	 * of the measured iterations. <code>operationsPerInvocation</code> is the number of operations that one invocation
+	 * performs.
+	 */
+	private void run(String name, Runnable operation, int operationsPerInvocation) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			iteration(operation, operationsPerInvocation);
+		}
+		double total = 0;
+		double min = Double.MAX_VALUE;
+		double max = 0;
+		for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+			double nanosPerOperation = iteration(operation, operationsPerInvocation);
+			total += nanosPerOperation;
+			min = Math.min(min, nanosPerOperation);
+			max = Math.max(max, nanosPerOperation);
+		}
+		System.out.println(String.format("CompositeInteractionContext.%s: %.1f ns/op (min %.1f, max %.1f, %d elements)",
+				name, total / MEASUREMENT_ITERATIONS, min, max, ELEMENTS));
+	}
+
+	private double iteration(Runnable operation, int operationsPerInvocation) {
+		long invocations = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			operation.run();
+			invocations++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < ITERATION_NANOS);
+		return (double) elapsed / (invocations * operationsPerInvocation);
+	}
+
+}
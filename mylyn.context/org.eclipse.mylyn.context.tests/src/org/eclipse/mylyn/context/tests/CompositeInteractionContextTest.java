@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.context.tests;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.mylyn.context.core.IInteractionElement;
+import org.eclipse.mylyn.context.sdk.util.AbstractContextTest;
+import org.eclipse.mylyn.internal.context.core.CompositeContextElement;
+import org.eclipse.mylyn.internal.context.core.CompositeInteractionContext;
+import org.eclipse.mylyn.internal.context.core.InteractionContext;
+import org.eclipse.mylyn.internal.context.core.InteractionContextScaling;
+
+@SuppressWarnings("nls")
+public class CompositeInteractionContextTest extends AbstractContextTest {
+
+	private InteractionContextScaling scaling;
+
+	private CompositeInteractionContext composite;
+
+	private InteractionContext context1;
+
+	private InteractionContext context2;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		scaling = new InteractionContextScaling();
+		composite = new CompositeInteractionContext(scaling);
+		context1 = new InteractionContext("1", scaling);
+		context2 = new InteractionContext("2", scaling);
+		composite.getContextMap().put(context1.getHandleIdentifier(), context1);
+	}
+
+	public void testGetIsCached() {
+		context1.parseEvent(mockSelection("a"));
+
+		IInteractionElement element = composite.get("a");
+		assertSame(element, composite.get("a"));
+		assertEquals(1, ((CompositeContextElement) element).getNodes().size());
+
+		// interest changes are visible through the cached element
+		float interest = element.getInterest().getValue();
+		context1.parseEvent(mockSelection("a"));
+		assertTrue(composite.get("a").getInterest().getValue() > interest);
+		assertSame(element, composite.get("a"));
+	}
+
+	public void testGetIsInvalidated() {
+		context1.parseEvent(mockSelection("a"));
+		IInteractionElement element = composite.get("a");
+
+		// adding a context invalidates all elements
+		composite.getContextMap().put(context2.getHandleIdentifier(), context2);
+		IInteractionElement element2 = composite.get("a");
+		assertNotSame(element, element2);
+		assertEquals(1, ((CompositeContextElement) element2).getNodes().size());
+
+		// adding an element to a context invalidates the element
+		context2.parseEvent(mockSelection("a"));
+		IInteractionElement element3 = composite.get("a");
+		assertNotSame(element2, element3);
+		assertEquals(2, ((CompositeContextElement) element3).getNodes().size());
+
+		context1.delete(context1.get("a"));
+		assertEquals(1, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		composite.getContextMap().remove(context2.getHandleIdentifier());
+		assertEquals(0, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		// removed contexts no longer invalidate elements
+		context1.parseEvent(mockSelection("b"));
+		IInteractionElement elementB = composite.get("b");
+		context2.reset();
+		assertSame(elementB, composite.get("b"));
+	}
+
+	public void testContextMapOperations() {
+		context1.parseEvent(mockSelection("a"));
+		context2.parseEvent(mockSelection("a"));
+		assertEquals(1, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		assertNull(composite.getContextMap().putIfAbsent(context2.getHandleIdentifier(), context2));
+		assertEquals(2, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		assertTrue(composite.getContextMap().remove(context2.getHandleIdentifier(), context2));
+		assertEquals(1, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		// removed contexts no longer invalidate elements
+		IInteractionElement element = composite.get("a");
+		context2.reset();
+		assertSame(element, composite.get("a"));
+
+		context2.parseEvent(mockSelection("a"));
+		composite.getContextMap().computeIfAbsent(context2.getHandleIdentifier(), handle -> context2);
+		assertEquals(2, ((CompositeContextElement) composite.get("a")).getNodes().size());
+
+		try {
+			composite.getContextMap().keySet().remove(context2.getHandleIdentifier());
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			composite.getContextMap().values().clear();
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(2, composite.getContextMap().size());
+	}
+
+	public void testGetAfterUpdateElementHandle() {
+		context1.parseEvent(mockSelection("a"));
+		composite.get("a");
+
+		composite.updateElementHandle(composite.get("a"), "b");
+		assertEquals(0, ((CompositeContextElement) composite.get("a")).getNodes().size());
+		assertEquals(1, ((CompositeContextElement) composite.get("b")).getNodes().size());
+	}
+
+	public void testGetInterestingAndLandmarks() {
+		composite.getContextMap().put(context2.getHandleIdentifier(), context2);
+		context1.parseEvent(mockSelection("a"));
+		context2.parseEvent(mockSelection("a"));
+		context2.parseEvent(mockSelection("b"));
+		context1.parseEvent(mockInterestContribution("c", scaling.getLandmark() + 1));
+
+		List<IInteractionElement> interesting = composite.getInteresting();
+		assertEquals(3, interesting.size());
+		assertTrue(interesting.contains(composite.get("a")));
+		assertEquals(Collections.singletonList(composite.get("c")), composite.getLandmarks());
+		assertEquals(3, composite.getAllElements().size());
+	}
+
+	public void testLookupManyElements() {
+		for (int i = 0; i < 1000; i++) {
+			context1.parseEvent(mockSelection(Integer.toString(i)));
+		}
+
+		IInteractionElement[] elements = new IInteractionElement[1000];
+		for (int i = 0; i < 1000; i++) {
+			elements[i] = composite.get(Integer.toString(i));
+			assertNotNull(elements[i]);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertSame(elements[i], composite.get(Integer.toString(i)));
+		}
+		assertEquals(1000, composite.getInteresting().size());
+		assertEquals(1000, composite.getInteresting().size());
+	}
+
+	public void testLookupPerformance() {
+		for (int i = 0; i < 1000; i++) {
+			context1.parseEvent(mockSelection(Integer.toString(i)));
+		}
+		// warm up
+		lookup(100);
+		filter(10);
+
+		long start = System.nanoTime();
+		int iterations = 1000;
+		lookup(iterations);
+		long lookupNanos = (System.nanoTime() - start) / (iterations * 1000L);
+
+		start = System.nanoTime();
+		filter(iterations / 10);
+		long filterNanos = (System.nanoTime() - start) / (iterations / 10);
+
+		System.out.println("Composite lookup: " + lookupNanos + " ns/op, getInteresting() over 1000 elements: "
+				+ filterNanos / 1000 + " us/op");
+	}
+
+	private void lookup(int iterations) {
+		for (int n = 0; n < iterations; n++) {
+			for (int i = 0; i < 1000; i++) {
+				assertNotNull(composite.get(Integer.toString(i)));
+			}
+		}
+	}
+
+	private void filter(int iterations) {
+		for (int n = 0; n < iterations; n++) {
+			assertEquals(1000, composite.getInteresting().size());
+		}
+	}
+
+}
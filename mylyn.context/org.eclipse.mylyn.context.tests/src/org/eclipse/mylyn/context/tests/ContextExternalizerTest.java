@@ -21,6 +21,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -35,10 +37,12 @@ import org.eclipse.mylyn.context.core.IInteractionRelation;
 import org.eclipse.mylyn.context.sdk.util.AbstractContextTest;
 import org.eclipse.mylyn.context.tests.support.DomContextReader;
 import org.eclipse.mylyn.context.tests.support.DomContextWriter;
+import org.eclipse.mylyn.internal.context.core.CompositeInteractionContext;
 import org.eclipse.mylyn.internal.context.core.ContextCorePlugin;
 import org.eclipse.mylyn.internal.context.core.InteractionContext;
 import org.eclipse.mylyn.internal.context.core.InteractionContextExternalizer;
 import org.eclipse.mylyn.internal.context.core.InteractionContextManager;
+import org.eclipse.mylyn.internal.context.core.LocalContextStore;
 import org.eclipse.mylyn.internal.context.core.SaxContextReader;
 import org.eclipse.mylyn.internal.context.core.SaxContextWriter;
 import org.eclipse.mylyn.monitor.core.InteractionEvent;
@@ -353,4 +357,154 @@ public class ContextExternalizerTest extends AbstractContextTest {
 		assertNotNull(resultStream);
 		assertNull(externalizer.getAdditionalInformation(contextFile, "nonExistingContributor"));
 	}
+
+	public void testJournal() throws Exception {
+		File directory = Files.createTempDirectory("contexts").toFile();
+		LocalContextStore store = new LocalContextStore(scaling);
+		store.setContextDirectory(directory);
+		store.setJournalingEnabled(true);
+		contextFile = store.getFileForContext(CONTEXT_HANDLE);
+		File journalFile = store.getJournalFile(contextFile);
+		try {
+			// the first save writes the context file
+			context.parseEvent(mockSelection("1"));
+			store.saveContext(context);
+			assertTrue(contextFile.exists());
+			assertFalse(journalFile.exists());
+
+			// subsequent saves only append new events
+			byte[] snapshot = Files.readAllBytes(contextFile.toPath());
+			context.parseEvent(mockSelection("2"));
+			context.parseEvent(mockNavigation("1"));
+			store.saveContext(context);
+			assertTrue(Arrays.equals(snapshot, Files.readAllBytes(contextFile.toPath())));
+			assertTrue(journalFile.exists());
+
+			IInteractionContext loaded = store.loadContext(CONTEXT_HANDLE);
+			assertEquals(2, loaded.getAllElements().size());
+			assertEquals(context.get("1").getInterest().getValue(), loaded.get("1").getInterest().getValue(), 0.01f);
+			assertNotNull(loaded.get("2").getRelation("1"));
+			assertEquals("1", loaded.getActiveNode().getHandleIdentifier());
+
+			// an incomplete trailing event is ignored
+			try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+				out.write("<InteractionEvent Kind=".getBytes());
+			}
+			loaded = store.loadContext(CONTEXT_HANDLE);
+			assertEquals(2, loaded.getAllElements().size());
+
+			// deleting elements can not be journaled
+			context.parseEvent(mockSelection("3"));
+			context.delete(context.get("2"));
+			store.saveContext(context);
+			assertFalse(journalFile.exists());
+			loaded = store.loadContext(CONTEXT_HANDLE);
+			assertNull(loaded.get("2"));
+			assertNotNull(loaded.get("3"));
+
+			context.parseEvent(mockSelection("4"));
+			store.saveContext(context);
+			assertTrue(journalFile.exists());
+			store.compactContext(context);
+			assertFalse(journalFile.exists());
+			assertNotNull(store.loadContext(CONTEXT_HANDLE).get("4"));
+		} finally {
+			journalFile.delete();
+			contextFile.delete();
+			directory.delete();
+		}
+	}
+
+	public void testJournalAppendAfterTornWrite() throws Exception {
+		File directory = Files.createTempDirectory("contexts").toFile();
+		LocalContextStore store = new LocalContextStore(scaling);
+		store.setContextDirectory(directory);
+		store.setJournalingEnabled(true);
+		contextFile = store.getFileForContext(CONTEXT_HANDLE);
+		File journalFile = store.getJournalFile(contextFile);
+		try {
+			context.parseEvent(mockSelection("1"));
+			store.saveContext(context);
+			context.parseEvent(mockSelection("2"));
+			store.saveContext(context);
+			assertTrue(journalFile.exists());
+
+			// simulate a write that was interrupted in the middle of an event
+			try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+				out.write("<InteractionEvent Kind=\"selection\" Struct".getBytes());
+			}
+
+			// the incomplete line is discarded before appending so that the journal remains readable
+			context.parseEvent(mockSelection("3"));
+			store.saveContext(context);
+			assertTrue(journalFile.exists());
+
+			IInteractionContext loaded = store.loadContext(CONTEXT_HANDLE);
+			assertEquals(3, loaded.getAllElements().size());
+			assertNotNull(loaded.get("2"));
+			assertNotNull(loaded.get("3"));
+		} finally {
+			journalFile.delete();
+			contextFile.delete();
+			directory.delete();
+		}
+	}
+
+	public void testStaleJournalIsNotApplied() throws Exception {
+		File directory = Files.createTempDirectory("contexts").toFile();
+		LocalContextStore store = new LocalContextStore(scaling);
+		store.setContextDirectory(directory);
+		store.setJournalingEnabled(true);
+		contextFile = store.getFileForContext(CONTEXT_HANDLE);
+		File journalFile = store.getJournalFile(contextFile);
+		try {
+			context.parseEvent(mockSelection("1"));
+			store.saveContext(context);
+			context.parseEvent(mockSelection("1"));
+			store.saveContext(context);
+			byte[] journal = Files.readAllBytes(journalFile.toPath());
+
+			// simulate termination after the context file was written but before the journal was deleted
+			store.compactContext(context);
+			assertFalse(journalFile.exists());
+			Files.write(journalFile.toPath(), journal);
+
+			IInteractionContext loaded = store.loadContext(CONTEXT_HANDLE);
+			assertEquals(context.get("1").getInterest().getValue(), loaded.get("1").getInterest().getValue(), 0.01f);
+			assertFalse(journalFile.exists());
+		} finally {
+			journalFile.delete();
+			contextFile.delete();
+			directory.delete();
+		}
+	}
+
+	public void testJournalCompositeContext() throws Exception {
+		File directory = Files.createTempDirectory("contexts").toFile();
+		LocalContextStore store = new LocalContextStore(scaling);
+		store.setContextDirectory(directory);
+		store.setJournalingEnabled(true);
+		contextFile = store.getFileForContext(CONTEXT_HANDLE);
+		File journalFile = store.getJournalFile(contextFile);
+		CompositeInteractionContext composite = new CompositeInteractionContext(scaling);
+		composite.getContextMap().put(CONTEXT_HANDLE, context);
+		try {
+			context.parseEvent(mockSelection("1"));
+			store.saveContext(composite);
+			assertTrue(contextFile.exists());
+			assertFalse(journalFile.exists());
+
+			// the active context is a composite, saving it appends the events of the contained context
+			byte[] snapshot = Files.readAllBytes(contextFile.toPath());
+			context.parseEvent(mockSelection("2"));
+			store.saveContext(composite);
+			assertTrue(Arrays.equals(snapshot, Files.readAllBytes(contextFile.toPath())));
+			assertTrue(journalFile.exists());
+			assertNotNull(store.loadContext(CONTEXT_HANDLE).get("2"));
+		} finally {
+			journalFile.delete();
+			contextFile.delete();
+			directory.delete();
+		}
+	}
 }
@@ -13,13 +13,23 @@
 
 package org.eclipse.mylyn.context.tests;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.mylyn.context.core.AbstractContextListener;
 import org.eclipse.mylyn.context.core.ContextChangeEvent;
+import org.eclipse.mylyn.context.core.ContextChangeEvent.ContextChangeKind;
+import org.eclipse.mylyn.context.core.IInteractionElement;
 import org.eclipse.mylyn.internal.context.core.CompositeInteractionContext;
 import org.eclipse.mylyn.internal.context.core.ContextCorePlugin;
 import org.eclipse.mylyn.internal.context.core.InteractionContext;
 import org.eclipse.mylyn.internal.context.core.InteractionContextManager;
 import org.eclipse.mylyn.internal.context.core.InteractionContextScaling;
+import org.eclipse.mylyn.monitor.core.InteractionEvent;
 
 import junit.framework.TestCase;
 
@@ -69,6 +79,49 @@ public class InteractionContextListeningTest extends TestCase {
 		}
 	}
 
+	public void testQueuedProcessing() {
+		contextManager = ContextCorePlugin.getContextManager();
+		((CompositeInteractionContext) contextManager.getActiveContext()).getContextMap().put("handle", mockContext);
+		contextManager.activateContext("handle");
+
+		final List<ContextChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+		AbstractContextListener listener = new AbstractContextListener() {
+			@Override
+			public void contextChanged(ContextChangeEvent event) {
+				if (event.getEventKind() == ContextChangeKind.INTEREST_CHANGED) {
+					events.add(event);
+				}
+			}
+		};
+		contextManager.addListener(listener);
+		// the first notification is sent right away, all subsequent changes are coalesced until the queue is flushed
+		contextManager.enableQueuedProcessing(Runnable::run, TimeUnit.HOURS.toMillis(1));
+		try {
+			assertTrue(contextManager.isQueuedProcessing());
+			for (int i = 0; i < 100; i++) {
+				contextManager.processInteractionEvent(
+						new InteractionEvent(InteractionEvent.Kind.SELECTION, "mock", "element" + (i % 10), "origin"));
+			}
+		} finally {
+			contextManager.disableQueuedProcessing();
+			contextManager.removeListener(listener);
+		}
+		assertFalse(contextManager.isQueuedProcessing());
+
+		assertTrue("Unexpected number of notifications: " + events.size(), events.size() >= 1 && events.size() <= 2);
+		Set<String> handles = new HashSet<>();
+		for (ContextChangeEvent event : events) {
+			for (IInteractionElement element : event.getElements()) {
+				handles.add(element.getHandleIdentifier());
+			}
+		}
+		assertEquals(10, handles.size());
+		assertEquals(100, mockContext.getUserEventCount());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(mockContext.get("element" + i).getInterest().isInteresting());
+		}
+	}
+
 	private class StubContextListener extends AbstractContextListener {
 
 		private int activationEventCount;
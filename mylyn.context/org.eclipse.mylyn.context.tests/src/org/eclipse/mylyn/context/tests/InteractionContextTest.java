@@ -13,6 +13,15 @@
 
 package org.eclipse.mylyn.context.tests;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.mylyn.context.core.IInteractionElement;
 import org.eclipse.mylyn.context.sdk.util.AbstractContextTest;
 import org.eclipse.mylyn.internal.context.core.InteractionContext;
 import org.eclipse.mylyn.internal.context.core.InteractionContextScaling;
@@ -76,4 +85,101 @@ public class InteractionContextTest extends AbstractContextTest {
 		assertNotNull(context.get("1"));
 	}
 
+	public void testInterestIndexMatchesScoring() {
+		Random random = new Random(4711);
+		InteractionEvent.Kind[] kinds = { InteractionEvent.Kind.SELECTION, InteractionEvent.Kind.EDIT,
+				InteractionEvent.Kind.COMMAND, InteractionEvent.Kind.PREDICTION, InteractionEvent.Kind.PROPAGATION,
+				InteractionEvent.Kind.MANIPULATION };
+		InteractionContextScaling scaling = new InteractionContextScaling();
+		InteractionContext context = new InteractionContext("test", scaling);
+		for (int i = 0; i < 20000; i++) {
+			String handle = Integer.toString(random.nextInt(500));
+			InteractionEvent.Kind kind = kinds[random.nextInt(kinds.length)];
+			// mostly small contributions so that many elements hover around the thresholds
+			float contribution = random.nextInt(10) == 0 ? random.nextFloat() * 100 - 50 : random.nextFloat() * 2 - 1;
+			context.parseEvent(new InteractionEvent(kind, "kind", handle, "origin", contribution));
+
+			if (i % 1000 == 999) {
+				assertInterestIndexMatchesScoring(context);
+			}
+			if (i == 5000) {
+				scaling.setDecay(0.1f);
+			} else if (i == 10000) {
+				scaling.set(InteractionEvent.Kind.EDIT, 2f);
+			} else if (i == 15000) {
+				List<IInteractionElement> elements = context.getAllElements();
+				context.delete(elements.subList(0, elements.size() / 4));
+			}
+		}
+		context.reset();
+		assertTrue(context.getInteresting().isEmpty());
+		assertTrue(context.getMostInteresting(10).isEmpty());
+	}
+
+	public void testCompactContext() {
+		Random random = new Random(42);
+		InteractionContext context = new InteractionContext("full", new InteractionContextScaling());
+		InteractionContext compactContext = new InteractionContext("compact", new InteractionContextScaling());
+		compactContext.setMaxRetainedEvents(2);
+		assertTrue(compactContext.isCompact());
+		for (int i = 0; i < 1000; i++) {
+			InteractionEvent event = new InteractionEvent(random.nextBoolean() ? InteractionEvent.Kind.SELECTION
+					: InteractionEvent.Kind.EDIT, "kind", Integer.toString(random.nextInt(20)), "origin");
+			context.parseEvent(event);
+			compactContext.parseEvent(event);
+		}
+		assertEquals(1000, context.getInteractionHistory().size());
+		assertEquals(context.getUserEventCount(), compactContext.getUserEventCount());
+		for (IInteractionElement element : context.getAllElements()) {
+			IInteractionElement compactElement = compactContext.get(element.getHandleIdentifier());
+			assertEquals(element.getInterest().getValue(), compactElement.getInterest().getValue());
+			assertTrue(compactElement.getInterest().getEvents().size() <= 2);
+		}
+		// the history of a compact context is collapsed to one event per element and kind
+		assertTrue(compactContext.getInteractionHistory().size() <= 40);
+
+		// existing contexts are migrated by collapsing their history
+		context.setMaxRetainedEvents(0);
+		assertEquals(compactContext.getInteractionHistory().size(), context.getInteractionHistory().size());
+		for (IInteractionElement element : context.getAllElements()) {
+			assertEquals(compactContext.get(element.getHandleIdentifier()).getInterest().getValue(),
+					element.getInterest().getValue());
+			assertFalse(element.getInterest().getEvents().isEmpty());
+		}
+
+		InteractionContext loadedContext = new InteractionContext("loaded", new InteractionContextScaling());
+		for (InteractionEvent event : compactContext.getInteractionHistory()) {
+			loadedContext.parseEvent(event);
+		}
+		for (IInteractionElement element : compactContext.getAllElements()) {
+			assertEquals(element.getInterest().getValue(),
+					loadedContext.get(element.getHandleIdentifier()).getInterest().getValue(), 0.01f);
+		}
+	}
+
+	private void assertInterestIndexMatchesScoring(InteractionContext context) {
+		Set<IInteractionElement> interesting = new HashSet<>();
+		Set<IInteractionElement> landmarks = new HashSet<>();
+		List<Float> values = new ArrayList<>();
+		for (IInteractionElement element : context.getAllElements()) {
+			if (element.getInterest().isInteresting()) {
+				interesting.add(element);
+			}
+			if (element.getInterest().isLandmark()) {
+				landmarks.add(element);
+			}
+			values.add(element.getInterest().getValue());
+		}
+		assertEquals(interesting, new HashSet<>(context.getInteresting()));
+		assertEquals(interesting.size(), context.getInteresting().size());
+		assertEquals(landmarks, new HashSet<>(context.getLandmarks()));
+
+		Collections.sort(values, Comparator.reverseOrder());
+		List<Float> mostInteresting = new ArrayList<>();
+		for (IInteractionElement element : context.getMostInteresting(25)) {
+			mostInteresting.add(element.getInterest().getValue());
+		}
+		assertEquals(values.subList(0, Math.min(25, values.size())), mostInteresting);
+	}
+
 }
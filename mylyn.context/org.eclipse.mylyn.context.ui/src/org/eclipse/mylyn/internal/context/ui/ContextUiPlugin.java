@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.ui;
@@ -34,6 +35,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
@@ -47,6 +49,8 @@ import org.eclipse.mylyn.context.core.IInteractionElement;
 import org.eclipse.mylyn.context.core.IInteractionRelation;
 import org.eclipse.mylyn.context.ui.AbstractContextUiBridge;
 import org.eclipse.mylyn.context.ui.IContextUiStartup;
+import org.eclipse.mylyn.internal.context.core.ContextCorePlugin;
+import org.eclipse.mylyn.internal.context.core.InteractionContextManager;
 import org.eclipse.mylyn.internal.context.ui.state.ContextStateManager;
 import org.eclipse.mylyn.internal.context.ui.state.EditorStateParticipant;
 import org.eclipse.mylyn.internal.context.ui.state.PerspectiveStateParticipant;
@@ -90,6 +94,17 @@ public class ContextUiPlugin extends AbstractUIPlugin {
 
 	private final ContextActivationListener contextActivationListener = new ContextActivationListener();
 
+	/**
+	 * the minimum time between notifications of the changes of queued interaction events in milliseconds
+	 */
+	private static final long QUEUED_EVENT_NOTIFICATION_INTERVAL = 100;
+
+	private final IPropertyChangeListener preferenceListener = event -> {
+		if (IContextUiPreferenceContstants.QUEUED_EVENT_PROCESSING.equals(event.getProperty())) {
+			updateQueuedEventProcessing();
+		}
+	};
+
 	private final Map<String, AbstractContextUiBridge> bridges = new HashMap<>();
 
 	private final Map<String, ILabelProvider> contextLabelProviders = new HashMap<>();
@@ -212,6 +227,9 @@ public class ContextUiPlugin extends AbstractUIPlugin {
 
 		editorManager = new ContextEditorManager();
 
+		updateQueuedEventProcessing();
+		getPreferenceStore().addPropertyChangeListener(preferenceListener);
+
 		ContextCore.getContextManager().addListener(contextActivationListener);
 		if (ContextCore.getContextManager().isContextActive()) {
 			initLazyStart();
@@ -291,11 +309,29 @@ public class ContextUiPlugin extends AbstractUIPlugin {
 			lazyStop();
 		}
 		ContextCore.getContextManager().removeListener(contextActivationListener);
+		getPreferenceStore().removePropertyChangeListener(preferenceListener);
+		ContextCorePlugin.getContextManager().disableQueuedProcessing();
 
 		super.stop(context);
 		viewerManager.dispose();
 	}
 
+	/**
+	 * Listeners of context changes update viewers and therefore expect to be notified on the UI thread.
+	 */
+	private void updateQueuedEventProcessing() {
+		InteractionContextManager contextManager = ContextCorePlugin.getContextManager();
+		if (getPreferenceStore().getBoolean(IContextUiPreferenceContstants.QUEUED_EVENT_PROCESSING)) {
+			if (!contextManager.isQueuedProcessing()) {
+				Display display = PlatformUI.getWorkbench().getDisplay();
+				contextManager.enableQueuedProcessing(command -> display.asyncExec(command),
+						QUEUED_EVENT_NOTIFICATION_INTERVAL);
+			}
+		} else {
+			contextManager.disableQueuedProcessing();
+		}
+	}
+
 	private void initDefaultPrefs(IPreferenceStore store) {
 		store.setDefault(IContextUiPreferenceContstants.AUTO_FOCUS_NAVIGATORS, true);
 		store.setDefault(IContextUiPreferenceContstants.AUTO_MANAGE_PERSPECTIVES, false);
@@ -303,6 +339,7 @@ public class ContextUiPlugin extends AbstractUIPlugin {
 		store.setDefault(IContextUiPreferenceContstants.AUTO_MANAGE_EXPANSION, true);
 		store.setDefault(IContextUiPreferenceContstants.AUTO_MANAGE_EDITOR_CLOSE, false);
 		store.setDefault(IContextUiPreferenceContstants.AUTO_MANAGE_EDITOR_CLOSE_WARNING, true);
+		store.setDefault(IContextUiPreferenceContstants.QUEUED_EVENT_PROCESSING, false);
 	}
 
 	/**
@@ -8,6 +8,7 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.context.ui;
@@ -31,4 +32,9 @@ public interface IContextUiPreferenceContstants {
 
 	String PERSPECTIVE_NO_ACTIVE_TASK = "org.eclipse.mylyn.ui.perspectives.task.none"; //$NON-NLS-1$
 
+	/**
+	 * Applies interaction events in the background and notifies context listeners on the UI thread.
+	 */
+	String QUEUED_EVENT_PROCESSING = "org.eclipse.mylyn.context.ui.events.queued"; //$NON-NLS-1$
+
 }
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TaskListConcurrencyTest {
+
+	private static final int REPOSITORY_COUNT = 8;
+
+	private static final int TASKS_PER_REPOSITORY = 5000;
+
+	private static final int SYNCHRONIZATION_ROUNDS = 20;
+
+	private TaskList taskList;
+
+	private ExecutorService executor;
+
+	private final List<RepositoryQuery> queries = new ArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		taskList = new TaskList();
+		executor = Executors.newCachedThreadPool();
+		for (int i = 0; i < REPOSITORY_COUNT; i++) {
+			String repositoryUrl = getRepositoryUrl(i);
+			taskList.addUnmatchedContainer(new UnmatchedTaskContainer("kind", repositoryUrl));
+			RepositoryQuery query = new RepositoryQuery("kind", "query-" + i);
+			query.setRepositoryUrl(repositoryUrl);
+			taskList.addQuery(query);
+			queries.add(query);
+			for (int j = 0; j < TASKS_PER_REPOSITORY; j++) {
+				taskList.addTask(new TaskTask("kind", repositoryUrl, Integer.toString(j)), query);
+			}
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void concurrentQuerySynchronization() throws Exception {
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger reads = new AtomicInteger();
+		List<Future<?>> synchronizations = new ArrayList<>();
+		for (int i = 0; i < REPOSITORY_COUNT; i++) {
+			int repository = i;
+			synchronizations.add(executor.submit(() -> synchronizeQuery(repository)));
+		}
+		List<Future<?>> readers = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			readers.add(executor.submit(() -> {
+				Random random = new Random();
+				while (!done.get()) {
+					assertEquals(REPOSITORY_COUNT, taskList.getQueries().size());
+					for (AbstractTask task : taskList.getAllTasks()) {
+						assertNotNull(task.getRepositoryUrl());
+					}
+					String repositoryUrl = getRepositoryUrl(random.nextInt(REPOSITORY_COUNT));
+					taskList.getTask(repositoryUrl, Integer.toString(random.nextInt(TASKS_PER_REPOSITORY)));
+					reads.incrementAndGet();
+				}
+			}));
+		}
+		// concurrently modify the categories which locks the whole task list
+		Future<?> categories = executor.submit(() -> {
+			for (int i = 0; i < SYNCHRONIZATION_ROUNDS; i++) {
+				TaskCategory category = new TaskCategory("category-" + i);
+				taskList.addCategory(category);
+				taskList.addTask(taskList.getTask(getRepositoryUrl(0), Integer.toString(i)), category);
+				taskList.deleteCategory(category);
+			}
+		});
+
+		for (Future<?> future : synchronizations) {
+			future.get(120, TimeUnit.SECONDS);
+		}
+		categories.get(120, TimeUnit.SECONDS);
+		done.set(true);
+		for (Future<?> future : readers) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+
+		assertTrue(reads.get() > 0);
+		assertEquals(REPOSITORY_COUNT * TASKS_PER_REPOSITORY, taskList.getAllTasks().size());
+		for (int i = 0; i < REPOSITORY_COUNT; i++) {
+			RepositoryQuery query = queries.get(i);
+			AbstractTaskContainer unmatched = taskList.getUnmatchedContainer(getRepositoryUrl(i));
+			assertEquals(TASKS_PER_REPOSITORY, query.getChildren().size() + unmatched.getChildren().size());
+			assertConsistent(query);
+			assertConsistent(unmatched);
+		}
+	}
+
+	/**
+	 * Simulates repeated synchronizations of a query that remove a random subset of hits and add them back.
+	 */
+	private void synchronizeQuery(int repository) {
+		String repositoryUrl = getRepositoryUrl(repository);
+		RepositoryQuery query = queries.get(repository);
+		Random random = new Random(repository);
+		for (int round = 0; round < SYNCHRONIZATION_ROUNDS; round++) {
+			Set<ITask> removed = new HashSet<>();
+			for (ITask task : query.getChildren()) {
+				if (random.nextInt(10) == 0) {
+					removed.add(task);
+				}
+			}
+			taskList.removeFromContainer(query, removed);
+			for (int i = 0; i < TASKS_PER_REPOSITORY; i++) {
+				if (random.nextBoolean()) {
+					taskList.addTask(new TaskTask("kind", repositoryUrl, Integer.toString(i)), query);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void readersDoNotBlockOnWriter() throws Exception {
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> writer = executor.submit(() -> {
+			taskList.run(monitor -> {
+				locked.countDown();
+				await(release);
+			});
+			return null;
+		});
+		assertTrue(locked.await(10, TimeUnit.SECONDS));
+		try {
+			Future<?> reader = executor.submit(() -> {
+				assertEquals(REPOSITORY_COUNT * TASKS_PER_REPOSITORY, taskList.getAllTasks().size());
+				assertNotNull(taskList.getTask(getRepositoryUrl(0), "0"));
+				assertEquals(REPOSITORY_COUNT, taskList.getQueries().size());
+			});
+			reader.get(10, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+		}
+		writer.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void repositoriesAreLockedIndependently() throws Exception {
+		String repositoryUrl = getRepositoryUrl(0);
+		String otherRepositoryUrl = getRepositoryUrl(1);
+		assertFalse("test requires repositories on different stripes",
+				TaskListLock.getStripeIndex(repositoryUrl) == TaskListLock.getStripeIndex(otherRepositoryUrl));
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> writer = executor.submit(() -> {
+			taskList.run(taskList.getTask(repositoryUrl, "0"), monitor -> {
+				locked.countDown();
+				await(release);
+			}, null);
+			return null;
+		});
+		assertTrue(locked.await(10, TimeUnit.SECONDS));
+		try {
+			Future<?> otherWriter = executor.submit(() -> taskList
+					.addTask(new TaskTask("kind", otherRepositoryUrl, "new"), queries.get(1)));
+			otherWriter.get(10, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+		}
+		writer.get(10, TimeUnit.SECONDS);
+		assertNotNull(taskList.getTask(otherRepositoryUrl, "new"));
+	}
+
+	@Test
+	public void deltasAreFiredPerThread() throws Exception {
+		List<Set<TaskContainerDelta>> deltas = new ArrayList<>();
+		taskList.addChangeListener(containers -> {
+			synchronized (deltas) {
+				deltas.add(containers);
+			}
+		});
+		taskList.run(taskList.getTask(getRepositoryUrl(0), "0"), monitor -> {
+			taskList.addTask(new TaskTask("kind", getRepositoryUrl(0), "new"), queries.get(0));
+			synchronized (deltas) {
+				assertTrue(deltas.isEmpty());
+			}
+		}, null);
+
+		assertEquals(1, deltas.size());
+		assertFalse(deltas.get(0).isEmpty());
+	}
+
+	@Test
+	public void upgradeFromRepositoryLockFails() throws Exception {
+		String repositoryUrl = IntStream.range(0, REPOSITORY_COUNT)
+				.mapToObj(TaskListConcurrencyTest::getRepositoryUrl)
+				.filter(url -> TaskListLock.getStripeIndex(url) > 0)
+				.findFirst()
+				.get();
+		TaskCategory category = new TaskCategory("category");
+		try {
+			taskList.run(taskList.getTask(repositoryUrl, "0"), monitor -> {
+				taskList.addCategory(category);
+			}, null);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertNull(taskList.getContainerForHandle(category.getHandleIdentifier()));
+
+		// lock must have been released
+		Future<?> writer = executor.submit(() -> taskList.addCategory(category));
+		writer.get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void nestedLockForRepositoryOrderedAfterHeldLock() throws Exception {
+		String repositoryUrl = getRepositoryUrl(0);
+		String otherRepositoryUrl = IntStream.range(1, REPOSITORY_COUNT)
+				.mapToObj(TaskListConcurrencyTest::getRepositoryUrl)
+				.filter(url -> TaskListLock.getStripeIndex(url) > TaskListLock.getStripeIndex(repositoryUrl))
+				.findFirst()
+				.get();
+		taskList.run(taskList.getTask(repositoryUrl, "0"), monitor -> {
+			taskList.addTask(new TaskTask("kind", repositoryUrl, "new"), queries.get(0));
+			taskList.addTask(new TaskTask("kind", otherRepositoryUrl, "new"));
+		}, null);
+
+		assertNotNull(taskList.getTask(repositoryUrl, "new"));
+		assertNotNull(taskList.getTask(otherRepositoryUrl, "new"));
+	}
+
+	/**
+	 * Simulates participants of incoming task data, e.g. a connector that updates the task, which lock the whole task
+	 * list up front since they modify other parts of the task list, while queries are synchronized concurrently.
+	 */
+	@Test
+	public void nestedModificationsFromParticipant() throws Exception {
+		String repositoryUrl = getRepositoryUrl(0);
+		String otherRepositoryUrl = getRepositoryUrl(1);
+		List<Future<?>> participants = new ArrayList<>();
+		for (int i = 2; i < REPOSITORY_COUNT; i++) {
+			int repository = i;
+			participants.add(executor.submit(() -> synchronizeQuery(repository)));
+		}
+		for (int i = 0; i < 4; i++) {
+			int participant = i;
+			participants.add(executor.submit(() -> {
+				for (int round = 0; round < SYNCHRONIZATION_ROUNDS; round++) {
+					String taskId = participant + "-" + round;
+					taskList.run(monitor -> {
+						taskList.addTask(new TaskTask("kind", repositoryUrl, "new-" + taskId), queries.get(0));
+						taskList.addTask(new TaskTask("kind", otherRepositoryUrl, "other-" + taskId));
+						LocalTask localTask = new LocalTask("local-" + taskId, "summary");
+						taskList.addTask(localTask);
+						taskList.deleteTask(localTask);
+					});
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : participants) {
+			future.get(120, TimeUnit.SECONDS);
+		}
+
+		for (int i = 0; i < 4; i++) {
+			for (int round = 0; round < SYNCHRONIZATION_ROUNDS; round++) {
+				assertNotNull(taskList.getTask(repositoryUrl, "new-" + i + "-" + round));
+				assertNotNull(taskList.getTask(otherRepositoryUrl, "other-" + i + "-" + round));
+			}
+		}
+		assertConsistent(queries.get(0));
+		assertConsistent(taskList.getUnmatchedContainer(otherRepositoryUrl));
+	}
+
+	private void assertConsistent(AbstractTaskContainer container) {
+		Collection<ITask> children = container.getChildren();
+		assertEquals(children.size(), new HashSet<>(children).size());
+		for (ITask task : children) {
+			assertTrue(((AbstractTask) task).getParentContainers().contains(container));
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String getRepositoryUrl(int index) {
+		return "http://repository" + index + ".example.com";
+	}
+
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class ArrayMapTest {
+
+	@Test
+	public void preservesInsertionOrder() {
+		ArrayMap<String, String> map = new ArrayMap<>();
+		map.put("c", "1");
+		map.put("a", "2");
+		map.put("b", "3");
+		map.put("a", "4");
+
+		assertEquals(List.of("c", "a", "b"), new ArrayList<>(map.keySet()));
+		assertEquals(List.of("1", "4", "3"), new ArrayList<>(map.values()));
+		assertEquals("{c=1, a=4, b=3}", map.toString());
+	}
+
+	@Test
+	public void behavesLikeLinkedHashMap() {
+		Random random = new Random(1);
+		ArrayMap<String, Integer> map = new ArrayMap<>();
+		Map<String, Integer> expected = new LinkedHashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			String key = Integer.toString(random.nextInt(40));
+			switch (random.nextInt(4)) {
+			case 0 -> assertEquals(expected.remove(key), map.remove(key));
+			case 1 -> assertEquals(expected.get(key), map.get(key));
+			default -> assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		assertEquals(expected, map);
+		assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+		assertEquals(expected.hashCode(), map.hashCode());
+	}
+
+	@Test
+	public void lookupAboveIndexThreshold() {
+		ArrayMap<String, Integer> map = new ArrayMap<>();
+		for (int i = 0; i < 100; i++) {
+			map.put("key" + i, i);
+		}
+		map.remove("key50");
+		map.put("key100", 100);
+
+		assertNull(map.get("key50"));
+		assertFalse(map.containsKey("key50"));
+		for (int i = 0; i < 100; i++) {
+			if (i != 50) {
+				assertEquals(Integer.valueOf(i), map.get("key" + i));
+			}
+		}
+		assertEquals(Integer.valueOf(100), map.get("key100"));
+		assertNull(map.get(null));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void sharedMapIsImmutable() {
+		ArrayMap<String, String> map = new ArrayMap<>();
+		map.put("a", "1");
+		map.share();
+
+		assertTrue(map.isShared());
+		map.put("b", "2");
+	}
+
+	@Test
+	public void copyIsModifiable() {
+		ArrayMap<String, String> map = new ArrayMap<>();
+		map.put("a", "1");
+		map.share();
+
+		ArrayMap<String, String> copy = map.copy();
+		copy.put("b", "2");
+
+		assertFalse(copy.isShared());
+		assertEquals(Map.of("a", "1"), map);
+		assertEquals(Map.of("a", "1", "b", "2"), copy);
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void iteratorFailsOnModification() {
+		ArrayMap<String, String> map = new ArrayMap<>();
+		map.put("a", "1");
+		map.put("b", "2");
+		Iterator<Entry<String, String>> it = map.entrySet().iterator();
+		it.next();
+		map.put("c", "3");
+		it.next();
+	}
+
+	@Test
+	public void intern() {
+		ArrayMap<String, String> map = createMap("a", "b");
+		ArrayMap<String, String> equalMap = createMap("a", "b");
+		ArrayMap<String, String> reorderedMap = createMap("b", "a");
+
+		ArrayMap<String, String> interned = ArrayMap.intern(map);
+
+		assertSame(map, interned);
+		assertTrue(interned.isShared());
+		assertSame(interned, ArrayMap.intern(equalMap));
+		assertSame(interned, ArrayMap.intern(interned));
+		// order is significant for options
+		assertNotSame(interned, ArrayMap.intern(reorderedMap));
+	}
+
+	private static ArrayMap<String, String> createMap(String... keys) {
+		ArrayMap<String, String> map = new ArrayMap<>();
+		for (String key : keys) {
+			map.put(key, key.toUpperCase());
+		}
+		return map;
+	}
+
+}
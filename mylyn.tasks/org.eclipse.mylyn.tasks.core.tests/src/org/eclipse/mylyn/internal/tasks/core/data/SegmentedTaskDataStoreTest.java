@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.SAXException;
+
+@SuppressWarnings("nls")
+public class SegmentedTaskDataStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dataPath;
+
+	private SegmentedTaskDataStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		dataPath = folder.newFolder("data");
+		store = newStore();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		store.close();
+	}
+
+	@Test
+	public void putAndGet() throws Exception {
+		File file = taskFile("1");
+		store.putTaskData(file, new TaskDataState("kind", "url", "1"));
+
+		assertTrue(store.hasTaskData(file));
+		assertFalse(file.exists());
+		assertEquals("1", store.getTaskDataState(file).getTaskId());
+	}
+
+	@Test
+	public void getMissing() throws Exception {
+		File file = taskFile("1");
+
+		assertFalse(store.hasTaskData(file));
+		assertNull(store.getTaskDataState(file));
+	}
+
+	@Test
+	public void reopen() throws Exception {
+		store.putTaskData(taskFile("1"), new TaskDataState("kind", "url", "1"));
+		store.putTaskData(taskFile("2"), new TaskDataState("kind", "url", "2"));
+		store.putTaskData(taskFile("1"), new TaskDataState("kind", "url", "1-updated"));
+		store.deleteTaskData(taskFile("2"));
+		store.close();
+
+		store = newStore();
+
+		assertEquals("1-updated", store.getTaskDataState(taskFile("1")).getTaskId());
+		assertFalse(store.hasTaskData(taskFile("2")));
+		assertNull(store.getTaskDataState(taskFile("2")));
+	}
+
+	@Test
+	public void reopenDataPathMoved() throws Exception {
+		store.putTaskData(taskFile("1"), new TaskDataState("kind", "url", "1"));
+		store.close();
+		File newDataPath = new File(folder.getRoot(), "moved");
+		assertTrue(dataPath.renameTo(newDataPath));
+		dataPath = newDataPath;
+
+		store = newStore();
+
+		assertEquals("1", store.getTaskDataState(taskFile("1")).getTaskId());
+	}
+
+	@Test
+	public void migrateZipFile() throws Exception {
+		File file = taskFile("1");
+		writeZipFile(file, "kind\nurl\n1");
+
+		assertTrue(store.hasTaskData(file));
+		assertEquals("1", store.getTaskDataState(file).getTaskId());
+		assertFalse(file.exists());
+		assertTrue(store.hasTaskData(file));
+
+		store.close();
+		store = newStore();
+		assertEquals("1", store.getTaskDataState(file).getTaskId());
+	}
+
+	@Test
+	public void restoreZipFilesWhenDisabled() throws Exception {
+		File file = taskFile("1");
+		writeZipFile(file, "kind\nurl\n1");
+		assertEquals("1", store.getTaskDataState(file).getTaskId());
+		store.putTaskData(taskFile("2"), new TaskDataState("kind", "url", "2"));
+		store.putTaskData(taskFile("3"), new TaskDataState("kind", "url", "3"));
+		store.deleteTaskData(taskFile("3"));
+		store.close();
+		assertFalse(file.exists());
+
+		TaskDataStore zipStore = new TaskDataStore(newExternalizer());
+		zipStore.setDataPath(dataPath.getAbsolutePath());
+
+		assertTrue(file.exists());
+		assertEquals("1", zipStore.getTaskDataState(file).getTaskId());
+		assertEquals("2", zipStore.getTaskDataState(taskFile("2")).getTaskId());
+		assertFalse(zipStore.hasTaskData(taskFile("3")));
+		assertFalse(new File(dataPath, "tasks/" + SegmentedTaskDataStore.FOLDER_SEGMENTS).exists());
+
+		store = newStore();
+		assertEquals("2", store.getTaskDataState(taskFile("2")).getTaskId());
+	}
+
+	@Test
+	public void deleteZipFile() throws Exception {
+		File file = taskFile("1");
+		writeZipFile(file, "kind\nurl\n1");
+
+		assertTrue(store.deleteTaskData(file));
+		assertFalse(store.hasTaskData(file));
+	}
+
+	@Test
+	public void rollOverAndCompact() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			for (int j = 0; j < 10; j++) {
+				store.putTaskData(taskFile(Integer.toString(j)), new TaskDataState("kind", "url", j + "-" + i));
+			}
+		}
+		store.deleteTaskData(taskFile("9"));
+		int segmentCount = segmentFiles().length;
+		assertTrue(segmentCount > 100);
+
+		store.compact();
+
+		assertTrue(segmentFiles().length < 10);
+		for (int j = 0; j < 9; j++) {
+			assertEquals(j + "-49", store.getTaskDataState(taskFile(Integer.toString(j))).getTaskId());
+		}
+		assertNull(store.getTaskDataState(taskFile("9")));
+
+		store.close();
+		store = newStore();
+		for (int j = 0; j < 9; j++) {
+			assertEquals(j + "-49", store.getTaskDataState(taskFile(Integer.toString(j))).getTaskId());
+		}
+		assertNull(store.getTaskDataState(taskFile("9")));
+	}
+
+	@Test
+	public void truncatedRecordIsDiscarded() throws Exception {
+		store.putTaskData(taskFile("1"), new TaskDataState("kind", "url", "1"));
+		store.close();
+		File segment = segmentFiles()[0];
+		try (OutputStream out = new FileOutputStream(segment, true)) {
+			out.write(new byte[] { 0x4D, 0x54, 0x44 });
+		}
+
+		store = newStore();
+		assertEquals("1", store.getTaskDataState(taskFile("1")).getTaskId());
+		store.putTaskData(taskFile("2"), new TaskDataState("kind", "url", "2"));
+		store.close();
+
+		store = newStore();
+		assertNotNull(store.getTaskDataState(taskFile("1")));
+		assertEquals("2", store.getTaskDataState(taskFile("2")).getTaskId());
+	}
+
+	private SegmentedTaskDataStore newStore() {
+		SegmentedTaskDataStore store = new SegmentedTaskDataStore(newExternalizer(), 256, 0.5);
+		store.setDataPath(dataPath.getAbsolutePath());
+		return store;
+	}
+
+	private TaskDataExternalizer newExternalizer() {
+		// states without task data do not require a repository manager to decode
+		return new TaskDataExternalizer(null) {
+			@Override
+			public TaskDataState readState(InputStream in) throws IOException, SAXException {
+				String[] values = new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8).split("\n");
+				return new TaskDataState(values[0], values[1], values[2]);
+			}
+
+			@Override
+			public void writeState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
+				String value = state.getConnectorKind() + "\n" + state.getRepositoryUrl() + "\n" + state.getTaskId();
+				out.write(value.getBytes(StandardCharsets.UTF_8));
+			}
+		};
+	}
+
+	private File taskFile(String taskId) {
+		return new File(dataPath, "tasks/kind-url/offline/" + taskId + ".zip");
+	}
+
+	private File[] segmentFiles() {
+		return new File(dataPath, "tasks/" + SegmentedTaskDataStore.FOLDER_SEGMENTS).listFiles();
+	}
+
+	private void writeZipFile(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			out.putNextEntry(new ZipEntry("data.xml"));
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+		}
+	}
+
+}
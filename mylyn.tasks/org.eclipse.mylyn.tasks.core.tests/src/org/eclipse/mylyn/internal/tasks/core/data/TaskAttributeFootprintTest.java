@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the heap retained by task data that is loaded from the task data store against the same task data created
+ * in memory, and verifies that options and meta-data that are shared between tasks are copied on write. The task data
+ * mimics the shape of Bugzilla and GitLab tasks: Bugzilla tasks have large option lists for products, components and
+ * versions and many comments, GitLab tasks have labels and notes with nested attributes.
+ */
+@SuppressWarnings("nls")
+public class TaskAttributeFootprintTest {
+
+	private static final String CONNECTOR_KIND = "connector.kind";
+
+	private static final String REPOSITORY_URL = "http://example.com";
+
+	private static final int TASK_COUNT = 100;
+
+	private TaskDataExternalizer externalizer;
+
+	private TaskRepository repository;
+
+	@Before
+	public void setUp() {
+		repository = new TaskRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		IRepositoryManager repositoryManager = mock(IRepositoryManager.class);
+		doReturn(mock(AbstractRepositoryConnector.class)).when(repositoryManager)
+				.getRepositoryConnector(CONNECTOR_KIND);
+		doReturn(repository).when(repositoryManager).getRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		externalizer = new TaskDataExternalizer(repositoryManager);
+	}
+
+	@Test
+	public void bugzillaFootprint() throws Exception {
+		List<TaskDataState> loaded = load(this::createBugzillaTaskData);
+		assertRetainedSizeIsReduced(loaded, this::createBugzillaTaskData);
+		assertOptionsAreCopiedOnWrite(loaded, TaskAttribute.COMPONENT);
+	}
+
+	@Test
+	public void gitLabFootprint() throws Exception {
+		List<TaskDataState> loaded = load(this::createGitLabTaskData);
+		assertRetainedSizeIsReduced(loaded, this::createGitLabTaskData);
+		assertOptionsAreCopiedOnWrite(loaded, "labels");
+	}
+
+	private interface TaskDataFactory {
+
+		TaskData create(int id);
+
+	}
+
+	private List<TaskDataState> load(TaskDataFactory factory) throws Exception {
+		List<byte[]> states = new ArrayList<>(TASK_COUNT);
+		for (int i = 0; i < TASK_COUNT; i++) {
+			TaskDataState state = new TaskDataState(CONNECTOR_KIND, REPOSITORY_URL, Integer.toString(i));
+			state.setRepositoryData(factory.create(i));
+			state.setLastReadData(TaskDataState.createCopy(state.getRepositoryData()));
+			states.add(writeBinary(state));
+		}
+
+		List<TaskDataState> loaded = new ArrayList<>(TASK_COUNT);
+		for (byte[] state : states) {
+			loaded.add(readBinary(state));
+		}
+
+		for (int i = 0; i < TASK_COUNT; i++) {
+			TaskData expected = factory.create(i);
+			assertEquals(expected.getRoot().toString(), loaded.get(i).getRepositoryData().getRoot().toString());
+			assertEquals(expected.getRoot().toString(), loaded.get(i).getLastReadData().getRoot().toString());
+		}
+		return loaded;
+	}
+
+	/**
+	 * Compares the retained size of the loaded task data with task data that is created attribute by attribute and
+	 * does not share options or meta-data.
+	 */
+	private void assertRetainedSizeIsReduced(List<TaskDataState> loaded, TaskDataFactory factory) throws Exception {
+		List<TaskData> loadedData = new ArrayList<>(TASK_COUNT * 2);
+		List<TaskData> createdData = new ArrayList<>(TASK_COUNT * 2);
+		for (int i = 0; i < TASK_COUNT; i++) {
+			loadedData.add(loaded.get(i).getRepositoryData());
+			loadedData.add(loaded.get(i).getLastReadData());
+			createdData.add(factory.create(i));
+			createdData.add(factory.create(i));
+		}
+
+		long loadedSize = RetainedSize.of(loadedData);
+		long createdSize = RetainedSize.of(createdData);
+		assertTrue("expected task data that shares options and meta-data (" + loadedSize / TASK_COUNT
+				+ " bytes per task) to retain less than 3/4 of unshared task data (" + createdSize / TASK_COUNT
+				+ " bytes per task)", loadedSize < createdSize * 3 / 4);
+	}
+
+	private void assertOptionsAreCopiedOnWrite(List<TaskDataState> loaded, String attributeId) {
+		TaskAttribute attribute = loaded.get(0).getRepositoryData().getRoot().getAttribute(attributeId);
+		TaskAttribute other = loaded.get(1).getRepositoryData().getRoot().getAttribute(attributeId);
+		TaskAttribute lastRead = loaded.get(0).getLastReadData().getRoot().getAttribute(attributeId);
+		assertEquals(attribute.getOptions(), other.getOptions());
+
+		attribute.putOption("new", "new");
+		assertEquals("new", attribute.getOption("new"));
+		assertNull(other.getOption("new"));
+		assertNull(lastRead.getOption("new"));
+		assertEquals(other.getOptions().size() + 1, attribute.getOptions().size());
+	}
+
+	private TaskData createBugzillaTaskData(int id) {
+		TaskData data = createTaskData(id);
+		TaskAttribute root = data.getRoot();
+		createAttribute(root, TaskAttribute.SUMMARY, TaskAttribute.TYPE_SHORT_RICH_TEXT, "Summary " + id);
+		createSelect(root, TaskAttribute.PRODUCT, "Product " + (id % 5), "Product ", 50);
+		createSelect(root, TaskAttribute.COMPONENT, "Component " + (id % 20), "Component ", 200);
+		createSelect(root, "version", "1." + (id % 10), "1.", 100);
+		createSelect(root, TaskAttribute.STATUS, "NEW", "", 0, "NEW", "ASSIGNED", "RESOLVED", "VERIFIED", "CLOSED");
+		createSelect(root, TaskAttribute.PRIORITY, "P3", "", 0, "P1", "P2", "P3", "P4", "P5");
+		createSelect(root, TaskAttribute.SEVERITY, "normal", "", 0, "blocker", "critical", "major", "normal",
+				"minor", "trivial", "enhancement");
+		TaskAttribute keywords = createAttribute(root, TaskAttribute.KEYWORDS, TaskAttribute.TYPE_MULTI_SELECT, null);
+		keywords.addValue("performance");
+		keywords.addValue("api");
+		TaskAttribute cc = createAttribute(root, TaskAttribute.USER_CC, TaskAttribute.TYPE_MULTI_SELECT, null);
+		for (int i = 0; i < 10; i++) {
+			cc.addValue("user" + i + "@example.com");
+		}
+		for (int i = 0; i < 200; i++) {
+			createComment(root, i);
+		}
+		return data;
+	}
+
+	private TaskData createGitLabTaskData(int id) {
+		TaskData data = createTaskData(id);
+		TaskAttribute root = data.getRoot();
+		createAttribute(root, TaskAttribute.SUMMARY, TaskAttribute.TYPE_SHORT_RICH_TEXT, "Title " + id);
+		createAttribute(root, TaskAttribute.DESCRIPTION, TaskAttribute.TYPE_LONG_RICH_TEXT, "Description " + id);
+		createSelect(root, TaskAttribute.STATUS, "opened", "", 0, "opened", "closed");
+		createSelect(root, "milestone", "Milestone " + (id % 4), "Milestone ", 20);
+		TaskAttribute labels = createSelect(root, "labels", "label0", "label", 60);
+		labels.getMetaData().setType(TaskAttribute.TYPE_MULTI_SELECT);
+		labels.addValue("label" + (id % 60));
+		for (int i = 0; i < 50; i++) {
+			TaskAttribute note = createComment(root, i);
+			TaskAttribute discussion = note.createAttribute("discussion");
+			discussion.setValue(Integer.toHexString(i * 31));
+			discussion.getMetaData().setType(TaskAttribute.TYPE_SHORT_TEXT).setReadOnly(true);
+			createAttribute(note, "system", TaskAttribute.TYPE_BOOLEAN, Boolean.toString(i % 5 == 0));
+		}
+		return data;
+	}
+
+	private TaskData createTaskData(int id) {
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), CONNECTOR_KIND, REPOSITORY_URL,
+				Integer.toString(id));
+		data.setVersion("1.0");
+		return data;
+	}
+
+	private static TaskAttribute createAttribute(TaskAttribute parent, String id, String type, String value) {
+		TaskAttribute attribute = parent.createAttribute(id);
+		attribute.getMetaData().defaults().setType(type).setLabel(id + ":");
+		if (value != null) {
+			attribute.setValue(value);
+		}
+		return attribute;
+	}
+
+	private static TaskAttribute createSelect(TaskAttribute parent, String id, String value, String prefix, int count,
+			String... options) {
+		TaskAttribute attribute = createAttribute(parent, id, TaskAttribute.TYPE_SINGLE_SELECT, value);
+		for (int i = 0; i < count; i++) {
+			attribute.putOption(prefix + i, prefix + i);
+		}
+		for (String option : options) {
+			attribute.putOption(option, option);
+		}
+		return attribute;
+	}
+
+	private static TaskAttribute createComment(TaskAttribute root, int i) {
+		TaskAttribute comment = root.createAttribute(TaskAttribute.PREFIX_COMMENT + i);
+		comment.getMetaData().defaults().setType(TaskAttribute.TYPE_COMMENT);
+		comment.setValue(Integer.toString(i));
+		createAttribute(comment, TaskAttribute.COMMENT_AUTHOR, TaskAttribute.TYPE_PERSON,
+				"user" + (i % 7) + "@example.com");
+		createAttribute(comment, TaskAttribute.COMMENT_DATE, TaskAttribute.TYPE_DATETIME,
+				Long.toString(1700000000000L + i * 60000L));
+		createAttribute(comment, TaskAttribute.COMMENT_TEXT, TaskAttribute.TYPE_LONG_RICH_TEXT,
+				"Comment " + i + ": Lorem ipsum dolor sit amet, consectetur adipiscing elit.");
+		return comment;
+	}
+
+	private byte[] writeBinary(TaskDataState state) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		return out.toByteArray();
+	}
+
+	private TaskDataState readBinary(byte[] bytes) throws IOException {
+		return externalizer.readBinaryState(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Estimates the heap retained by attribute trees for a 64-bit VM with compressed references and compact strings.
+	 * Objects that are reachable from several trees, e.g. shared options or strings, are counted once. The task data
+	 * and attribute mapper that all attributes of a tree reference are not counted.
+	 */
+	private static class RetainedSize {
+
+		private static final int OBJECT_HEADER = 12;
+
+		private static final int ARRAY_HEADER = 16;
+
+		private static final int REFERENCE = 4;
+
+		private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private final Deque<Object> pending = new ArrayDeque<>();
+
+		private final Map<Class<?>, List<Field>> fieldsByClass = new IdentityHashMap<>();
+
+		private long size;
+
+		static long of(List<TaskData> data) throws IllegalAccessException {
+			RetainedSize retainedSize = new RetainedSize();
+			for (TaskData taskData : data) {
+				retainedSize.add(taskData.getRoot());
+			}
+			return retainedSize.size;
+		}
+
+		private void add(Object root) throws IllegalAccessException {
+			visit(root);
+			while (!pending.isEmpty()) {
+				Object object = pending.pop();
+				if (object instanceof String string) {
+					// fields value, hash, coder and hashIsZero
+					size += align(OBJECT_HEADER + REFERENCE + 4 + 1 + 1) + align(ARRAY_HEADER + string.length());
+				} else if (object instanceof Object[] array) {
+					size += align(ARRAY_HEADER + REFERENCE * array.length);
+					for (Object element : array) {
+						visit(element);
+					}
+				} else if (object.getClass().isArray()) {
+					size += align(ARRAY_HEADER + Array.getLength(object) * 8);
+				} else if (object instanceof Integer) {
+					size += align(OBJECT_HEADER + 4);
+				} else if (object instanceof Map<?, ?> map && !(object instanceof ArrayMap)) {
+					// the lookup index of large maps, a hash map with a table of twice the size
+					size += align(OBJECT_HEADER + 6 * REFERENCE) + align(ARRAY_HEADER + REFERENCE * 2 * map.size())
+							+ map.size() * align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+					for (Map.Entry<?, ?> entry : map.entrySet()) {
+						visit(entry.getKey());
+						visit(entry.getValue());
+					}
+				} else {
+					addObject(object);
+				}
+			}
+		}
+
+		private void addObject(Object object) throws IllegalAccessException {
+			long shallowSize = OBJECT_HEADER;
+			for (Field field : getFields(object.getClass())) {
+				Class<?> type = field.getType();
+				if (type == long.class || type == double.class) {
+					shallowSize += 8;
+				} else if (type == int.class || type == float.class) {
+					shallowSize += 4;
+				} else if (type == short.class || type == char.class) {
+					shallowSize += 2;
+				} else if (type == byte.class || type == boolean.class) {
+					shallowSize += 1;
+				} else {
+					shallowSize += REFERENCE;
+					if (isTraversed(object, field) && field.trySetAccessible()) {
+						visit(field.get(object));
+					}
+				}
+			}
+			size += align(shallowSize);
+		}
+
+		private boolean isTraversed(Object object, Field field) {
+			if (object instanceof TaskAttribute) {
+				// the parent is reached through the tree and the task data is shared by all attributes
+				return !field.getName().equals("parentAttribute") && !field.getName().equals("taskData");
+			}
+			return object instanceof ArrayMap || field.getDeclaringClass().getEnclosingClass() == ArrayMap.class;
+		}
+
+		private List<Field> getFields(Class<?> clazz) {
+			return fieldsByClass.computeIfAbsent(clazz, c -> {
+				List<Field> fields = new ArrayList<>();
+				for (Class<?> current = c; current != null; current = current.getSuperclass()) {
+					for (Field field : current.getDeclaredFields()) {
+						if (!Modifier.isStatic(field.getModifiers())) {
+							fields.add(field);
+						}
+					}
+				}
+				return fields;
+			});
+		}
+
+		private void visit(Object object) {
+			if (object != null && visited.add(object)) {
+				pending.push(object);
+			}
+		}
+
+		private static long align(long size) {
+			return (size + 7) & ~7;
+		}
+
+	}
+
+}
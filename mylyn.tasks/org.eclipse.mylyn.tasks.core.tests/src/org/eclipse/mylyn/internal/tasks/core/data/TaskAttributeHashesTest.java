@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TaskAttributeHashesTest {
+
+	private static final String CONNECTOR_KIND = "kind";
+
+	private static final String REPOSITORY_URL = "http://example.com";
+
+	private TaskRepository repository;
+
+	private RepositoryModel model;
+
+	@Before
+	public void setUp() {
+		repository = new TaskRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		TaskRepositoryManager repositoryManager = new TaskRepositoryManager();
+		repositoryManager.addRepository(repository);
+		TaskList taskList = new TaskList();
+		taskList.addTask(new TaskTask(CONNECTOR_KIND, REPOSITORY_URL, "1"));
+		model = new RepositoryModel(taskList, repositoryManager);
+	}
+
+	@Test
+	public void hashCoversSubtree() {
+		TaskData data = createTaskData(2);
+		TaskAttributeHashes hashes = TaskAttributeHashes.compute(data);
+
+		assertTrue(hashes.isUnchanged(TaskAttribute.SUMMARY, TaskAttributeHashes.compute(createTaskData(2))));
+
+		TaskData changed = createTaskData(2);
+		changed.getRoot()
+				.getAttribute(TaskAttribute.PREFIX_COMMENT + 1)
+				.getAttribute(TaskAttribute.COMMENT_TEXT)
+				.setValue("edited");
+		TaskAttributeHashes changedHashes = TaskAttributeHashes.compute(changed);
+		assertTrue(hashes.isUnchanged(TaskAttribute.PREFIX_COMMENT + 0, changedHashes));
+		assertFalse(hashes.isUnchanged(TaskAttribute.PREFIX_COMMENT + 1, changedHashes));
+
+		changed.getRoot().getAttribute(TaskAttribute.SUMMARY).getMetaData().setReadOnly(true);
+		assertFalse(hashes.isUnchanged(TaskAttribute.SUMMARY, TaskAttributeHashes.compute(changed)));
+	}
+
+	@Test
+	public void hashDistinguishesValueBoundaries() {
+		TaskData data = createTaskData(0);
+		TaskAttribute attribute = data.getRoot().createAttribute("custom");
+		attribute.setValues(List.of("ab", "c"));
+		TaskAttributeHashes hashes = TaskAttributeHashes.compute(data);
+
+		attribute.setValues(List.of("a", "bc"));
+
+		assertFalse(hashes.isUnchanged("custom", TaskAttributeHashes.compute(data)));
+	}
+
+	@Test
+	public void missingAttributeIsChanged() {
+		TaskAttributeHashes hashes = TaskAttributeHashes.compute(createTaskData(1));
+		TaskAttributeHashes otherHashes = TaskAttributeHashes.compute(createTaskData(0));
+
+		assertFalse(hashes.isUnchanged(TaskAttribute.PREFIX_COMMENT + 0, otherHashes));
+		assertFalse(otherHashes.isUnchanged(TaskAttribute.PREFIX_COMMENT + 0, hashes));
+	}
+
+	@Test
+	public void hashesAreStoredWithBinaryStateOnceComputed() throws Exception {
+		IRepositoryManager repositoryManager = mock(IRepositoryManager.class);
+		doReturn(mock(AbstractRepositoryConnector.class)).when(repositoryManager)
+				.getRepositoryConnector(CONNECTOR_KIND);
+		doReturn(repository).when(repositoryManager).getRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		TaskDataExternalizer externalizer = new TaskDataExternalizer(repositoryManager);
+		TaskDataState state = new TaskDataState(CONNECTOR_KIND, REPOSITORY_URL, "1");
+		state.setRepositoryData(createTaskData(3));
+		state.setLastReadData(createTaskData(2));
+
+		// writing does not compute hashes
+		TaskDataState result = writeAndRead(externalizer, state);
+		assertNull(state.getComputedRepositoryHashes());
+		assertNull(result.getComputedRepositoryHashes());
+		assertNull(result.getComputedLastReadHashes());
+
+		// hashes are computed when a diff is created
+		new TaskDataDiff(model, state.getRepositoryData(), state.getRepositoryHashes(), state.getLastReadData(),
+				state.getLastReadHashes());
+		result = writeAndRead(externalizer, state);
+
+		assertEquals(state.getRepositoryHashes().getHashes(), result.getComputedRepositoryHashes().getHashes());
+		assertEquals(state.getLastReadHashes().getHashes(), result.getComputedLastReadHashes().getHashes());
+	}
+
+	@Test
+	public void defaultParticipantSuppressesChangedAttributes() {
+		TaskData oldData = createTaskData(1);
+		TaskData newData = createTaskData(1);
+		newData.getRoot().getAttribute(TaskAttribute.SUMMARY).setValue("changed");
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+
+		new SynchronizationManger.DefaultParticipant(List.of("other"), null).processUpdate(diff,
+				new NullProgressMonitor());
+		assertEquals(1, diff.getChangedAttributes().size());
+
+		new SynchronizationManger.DefaultParticipant(List.of(TaskAttribute.SUMMARY), null).processUpdate(diff,
+				new NullProgressMonitor());
+		assertFalse(diff.hasChanged());
+	}
+
+	@Test
+	public void diffSkipsUnchangedAttributes() {
+		TaskData oldData = createTaskData(2);
+		TaskData newData = createTaskData(3);
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+
+		assertTrue(diff.hasChanged());
+		assertEquals(1, diff.getNewComments().size());
+		assertEquals(newData.getRoot().getAttribute(TaskAttribute.PREFIX_COMMENT + 2),
+				diff.getNewComments().iterator().next().getTaskAttribute());
+		// the attachment is unchanged
+		assertTrue(diff.getNewAttachments().isEmpty());
+		assertTrue(diff.getChangedAttributes().isEmpty());
+		assertEquals(Set.of(TaskAttribute.PREFIX_COMMENT + 2), diff.getChangedAttributeIds());
+	}
+
+	@Test
+	public void diffReportsChangedAndRemovedAttributes() {
+		TaskData oldData = createTaskData(2);
+		TaskData newData = createTaskData(1);
+		newData.getRoot().getAttribute(TaskAttribute.SUMMARY).setValue("changed");
+
+		TaskDataDiff diff = new TaskDataDiff(model, newData, oldData);
+
+		assertEquals(Set.of(TaskAttribute.SUMMARY, TaskAttribute.PREFIX_COMMENT + 1), diff.getChangedAttributeIds());
+		assertEquals(1, diff.getChangedAttributes().size());
+		assertEquals(TaskAttribute.SUMMARY, diff.getChangedAttributes().iterator().next().getAttributeId());
+	}
+
+	@Test
+	public void diffUsesProvidedHashes() {
+		TaskData oldData = createTaskData(0);
+		TaskData newData = createTaskData(0);
+		newData.getRoot().getAttribute(TaskAttribute.SUMMARY).setValue("changed");
+		TaskAttributeHashes newHashes = TaskAttributeHashes.compute(newData);
+
+		// hashes claim that nothing has changed
+		TaskDataDiff diff = new TaskDataDiff(model, newData, newHashes, oldData, newHashes);
+
+		assertFalse(diff.hasChanged());
+		assertTrue(diff.getChangedAttributeIds().isEmpty());
+	}
+
+	private TaskDataState writeAndRead(TaskDataExternalizer externalizer, TaskDataState state) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		return externalizer.readBinaryState(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private TaskData createTaskData(int commentCount) {
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), CONNECTOR_KIND, REPOSITORY_URL, "1");
+		TaskAttribute root = data.getRoot();
+		TaskAttribute summary = root.createAttribute(TaskAttribute.SUMMARY);
+		summary.setValue("summary");
+		summary.getMetaData().defaults().setType(TaskAttribute.TYPE_SHORT_RICH_TEXT);
+		TaskAttribute attachment = root.createAttribute(TaskAttribute.PREFIX_ATTACHMENT + 1);
+		attachment.setValue("1");
+		attachment.getMetaData().defaults().setType(TaskAttribute.TYPE_ATTACHMENT);
+		attachment.createAttribute(TaskAttribute.ATTACHMENT_FILENAME).setValue("file.txt");
+		for (int i = 0; i < commentCount; i++) {
+			TaskAttribute comment = root.createAttribute(TaskAttribute.PREFIX_COMMENT + i);
+			comment.setValue(Integer.toString(i));
+			comment.getMetaData().defaults().setType(TaskAttribute.TYPE_COMMENT);
+			comment.createAttribute(TaskAttribute.COMMENT_TEXT).setValue("Comment " + i);
+		}
+		return data;
+	}
+
+}
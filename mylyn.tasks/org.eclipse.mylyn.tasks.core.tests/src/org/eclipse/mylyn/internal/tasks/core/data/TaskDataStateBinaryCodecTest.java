@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TaskDataStateBinaryCodecTest {
+
+	private static final String CONNECTOR_KIND = "connector.kind";
+
+	private static final String REPOSITORY_URL = "http://example.com";
+
+	private static final int ITERATIONS = 20;
+
+	private TaskDataExternalizer externalizer;
+
+	private TaskRepository repository;
+
+	@Before
+	public void setUp() {
+		repository = new TaskRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		IRepositoryManager repositoryManager = mock(IRepositoryManager.class);
+		doReturn(mock(AbstractRepositoryConnector.class)).when(repositoryManager)
+				.getRepositoryConnector(CONNECTOR_KIND);
+		doReturn(repository).when(repositoryManager).getRepository(CONNECTOR_KIND, REPOSITORY_URL);
+		externalizer = new TaskDataExternalizer(repositoryManager);
+	}
+
+	@Test
+	public void roundTripEmptyState() throws Exception {
+		TaskDataState state = new TaskDataState(CONNECTOR_KIND, REPOSITORY_URL, "1");
+
+		TaskDataState result = readBinary(writeBinary(state));
+
+		assertEquals(state, result);
+		assertNull(result.getRepositoryData());
+		assertNull(result.getLastReadData());
+		assertNull(result.getEditsData());
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		TaskDataState state = createState(50);
+
+		TaskDataState result = readBinary(writeBinary(state));
+
+		assertEquals(state, result);
+		assertEquals("1.0", result.getRepositoryData().getVersion());
+		assertEquals(state.getRepositoryData().getRoot().toString(), result.getRepositoryData().getRoot().toString());
+		assertEquals(state.getLastReadData().getRoot().toString(), result.getLastReadData().getRoot().toString());
+		assertEquals(state.getEditsData().getRoot().toString(), result.getEditsData().getRoot().toString());
+	}
+
+	@Test
+	public void roundTripMatchesXml() throws Exception {
+		TaskDataState state = createState(10);
+
+		TaskDataState binary = readBinary(writeBinary(state));
+		TaskDataState xml = readXml(writeXml(state));
+
+		assertEquals(xml.getRepositoryData().getRoot().toString(), binary.getRepositoryData().getRoot().toString());
+		assertEquals(xml.getEditsData().getRoot().toString(), binary.getEditsData().getRoot().toString());
+	}
+
+	@Test
+	public void roundTripSpecialCharacters() throws Exception {
+		TaskDataState state = new TaskDataState(CONNECTOR_KIND, REPOSITORY_URL, "1");
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), CONNECTOR_KIND, REPOSITORY_URL, "1");
+		data.getRoot().createAttribute("control").setValue("a\u0001b\u0000c");
+		data.getRoot().createAttribute("unicode").setValue("ä中😀");
+		data.getRoot().createAttribute("empty").setValue("");
+		state.setRepositoryData(data);
+
+		TaskDataState result = readBinary(writeBinary(state));
+
+		TaskAttribute root = result.getRepositoryData().getRoot();
+		assertEquals("a\u0001b\u0000c", root.getAttribute("control").getValue());
+		assertEquals("ä中😀", root.getAttribute("unicode").getValue());
+		assertTrue(root.getAttribute("empty").hasValue());
+	}
+
+	@Test
+	public void isBinary() throws Exception {
+		TaskDataState state = createState(1);
+
+		assertTrue(TaskDataStateBinaryReader.isBinary(toStream(writeBinary(state))));
+		assertFalse(TaskDataStateBinaryReader.isBinary(toStream(writeXml(state))));
+		assertFalse(TaskDataStateBinaryReader.isBinary(toStream(new byte[0])));
+	}
+
+	@Test(expected = IOException.class)
+	public void readTruncated() throws Exception {
+		byte[] bytes = writeBinary(createState(5));
+		byte[] truncated = new byte[bytes.length / 2];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+		readBinary(truncated);
+	}
+
+	@Test
+	public void binaryIsSmallerThanXml() throws Exception {
+		TaskDataState state = createState(500);
+
+		byte[] xml = writeXml(state);
+		byte[] binary = writeBinary(state);
+		assertTrue("expected binary encoding (" + binary.length + " bytes) to be smaller than XML (" + xml.length
+				+ " bytes)", binary.length < xml.length);
+		assertEquals(readXml(xml).getRepositoryData().getRoot().toString(),
+				readBinary(binary).getRepositoryData().getRoot().toString());
+	}
+
+	@Test
+	public void compareSizeAndSpeed() throws Exception {
+		TaskDataState state = createState(500);
+
+		byte[] xml = writeXml(state);
+		byte[] binary = writeBinary(state);
+
+		long xmlWrite = 0;
+		long binaryWrite = 0;
+		long xmlRead = 0;
+		long binaryRead = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			writeXml(state);
+			xmlWrite += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			writeBinary(state);
+			binaryWrite += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			readXml(xml);
+			xmlRead += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			readBinary(binary);
+			binaryRead += System.nanoTime() - start;
+		}
+		System.out.println(String.format("TaskDataState with 500 comments: XML %d bytes, write %.2f ms, read %.2f ms; " //
+				+ "binary %d bytes, write %.2f ms, read %.2f ms", xml.length, toMillis(xmlWrite), toMillis(xmlRead),
+				binary.length, toMillis(binaryWrite), toMillis(binaryRead)));
+	}
+
+	private static BufferedInputStream toStream(byte[] bytes) {
+		return new BufferedInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1000000.0 / ITERATIONS;
+	}
+
+	private TaskDataState createState(int commentCount) {
+		TaskDataState state = new TaskDataState(CONNECTOR_KIND, REPOSITORY_URL, "1");
+		TaskData data = createTaskData(commentCount);
+		state.setRepositoryData(data);
+		state.setLastReadData(TaskDataState.createCopy(data));
+		TaskData edits = new TaskData(data.getAttributeMapper(), CONNECTOR_KIND, REPOSITORY_URL, "1");
+		edits.getRoot().deepAddCopy(data.getRoot().getAttribute(TaskAttribute.SUMMARY));
+		edits.getRoot().getAttribute(TaskAttribute.SUMMARY).setValue("edited summary");
+		state.setEditsData(edits);
+		return state;
+	}
+
+	private TaskData createTaskData(int commentCount) {
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), CONNECTOR_KIND, REPOSITORY_URL, "1");
+		data.setVersion("1.0");
+		TaskAttribute root = data.getRoot();
+		TaskAttribute summary = root.createAttribute(TaskAttribute.SUMMARY);
+		summary.setValue("summary");
+		summary.getMetaData().defaults().setType(TaskAttribute.TYPE_SHORT_RICH_TEXT).setLabel("Summary:");
+		TaskAttribute status = root.createAttribute(TaskAttribute.STATUS);
+		status.setValue("NEW");
+		status.getMetaData().defaults().setType(TaskAttribute.TYPE_SINGLE_SELECT).setLabel("Status:");
+		for (String option : new String[] { "NEW", "ASSIGNED", "RESOLVED", "VERIFIED", "CLOSED" }) {
+			status.putOption(option, option);
+		}
+		TaskAttribute cc = root.createAttribute(TaskAttribute.USER_CC);
+		cc.getMetaData().defaults().setType(TaskAttribute.TYPE_MULTI_SELECT);
+		cc.addValue("alice@example.com");
+		cc.addValue("bob@example.com");
+		for (int i = 0; i < commentCount; i++) {
+			TaskAttribute comment = root.createAttribute(TaskAttribute.PREFIX_COMMENT + i);
+			comment.getMetaData().defaults().setType(TaskAttribute.TYPE_COMMENT);
+			comment.setValue(Integer.toString(i));
+			TaskAttribute author = comment.createAttribute(TaskAttribute.COMMENT_AUTHOR);
+			author.setValue((i % 2 == 0) ? "alice@example.com" : "bob@example.com");
+			author.getMetaData().defaults().setType(TaskAttribute.TYPE_PERSON);
+			TaskAttribute date = comment.createAttribute(TaskAttribute.COMMENT_DATE);
+			date.setValue(Long.toString(1700000000000L + i * 60000L));
+			date.getMetaData().defaults().setType(TaskAttribute.TYPE_DATETIME);
+			TaskAttribute text = comment.createAttribute(TaskAttribute.COMMENT_TEXT);
+			text.setValue("Comment " + i + ": Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+					+ "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud.");
+			text.getMetaData().defaults().setType(TaskAttribute.TYPE_LONG_RICH_TEXT).setReadOnly(true);
+		}
+		return data;
+	}
+
+	private byte[] writeBinary(TaskDataState state) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeBinaryState(out, state);
+		return out.toByteArray();
+	}
+
+	private TaskDataState readBinary(byte[] bytes) throws IOException {
+		return externalizer.readBinaryState(new ByteArrayInputStream(bytes));
+	}
+
+	private byte[] writeXml(TaskDataState state) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeState(out, state);
+		return out.toByteArray();
+	}
+
+	private TaskDataState readXml(byte[] bytes) throws Exception {
+		return externalizer.readState(new ByteArrayInputStream(bytes));
+	}
+
+}
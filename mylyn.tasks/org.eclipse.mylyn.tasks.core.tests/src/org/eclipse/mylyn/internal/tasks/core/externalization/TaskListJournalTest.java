@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.externalization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
+import org.eclipse.mylyn.internal.tasks.core.LocalTask;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
+import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TaskListJournalTest {
+
+	private File folder;
+
+	private File snapshotFile;
+
+	private IRepositoryManager repositoryManager;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = Files.createTempDirectory("tasklist-journal").toFile();
+		snapshotFile = new File(folder, "tasks.xml.zip");
+		repositoryManager = mock(IRepositoryManager.class);
+		doReturn(mock(LocalRepositoryConnector.class)).when(repositoryManager)
+				.getRepositoryConnector(LocalRepositoryConnector.CONNECTOR_KIND);
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : folder.listFiles()) {
+			file.delete();
+		}
+		folder.delete();
+	}
+
+	@Test
+	public void appendAndRead() throws Exception {
+		Files.write(snapshotFile.toPath(), "snapshot".getBytes(StandardCharsets.UTF_8));
+		TaskListJournal journal = new TaskListJournal(snapshotFile);
+		journal.reset();
+		journal.append("first".getBytes(StandardCharsets.UTF_8));
+		journal.append("second".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(new File(folder, "tasks.xml.zip.journal"), journal.getFile());
+		assertTrue(journal.isAttached());
+		assertEquals(2, journal.getEntryCount());
+
+		TaskListJournal readJournal = new TaskListJournal(snapshotFile);
+		List<byte[]> entries = readJournal.read(snapshotFile);
+		assertEquals(2, entries.size());
+		assertArrayEquals("first".getBytes(StandardCharsets.UTF_8), entries.get(0));
+		assertArrayEquals("second".getBytes(StandardCharsets.UTF_8), entries.get(1));
+		assertTrue(readJournal.isAttached());
+		assertEquals(2, readJournal.getEntryCount());
+	}
+
+	@Test
+	public void readIgnoresReplacedSnapshot() throws Exception {
+		Files.write(snapshotFile.toPath(), "snapshot".getBytes(StandardCharsets.UTF_8));
+		TaskListJournal journal = new TaskListJournal(snapshotFile);
+		journal.reset();
+		journal.append("change".getBytes(StandardCharsets.UTF_8));
+
+		// simulate restoring a backup
+		Files.write(snapshotFile.toPath(), "restored".getBytes(StandardCharsets.UTF_8));
+
+		TaskListJournal readJournal = new TaskListJournal(snapshotFile);
+		assertTrue(readJournal.read(snapshotFile).isEmpty());
+		assertFalse(readJournal.isAttached());
+	}
+
+	@Test
+	public void readBackupDoesNotAttach() throws Exception {
+		Files.write(snapshotFile.toPath(), "snapshot".getBytes(StandardCharsets.UTF_8));
+		File backupFile = new File(folder, ".tasks.xml.zip");
+		Files.copy(snapshotFile.toPath(), backupFile.toPath());
+		TaskListJournal journal = new TaskListJournal(snapshotFile);
+		journal.reset();
+		journal.append("change".getBytes(StandardCharsets.UTF_8));
+
+		TaskListJournal readJournal = new TaskListJournal(snapshotFile);
+		assertEquals(1, readJournal.read(backupFile).size());
+		assertFalse(readJournal.isAttached());
+	}
+
+	@Test
+	public void readTruncatesIncompleteEntry() throws Exception {
+		Files.write(snapshotFile.toPath(), "snapshot".getBytes(StandardCharsets.UTF_8));
+		TaskListJournal journal = new TaskListJournal(snapshotFile);
+		journal.reset();
+		journal.append("first".getBytes(StandardCharsets.UTF_8));
+		long validLength = journal.length();
+		journal.append("second".getBytes(StandardCharsets.UTF_8));
+		truncate(journal.getFile(), journal.length() - 3);
+
+		TaskListJournal readJournal = new TaskListJournal(snapshotFile);
+		List<byte[]> entries = readJournal.read(snapshotFile);
+		assertEquals(1, entries.size());
+		assertEquals(validLength, readJournal.length());
+
+		readJournal.append("third".getBytes(StandardCharsets.UTF_8));
+		assertEquals(2, new TaskListJournal(snapshotFile).read(snapshotFile).size());
+	}
+
+	@Test
+	public void readTaskListAppliesChanges() throws Exception {
+		TaskList taskList = new TaskList();
+		TaskCategory category = new TaskCategory("category", "Category");
+		taskList.addCategory(category);
+		LocalTask changedTask = new LocalTask("1", "Original");
+		LocalTask removedTask = new LocalTask("2", "Removed");
+		LocalTask unchangedTask = new LocalTask("3", "Unchanged");
+		taskList.addTask(changedTask, category);
+		taskList.addTask(removedTask, category);
+		taskList.addTask(unchangedTask, category);
+
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, snapshotFile);
+		TaskListJournal journal = new TaskListJournal(snapshotFile);
+		journal.reset();
+
+		changedTask.setSummary("Changed");
+		taskList.deleteTask(removedTask);
+		LocalTask addedTask = new LocalTask("4", "Added");
+		taskList.addTask(addedTask, category);
+		externalizer.writeTaskListChanges(journal, List.of(changedTask, addedTask), List.of(category),
+				Collections.emptyList(), List.of(new TaskListJournal.Removal(TaskListExternalizationConstants.NODE_TASK,
+						removedTask.getHandleIdentifier())));
+
+		TaskList loadedTaskList = new TaskList();
+		createExternalizer(loadedTaskList).readTaskList(loadedTaskList, snapshotFile,
+				new TaskListJournal(snapshotFile));
+
+		assertEquals("Changed", getTask(loadedTaskList, changedTask).getSummary());
+		assertEquals("Unchanged", getTask(loadedTaskList, unchangedTask).getSummary());
+		assertEquals("Added", getTask(loadedTaskList, addedTask).getSummary());
+		assertNull(loadedTaskList.getTask(removedTask.getHandleIdentifier()));
+		assertEquals(3, loadedTaskList.getContainerForHandle("category").getChildren().size());
+	}
+
+	@Test
+	public void readTaskListWithoutJournal() throws Exception {
+		TaskList taskList = new TaskList();
+		LocalTask task = new LocalTask("1", "Summary");
+		taskList.addTask(task);
+		TaskListExternalizer externalizer = createExternalizer(taskList);
+		externalizer.writeTaskList(taskList, snapshotFile);
+
+		TaskList loadedTaskList = new TaskList();
+		createExternalizer(loadedTaskList).readTaskList(loadedTaskList, snapshotFile,
+				new TaskListJournal(snapshotFile));
+
+		assertEquals("Summary", getTask(loadedTaskList, task).getSummary());
+	}
+
+	@Test
+	public void transientChangesAreJournaledWithNextSave() throws Exception {
+		TaskList taskList = new TaskList();
+		LocalTask task = new LocalTask("1", "Summary");
+		LocalTask otherTask = new LocalTask("2", "Summary");
+		taskList.addTask(task);
+		taskList.addTask(otherTask);
+		ExternalizationManager manager = mock(ExternalizationManager.class);
+		TaskListExternalizationParticipant participant = new TaskListExternalizationParticipant(
+				new RepositoryModel(taskList, repositoryManager), taskList, createExternalizer(taskList), manager,
+				new TaskRepositoryManager());
+		participant.save(snapshotFile, new NullProgressMonitor());
+		assertFalse(participant.isDirty());
+
+		// transient changes do not trigger a save
+		task.setSummary("Changed");
+		TaskContainerDelta delta = new TaskContainerDelta(task, TaskContainerDelta.Kind.CONTENT);
+		delta.setTransient(true);
+		participant.containersChanged(Set.of(delta));
+		assertFalse(participant.isDirty());
+		verify(manager, never()).requestSave();
+
+		otherTask.setSummary("Other");
+		participant.containersChanged(Set.of(new TaskContainerDelta(otherTask, TaskContainerDelta.Kind.CONTENT)));
+		assertTrue(participant.isDirty());
+		verify(manager).requestSave();
+
+		IExternalizationContext context = mock(IExternalizationContext.class);
+		doReturn(IExternalizationContext.Kind.SAVE).when(context).getKind();
+		doReturn(folder.getPath()).when(context).getRootPath();
+		participant.execute(context, new NullProgressMonitor());
+		assertFalse(participant.isDirty());
+		assertEquals(1, new TaskListJournal(snapshotFile).read(snapshotFile).size());
+
+		// the state of the transiently changed task is part of the journal entry
+		TaskList loadedTaskList = new TaskList();
+		createExternalizer(loadedTaskList).readTaskList(loadedTaskList, snapshotFile,
+				new TaskListJournal(snapshotFile));
+		assertEquals("Changed", getTask(loadedTaskList, task).getSummary());
+		assertEquals("Other", getTask(loadedTaskList, otherTask).getSummary());
+	}
+
+	private TaskListExternalizer createExternalizer(TaskList taskList) {
+		return new TaskListExternalizer(new RepositoryModel(taskList, repositoryManager), repositoryManager);
+	}
+
+	private static AbstractTask getTask(TaskList taskList, AbstractTask task) {
+		AbstractTask loadedTask = taskList.getTask(task.getHandleIdentifier());
+		assertNotNull(loadedTask);
+		return loadedTask;
+	}
+
+	private static void truncate(File file, long length) throws IOException {
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			out.setLength(length);
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class AdaptiveSynchronizationSchedulerTest {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+	private static final long SIMULATION_DURATION = TimeUnit.DAYS.toMillis(7);
+
+	/**
+	 * Simulates background synchronizations of queries whose results change at random times with a fixed average rate
+	 * using a virtual clock. Simulations with the same seed produce the same results.
+	 */
+	private static class Simulation {
+
+		private final long[] clock = new long[1];
+
+		private final AdaptiveSynchronizationScheduler scheduler;
+
+		private final List<String> keys = new ArrayList<>();
+
+		private final List<long[]> changeTimes = new ArrayList<>();
+
+		private final List<Long> requestTimes = new ArrayList<>();
+
+		private int[] synchronizations;
+
+		private long[] totalDelay;
+
+		private int[] changeCount;
+
+		Simulation(long seed) {
+			scheduler = new AdaptiveSynchronizationScheduler(() -> clock[0], new Random(seed));
+		}
+
+		/**
+		 * Adds a query whose results change <code>changesPerHour</code> times on average.
+		 */
+		void addQuery(String key, double changesPerHour, Random random) {
+			List<Long> times = new ArrayList<>();
+			double time = 0;
+			while (changesPerHour > 0) {
+				// exponentially distributed time between changes
+				time += -Math.log(1 - random.nextDouble()) / changesPerHour * HOUR;
+				if (time >= SIMULATION_DURATION) {
+					break;
+				}
+				times.add((long) time);
+			}
+			keys.add(key);
+			changeTimes.add(times.stream().mapToLong(Long::longValue).toArray());
+		}
+
+		/**
+		 * Runs background synchronizations every <code>tick</code> milliseconds. If <code>fixed</code> is true all
+		 * queries are synchronized on each tick regardless of the scheduler.
+		 */
+		void run(long tick, boolean fixed) {
+			synchronizations = new int[keys.size()];
+			totalDelay = new long[keys.size()];
+			changeCount = new int[keys.size()];
+			long[] lastSynchronization = new long[keys.size()];
+			int[] nextChange = new int[keys.size()];
+			for (clock[0] = 0; clock[0] < SIMULATION_DURATION; clock[0] += tick) {
+				List<String> due = fixed ? keys : scheduler.selectDue(keys);
+				for (String key : due) {
+					int i = keys.indexOf(key);
+					int changed = 0;
+					long[] times = changeTimes.get(i);
+					while (nextChange[i] < times.length && times[nextChange[i]] <= clock[0]) {
+						totalDelay[i] += clock[0] - times[nextChange[i]];
+						nextChange[i]++;
+						changed++;
+					}
+					changeCount[i] += changed;
+					synchronizations[i]++;
+					lastSynchronization[i] = clock[0];
+					requestTimes.add(clock[0]);
+					scheduler.synchronizationCompleted(key, changed);
+				}
+			}
+		}
+
+		int getSynchronizations(String key) {
+			return synchronizations[keys.indexOf(key)];
+		}
+
+		/**
+		 * Returns the average time between a change and the synchronization that picked it up.
+		 */
+		double getAverageDelay(String key) {
+			int i = keys.indexOf(key);
+			return (double) totalDelay[i] / changeCount[i];
+		}
+
+		int getMaxRequestsPerHour() {
+			int max = 0;
+			int start = 0;
+			for (int end = 0; end < requestTimes.size(); end++) {
+				while (requestTimes.get(start) <= requestTimes.get(end) - HOUR) {
+					start++;
+				}
+				max = Math.max(max, end - start + 1);
+			}
+			return max;
+		}
+
+	}
+
+	@Test
+	public void busyQueriesAreSynchronizedMoreOften() {
+		Simulation simulation = new Simulation(1);
+		Random random = new Random(1);
+		simulation.addQuery("busy", 12, random);
+		simulation.addQuery("quiet", 0.05, random);
+		simulation.run(5 * MINUTE, false);
+
+		int busy = simulation.getSynchronizations("busy");
+		int quiet = simulation.getSynchronizations("quiet");
+		assertTrue("busy: " + busy + ", quiet: " + quiet, busy > 10 * quiet);
+		assertTrue(simulation.scheduler.getInterval("quiet") >= HOUR);
+	}
+
+	@Test
+	public void busyQueriesAreFresherThanWithFixedInterval() {
+		Simulation adaptive = new Simulation(2);
+		adaptive.addQuery("busy", 12, new Random(2));
+		adaptive.addQuery("quiet", 0.05, new Random(3));
+		adaptive.run(5 * MINUTE, false);
+
+		Simulation fixed = new Simulation(2);
+		fixed.addQuery("busy", 12, new Random(2));
+		fixed.addQuery("quiet", 0.05, new Random(3));
+		fixed.run(AdaptiveSynchronizationScheduler.DEFAULT_INTERVAL, true);
+
+		assertTrue(adaptive.getAverageDelay("busy") < fixed.getAverageDelay("busy"));
+		assertTrue(adaptive.getSynchronizations("quiet") < fixed.getSynchronizations("quiet") / 4);
+	}
+
+	@Test
+	public void requestBudgetIsRespected() {
+		Simulation simulation = new Simulation(4);
+		simulation.scheduler.setRequestBudget(60);
+		Random random = new Random(4);
+		for (int i = 0; i < 50; i++) {
+			simulation.addQuery("query" + i, 12, random);
+		}
+		simulation.run(5 * MINUTE, false);
+
+		assertTrue(simulation.getMaxRequestsPerHour() <= 60);
+		// most overdue queries are synchronized first, no query starves
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		for (int i = 0; i < 50; i++) {
+			min = Math.min(min, simulation.getSynchronizations("query" + i));
+			max = Math.max(max, simulation.getSynchronizations("query" + i));
+		}
+		assertTrue("min: " + min + ", max: " + max, min > max / 2);
+	}
+
+	@Test
+	public void simulationIsDeterministic() {
+		int[] first = runSimulation(5);
+		int[] second = runSimulation(5);
+
+		assertArrayEquals(first, second);
+	}
+
+	private int[] runSimulation(long seed) {
+		Simulation simulation = new Simulation(seed);
+		Random random = new Random(seed);
+		for (int i = 0; i < 10; i++) {
+			simulation.addQuery("query" + i, random.nextDouble() * 10, random);
+		}
+		simulation.run(5 * MINUTE, false);
+		return simulation.synchronizations;
+	}
+
+	@Test
+	public void failuresBackOff() {
+		long[] clock = { 0 };
+		AdaptiveSynchronizationScheduler scheduler = new AdaptiveSynchronizationScheduler(() -> clock[0],
+				new Random(6));
+		scheduler.setIntervals(MINUTE, 10 * MINUTE, 60 * MINUTE);
+
+		scheduler.synchronizationCompleted("query", 0);
+		assertEquals(10 * MINUTE, scheduler.getInterval("query"));
+		scheduler.synchronizationFailed("query");
+		assertEquals(20 * MINUTE, scheduler.getInterval("query"));
+		scheduler.synchronizationFailed("query");
+		scheduler.synchronizationFailed("query");
+		assertEquals(60 * MINUTE, scheduler.getInterval("query"));
+	}
+
+	@Test
+	public void nextSynchronizationIsJittered() {
+		long[] clock = { 0 };
+		AdaptiveSynchronizationScheduler scheduler = new AdaptiveSynchronizationScheduler(() -> clock[0],
+				new Random(7));
+		scheduler.setIntervals(MINUTE, 10 * MINUTE, 60 * MINUTE);
+		boolean varies = false;
+		long previous = -1;
+		for (int i = 0; i < 20; i++) {
+			scheduler.remove("query");
+			scheduler.synchronizationCompleted("query", 0);
+			long next = scheduler.getNextSynchronizationTime();
+			assertTrue(next >= 8 * MINUTE && next <= 12 * MINUTE);
+			varies |= previous != -1 && previous != next;
+			previous = next;
+		}
+		assertTrue(varies);
+	}
+
+	@Test
+	public void newQueriesAreDue() {
+		AdaptiveSynchronizationScheduler scheduler = new AdaptiveSynchronizationScheduler(() -> 0, new Random(8));
+		scheduler.synchronizationCompleted("known", 0);
+
+		assertEquals(List.of("new"), scheduler.selectDue(List.of("known", "new")));
+		assertEquals(AdaptiveSynchronizationScheduler.DEFAULT_REQUEST_BUDGET - 1, scheduler.getRemainingBudget());
+	}
+
+}
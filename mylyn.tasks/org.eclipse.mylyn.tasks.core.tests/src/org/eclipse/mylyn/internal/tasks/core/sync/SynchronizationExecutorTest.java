@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class SynchronizationExecutorTest {
+
+	private static class ConcurrencyCounter {
+
+		private final AtomicInteger current = new AtomicInteger();
+
+		private final AtomicInteger max = new AtomicInteger();
+
+		void run() {
+			max.accumulateAndGet(current.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				current.decrementAndGet();
+			}
+		}
+
+	}
+
+	@Test
+	public void sequentialByDefault() {
+		TaskRepository repository = new TaskRepository("kind", "http://sequential.example.com");
+		SynchronizationExecutor executor = new SynchronizationExecutor(repository);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+		executor.run(items(10), (item, monitor) -> {
+			threads.add(Thread.currentThread());
+			processed.add(item);
+		}, new NullProgressMonitor(), 1);
+
+		assertEquals(1, executor.getConcurrency());
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+		assertEquals(items(10), processed);
+	}
+
+	@Test
+	public void parallel() {
+		TaskRepository repository = new TaskRepository("kind", "http://parallel.example.com");
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "4");
+		SynchronizationExecutor executor = new SynchronizationExecutor(repository);
+		ConcurrencyCounter counter = new ConcurrencyCounter();
+		Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+		executor.run(items(20), (item, monitor) -> {
+			counter.run();
+			processed.add(item);
+		}, new NullProgressMonitor(), 1);
+
+		assertEquals(4, executor.getConcurrency());
+		assertEquals(20, processed.size());
+		assertTrue(counter.max.get() > 1);
+		assertTrue(counter.max.get() <= 4);
+	}
+
+	@Test
+	public void hostLimitSharedAcrossRepositories() throws Exception {
+		TaskRepository repository1 = new TaskRepository("kind", "http://shared.example.com/one");
+		repository1.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "4");
+		repository1.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST, "2");
+		TaskRepository repository2 = new TaskRepository("kind", "http://shared.example.com/two");
+		repository2.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "4");
+		repository2.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST, "2");
+		ConcurrencyCounter counter = new ConcurrencyCounter();
+
+		Thread thread = new Thread(() -> new SynchronizationExecutor(repository1).run(items(10),
+				(item, monitor) -> counter.run(), new NullProgressMonitor(), 1));
+		thread.start();
+		new SynchronizationExecutor(repository2).run(items(10), (item, monitor) -> counter.run(),
+				new NullProgressMonitor(), 1);
+		thread.join();
+
+		assertTrue(counter.max.get() <= 2);
+		assertSame(SynchronizationExecutor.getHostPermits(repository1),
+				SynchronizationExecutor.getHostPermits(repository2));
+	}
+
+	@Test
+	public void hostLimitNotSet() {
+		TaskRepository repository = new TaskRepository("kind", "http://unlimited.example.com");
+
+		assertEquals(SynchronizationExecutor.DEFAULT_MAX_CONNECTIONS_PER_HOST,
+				SynchronizationExecutor.getHostPermits(repository).getLimit());
+	}
+
+	@Test
+	public void hostLimitUsesSmallestLimit() throws Exception {
+		TaskRepository repository1 = new TaskRepository("kind", "http://smallest.example.com/one");
+		repository1.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST, "3");
+		TaskRepository repository2 = new TaskRepository("kind", "http://smallest.example.com/two");
+		repository2.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST, "1");
+		TaskRepository repository3 = new TaskRepository("kind", "http://smallest.example.com/three");
+
+		SynchronizationExecutor.HostPermits permits = SynchronizationExecutor.getHostPermits(repository1);
+		assertEquals(3, permits.getLimit());
+		// a permit that is held while the limit changes remains accounted for
+		permits.acquire();
+		assertSame(permits, SynchronizationExecutor.getHostPermits(repository2));
+		assertSame(permits, SynchronizationExecutor.getHostPermits(repository3));
+		assertEquals(1, permits.getLimit());
+		assertFalse(permits.tryAcquire());
+		permits.release();
+
+		// repositories without a limit share the permits of the host
+		ConcurrencyCounter counter = new ConcurrencyCounter();
+		Thread thread = new Thread(() -> new SynchronizationExecutor(repository1).run(items(5),
+				(item, monitor) -> counter.run(), new NullProgressMonitor(), 1));
+		thread.start();
+		new SynchronizationExecutor(repository3, 4).run(items(5), (item, monitor) -> counter.run(),
+				new NullProgressMonitor(), 1);
+		thread.join();
+
+		assertEquals(1, counter.max.get());
+		assertEquals(1, permits.availablePermits());
+	}
+
+	@Test
+	public void limitsAreClamped() {
+		TaskRepository repository = new TaskRepository("kind", "http://clamped.example.com");
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "1000");
+		assertEquals(SynchronizationExecutor.MAX_CONCURRENCY, new SynchronizationExecutor(repository).getConcurrency());
+
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "invalid");
+		assertEquals(1, new SynchronizationExecutor(repository).getConcurrency());
+	}
+
+	@Test
+	public void getHost() {
+		assertEquals("example.com", SynchronizationExecutor.getHost("https://Example.com:8080/bugs"));
+		assertEquals("not a url", SynchronizationExecutor.getHost("not a url"));
+	}
+
+	@Test
+	public void cancel() {
+		TaskRepository repository = new TaskRepository("kind", "http://cancel.example.com");
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "2");
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		AtomicInteger count = new AtomicInteger();
+
+		try {
+			new SynchronizationExecutor(repository).run(items(100), (item, itemMonitor) -> {
+				if (count.incrementAndGet() == 5) {
+					itemMonitor.setCanceled(true);
+				}
+			}, monitor, 1);
+			fail("Expected OperationCanceledException");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertTrue(count.get() < 100);
+	}
+
+	@Test
+	public void cancelWaitsForWorkers() {
+		TaskRepository repository = new TaskRepository("kind", "http://cancel.wait.example.com");
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "2");
+		ConcurrencyCounter counter = new ConcurrencyCounter();
+
+		try {
+			new SynchronizationExecutor(repository).run(items(2), (item, monitor) -> {
+				if (item == 0) {
+					monitor.setCanceled(true);
+				} else {
+					counter.run();
+				}
+			}, new NullProgressMonitor(), 1);
+			fail("Expected OperationCanceledException");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertEquals(0, counter.current.get());
+	}
+
+	@Test
+	public void failurePropagated() {
+		TaskRepository repository = new TaskRepository("kind", "http://failure.example.com");
+		repository.setProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY, "2");
+		AtomicInteger count = new AtomicInteger();
+
+		try {
+			new SynchronizationExecutor(repository).run(items(10), (item, monitor) -> {
+				count.incrementAndGet();
+				if (item == 3) {
+					throw new IllegalStateException("failed");
+				}
+			}, new NullProgressMonitor(), 1);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertEquals(10, count.get());
+	}
+
+	private static List<Integer> items(int count) {
+		List<Integer> items = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			items.add(i);
+		}
+		return items;
+	}
+
+}
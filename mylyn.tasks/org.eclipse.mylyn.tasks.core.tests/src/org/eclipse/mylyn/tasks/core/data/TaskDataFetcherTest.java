@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TaskDataFetcherTest {
+
+	private static final String CONNECTOR_KIND = "kind";
+
+	private static final String REPOSITORY_URL = "http://example.com";
+
+	private final TaskRepository repository = new TaskRepository(CONNECTOR_KIND, REPOSITORY_URL);
+
+	private static class RecordingCollector extends TaskDataCollector {
+
+		private final List<String> events = new ArrayList<>();
+
+		private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public void accept(TaskData taskData) {
+			threads.add(Thread.currentThread());
+			events.add(taskData.getTaskId());
+		}
+
+		@Override
+		public void failed(String taskId, IStatus status) {
+			threads.add(Thread.currentThread());
+			events.add(taskId + ":" + status.getMessage());
+		}
+
+	}
+
+	@Test
+	public void deliversInRequestOrder() {
+		List<String> taskIds = createTaskIds(40);
+		RecordingCollector collector = new RecordingCollector();
+
+		new TaskDataFetcher(8).fetch(taskIds, (taskId, monitor) -> {
+			// later tasks complete first
+			sleep(40 - Integer.parseInt(taskId));
+			return createTaskData(taskId);
+		}, collector, new NullProgressMonitor());
+
+		assertEquals(taskIds, collector.events);
+		assertEquals(Collections.singleton(Thread.currentThread()), collector.threads);
+	}
+
+	@Test
+	public void fetchesConcurrentlyWithBoundedParallelism() {
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		RecordingCollector collector = new RecordingCollector();
+
+		new TaskDataFetcher(4).fetch(createTaskIds(32), (taskId, monitor) -> {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			sleep(10);
+			active.decrementAndGet();
+			return createTaskData(taskId);
+		}, collector, new NullProgressMonitor());
+
+		assertEquals(32, collector.events.size());
+		assertTrue(maxActive.get() > 1);
+		assertTrue(maxActive.get() <= 4);
+	}
+
+	@Test
+	public void pipelinedFetchKeepsParallelismInFlight() {
+		List<String> taskIds = createTaskIds(20);
+
+		InFlightProvider sequential = new InFlightProvider(1);
+		new TaskDataFetcher(1).fetch(taskIds, sequential, new RecordingCollector(), null);
+		assertEquals(1, sequential.maxInFlight.get());
+
+		InFlightProvider pipelined = new InFlightProvider(5);
+		RecordingCollector collector = new RecordingCollector();
+		new TaskDataFetcher(5).fetch(taskIds, pipelined, collector, null);
+		assertEquals(5, pipelined.maxInFlight.get());
+		assertEquals(taskIds, collector.events);
+	}
+
+	@Test
+	public void retrievalsStopBeforeFetchReturns() {
+		AtomicInteger inFlight = new AtomicInteger();
+		RecordingCollector collector = new RecordingCollector() {
+			@Override
+			public void accept(TaskData taskData) {
+				throw new IllegalStateException();
+			}
+		};
+
+		try {
+			new TaskDataFetcher(2).fetch(createTaskIds(4), (taskId, monitor) -> {
+				if (!taskId.equals("0")) {
+					inFlight.incrementAndGet();
+					try {
+						// blocks until the worker is interrupted
+						Thread.sleep(60 * 1000);
+					} catch (InterruptedException e) {
+						// expected
+					} finally {
+						inFlight.decrementAndGet();
+					}
+				}
+				return createTaskData(taskId);
+			}, collector, new NullProgressMonitor());
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertEquals(0, inFlight.get());
+	}
+
+	@Test
+	public void reportsFailuresInOrder() {
+		RecordingCollector collector = new RecordingCollector();
+
+		new TaskDataFetcher(3).fetch(createTaskIds(4), (taskId, monitor) -> {
+			switch (taskId) {
+			case "1":
+				throw new CoreException(new Status(IStatus.ERROR, "bundle", "failed"));
+			case "2":
+				return null;
+			case "3":
+				throw new IllegalStateException();
+			default:
+				return createTaskData(taskId);
+			}
+		}, collector, new NullProgressMonitor());
+
+		assertEquals(List.of("0", "1:failed", "2:Connector failed to return task data for task \"2\"",
+				"3:Unexpected error while retrieving task data for task \"3\""), collector.events);
+	}
+
+	@Test
+	public void requestCollectorReceivesRequestedTaskId() {
+		List<String> events = new ArrayList<>();
+
+		new TaskDataFetcher(2).fetch(List.of("a", "b", "c"),
+				(taskId, monitor) -> createTaskData(taskId.toUpperCase()), new TaskDataFetcher.RequestCollector() {
+					@Override
+					public void accept(String taskId, TaskData taskData) {
+						events.add(taskId + "=" + taskData.getTaskId());
+					}
+				}, new NullProgressMonitor());
+
+		assertEquals(List.of("a=A", "b=B", "c=C"), events);
+	}
+
+	@Test
+	public void cancellationStopsFetching() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		AtomicInteger fetched = new AtomicInteger();
+		RecordingCollector collector = new RecordingCollector() {
+			@Override
+			public void accept(TaskData taskData) {
+				super.accept(taskData);
+				monitor.setCanceled(true);
+			}
+		};
+
+		try {
+			new TaskDataFetcher(2).fetch(createTaskIds(100), (taskId, taskMonitor) -> {
+				fetched.incrementAndGet();
+				sleep(5);
+				return createTaskData(taskId);
+			}, collector, monitor);
+			fail("Expected OperationCanceledException");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+
+		assertEquals(List.of("0"), collector.events);
+		assertTrue(fetched.get() < 10);
+	}
+
+	@Test
+	public void providerCancellationIsPropagated() {
+		CountDownLatch started = new CountDownLatch(1);
+		try {
+			new TaskDataFetcher(2).fetch(createTaskIds(4), (taskId, monitor) -> {
+				started.countDown();
+				throw new OperationCanceledException();
+			}, new RecordingCollector(), new NullProgressMonitor());
+			fail("Expected OperationCanceledException");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertEquals(0, started.getCount());
+	}
+
+	/**
+	 * Records the maximum number of concurrent calls. The first calls are held until the expected number of calls is in
+	 * flight, which fails the expectation after a timeout if calls are not issued concurrently.
+	 */
+	private class InFlightProvider implements TaskDataFetcher.SingleTaskDataProvider {
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		private final CountDownLatch started;
+
+		InFlightProvider(int expectedInFlight) {
+			this.started = new CountDownLatch(expectedInFlight);
+		}
+
+		@Override
+		public TaskData getTaskData(String taskId, IProgressMonitor monitor) {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				started.countDown();
+				started.await(10, TimeUnit.SECONDS);
+				return createTaskData(taskId);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+	}
+
+	private static List<String> createTaskIds(int count) {
+		List<String> taskIds = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			taskIds.add(Integer.toString(i));
+		}
+		return taskIds;
+	}
+
+	private TaskData createTaskData(String taskId) {
+		return new TaskData(new TaskAttributeMapper(repository), CONNECTOR_KIND, REPOSITORY_URL, taskId);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
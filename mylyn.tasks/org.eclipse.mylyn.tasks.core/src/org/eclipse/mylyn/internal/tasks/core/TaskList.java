@@ -13,23 +13,23 @@
 
 package org.eclipse.mylyn.internal.tasks.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.ILock;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.tasks.core.IRepositoryElement;
@@ -39,6 +39,11 @@ import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
 
 /**
  * Stores and manages task list elements and their containment hierarchy.
+ * <p>
+ * Elements are stored in concurrent maps and may be looked up without locking, e.g. through {@link #getAllTasks()},
+ * {@link #getTask(String)} and {@link #getQueries()}. Modifications that only affect tasks and queries of a single
+ * repository lock the repository and may run concurrently with modifications of other repositories. Modifications of
+ * categories and local tasks, as well as {@link #run(ITaskListRunnable)}, lock the whole task list.
  *
  * @author Mik Kersten
  * @author Rob Elves
@@ -48,7 +53,7 @@ public class TaskList implements ITaskList, ITransferList {
 
 	private static String DEFAULT_HANDLE_PREFIX = "handle-"; //$NON-NLS-1$
 
-	private static ILock lock = Job.getJobManager().newLock();
+	private final TaskListLock lock = new TaskListLock();
 
 	private Map<String, AbstractTaskCategory> categories;
 
@@ -66,7 +71,7 @@ public class TaskList implements ITaskList, ITransferList {
 
 	private Map<String, AbstractTask> tasks;
 
-	private Set<TaskContainerDelta> delta;
+	private final ThreadLocal<Set<TaskContainerDelta>> pendingDelta = new ThreadLocal<>();
 
 	private int nextHandle = 1;
 
@@ -77,14 +82,14 @@ public class TaskList implements ITaskList, ITransferList {
 	@Override
 	public void addCategory(TaskCategory category) {
 		Assert.isNotNull(category);
+		lock();
 		try {
-			lock();
 			if (categories.containsKey(category.getHandleIdentifier())) {
 				throw new IllegalArgumentException("Handle " + category.getHandleIdentifier() //$NON-NLS-1$
 						+ " already exists in task list"); //$NON-NLS-1$
 			}
 			categories.put(category.getHandleIdentifier(), category);
-			delta.add(new TaskContainerDelta(category, TaskContainerDelta.Kind.ADDED));
+			getDelta().add(new TaskContainerDelta(category, TaskContainerDelta.Kind.ADDED));
 		} finally {
 			unlock();
 		}
@@ -115,14 +120,14 @@ public class TaskList implements ITaskList, ITransferList {
 	@Override
 	public void addQuery(RepositoryQuery query) throws IllegalArgumentException {
 		Assert.isNotNull(query);
+		lock(() -> Collections.singleton(query));
 		try {
-			lock();
 			if (queries.containsKey(query.getHandleIdentifier())) {
 				throw new IllegalArgumentException("Handle " + query.getHandleIdentifier() //$NON-NLS-1$
 						+ " already exists in task list"); //$NON-NLS-1$
 			}
 			queries.put(query.getHandleIdentifier(), query);
-			delta.add(new TaskContainerDelta(query, TaskContainerDelta.Kind.ADDED));
+			getDelta().add(new TaskContainerDelta(query, TaskContainerDelta.Kind.ADDED));
 		} finally {
 			unlock();
 		}
@@ -153,8 +158,11 @@ public class TaskList implements ITaskList, ITransferList {
 		Assert.isNotNull(task);
 		Assert.isLegal(!(container instanceof UnmatchedTaskContainer));
 
+		AbstractTask lockedTask = task;
+		AbstractTaskContainer lockedContainer = container;
+		lock(() -> getElements(lockedTask, lockedContainer));
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 			task = getOrCreateTask(task);
 			if (task.getSynchronizationState() == SynchronizationState.OUTGOING_NEW) {
 				String repositoryUrl = task.getAttribute(ITasksCoreConstants.ATTRIBUTE_OUTGOING_NEW_REPOSITORY_URL);
@@ -213,8 +221,9 @@ public class TaskList implements ITaskList, ITransferList {
 
 	@Override
 	public void deleteCategory(AbstractTaskCategory category) {
+		lock();
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 			categories.remove(category.getHandleIdentifier());
 			for (ITask task : category.getChildren()) {
 				((AbstractTask) task).removeParentContainer(category);
@@ -229,8 +238,9 @@ public class TaskList implements ITaskList, ITransferList {
 
 	@Override
 	public void deleteQuery(RepositoryQuery query) {
+		lock(() -> getElements(query, query.getChildren()));
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 			queries.remove(query.getHandleIdentifier());
 			for (ITask task : query.getChildren()) {
 				((AbstractTask) task).removeParentContainer(query);
@@ -250,8 +260,13 @@ public class TaskList implements ITaskList, ITransferList {
 	public void deleteTask(ITask itask) {
 		Assert.isNotNull(itask);
 		AbstractTask task = (AbstractTask) itask;
+		lock(() -> {
+			List<IRepositoryElement> elements = getElements(task, task.getChildren());
+			elements.addAll(task.getParentContainers());
+			return elements;
+		});
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 
 			// remove task from all parent containers
 			for (AbstractTaskContainer container : task.getParentContainers()) {
@@ -322,8 +337,8 @@ public class TaskList implements ITaskList, ITransferList {
 	}
 
 	public int getNextLocalTaskId() {
+		lock();
 		try {
-			lock();
 			return ++maxLocalTaskId;
 		} finally {
 			unlock();
@@ -525,8 +540,9 @@ public class TaskList implements ITaskList, ITransferList {
 		Assert.isNotNull(oldRepositoryUrl);
 		Assert.isNotNull(newRepositoryUrl);
 
+		lock();
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 			for (AbstractTask task : tasks.values()) {
 				if (oldRepositoryUrl.equals(RepositoryTaskHandleUtil.getRepositoryUrl(task.getHandleIdentifier()))) {
 					tasks.remove(task.getHandleIdentifier());
@@ -638,8 +654,9 @@ public class TaskList implements ITaskList, ITransferList {
 	public void removeFromContainer(AbstractTaskContainer container, Set<ITask> tasks) {
 		Assert.isNotNull(container);
 		Assert.isNotNull(tasks);
+		lock(() -> getElements(container, tasks));
 		try {
-			lock();
+			Set<TaskContainerDelta> delta = getDelta();
 			for (ITask task : tasks) {
 				removeFromContainerInternal(container, task, delta);
 				addToUnmatched((AbstractTask) task, delta);
@@ -683,14 +700,14 @@ public class TaskList implements ITaskList, ITransferList {
 	public void renameContainer(AbstractTaskContainer container, String newDescription) {
 		Assert.isLegal(!(container instanceof ITask));
 		Assert.isLegal(!(container instanceof UnmatchedTaskContainer));
+		lock();
 		try {
-			lock();
 			if (container instanceof TaskCategory) {
 				((TaskCategory) container).setSummary(newDescription);
 			} else if (container instanceof RepositoryQuery) {
 				((RepositoryQuery) container).setSummary(newDescription);
 			}
-			delta.add(new TaskContainerDelta(container, TaskContainerDelta.Kind.CONTENT));
+			getDelta().add(new TaskContainerDelta(container, TaskContainerDelta.Kind.CONTENT));
 		} finally {
 			unlock();
 		}
@@ -700,8 +717,8 @@ public class TaskList implements ITaskList, ITransferList {
 	 * Public for testing.
 	 */
 	public void reset() {
+		lock();
 		try {
-			lock();
 			tasks = new ConcurrentHashMap<>();
 
 			unmatchedMap = new ConcurrentHashMap<>();
@@ -729,50 +746,86 @@ public class TaskList implements ITaskList, ITransferList {
 	public void run(ITaskListRunnable runnable, IProgressMonitor monitor, boolean ignoreInterrupts)
 			throws CoreException {
 		monitor = Policy.monitorFor(monitor);
+		lock.acquireExclusive(monitor, ignoreInterrupts);
+		enter();
 		try {
-			lock(monitor, ignoreInterrupts);
-
 			runnable.execute(monitor);
+		} finally {
+			unlock();
+		}
+	}
 
+	/**
+	 * Runs <code>runnable</code> while holding the lock for the repository of <code>element</code>. Modifications of
+	 * other repositories may run concurrently. The runnable is intended to modify elements of the same repository, e.g.
+	 * synchronize the state of a single task. Runnables that may modify categories, local tasks or elements of other
+	 * repositories must use {@link #run(ITaskListRunnable, IProgressMonitor)} instead.
+	 *
+	 * @throws IllegalStateException
+	 *             if the runnable modifies elements that require locks that are ordered before the lock for the
+	 *             repository of <code>element</code>
+	 */
+	public void run(IRepositoryElement element, ITaskListRunnable runnable, IProgressMonitor monitor)
+			throws CoreException {
+		Assert.isNotNull(element);
+		monitor = Policy.monitorFor(monitor);
+		Set<String> repositoryUrls = getRepositoryUrls(Collections.singleton(element));
+		if (repositoryUrls == null) {
+			lock.acquireExclusive(monitor, false);
+		} else {
+			lock.acquireShared(repositoryUrls, monitor, false);
+		}
+		enter();
+		try {
+			runnable.execute(monitor);
 		} finally {
 			unlock();
 		}
 	}
 
+	/**
+	 * Acquires the lock for the whole task list.
+	 */
 	private void lock() {
-		lock.acquire();
-		if (lock.getDepth() == 1) {
-			delta = new HashSet<>();
-		}
+		lock.acquireExclusive(null, false);
+		enter();
 	}
 
-	private void lock(IProgressMonitor monitor, boolean ignoreInterrupts) throws CoreException {
-		while (!monitor.isCanceled()) {
-			try {
-				if (lock.acquire(3000)) {
-					if (lock.getDepth() == 1) {
-						delta = new HashSet<>();
-					}
-					// success
-					return;
-				}
-			} catch (InterruptedException e) {
-				if (ignoreInterrupts) {
-					// clear interrupted status to retry lock.aquire()
-					Thread.interrupted();
-				} else {
-					break;
-				}
+	/**
+	 * Acquires the lock for the repositories of the elements returned by <code>elements</code> or the whole task list,
+	 * if any element is not specific to a repository. Since elements may change until the lock is acquired, the
+	 * elements are resolved again after locking and the lock is widened if necessary.
+	 */
+	private void lock(Supplier<Collection<? extends IRepositoryElement>> elements) {
+		Set<String> repositoryUrls = lock.isHeldExclusively() ? null : getRepositoryUrls(elements.get());
+		while (repositoryUrls != null) {
+			lock.acquireShared(repositoryUrls, null, false);
+			Set<String> lockedRepositoryUrls = getRepositoryUrls(elements.get());
+			if (lockedRepositoryUrls != null && repositoryUrls.containsAll(lockedRepositoryUrls)) {
+				enter();
+				return;
+			}
+			lock.release();
+			if (lockedRepositoryUrls != null) {
+				lockedRepositoryUrls.addAll(repositoryUrls);
 			}
+			repositoryUrls = lockedRepositoryUrls;
+		}
+		lock();
+	}
+
+	private void enter() {
+		if (lock.getDepth() == 1) {
+			pendingDelta.set(new HashSet<>());
 		}
-		throw new OperationCanceledException();
 	}
 
 	private void unlock() {
 		HashSet<TaskContainerDelta> toFire = null;
 		try {
 			if (lock.getDepth() == 1) {
-				toFire = new HashSet<>(delta);
+				toFire = new HashSet<>(pendingDelta.get());
+				pendingDelta.remove();
 			}
 		} finally {
 			lock.release();
@@ -782,13 +835,63 @@ public class TaskList implements ITaskList, ITransferList {
 		}
 	}
 
+	/**
+	 * Returns the deltas collected by the current thread while holding the lock.
+	 */
+	private Set<TaskContainerDelta> getDelta() {
+		return pendingDelta.get();
+	}
+
+	private static List<IRepositoryElement> getElements(IRepositoryElement element,
+			Collection<? extends IRepositoryElement> otherElements) {
+		List<IRepositoryElement> elements = new ArrayList<>(otherElements.size() + 1);
+		elements.add(element);
+		elements.addAll(otherElements);
+		return elements;
+	}
+
+	private static List<IRepositoryElement> getElements(AbstractTask task, AbstractTaskContainer container) {
+		List<IRepositoryElement> elements = new ArrayList<>(2);
+		elements.add(task);
+		if (container != null) {
+			elements.add(container);
+		}
+		return elements;
+	}
+
+	/**
+	 * Returns the URLs of the repositories that need to be locked to modify <code>elements</code> or
+	 * <code>null</code>, if the whole task list needs to be locked.
+	 */
+	private static Set<String> getRepositoryUrls(Collection<? extends IRepositoryElement> elements) {
+		Set<String> repositoryUrls = new HashSet<>();
+		for (IRepositoryElement element : elements) {
+			String repositoryUrl = null;
+			if (element instanceof LocalTask) {
+				// local tasks may be contained in categories and unsubmitted containers of other repositories
+				return null;
+			} else if (element instanceof AbstractTask task) {
+				repositoryUrl = task.getRepositoryUrl();
+			} else if (element instanceof RepositoryQuery query) {
+				repositoryUrl = query.getRepositoryUrl();
+			} else if (element instanceof UnmatchedTaskContainer unmatched) {
+				repositoryUrl = unmatched.getRepositoryUrl();
+			}
+			if (repositoryUrl == null) {
+				return null;
+			}
+			repositoryUrls.add(repositoryUrl);
+		}
+		return repositoryUrls;
+	}
+
 	public static ISchedulingRule getSchedulingRule() {
 		return ITasksCoreConstants.TASKLIST_SCHEDULING_RULE;
 	}
 
 	public String getUniqueHandleIdentifier() {
+		lock();
 		try {
-			lock();
 			while (nextHandle < Integer.MAX_VALUE) {
 				String handle = DEFAULT_HANDLE_PREFIX + nextHandle;
 				nextHandle++;
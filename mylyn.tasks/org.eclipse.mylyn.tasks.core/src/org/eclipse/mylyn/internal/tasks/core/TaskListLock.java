@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.jobs.ILock;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * A reentrant lock for the task list that is either held exclusively or striped by repository. Modifications that
+ * affect a single repository acquire the stripes of the affected repository URLs. Modifications that span
+ * repositories, e.g. of categories, acquire all stripes.
+ * <p>
+ * Stripes are locks of the job manager. Waiting for a stripe therefore participates in the deadlock detection of the
+ * job manager and does not block <code>Display.syncExec()</code> calls of the thread that holds the stripe while the UI
+ * thread waits for it.
+ * <p>
+ * Stripes are always acquired in ascending order. A thread that holds stripes may not acquire a stripe that is ordered
+ * before a stripe it already holds, e.g. to lock the whole task list while it holds the lock for a repository, since
+ * that could deadlock and releasing the held stripes would break the atomicity of the enclosing critical section.
+ * Such acquisitions fail with an {@link IllegalStateException}, callers need to acquire the wider lock up front.
+ */
+class TaskListLock {
+
+	static final int STRIPE_COUNT = 32;
+
+	private static final long POLL_INTERVAL = 3000;
+
+	private static final int[] NO_STRIPES = new int[0];
+
+	private static final int[] ALL_STRIPES = IntStream.range(0, STRIPE_COUNT).toArray();
+
+	private static class Hold {
+
+		private final boolean exclusive;
+
+		private final int[] stripes;
+
+		Hold(boolean exclusive, int[] stripes) {
+			this.exclusive = exclusive;
+			this.stripes = stripes;
+		}
+
+	}
+
+	private final ILock[] stripes = new ILock[STRIPE_COUNT];
+
+	private final ThreadLocal<Deque<Hold>> holds = ThreadLocal.withInitial(ArrayDeque::new);
+
+	public TaskListLock() {
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = Job.getJobManager().newLock();
+		}
+	}
+
+	/**
+	 * Returns the number of nested acquisitions by the current thread.
+	 */
+	public int getDepth() {
+		return holds.get().size();
+	}
+
+	public boolean isHeldExclusively() {
+		for (Hold hold : holds.get()) {
+			if (hold.exclusive) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Acquires the lock exclusively. If <code>monitor</code> is <code>null</code> blocks until the lock is acquired.
+	 * Otherwise polls the lock until it is acquired or <code>monitor</code> is canceled.
+	 *
+	 * @throws OperationCanceledException
+	 *             if <code>monitor</code> was canceled or the thread was interrupted
+	 * @throws IllegalStateException
+	 *             if the current thread holds the lock for a repository that is ordered after another stripe
+	 */
+	public void acquireExclusive(IProgressMonitor monitor, boolean ignoreInterrupts) {
+		if (isHeldExclusively()) {
+			holds.get().push(new Hold(false, NO_STRIPES));
+			return;
+		}
+		acquireStripes(ALL_STRIPES, monitor, ignoreInterrupts);
+		holds.get().push(new Hold(true, ALL_STRIPES));
+	}
+
+	/**
+	 * Acquires the lock for modifications of the specified repositories. If the lock is already held exclusively by
+	 * the current thread no further locks are acquired.
+	 *
+	 * @throws OperationCanceledException
+	 *             if <code>monitor</code> was canceled or the thread was interrupted
+	 * @throws IllegalStateException
+	 *             if acquiring the stripes of <code>repositoryUrls</code> would violate the lock order
+	 */
+	public void acquireShared(Collection<String> repositoryUrls, IProgressMonitor monitor, boolean ignoreInterrupts) {
+		if (isHeldExclusively()) {
+			holds.get().push(new Hold(false, NO_STRIPES));
+			return;
+		}
+		int[] indexes = getStripeIndexes(repositoryUrls);
+		acquireStripes(indexes, monitor, ignoreInterrupts);
+		holds.get().push(new Hold(false, indexes));
+	}
+
+	/**
+	 * Releases the most recent acquisition by the current thread.
+	 */
+	public void release() {
+		Deque<Hold> threadHolds = holds.get();
+		Hold hold = threadHolds.pop();
+		if (threadHolds.isEmpty()) {
+			holds.remove();
+		}
+		for (int i = hold.stripes.length - 1; i >= 0; i--) {
+			stripes[hold.stripes[i]].release();
+		}
+	}
+
+	static int getStripeIndex(String repositoryUrl) {
+		return (repositoryUrl.hashCode() & 0x7fffffff) % STRIPE_COUNT;
+	}
+
+	private static int[] getStripeIndexes(Collection<String> repositoryUrls) {
+		return repositoryUrls.stream().mapToInt(TaskListLock::getStripeIndex).distinct().sorted().toArray();
+	}
+
+	private void acquireStripes(int[] indexes, IProgressMonitor monitor, boolean ignoreInterrupts) {
+		int[] held = getHeldCounts();
+		int maxHeld = -1;
+		for (int i = 0; i < held.length; i++) {
+			if (held[i] > 0) {
+				maxHeld = i;
+			}
+		}
+		int[] counts = new int[STRIPE_COUNT];
+		for (int index : indexes) {
+			if (index < maxHeld && held[index] == 0) {
+				// waiting for a stripe that is ordered before a held stripe could deadlock
+				throw new IllegalStateException(
+						"Task list lock acquired out of order, the enclosing operation must lock the whole task list"); //$NON-NLS-1$
+			}
+			counts[index]++;
+		}
+		acquire(counts, monitor, ignoreInterrupts);
+	}
+
+	/**
+	 * Returns the number of times each stripe is held by the current thread.
+	 */
+	private int[] getHeldCounts() {
+		int[] counts = new int[STRIPE_COUNT];
+		for (Hold hold : holds.get()) {
+			for (int index : hold.stripes) {
+				counts[index]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Acquires each stripe the given number of times in ascending order. If an acquisition is canceled, the stripes
+	 * that were acquired are released.
+	 */
+	private void acquire(int[] counts, IProgressMonitor monitor, boolean ignoreInterrupts) {
+		int[] acquired = new int[STRIPE_COUNT];
+		try {
+			for (int i = 0; i < STRIPE_COUNT; i++) {
+				for (; acquired[i] < counts[i]; acquired[i]++) {
+					acquire(stripes[i], monitor, ignoreInterrupts);
+				}
+			}
+			acquired = null;
+		} finally {
+			if (acquired != null) {
+				release(acquired);
+			}
+		}
+	}
+
+	private void release(int[] counts) {
+		for (int i = STRIPE_COUNT - 1; i >= 0; i--) {
+			for (int n = 0; n < counts[i]; n++) {
+				stripes[i].release();
+			}
+		}
+	}
+
+	private static void acquire(ILock lock, IProgressMonitor monitor, boolean ignoreInterrupts) {
+		if (monitor == null) {
+			lock.acquire();
+			return;
+		}
+		while (!monitor.isCanceled()) {
+			try {
+				if (lock.acquire(POLL_INTERVAL)) {
+					// success
+					return;
+				}
+			} catch (InterruptedException e) {
+				if (ignoreInterrupts) {
+					// clear interrupted status to retry lock.acquire()
+					Thread.interrupted();
+				} else {
+					break;
+				}
+			}
+		}
+		throw new OperationCanceledException();
+	}
+
+}
@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A map that preserves insertion order and stores its entries in a single array. Lookups scan the array for small
+ * maps and use a lazily built index for larger maps. The map uses considerably less memory than a
+ * {@link java.util.LinkedHashMap} for the small maps that make up task attribute trees.
+ * <p>
+ * A map may be {@link #share() shared} which makes it immutable. Owners of a shared map need to {@link #copy()} it
+ * before modifying it. Maps with equal entries in the same order can be canonicalized through
+ * {@link #intern(ArrayMap)} or {@link #internCopy(ArrayMap)} so that, e.g. option lists of attributes that originate
+ * from the same repository configuration, are only kept in memory once.
+ * <p>
+ * This class is not thread-safe unless the map is shared. Null keys are not supported.
+ */
+public final class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int INDEX_THRESHOLD = 8;
+
+	private static final Object[] EMPTY_TABLE = new Object[0];
+
+	/**
+	 * Weakly references interned maps through their keys. Each interned map strongly references its key to keep the
+	 * entry alive for as long as the map is in use.
+	 */
+	private static final Map<InternKey, WeakReference<ArrayMap<?, ?>>> internedMaps = new WeakHashMap<>();
+
+	/**
+	 * Compares maps including the order of entries.
+	 */
+	private static final class InternKey {
+
+		private final ArrayMap<?, ?> map;
+
+		private final int hash;
+
+		InternKey(ArrayMap<?, ?> map) {
+			this.map = map;
+			int hash = 1;
+			for (int i = 0; i < map.size * 2; i++) {
+				hash = 31 * hash + Objects.hashCode(map.table[i]);
+			}
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof InternKey other) || hash != other.hash || map.size != other.map.size) {
+				return false;
+			}
+			return Arrays.equals(map.table, 0, map.size * 2, other.map.table, 0, other.map.size * 2);
+		}
+
+	}
+
+	/**
+	 * Keys and values are stored alternately.
+	 */
+	private Object[] table;
+
+	private int size;
+
+	private int modCount;
+
+	private Map<Object, Integer> index;
+
+	private boolean shared;
+
+	private InternKey internKey;
+
+	public ArrayMap() {
+		table = EMPTY_TABLE;
+	}
+
+	public ArrayMap(int initialCapacity) {
+		table = initialCapacity > 0 ? new Object[initialCapacity * 2] : EMPTY_TABLE;
+	}
+
+	/**
+	 * Returns a canonical shared instance of a map with the same entries in the same order as <code>map</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> ArrayMap<K, V> intern(ArrayMap<K, V> map) {
+		if (map.internKey != null) {
+			return map;
+		}
+		map.share();
+		InternKey key = new InternKey(map);
+		synchronized (internedMaps) {
+			WeakReference<ArrayMap<?, ?>> reference = internedMaps.get(key);
+			ArrayMap<K, V> interned = (reference != null) ? (ArrayMap<K, V>) reference.get() : null;
+			if (interned != null) {
+				return interned;
+			}
+			map.internKey = key;
+			internedMaps.put(key, new WeakReference<>(map));
+			return map;
+		}
+	}
+
+	/**
+	 * Returns a canonical shared instance of a map with the same entries in the same order as <code>map</code>. Unlike
+	 * {@link #intern(ArrayMap)} <code>map</code> is left unchanged, a copy is interned if no canonical instance exists.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> ArrayMap<K, V> internCopy(ArrayMap<K, V> map) {
+		if (map.internKey != null) {
+			return map;
+		}
+		synchronized (internedMaps) {
+			WeakReference<ArrayMap<?, ?>> reference = internedMaps.get(new InternKey(map));
+			ArrayMap<K, V> interned = (reference != null) ? (ArrayMap<K, V>) reference.get() : null;
+			if (interned != null) {
+				return interned;
+			}
+		}
+		return intern(map.copy());
+	}
+
+	/**
+	 * Makes this map immutable and returns it.
+	 */
+	public ArrayMap<K, V> share() {
+		if (!shared) {
+			if (table.length > size * 2) {
+				table = (size == 0) ? EMPTY_TABLE : Arrays.copyOf(table, size * 2);
+			}
+			if (size > INDEX_THRESHOLD) {
+				// build the index upfront since shared maps may be accessed concurrently
+				buildIndex();
+			}
+			shared = true;
+		}
+		return this;
+	}
+
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Returns a modifiable copy of this map.
+	 */
+	public ArrayMap<K, V> copy() {
+		ArrayMap<K, V> copy = new ArrayMap<>();
+		copy.table = (size == 0) ? EMPTY_TABLE : Arrays.copyOf(table, size * 2);
+		copy.size = size;
+		return copy;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) != -1;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int i = indexOf(key);
+		return (i != -1) ? (V) table[i * 2 + 1] : null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		Objects.requireNonNull(key);
+		checkModifiable();
+		int i = indexOf(key);
+		if (i != -1) {
+			V oldValue = (V) table[i * 2 + 1];
+			table[i * 2 + 1] = value;
+			return oldValue;
+		}
+		if (table.length == size * 2) {
+			table = Arrays.copyOf(table, Math.max(2, size + (size >> 1) + 1) * 2);
+		}
+		table[size * 2] = key;
+		table[size * 2 + 1] = value;
+		if (index != null) {
+			index.put(key, size);
+		}
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		checkModifiable();
+		int i = indexOf(key);
+		if (i == -1) {
+			return null;
+		}
+		V oldValue = (V) table[i * 2 + 1];
+		System.arraycopy(table, (i + 1) * 2, table, i * 2, (size - i - 1) * 2);
+		size--;
+		table[size * 2] = null;
+		table[size * 2 + 1] = null;
+		index = null;
+		modCount++;
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		checkModifiable();
+		table = EMPTY_TABLE;
+		size = 0;
+		index = null;
+		modCount++;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+	private int indexOf(Object key) {
+		if (key == null) {
+			return -1;
+		}
+		if (size > INDEX_THRESHOLD) {
+			if (index == null) {
+				buildIndex();
+			}
+			Integer i = index.get(key);
+			return (i != null) ? i : -1;
+		}
+		for (int i = 0; i < size; i++) {
+			Object candidate = table[i * 2];
+			// keys are frequently interned
+			if (candidate == key || candidate.equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void buildIndex() {
+		Map<Object, Integer> index = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			index.put(table[i * 2], i);
+		}
+		this.index = index;
+	}
+
+	private void checkModifiable() {
+		if (shared) {
+			throw new UnsupportedOperationException("Shared map may not be modified"); //$NON-NLS-1$
+		}
+	}
+
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private final int expectedModCount = modCount;
+
+		private int next;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			int i = next++;
+			return new SimpleImmutableEntry<>((K) table[i * 2], (V) table[i * 2 + 1]);
+		}
+
+	}
+
+}
@@ -0,0 +1,698 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+
+/**
+ * A task data store that appends task data to a small number of large segment files instead of writing one zip file
+ * per task. An in-memory index maps the location of a task data file to the most recent record that was written for
+ * it. Segments that mostly contain superseded records are compacted in the background.
+ * <p>
+ * Records are encoded using {@link TaskDataStateBinaryWriter}. Task data that still resides in a zip file is read from
+ * that file and migrated into the active segment on first access. If the segment folder can not be opened the store
+ * falls back to the zip layout. When the store is disabled again, {@link TaskDataStore} writes the records back to
+ * one zip file per task.
+ * <p>
+ * Appended records are forced to disk within {@link #SYNC_DELAY} milliseconds of the first unsynchronized write, when a
+ * segment is rolled or compacted, and on {@link #flush()} and {@link #close()}.
+ */
+public class SegmentedTaskDataStore extends TaskDataStore {
+
+	private static class Segment {
+
+		private final int id;
+
+		private final File file;
+
+		private final FileChannel channel;
+
+		private long size;
+
+		private long liveBytes;
+
+		public Segment(int id, File file) throws IOException {
+			this.id = id;
+			this.file = file;
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+		}
+
+		public double getGarbageRatio() {
+			return (size > 0) ? (double) (size - liveBytes) / size : 0;
+		}
+
+	}
+
+	private static class Location {
+
+		private final Segment segment;
+
+		private final long position;
+
+		private final int recordLength;
+
+		private final int payloadOffset;
+
+		private final int payloadLength;
+
+		private final int checksum;
+
+		public Location(Segment segment, long position, int recordLength, int payloadOffset, int payloadLength,
+				int checksum) {
+			this.segment = segment;
+			this.position = position;
+			this.recordLength = recordLength;
+			this.payloadOffset = payloadOffset;
+			this.payloadLength = payloadLength;
+			this.checksum = checksum;
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface RecordVisitor {
+
+		void accept(byte type, String key, Location location) throws IOException;
+
+	}
+
+	static final String FOLDER_SEGMENTS = "segments"; //$NON-NLS-1$
+
+	private static final String FOLDER_TASKS = "tasks"; //$NON-NLS-1$
+
+	private static final String SEGMENT_PREFIX = "segment-"; //$NON-NLS-1$
+
+	private static final String SEGMENT_EXTENSION = ".dat"; //$NON-NLS-1$
+
+	private static final int RECORD_MAGIC = 0x4D544453;
+
+	private static final byte TYPE_PUT = 1;
+
+	private static final byte TYPE_DELETE = 2;
+
+	/**
+	 * magic (4), type (1), key length (2), payload length (4), checksum (4)
+	 */
+	private static final int HEADER_LENGTH = 15;
+
+	private static final int MAX_KEY_LENGTH = 0xFFFF;
+
+	static final long DEFAULT_MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+	private static final long COMPACTION_DELAY = 30 * 1000;
+
+	/**
+	 * the maximum time in milliseconds that appended records remain unsynchronized
+	 */
+	static final long SYNC_DELAY = 5 * 1000;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, Location> index = new HashMap<>();
+
+	private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+
+	private final long maxSegmentSize;
+
+	private final double compactionThreshold;
+
+	private final Job compactionJob;
+
+	private final Job syncJob;
+
+	private boolean unsynchronized;
+
+	private String dataPath;
+
+	private File directory;
+
+	public SegmentedTaskDataStore(IRepositoryManager taskRepositoryManager) {
+		this(new TaskDataExternalizer(taskRepositoryManager), DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	SegmentedTaskDataStore(TaskDataExternalizer externalizer, long maxSegmentSize, double compactionThreshold) {
+		super(externalizer);
+		this.maxSegmentSize = maxSegmentSize;
+		this.compactionThreshold = compactionThreshold;
+		this.compactionJob = new Job("Compacting task data") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					compact();
+				} catch (IOException e) {
+					StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+							"Unexpected error while compacting task data", e)); //$NON-NLS-1$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		this.compactionJob.setSystem(true);
+		this.syncJob = new Job("Synchronizing task data") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		this.syncJob.setSystem(true);
+	}
+
+	@Override
+	public void setDataPath(String dataPath) {
+		lock.writeLock().lock();
+		try {
+			closeSegments();
+			this.dataPath = dataPath;
+			if (dataPath != null) {
+				File folder = new File(new File(dataPath, FOLDER_TASKS), FOLDER_SEGMENTS);
+				try {
+					directory = folder;
+					open(folder);
+				} catch (IOException e) {
+					closeSegments();
+					StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+							"Failed to open task data segments, falling back to one file per task", e)); //$NON-NLS-1$
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		scheduleCompactionIfNeeded();
+	}
+
+	/**
+	 * Flushes and closes all segment files. Subsequent operations fall back to the zip layout until
+	 * {@link #setDataPath(String)} is invoked again.
+	 */
+	public void close() {
+		compactionJob.cancel();
+		syncJob.cancel();
+		lock.writeLock().lock();
+		try {
+			closeSegments();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Forces records that have been appended since the last synchronization to disk.
+	 */
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			if (unsynchronized && !segments.isEmpty()) {
+				segments.lastEntry().getValue().channel.force(false);
+			}
+			unsynchronized = false;
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to synchronize task data segment", e)); //$NON-NLS-1$
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean hasTaskData(File file) {
+		lock.readLock().lock();
+		try {
+			if (directory != null && index.containsKey(getKey(file))) {
+				return true;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return super.hasTaskData(file);
+	}
+
+	@Override
+	protected TaskDataState readState(File file) throws CoreException {
+		lock.readLock().lock();
+		try {
+			if (directory == null) {
+				return super.readState(file);
+			}
+			Location location = index.get(getKey(file));
+			if (location != null) {
+				return readState(location);
+			}
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error reading task data", //$NON-NLS-1$
+					e));
+		} finally {
+			lock.readLock().unlock();
+		}
+		return migrate(file);
+	}
+
+	@Override
+	protected void writeState(File file, TaskDataState state) throws CoreException {
+		byte[] payload;
+		try {
+			payload = serialize(state);
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error writing task data", //$NON-NLS-1$
+					e));
+		}
+		lock.writeLock().lock();
+		try {
+			if (directory == null) {
+				super.writeState(file, state);
+				return;
+			}
+			put(getKey(file), payload);
+			// the record in the segment supersedes a zip file that has not been migrated
+			file.delete();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error writing task data", //$NON-NLS-1$
+					e));
+		} finally {
+			lock.writeLock().unlock();
+		}
+		scheduleCompactionIfNeeded();
+	}
+
+	@Override
+	public boolean deleteTaskData(File file) {
+		boolean deleted = false;
+		lock.writeLock().lock();
+		try {
+			if (directory == null) {
+				return super.deleteTaskData(file);
+			}
+			String key = getKey(file);
+			if (index.containsKey(key)) {
+				append(key, TYPE_DELETE, new byte[0]);
+				release(index.remove(key));
+				deleted = true;
+			}
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to delete task data for \"" + file + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			lock.writeLock().unlock();
+		}
+		return file.delete() || deleted;
+	}
+
+	/**
+	 * Moves the remaining records of segments that mostly contain superseded records to the active segment and
+	 * removes the old segments. Public for testing.
+	 */
+	public void compact() throws IOException {
+		List<Segment> candidates = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			if (directory == null) {
+				return;
+			}
+			for (Segment segment : segments.values()) {
+				if (segment != segments.lastEntry().getValue() && segment.getGarbageRatio() >= compactionThreshold) {
+					candidates.add(segment);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		for (Segment segment : candidates) {
+			lock.writeLock().lock();
+			try {
+				if (segments.get(segment.id) != segment) {
+					// closed concurrently
+					continue;
+				}
+				final boolean hasOlderSegments = segments.firstKey() < segment.id;
+				final Map<String, Location> moves = new HashMap<>();
+				final List<String> deletes = new ArrayList<>();
+				scan(segment, (type, key, location) -> {
+					if (type == TYPE_PUT) {
+						Location current = index.get(key);
+						if (current != null && current.segment == segment && current.position == location.position) {
+							moves.put(key, location);
+						}
+					} else if (hasOlderSegments && !index.containsKey(key)) {
+						// keep the deletion, older segments may still contain records for the key
+						deletes.add(key);
+					}
+				});
+				for (Map.Entry<String, Location> entry : moves.entrySet()) {
+					put(entry.getKey(), readPayload(entry.getValue()));
+				}
+				for (String key : deletes) {
+					append(key, TYPE_DELETE, new byte[0]);
+				}
+				segments.lastEntry().getValue().channel.force(false);
+				segments.remove(segment.id);
+				segment.channel.close();
+				segment.file.delete();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes the task data stored in the segments of <code>dataPath</code> back to one zip file per task and removes the
+	 * segments. The segments are kept if writing any of the files fails.
+	 */
+	static void exportSegments(TaskDataExternalizer externalizer, String dataPath) {
+		if (!new File(new File(dataPath, FOLDER_TASKS), FOLDER_SEGMENTS).exists()) {
+			return;
+		}
+		SegmentedTaskDataStore store = new SegmentedTaskDataStore(externalizer, DEFAULT_MAX_SEGMENT_SIZE,
+				DEFAULT_COMPACTION_THRESHOLD);
+		try {
+			store.setDataPath(dataPath);
+			store.export();
+		} catch (CoreException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to restore task data files from segments", e)); //$NON-NLS-1$
+		} finally {
+			store.close();
+		}
+	}
+
+	private void export() throws CoreException {
+		lock.writeLock().lock();
+		try {
+			if (directory == null) {
+				return;
+			}
+			for (Map.Entry<String, Location> entry : index.entrySet()) {
+				File file = getFile(entry.getKey());
+				if (!file.getParentFile().exists()) {
+					file.getParentFile().mkdirs();
+				}
+				super.writeState(file, readState(entry.getValue()));
+			}
+			File folder = directory;
+			List<File> files = new ArrayList<>();
+			for (Segment segment : segments.values()) {
+				files.add(segment.file);
+			}
+			closeSegments();
+			for (File file : files) {
+				file.delete();
+			}
+			folder.delete();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error reading task data", //$NON-NLS-1$
+					e));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void scheduleCompactionIfNeeded() {
+		lock.readLock().lock();
+		try {
+			if (directory == null) {
+				return;
+			}
+			for (Segment segment : segments.headMap(segments.lastKey(), false).values()) {
+				if (segment.getGarbageRatio() >= compactionThreshold) {
+					compactionJob.schedule(COMPACTION_DELAY);
+					return;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private TaskDataState migrate(File file) throws CoreException {
+		lock.writeLock().lock();
+		try {
+			String key = getKey(file);
+			Location location = index.get(key);
+			if (location != null) {
+				// migrated concurrently
+				return readState(location);
+			}
+			TaskDataState state = super.readState(file);
+			if (state != null) {
+				put(key, serialize(state));
+				file.delete();
+			}
+			return state;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error migrating task data", e)); //$NON-NLS-1$
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private String getKey(File file) {
+		String path = file.getAbsolutePath();
+		if (dataPath != null) {
+			String root = new File(dataPath).getAbsolutePath() + File.separator;
+			if (path.startsWith(root)) {
+				// keep keys valid when the data folder is moved
+				path = path.substring(root.length());
+			}
+		}
+		return path.replace(File.separatorChar, '/');
+	}
+
+	private File getFile(String key) {
+		File file = new File(key.replace('/', File.separatorChar));
+		return (file.isAbsolute() || dataPath == null) ? file : new File(dataPath, file.getPath());
+	}
+
+	private byte[] serialize(TaskDataState state) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+			writeBinaryState(out, state);
+		}
+		return bytes.toByteArray();
+	}
+
+	private TaskDataState readState(Location location) throws IOException {
+		final byte[] payload = readPayload(location);
+		return readState(() -> new InflaterInputStream(new ByteArrayInputStream(payload)));
+	}
+
+	private byte[] readPayload(Location location) throws IOException {
+		byte[] payload = new byte[location.payloadLength];
+		ByteBuffer buffer = ByteBuffer.wrap(payload);
+		long position = location.position + location.payloadOffset;
+		while (buffer.hasRemaining()) {
+			if (location.segment.channel.read(buffer, position + buffer.position()) == -1) {
+				throw new EOFException("Unexpected end of task data segment " + location.segment.file); //$NON-NLS-1$
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		if ((int) crc.getValue() != location.checksum) {
+			throw new IOException("Checksum mismatch in task data segment " + location.segment.file); //$NON-NLS-1$
+		}
+		return payload;
+	}
+
+	private void put(String key, byte[] payload) throws IOException {
+		Location location = append(key, TYPE_PUT, payload);
+		release(index.put(key, location));
+		location.segment.liveBytes += location.recordLength;
+	}
+
+	private void release(Location location) {
+		if (location != null) {
+			location.segment.liveBytes -= location.recordLength;
+		}
+	}
+
+	private Location append(String key, byte type, byte[] payload) throws IOException {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		if (keyBytes.length > MAX_KEY_LENGTH) {
+			throw new IOException("Task data key exceeds maximum length: " + key); //$NON-NLS-1$
+		}
+		int recordLength = HEADER_LENGTH + keyBytes.length + payload.length;
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+		buffer.putInt(RECORD_MAGIC);
+		buffer.put(type);
+		buffer.putShort((short) keyBytes.length);
+		buffer.put(keyBytes);
+		buffer.putInt(payload.length);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(payload);
+		buffer.flip();
+
+		Segment segment = getWritableSegment(recordLength);
+		long position = segment.size;
+		while (buffer.hasRemaining()) {
+			segment.channel.write(buffer, position + buffer.position());
+		}
+		segment.size += recordLength;
+		if (!unsynchronized) {
+			// schedule once per batch of writes so that frequent writes can not postpone the synchronization
+			unsynchronized = true;
+			syncJob.schedule(SYNC_DELAY);
+		}
+		return new Location(segment, position, recordLength, HEADER_LENGTH + keyBytes.length, payload.length,
+				(int) crc.getValue());
+	}
+
+	private Segment getWritableSegment(int recordLength) throws IOException {
+		Segment segment = segments.lastEntry().getValue();
+		if (segment.size > 0 && segment.size + recordLength > maxSegmentSize) {
+			segment.channel.force(false);
+			segment = createSegment(segment.id + 1);
+		}
+		return segment;
+	}
+
+	private Segment createSegment(int id) throws IOException {
+		Segment segment = new Segment(id, new File(directory, SEGMENT_PREFIX + id + SEGMENT_EXTENSION));
+		segments.put(id, segment);
+		return segment;
+	}
+
+	private void open(File folder) throws IOException {
+		if (!folder.exists() && !folder.mkdirs()) {
+			throw new IOException("Failed to create " + folder); //$NON-NLS-1$
+		}
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION)) {
+					try {
+						int id = Integer.parseInt(
+								name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+						segments.put(id, new Segment(id, file));
+					} catch (NumberFormatException e) {
+						// not a segment
+					}
+				}
+			}
+		}
+		for (Segment segment : segments.values()) {
+			segment.size = scan(segment, (type, key, location) -> {
+				if (type == TYPE_PUT) {
+					release(index.put(key, location));
+					location.segment.liveBytes += location.recordLength;
+				} else {
+					release(index.remove(key));
+				}
+			});
+			if (segment.size < segment.channel.size()) {
+				if (segment == segments.lastEntry().getValue()) {
+					// discard a partially written record
+					segment.channel.truncate(segment.size);
+				} else {
+					StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+							"Ignoring corrupt data at offset " + segment.size + " of " + segment.file)); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+		if (segments.isEmpty()) {
+			createSegment(0);
+		} else if (segments.lastEntry().getValue().size < segments.lastEntry().getValue().channel.size()) {
+			// never append after a corrupt region
+			createSegment(segments.lastKey() + 1);
+		}
+	}
+
+	/**
+	 * Visits all well-formed records of <code>segment</code> and returns the offset after the last of them.
+	 */
+	private long scan(Segment segment, RecordVisitor visitor) throws IOException {
+		long position = 0;
+		long size = segment.channel.size();
+		// the stream is not closed since that would close the channel
+		DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Channels.newInputStream(segment.channel.position(0)), 64 * 1024));
+		while (position + HEADER_LENGTH <= size) {
+			try {
+				if (in.readInt() != RECORD_MAGIC) {
+					break;
+				}
+				byte type = in.readByte();
+				int keyLength = in.readUnsignedShort();
+				byte[] keyBytes = new byte[keyLength];
+				in.readFully(keyBytes);
+				int payloadLength = in.readInt();
+				int checksum = in.readInt();
+				int recordLength = HEADER_LENGTH + keyLength + payloadLength;
+				if ((type != TYPE_PUT && type != TYPE_DELETE) || payloadLength < 0
+						|| position + recordLength > size) {
+					break;
+				}
+				in.skipNBytes(payloadLength);
+				visitor.accept(type, new String(keyBytes, StandardCharsets.UTF_8), new Location(segment, position,
+						recordLength, HEADER_LENGTH + keyLength, payloadLength, checksum));
+				position += recordLength;
+			} catch (EOFException e) {
+				break;
+			}
+		}
+		return position;
+	}
+
+	private void closeSegments() {
+		for (Segment segment : segments.values()) {
+			try {
+				segment.channel.force(false);
+				segment.channel.close();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Failed to close task data segment " + segment.file, e)); //$NON-NLS-1$
+			}
+		}
+		segments.clear();
+		index.clear();
+		directory = null;
+		unsynchronized = false;
+	}
+
+}
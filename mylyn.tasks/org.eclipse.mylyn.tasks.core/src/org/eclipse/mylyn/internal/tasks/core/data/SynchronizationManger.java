@@ -9,11 +9,13 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.core.data;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -63,6 +65,11 @@ public class SynchronizationManger {
 
 		@Override
 		public void processUpdate(ITaskDataDiff diff, IProgressMonitor monitor) {
+			if (diff instanceof TaskDataDiff taskDataDiff
+					&& Collections.disjoint(taskDataDiff.getChangedAttributeIds(), attributeIds)) {
+				// none of the changed paths is suppressed
+				return;
+			}
 			if (diff.getChangedAttributes().size() > 0) {
 				for (Iterator<ITaskAttributeDiff> it = diff.getChangedAttributes().iterator(); it.hasNext();) {
 					ITaskAttributeDiff attributeDiff = it.next();
@@ -173,7 +180,24 @@ public class SynchronizationManger {
 	}
 
 	public TaskDataDiff createDiff(TaskData newTaskData, TaskData oldTaskData, final IProgressMonitor monitor) {
-		final TaskDataDiff diff = new TaskDataDiff(model, newTaskData, oldTaskData);
+		return processUpdate(new TaskDataDiff(model, newTaskData, oldTaskData), monitor);
+	}
+
+	/**
+	 * Creates a diff between the repository data and the last read data of <code>state</code>. Attribute hashes that
+	 * were stored with the state are reused.
+	 */
+	public TaskDataDiff createDiff(TaskDataState state, final IProgressMonitor monitor) {
+		return processUpdate(new TaskDataDiff(model, state.getRepositoryData(), state.getRepositoryHashes(),
+				state.getLastReadData(), state.getLastReadHashes()), monitor);
+	}
+
+	private TaskDataDiff processUpdate(final TaskDataDiff diff, final IProgressMonitor monitor) {
+		if (!diff.hasChanged()) {
+			// participants may only suppress changes
+			return diff;
+		}
+		String connectorKind = diff.getNewTaskData().getConnectorKind();
 		for (final SynchronizationParticipant participant : getDefaultParticipants()) {
 			SafeRunner.run(new ISafeRunnable() {
 				@Override
@@ -187,7 +211,7 @@ public class SynchronizationManger {
 				}
 			});
 		}
-		for (final SynchronizationParticipant participant : getParticipants(newTaskData.getConnectorKind())) {
+		for (final SynchronizationParticipant participant : getParticipants(connectorKind)) {
 			SafeRunner.run(new ISafeRunnable() {
 				@Override
 				public void handleException(Throwable exception) {
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+
+/**
+ * Provides access to operations of {@link TaskAttribute} that are not API. The operations are registered by
+ * {@link TaskAttribute} when the class is initialized.
+ */
+public final class TaskAttributeAccess {
+
+	private static volatile Consumer<TaskAttribute> sharer;
+
+	private TaskAttributeAccess() {
+	}
+
+	/**
+	 * Replaces the options and meta-data of <code>attribute</code> by canonical instances that are shared with all
+	 * attributes that have identical options and meta-data, e.g. attributes of tasks from the same repository. Shared
+	 * options and meta-data are copied before they are modified.
+	 */
+	public static void shareOptionsAndMetaData(TaskAttribute attribute) {
+		sharer.accept(attribute);
+	}
+
+	/**
+	 * Invoked by {@link TaskAttribute}, not for use by clients.
+	 */
+	public static void setSharer(Consumer<TaskAttribute> sharer) {
+		Assert.isTrue(TaskAttributeAccess.sharer == null);
+		TaskAttributeAccess.sharer = sharer;
+	}
+
+}
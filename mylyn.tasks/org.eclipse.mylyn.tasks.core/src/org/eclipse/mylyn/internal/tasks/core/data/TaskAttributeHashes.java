@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * Content hashes of the top-level attributes of a {@link TaskData} object. The hash of an attribute covers its id,
+ * values, options, meta-data and all of its descendants, so attributes with equal hashes, e.g. comments and attachments
+ * that have not changed between synchronizations, can be considered unchanged without comparing their trees.
+ * <p>
+ * Instances are immutable.
+ *
+ * @see TaskDataState#getRepositoryHashes()
+ * @see TaskDataDiff
+ */
+public final class TaskAttributeHashes {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final Map<String, Long> hashById;
+
+	TaskAttributeHashes(Map<String, Long> hashById) {
+		Assert.isNotNull(hashById);
+		this.hashById = hashById;
+	}
+
+	public static TaskAttributeHashes compute(TaskData taskData) {
+		Assert.isNotNull(taskData);
+		Map<String, TaskAttribute> attributes = taskData.getRoot().getAttributes();
+		Map<String, Long> hashById = new HashMap<>((int) (attributes.size() / 0.75f) + 1);
+		for (TaskAttribute attribute : attributes.values()) {
+			hashById.put(attribute.getId(), hash(attribute));
+		}
+		return new TaskAttributeHashes(hashById);
+	}
+
+	/**
+	 * Returns true, if the top-level attribute with <code>attributeId</code> is present in both objects and has the
+	 * same content.
+	 */
+	public boolean isUnchanged(String attributeId, TaskAttributeHashes other) {
+		Long hash = hashById.get(attributeId);
+		return hash != null && hash.equals(other.hashById.get(attributeId));
+	}
+
+	public boolean contains(String attributeId) {
+		return hashById.containsKey(attributeId);
+	}
+
+	public int size() {
+		return hashById.size();
+	}
+
+	Map<String, Long> getHashes() {
+		return Collections.unmodifiableMap(hashById);
+	}
+
+	static long hash(TaskAttribute attribute) {
+		long hash = FNV_OFFSET_BASIS;
+		hash = update(hash, attribute.getId());
+		List<String> values = attribute.getValues();
+		hash = update(hash, values.size());
+		for (String value : values) {
+			hash = update(hash, value);
+		}
+		hash = update(hash, attribute.getOptions());
+		hash = update(hash, attribute.getMetaData().getValues());
+		Map<String, TaskAttribute> children = attribute.getAttributes();
+		hash = update(hash, children.size());
+		for (TaskAttribute child : children.values()) {
+			hash = update(hash, hash(child));
+		}
+		return hash;
+	}
+
+	private static long update(long hash, Map<String, String> map) {
+		hash = update(hash, map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			hash = update(hash, entry.getKey());
+			hash = update(hash, entry.getValue());
+		}
+		return hash;
+	}
+
+	private static long update(long hash, String value) {
+		if (value == null) {
+			return update(hash, -1);
+		}
+		// include the length to distinguish adjacent strings
+		hash = update(hash, value.length());
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long update(long hash, long value) {
+		for (int i = 0; i < 8; i++) {
+			hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
+			value >>>= 8;
+		}
+		return hash;
+	}
+
+}
@@ -27,6 +27,10 @@ import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 
 /**
+ * Computes the differences between two task data objects. Top-level attributes that have equal
+ * {@link TaskAttributeHashes content hashes} in both objects, e.g. comments and attachments that were already present
+ * when the task was last read, are skipped without comparing their trees.
+ *
  * @author Steffen Pingel
  */
 public class TaskDataDiff implements ITaskDataDiff {
@@ -44,17 +48,39 @@ public class TaskDataDiff implements ITaskDataDiff {
 
 	private final Set<ITaskAttributeDiff> changedAttributes = new LinkedHashSet<>();
 
+	private final Set<String> changedAttributeIds = new LinkedHashSet<>();
+
+	private final TaskAttributeHashes newHashes;
+
+	private final TaskAttributeHashes oldHashes;
+
 	private final RepositoryModel repositoryModel;
 
 	private final TaskRepository repository;
 
 	public TaskDataDiff(RepositoryModel repositoryModel, TaskData newTaskData, TaskData oldTaskData) {
+		this(repositoryModel, newTaskData, null, oldTaskData, null);
+	}
+
+	/**
+	 * Creates a diff that uses previously computed hashes, e.g. hashes that were stored with a {@link TaskDataState}.
+	 * Hashes that are <code>null</code> are computed.
+	 */
+	public TaskDataDiff(RepositoryModel repositoryModel, TaskData newTaskData, TaskAttributeHashes newHashes,
+			TaskData oldTaskData, TaskAttributeHashes oldHashes) {
 		Assert.isNotNull(repositoryModel);
 		Assert.isNotNull(newTaskData);
 		this.repositoryModel = repositoryModel;
 		repository = newTaskData.getAttributeMapper().getTaskRepository();
 		this.newTaskData = newTaskData;
 		this.oldTaskData = oldTaskData;
+		if (oldTaskData != null) {
+			this.newHashes = (newHashes != null) ? newHashes : TaskAttributeHashes.compute(newTaskData);
+			this.oldHashes = (oldHashes != null) ? oldHashes : TaskAttributeHashes.compute(oldTaskData);
+		} else {
+			this.newHashes = null;
+			this.oldHashes = null;
+		}
 		parse();
 	}
 
@@ -96,6 +122,14 @@ public class TaskDataDiff implements ITaskDataDiff {
 		return changedAttributes;
 	}
 
+	/**
+	 * Returns the ids of top-level attributes that were added, removed or whose content changed including attributes
+	 * that are not reported as changed attributes, e.g. attributes without a kind.
+	 */
+	public Set<String> getChangedAttributeIds() {
+		return changedAttributeIds;
+	}
+
 	private void parse() {
 		for (String attributeId : ATTRIBUTES_IDS) {
 			TaskAttribute newAttribute = newTaskData.getRoot().getMappedAttribute(attributeId);
@@ -103,7 +137,7 @@ public class TaskDataDiff implements ITaskDataDiff {
 			if (oldTaskData != null) {
 				oldAttribute = oldTaskData.getRoot().getMappedAttribute(attributeId);
 			}
-			if (oldAttribute == null && newAttribute == null) {
+			if (oldAttribute == null && newAttribute == null || isUnchanged(oldAttribute, newAttribute)) {
 				continue;
 			}
 			addChangedAttribute(oldAttribute, newAttribute, true);
@@ -115,6 +149,10 @@ public class TaskDataDiff implements ITaskDataDiff {
 			if (oldTaskData != null) {
 				oldAttribute = oldTaskData.getRoot().getMappedAttribute(newAttribute.getPath());
 			}
+			if (isUnchanged(oldAttribute, newAttribute)) {
+				continue;
+			}
+			changedAttributeIds.add(newAttribute.getId());
 			addChangedAttribute(oldAttribute, newAttribute, false);
 		}
 		// other attributes that have been removed from newTaskData
@@ -122,12 +160,22 @@ public class TaskDataDiff implements ITaskDataDiff {
 			for (TaskAttribute oldAttribute : oldTaskData.getRoot().getAttributes().values()) {
 				TaskAttribute newAttribute = newTaskData.getRoot().getMappedAttribute(oldAttribute.getPath());
 				if (newAttribute == null) {
+					changedAttributeIds.add(oldAttribute.getId());
 					addChangedAttribute(oldAttribute, newAttribute, false);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Returns true, if both attributes are top-level attributes with the same id and content.
+	 */
+	private boolean isUnchanged(TaskAttribute oldAttribute, TaskAttribute newAttribute) {
+		return oldAttribute != null && newAttribute != null && oldHashes != null
+				&& oldAttribute.getId().equals(newAttribute.getId())
+				&& newHashes.isUnchanged(newAttribute.getId(), oldHashes);
+	}
+
 	private void addChangedAttribute(TaskAttribute oldAttribute, TaskAttribute newAttribute, boolean ignoreKind) {
 		TaskAttribute attribute;
 		if (newAttribute != null) {
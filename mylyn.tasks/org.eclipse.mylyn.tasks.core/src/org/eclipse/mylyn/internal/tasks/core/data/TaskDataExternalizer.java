@@ -192,6 +192,25 @@ public class TaskDataExternalizer {
 		return taskDataState;
 	}
 
+	/**
+	 * Reads a task data state that was written by {@link #writeBinaryState(OutputStream, ITaskDataWorkingCopy)}.
+	 */
+	public TaskDataState readBinaryState(InputStream in) throws IOException {
+		TaskDataStateBinaryReader reader = new TaskDataStateBinaryReader(taskRepositoryManager);
+		TaskDataState taskDataState = reader.read(in);
+		migrate(taskDataState);
+		return taskDataState;
+	}
+
+	/**
+	 * Writes <code>state</code> in a binary encoding that is faster to read than XML. The binary encoding is only
+	 * meant for internal storage, use {@link #writeState(OutputStream, ITaskDataWorkingCopy)} for interchange.
+	 */
+	public void writeBinaryState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
+		TaskDataStateBinaryWriter writer = new TaskDataStateBinaryWriter(out);
+		writer.write(state);
+	}
+
 	public void writeState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
 		try {
 			SAXTransformerFactory transformerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.core.data;
@@ -117,7 +118,7 @@ public class TaskDataManager implements ITaskDataManager {
 						+ file + "\" not found")); //$NON-NLS-1$
 			}
 			if (task.isMarkReadPending()) {
-				state.setLastReadData(state.getRepositoryData());
+				state.setLastReadData(state.getRepositoryData(), state.getComputedRepositoryHashes());
 			}
 			state.init(TaskDataManager.this, task);
 			state.revert();
@@ -191,6 +192,7 @@ public class TaskDataManager implements ITaskDataManager {
 		}
 		final boolean[] synchronizationStateChanged = new boolean[1];
 		if (taskDataChanged || user) {
+			// connectors and participants may modify other parts of the task list while updating the task
 			taskList.run(monitor1 -> {
 				TaskDataState state = null;
 				if (!taskData.isPartial()) {
@@ -211,9 +213,16 @@ public class TaskDataManager implements ITaskDataManager {
 						File file = getMigratedFile(task, task.getConnectorKind());
 						state = taskDataStore.getTaskDataState(ensurePathExists(file));
 					}
-					TaskData lastReadData = state != null ? state.getLastReadData() : null;
-					TaskDataDiff diff = synchronizationManager.createDiff(taskData, lastReadData, monitor1);
+					TaskDataDiff diff;
+					if (state != null && state.getRepositoryData() == taskData) {
+						// reuse the hashes that were computed when the state was written
+						diff = synchronizationManager.createDiff(state, monitor1);
+					} else {
+						TaskData lastReadData = state != null ? state.getLastReadData() : null;
+						diff = synchronizationManager.createDiff(taskData, lastReadData, monitor1);
+					}
 					suppressIncoming = Boolean.toString(!diff.hasChanged());
+					event.setChangedAttributeIds(diff.getChangedAttributeIds());
 
 					switch (task.getSynchronizationState()) {
 						case OUTGOING:
@@ -233,12 +242,12 @@ public class TaskDataManager implements ITaskDataManager {
 				}
 			});
 		} else {
-			taskList.run(monitor1 -> {
+			taskList.run(task, monitor1 -> {
 				if (task.isSynchronizing()) {
 					task.setSynchronizing(false);
 					synchronizationStateChanged[0] = true;
 				}
-			});
+			}, null);
 		}
 		if (event.getTaskChanged() || event.getTaskDataChanged()) {
 			taskList.notifyElementChanged(task);
@@ -278,9 +287,9 @@ public class TaskDataManager implements ITaskDataManager {
 		Assert.isNotNull(task);
 		Assert.isNotNull(kind);
 		File file = fileManager.getFile(task, kind);
-		if (!file.exists()) {
+		if (!taskDataStore.hasTaskData(file)) {
 			File oldFile = fileManager.getFile10(task, kind);
-			if (oldFile.exists()) {
+			if (taskDataStore.hasTaskData(oldFile)) {
 				TaskDataState state = taskDataStore.getTaskDataState(oldFile);
 				// save migrated task data right away
 				taskDataStore.putTaskData(ensurePathExists(file), state);
@@ -297,7 +306,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final TaskDataManagerEvent event = new TaskDataManagerEvent(this, itask);
 		taskList.run(monitor -> {
 			File dataFile = fileManager.getFile(task, kind);
-			if (dataFile.exists()) {
+			if (taskDataStore.hasTaskData(dataFile)) {
 				taskDataStore.discardEdits(dataFile);
 			}
 			switch (task.getSynchronizationState()) {
@@ -319,7 +328,7 @@ public class TaskDataManager implements ITaskDataManager {
 
 	private File findFile(ITask task, String kind) {
 		File file = fileManager.getFile(task, kind);
-		if (file.exists()) {
+		if (taskDataStore.hasTaskData(file)) {
 			return file;
 		}
 		return fileManager.getFile10(task, kind);
@@ -364,7 +373,7 @@ public class TaskDataManager implements ITaskDataManager {
 	public boolean hasTaskData(ITask task) {
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
-		return findFile(task, kind).exists();
+		return taskDataStore.hasTaskData(findFile(task, kind));
 	}
 
 	public void putSubmittedTaskData(final ITask itask, final TaskData taskData, IDelegatingProgressMonitor monitor)
@@ -401,7 +410,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final AbstractTask task = (AbstractTask) itask;
 		taskList.run(monitor -> {
 			File file = fileManager.getFile(task, task.getConnectorKind());
-			if (file.exists()) {
+			if (taskDataStore.hasTaskData(file)) {
 				taskDataStore.deleteTaskData(file);
 				task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
 			}
@@ -411,6 +420,7 @@ public class TaskDataManager implements ITaskDataManager {
 
 	public void setDataPath(String dataPath) {
 		fileManager.setDataPath(dataPath);
+		taskDataStore.setDataPath(dataPath);
 	}
 
 	/**
@@ -538,7 +548,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		taskList.run(monitor -> {
 			File file = getMigratedFile(task, kind);
-			if (file.exists()) {
+			if (taskDataStore.hasTaskData(file)) {
 				TaskDataState oldState = taskDataStore.getTaskDataState(file);
 				if (oldState != null) {
 					File newFile = fileManager.getFile(newStorageRepositoryUrl, task, kind);
@@ -558,7 +568,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		taskList.run(monitor -> {
 			File file = getMigratedFile(task, kind);
-			if (file.exists()) {
+			if (taskDataStore.hasTaskData(file)) {
 				TaskDataState state = taskDataStore.getTaskDataState(file);
 				if (state != null) {
 					state.changeAttributeValues(newValues);
@@ -572,7 +582,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		taskList.run(monitor -> {
 			File file = getMigratedFile(task, kind);
-			if (file.exists()) {
+			if (taskDataStore.hasTaskData(file)) {
 				TaskDataState oldState = taskDataStore.getTaskDataState(file);
 				if (oldState != null) {
 					File newFile = fileManager.getFile(task.getRepositoryUrl(), newTask, kind);
@@ -592,7 +602,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		taskList.run(monitor -> {
 			File file = getMigratedFile(task, kind);
-			if (file.exists()) {
+			if (taskDataStore.hasTaskData(file)) {
 				TaskDataState state = taskDataStore.getTaskDataState(file);
 				if (state != null) {
 					state.refactorAttribute(attribute);
@@ -9,11 +9,13 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.core.data;
 
 import java.util.EventObject;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.mylyn.tasks.core.ITask;
@@ -27,6 +29,8 @@ public class TaskDataManagerEvent extends EventObject {
 
 	private static final long serialVersionUID = 1L;
 
+	private Set<String> changedAttributeIds;
+
 	private Object data;
 
 	private final ITask task;
@@ -58,6 +62,16 @@ public class TaskDataManagerEvent extends EventObject {
 		this.token = token;
 	}
 
+	/**
+	 * Returns the ids of the top-level attributes that changed since the task data was last read or
+	 * <code>null</code>, if changes were not computed.
+	 *
+	 * @see TaskDataDiff#getChangedAttributeIds()
+	 */
+	public Set<String> getChangedAttributeIds() {
+		return changedAttributeIds;
+	}
+
 	public Object getData() {
 		return data;
 	}
@@ -86,6 +100,10 @@ public class TaskDataManagerEvent extends EventObject {
 		return token;
 	}
 
+	public void setChangedAttributeIds(Set<String> changedAttributeIds) {
+		this.changedAttributeIds = changedAttributeIds;
+	}
+
 	public void setData(Object data) {
 		this.data = data;
 	}
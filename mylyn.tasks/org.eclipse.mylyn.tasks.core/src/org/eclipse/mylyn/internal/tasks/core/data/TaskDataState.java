@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.core.data;
@@ -42,12 +43,16 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 
 	private TaskData lastReadTaskData;
 
+	private TaskAttributeHashes lastReadHashes;
+
 	private TaskData localTaskData;
 
 	private boolean saved;
 
 	private TaskData repositoryTaskData;
 
+	private TaskAttributeHashes repositoryHashes;
+
 	private final String repositoryUrl;
 
 	private ITask task;
@@ -94,6 +99,36 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 		return lastReadTaskData;
 	}
 
+	/**
+	 * Returns the content hashes of the top-level attributes of the last read data. Hashes are computed on first
+	 * access unless they were stored with the state.
+	 *
+	 * @return the hashes or <code>null</code>, if the state has no last read data
+	 * @see #getLastReadData()
+	 */
+	public TaskAttributeHashes getLastReadHashes() {
+		if (lastReadHashes == null && lastReadTaskData != null) {
+			lastReadHashes = TaskAttributeHashes.compute(lastReadTaskData);
+		}
+		return lastReadHashes;
+	}
+
+	/**
+	 * Returns the hashes of the last read data if they were computed or stored with the state. Unlike
+	 * {@link #getLastReadHashes()} this does not compute hashes.
+	 */
+	TaskAttributeHashes getComputedLastReadHashes() {
+		return lastReadHashes;
+	}
+
+	/**
+	 * Returns the hashes of the repository data if they were computed or stored with the state. Unlike
+	 * {@link #getRepositoryHashes()} this does not compute hashes.
+	 */
+	TaskAttributeHashes getComputedRepositoryHashes() {
+		return repositoryHashes;
+	}
+
 	@Override
 	public TaskData getLocalData() {
 		return localTaskData;
@@ -104,6 +139,20 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 		return repositoryTaskData;
 	}
 
+	/**
+	 * Returns the content hashes of the top-level attributes of the repository data. Hashes are computed on first
+	 * access unless they were stored with the state.
+	 *
+	 * @return the hashes or <code>null</code>, if the state has no repository data
+	 * @see #getRepositoryData()
+	 */
+	public TaskAttributeHashes getRepositoryHashes() {
+		if (repositoryHashes == null && repositoryTaskData != null) {
+			repositoryHashes = TaskAttributeHashes.compute(repositoryTaskData);
+		}
+		return repositoryHashes;
+	}
+
 	@Override
 	public String getRepositoryUrl() {
 		return repositoryUrl;
@@ -190,7 +239,21 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 	 * @see #getLastReadData()
 	 */
 	public void setLastReadData(TaskData oldTaskData) {
+		setLastReadData(oldTaskData, null);
+	}
+
+	/**
+	 * Sets the last read data and its hashes, e.g. when the previous repository data is marked read.
+	 *
+	 * @see #getLastReadHashes()
+	 */
+	public void setLastReadData(TaskData oldTaskData, TaskAttributeHashes hashes) {
 		lastReadTaskData = oldTaskData;
+		lastReadHashes = hashes;
+	}
+
+	void setLastReadHashes(TaskAttributeHashes hashes) {
+		lastReadHashes = hashes;
 	}
 
 	/**
@@ -209,6 +272,11 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 	 */
 	public void setRepositoryData(TaskData newTaskData) {
 		repositoryTaskData = newTaskData;
+		repositoryHashes = null;
+	}
+
+	void setRepositoryHashes(TaskAttributeHashes hashes) {
+		repositoryHashes = hashes;
 	}
 
 	public void merge(TaskDataState oldState) {
@@ -222,6 +290,8 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 		changeAttributeValues(repositoryTaskData, newValues);
 		changeAttributeValues(editsTaskData, newValues);
 		changeAttributeValues(lastReadTaskData, newValues);
+		repositoryHashes = null;
+		lastReadHashes = null;
 	}
 
 	private void changeAttributeValues(TaskData taskData, Map<TaskAttribute, Collection<String>> newValues) {
@@ -260,6 +330,8 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 		refactorAttribute(repositoryTaskData, attribute);
 		refactorAttribute(editsTaskData, attribute);
 		refactorAttribute(lastReadTaskData, attribute);
+		repositoryHashes = null;
+		lastReadHashes = null;
 	}
 
 	private void refactorAttribute(TaskData taskData, TaskAttribute attribute) throws CoreException {
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * Reads task data states that were written by {@link TaskDataStateBinaryWriter}.
+ */
+public class TaskDataStateBinaryReader {
+
+	private final IRepositoryManager repositoryManager;
+
+	private final List<String> stringTable = new ArrayList<>();
+
+	private DataInputStream in;
+
+	private TaskAttributeMapper attributeMapper;
+
+	public TaskDataStateBinaryReader(IRepositoryManager repositoryManager) {
+		this.repositoryManager = repositoryManager;
+	}
+
+	/**
+	 * Returns true, if <code>in</code> starts with a binary encoded task data state. The stream is reset to its
+	 * initial position.
+	 */
+	public static boolean isBinary(InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			throw new IllegalArgumentException("Stream does not support mark"); //$NON-NLS-1$
+		}
+		in.mark(TaskDataStateBinaryWriter.MAGIC.length);
+		try {
+			byte[] header = in.readNBytes(TaskDataStateBinaryWriter.MAGIC.length);
+			return Arrays.equals(header, TaskDataStateBinaryWriter.MAGIC);
+		} finally {
+			in.reset();
+		}
+	}
+
+	public TaskDataState read(InputStream stream) throws IOException {
+		in = new DataInputStream(stream);
+		stringTable.clear();
+		attributeMapper = null;
+
+		byte[] header = new byte[TaskDataStateBinaryWriter.MAGIC.length];
+		in.readFully(header);
+		if (!Arrays.equals(header, TaskDataStateBinaryWriter.MAGIC)) {
+			throw new IOException("Not a binary task data state"); //$NON-NLS-1$
+		}
+		int version = readVarInt();
+		if (version < 1 || version > TaskDataStateBinaryWriter.VERSION) {
+			throw new IOException("Unsupported task data state version " + version); //$NON-NLS-1$
+		}
+
+		TaskDataState state = new TaskDataState(readString(), readString(), readString());
+		int flags = readVarInt();
+		if ((flags & TaskDataStateBinaryWriter.FLAG_REPOSITORY_DATA) != 0) {
+			state.setRepositoryData(readTaskData());
+		}
+		if ((flags & TaskDataStateBinaryWriter.FLAG_LAST_READ_DATA) != 0) {
+			state.setLastReadData(readTaskData());
+		}
+		if ((flags & TaskDataStateBinaryWriter.FLAG_EDITS_DATA) != 0) {
+			state.setEditsData(readTaskData());
+		}
+		if (version >= TaskDataStateBinaryWriter.VERSION_HASHES) {
+			if ((flags & TaskDataStateBinaryWriter.FLAG_REPOSITORY_HASHES) != 0) {
+				state.setRepositoryHashes(readHashes());
+			}
+			if ((flags & TaskDataStateBinaryWriter.FLAG_LAST_READ_HASHES) != 0) {
+				state.setLastReadHashes(readHashes());
+			}
+		}
+		return state;
+	}
+
+	private TaskData readTaskData() throws IOException {
+		String connectorKind = readString();
+		String repositoryUrl = readString();
+		String taskId = readString();
+		String version = readString();
+		if (attributeMapper == null) {
+			attributeMapper = getAttributeMapper(connectorKind, repositoryUrl);
+		}
+		TaskData taskData = new TaskData(attributeMapper, connectorKind, repositoryUrl, taskId);
+		if (version != null) {
+			taskData.setVersion(version);
+		}
+		readChildren(taskData.getRoot());
+		return taskData;
+	}
+
+	private TaskAttributeHashes readHashes() throws IOException {
+		int count = readVarInt();
+		Map<String, Long> hashById = new HashMap<>((int) (count / 0.75f) + 1);
+		for (int i = 0; i < count; i++) {
+			hashById.put(readString(), in.readLong());
+		}
+		return new TaskAttributeHashes(hashById);
+	}
+
+	private void readChildren(TaskAttribute parent) throws IOException {
+		int count = readVarInt();
+		for (int i = 0; i < count; i++) {
+			readTaskAttribute(parent);
+		}
+	}
+
+	private void readTaskAttribute(TaskAttribute parent) throws IOException {
+		TaskAttribute attribute = parent.createAttribute(readString());
+
+		int count = readVarInt();
+		for (int i = 0; i < count; i++) {
+			attribute.addValue(readString());
+		}
+
+		count = readVarInt();
+		for (int i = 0; i < count; i++) {
+			attribute.putOption(readString(), readString());
+		}
+
+		count = readVarInt();
+		for (int i = 0; i < count; i++) {
+			attribute.getMetaData().putValue(readString(), readString());
+		}
+
+		// options and meta-data are typically identical across tasks of a repository
+		TaskAttributeAccess.shareOptionsAndMetaData(attribute);
+
+		readChildren(attribute);
+	}
+
+	private String readString() throws IOException {
+		int tag = readVarInt();
+		switch (tag) {
+			case TaskDataStateBinaryWriter.STRING_NULL:
+				return null;
+			case TaskDataStateBinaryWriter.STRING_LITERAL:
+				String value = readBytes();
+				stringTable.add(value);
+				return value;
+			case TaskDataStateBinaryWriter.STRING_LITERAL_UNSHARED:
+				return readBytes();
+			default:
+				int index = tag - TaskDataStateBinaryWriter.STRING_REFERENCE_OFFSET;
+				if (index >= stringTable.size()) {
+					throw new IOException("Invalid string reference " + index); //$NON-NLS-1$
+				}
+				return stringTable.get(index);
+		}
+	}
+
+	private String readBytes() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer"); //$NON-NLS-1$
+	}
+
+	private TaskAttributeMapper getAttributeMapper(String connectorKind, String repositoryUrl) throws IOException {
+		AbstractRepositoryConnector connector = repositoryManager.getRepositoryConnector(connectorKind);
+		if (connector == null) {
+			throw new IOException("No repository connector for kind \"" + connectorKind + "\" found"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		TaskRepository taskRepository = repositoryManager.getRepository(connectorKind, repositoryUrl);
+		if (taskRepository == null) {
+			throw new IOException("Repository \"" + repositoryUrl + "\" not found for kind \"" + connectorKind + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		AbstractTaskDataHandler taskDataHandler = connector.getTaskDataHandler();
+		if (taskDataHandler != null) {
+			return taskDataHandler.getAttributeMapper(taskRepository);
+		} else {
+			return new TaskAttributeMapper(taskRepository);
+		}
+	}
+
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.data;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * Writes task data states in a compact binary encoding that is considerably faster to read than the XML written by
+ * {@link TaskDataStateWriter}. Attribute ids, meta-data, options and short values are written once per stream and
+ * referenced by index afterwards.
+ * <p>
+ * The encoding is meant for internal storage only, XML remains the format for export and interchange.
+ *
+ * @see TaskDataStateBinaryReader
+ */
+public class TaskDataStateBinaryWriter {
+
+	static final byte[] MAGIC = { 'M', 'T', 'D', 'B' };
+
+	static final int VERSION = 2;
+
+	/**
+	 * The first version that stores {@link TaskAttributeHashes} with the state.
+	 */
+	static final int VERSION_HASHES = 2;
+
+	static final int FLAG_REPOSITORY_DATA = 1;
+
+	static final int FLAG_LAST_READ_DATA = 1 << 1;
+
+	static final int FLAG_EDITS_DATA = 1 << 2;
+
+	static final int FLAG_REPOSITORY_HASHES = 1 << 3;
+
+	static final int FLAG_LAST_READ_HASHES = 1 << 4;
+
+	/**
+	 * Strings are either <code>null</code>, a literal that is added to the string table, a literal that is not shared
+	 * or a reference into the table.
+	 */
+	static final int STRING_NULL = 0;
+
+	static final int STRING_LITERAL = 1;
+
+	static final int STRING_LITERAL_UNSHARED = 2;
+
+	static final int STRING_REFERENCE_OFFSET = 3;
+
+	/**
+	 * Values that are longer than this, e.g. descriptions and comments, are unlikely to repeat and are not added to
+	 * the string table.
+	 */
+	static final int MAX_INTERNED_VALUE_LENGTH = 64;
+
+	private final DataOutputStream out;
+
+	private final Map<String, Integer> stringTable = new HashMap<>();
+
+	public TaskDataStateBinaryWriter(OutputStream out) {
+		this.out = new DataOutputStream(out);
+	}
+
+	public void write(ITaskDataWorkingCopy state) throws IOException {
+		out.write(MAGIC);
+		writeVarInt(VERSION);
+		writeString(state.getConnectorKind());
+		writeString(state.getRepositoryUrl());
+		writeString(state.getTaskId());
+		int flags = 0;
+		if (state.getRepositoryData() != null) {
+			flags |= FLAG_REPOSITORY_DATA;
+		}
+		if (state.getLastReadData() != null) {
+			flags |= FLAG_LAST_READ_DATA;
+		}
+		if (state.getEditsData() != null) {
+			flags |= FLAG_EDITS_DATA;
+		}
+		TaskAttributeHashes repositoryHashes = null;
+		TaskAttributeHashes lastReadHashes = null;
+		if (state instanceof TaskDataState taskDataState) {
+			// hashes are computed on demand when a diff is created and only stored if available
+			repositoryHashes = taskDataState.getComputedRepositoryHashes();
+			lastReadHashes = taskDataState.getComputedLastReadHashes();
+		}
+		if (repositoryHashes != null) {
+			flags |= FLAG_REPOSITORY_HASHES;
+		}
+		if (lastReadHashes != null) {
+			flags |= FLAG_LAST_READ_HASHES;
+		}
+		writeVarInt(flags);
+		if (state.getRepositoryData() != null) {
+			writeTaskData(state.getRepositoryData());
+		}
+		if (state.getLastReadData() != null) {
+			writeTaskData(state.getLastReadData());
+		}
+		if (state.getEditsData() != null) {
+			writeTaskData(state.getEditsData());
+		}
+		if (repositoryHashes != null) {
+			writeHashes(repositoryHashes);
+		}
+		if (lastReadHashes != null) {
+			writeHashes(lastReadHashes);
+		}
+		out.flush();
+	}
+
+	private void writeTaskData(TaskData taskData) throws IOException {
+		writeString(taskData.getConnectorKind());
+		writeString(taskData.getRepositoryUrl());
+		writeString(taskData.getTaskId());
+		writeString(taskData.getVersion());
+		writeChildren(taskData.getRoot());
+	}
+
+	private void writeHashes(TaskAttributeHashes hashes) throws IOException {
+		writeVarInt(hashes.size());
+		for (Map.Entry<String, Long> entry : hashes.getHashes().entrySet()) {
+			writeString(entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	private void writeTaskAttribute(TaskAttribute attribute) throws IOException {
+		writeString(attribute.getId());
+
+		List<String> values = attribute.getValues();
+		writeVarInt(values.size());
+		for (String value : values) {
+			writeValue(value);
+		}
+
+		writeMap(attribute.getOptions());
+		writeMap(attribute.getMetaData().getValues());
+		writeChildren(attribute);
+	}
+
+	private void writeChildren(TaskAttribute attribute) throws IOException {
+		Map<String, TaskAttribute> children = attribute.getAttributes();
+		writeVarInt(children.size());
+		for (TaskAttribute child : children.values()) {
+			writeTaskAttribute(child);
+		}
+	}
+
+	private void writeMap(Map<String, String> map) throws IOException {
+		writeVarInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			writeString(entry.getKey());
+			writeValue(entry.getValue());
+		}
+	}
+
+	private void writeValue(String value) throws IOException {
+		if (value.length() > MAX_INTERNED_VALUE_LENGTH) {
+			writeVarInt(STRING_LITERAL_UNSHARED);
+			writeBytes(value);
+		} else {
+			writeString(value);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			writeVarInt(STRING_NULL);
+			return;
+		}
+		Integer index = stringTable.get(value);
+		if (index != null) {
+			writeVarInt(index + STRING_REFERENCE_OFFSET);
+		} else {
+			stringTable.put(value, stringTable.size());
+			writeVarInt(STRING_LITERAL);
+			writeBytes(value);
+		}
+	}
+
+	private void writeBytes(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+}
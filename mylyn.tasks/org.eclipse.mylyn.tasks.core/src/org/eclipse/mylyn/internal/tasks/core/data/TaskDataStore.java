@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.core.data;
@@ -19,6 +20,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.ZipEntry;
@@ -95,7 +98,7 @@ public class TaskDataStore {
 			state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
 		}
 		if (setLastRead) {
-			state.setLastReadData(state.getRepositoryData());
+			state.setLastReadData(state.getRepositoryData(), state.getComputedRepositoryHashes());
 		}
 		state.setRepositoryData(data);
 		writeState(file, state);
@@ -111,14 +114,27 @@ public class TaskDataStore {
 		TaskDataState state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
 		state.setRepositoryData(data);
 		state.setEditsData(null);
-		state.setLastReadData(data);
+		state.setLastReadData(data, null);
 		writeState(file, state);
 		return state;
 	}
 
-	private TaskDataState readStateInternal(File file, boolean xml11) throws IOException, SAXException {
-		try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
-			in.getNextEntry();
+	/**
+	 * Provides a fresh stream of serialized task data on each invocation.
+	 */
+	@FunctionalInterface
+	protected interface StateInputProvider {
+
+		InputStream open() throws IOException;
+
+	}
+
+	private TaskDataState readStateInternal(StateInputProvider provider, boolean xml11)
+			throws IOException, SAXException {
+		try (InputStream in = new BufferedInputStream(provider.open())) {
+			if (!xml11 && TaskDataStateBinaryReader.isBinary(in)) {
+				return externalizer.readBinaryState(in);
+			}
 			// bug 268456: When TaskData that contains C0 control characters is written to disk using XML 1.0 reading it back
 			// in fails with a SAXException. The XML 1.1 standard allows C0 entities but fails if C1 entities. If C0 control
 			// characters are detected while parsing file as XML 1.0 a second attempt is made using XML 1.1. If the file contains
@@ -131,26 +147,45 @@ public class TaskDataStore {
 		}
 	}
 
-	private TaskDataState readState(File file) throws CoreException {
+	/**
+	 * Parses task data that was serialized using {@link #writeState(OutputStream, TaskDataState)} or
+	 * {@link #writeBinaryState(OutputStream, TaskDataState)}.
+	 */
+	protected TaskDataState readState(StateInputProvider provider) throws IOException {
+		try {
+			try {
+				return readStateInternal(provider, false);
+			} catch (SAXException e) {
+				// bug 268456: if reading fails, try again using a different XML version
+				if (e.getMessage() != null && (e.getMessage().contains("invalid XML character") //$NON-NLS-1$
+						|| e.getMessage().contains(" \"&#"))) { //$NON-NLS-1$
+					return readStateInternal(provider, true);
+				} else {
+					throw e;
+				}
+			}
+		} catch (SAXException e) {
+			throw new IOException("Error parsing task data: " + e.getMessage(), e); //$NON-NLS-1$
+		}
+	}
+
+	protected void writeState(OutputStream out, TaskDataState state) throws IOException {
+		externalizer.writeState(out, state);
+	}
+
+	protected void writeBinaryState(OutputStream out, TaskDataState state) throws IOException {
+		externalizer.writeBinaryState(out, state);
+	}
+
+	protected TaskDataState readState(File file) throws CoreException {
 		lock.readLock().lock();
 		try {
 			if (file.exists()) {
-				try {
-					try {
-						return readStateInternal(file, false);
-					} catch (SAXException e) {
-						// bug 268456: if reading fails, try again using a different XML version
-						if (e.getMessage() != null && (e.getMessage().contains("invalid XML character") //$NON-NLS-1$
-								|| e.getMessage().contains(" \"&#"))) { //$NON-NLS-1$
-							return readStateInternal(file, true);
-						} else {
-							throw e;
-						}
-					}
-
-				} catch (SAXException e) {
-					throw new IOException("Error parsing task data: " + e.getMessage(), e); //$NON-NLS-1$
-				}
+				return readState(() -> {
+					ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+					in.getNextEntry();
+					return in;
+				});
 			}
 			return null;
 		} catch (IOException e) {
@@ -161,7 +196,7 @@ public class TaskDataStore {
 		}
 	}
 
-	private void writeState(File file, TaskDataState state) throws CoreException {
+	protected void writeState(File file, TaskDataState state) throws CoreException {
 		lock.writeLock().lock();
 		try {
 			try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
@@ -170,7 +205,7 @@ public class TaskDataStore {
 				ZipEntry entry = new ZipEntry(FILE_NAME_INTERNAL);
 				out.putNextEntry(entry);
 
-				externalizer.writeState(out, state);
+				writeState(out, state);
 			}
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error writing task data", //$NON-NLS-1$
@@ -193,4 +228,22 @@ public class TaskDataStore {
 		}
 	}
 
+	/**
+	 * Returns true, if task data has been stored for <code>file</code>.
+	 */
+	public boolean hasTaskData(File file) {
+		return file.exists();
+	}
+
+	/**
+	 * Invoked when the root folder of the task data changes. The default implementation stores one file per task and
+	 * derives all locations from the files that are passed in. Task data that was stored by a
+	 * {@link SegmentedTaskDataStore} is written back to one file per task.
+	 */
+	public void setDataPath(String dataPath) {
+		if (dataPath != null) {
+			SegmentedTaskDataStore.exportSegments(externalizer, dataPath);
+		}
+	}
+
 }
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.externalization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Merges {@link TaskListJournal} entries into a task list snapshot while it is parsed. Top-level elements of the
+ * snapshot that were changed or removed according to the journal are skipped and the latest version of changed elements
+ * is emitted before the end of the task list.
+ */
+class SaxTaskListJournalFilter extends XMLFilterImpl {
+
+	private final Map<String, Element> changes = new LinkedHashMap<>();
+
+	private final ContentHandlerWrapper handler;
+
+	private int depth;
+
+	private int skipDepth = -1;
+
+	public SaxTaskListJournalFilter(SaxTaskListHandler handler, List<byte[]> entries) {
+		setContentHandler(handler);
+		this.handler = new ContentHandlerWrapper(handler);
+		readEntries(entries);
+	}
+
+	private void readEntries(List<byte[]> entries) {
+		DocumentBuilder builder;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			// journal entries never contain a doctype, reject external entities
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); //$NON-NLS-1$
+			factory.setExpandEntityReferences(false);
+			builder = factory.newDocumentBuilder();
+		} catch (ParserConfigurationException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to read task list journal", e)); //$NON-NLS-1$
+			return;
+		}
+		for (byte[] entry : entries) {
+			try {
+				Document document = builder.parse(new ByteArrayInputStream(entry));
+				NodeList nodes = document.getDocumentElement().getChildNodes();
+				for (int i = 0; i < nodes.getLength(); i++) {
+					if (nodes.item(i) instanceof Element element) {
+						if (TaskListExternalizationConstants.NODE_REMOVED.equals(element.getNodeName())) {
+							String key = getKey(element.getAttribute(TaskListExternalizationConstants.KEY_KIND),
+									element.getAttribute(TaskListExternalizationConstants.KEY_HANDLE));
+							changes.remove(key);
+							changes.put(key, null);
+						} else {
+							String key = getKey(element.getNodeName(),
+									element.getAttribute(TaskListExternalizationConstants.KEY_HANDLE));
+							// move to the end to preserve the order of changes
+							changes.remove(key);
+							changes.put(key, element);
+						}
+					}
+				}
+			} catch (SAXException | IOException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Skipping invalid task list journal entry", e)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		depth++;
+		if (skipDepth == -1 && depth == 2 && changes
+				.containsKey(getKey(localName, atts.getValue(TaskListExternalizationConstants.KEY_HANDLE)))) {
+			skipDepth = depth;
+		}
+		if (skipDepth == -1) {
+			super.startElement(uri, localName, qName, atts);
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		if (skipDepth == -1) {
+			if (depth == 1 && TaskListExternalizationConstants.NODE_TASK_LIST.equals(localName)) {
+				writeChanges();
+			}
+			super.endElement(uri, localName, qName);
+		} else if (skipDepth == depth) {
+			skipDepth = -1;
+		}
+		depth--;
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+		if (skipDepth == -1) {
+			super.characters(ch, start, length);
+		}
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+		if (skipDepth == -1) {
+			super.ignorableWhitespace(ch, start, length);
+		}
+	}
+
+	private void writeChanges() throws SAXException {
+		SaxOrphanWriter writer = new SaxOrphanWriter(handler);
+		for (Element element : changes.values()) {
+			if (element != null) {
+				writer.writeOrphans(new SingleNodeList(element));
+			}
+		}
+	}
+
+	private static String getKey(String node, String handle) {
+		return node + ':' + handle;
+	}
+
+	private static class SingleNodeList implements NodeList {
+
+		private final Node node;
+
+		public SingleNodeList(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		public Node item(int index) {
+			return (index == 0) ? node : null;
+		}
+
+		@Override
+		public int getLength() {
+			return 1;
+		}
+
+	}
+
+}
@@ -16,6 +16,7 @@ package org.eclipse.mylyn.internal.tasks.core.externalization;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Collections;
 
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -26,8 +27,11 @@ import javax.xml.transform.stream.StreamResult;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITransferList;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.SaxRepositoriesWriter;
 import org.eclipse.mylyn.tasks.core.IRepositoryElement;
 import org.w3c.dom.Document;
@@ -59,14 +63,27 @@ public class SaxTaskListWriter {
 	}
 
 	public void writeTaskListToStream(ITransferList taskList, Document orphans) throws IOException {
+		write(new TaskListInputSource(taskList.getAllTasks(), taskList.getCategories(), taskList.getQueries(), orphans,
+				Collections.emptyList()));
+	}
+
+	/**
+	 * Writes a task list document that only contains the specified elements and records the removal of elements for
+	 * a {@link TaskListJournal} entry.
+	 */
+	public void writeChangesToStream(Collection<AbstractTask> tasks, Collection<AbstractTaskCategory> categories,
+			Collection<RepositoryQuery> queries, Collection<TaskListJournal.Removal> removals) throws IOException {
+		write(new TaskListInputSource(tasks, categories, queries, null, removals));
+	}
+
+	private void write(TaskListInputSource inputSource) throws IOException {
 		if (outputStream == null) {
 			throw new IOException("OutputStream not set"); //$NON-NLS-1$
 		}
 
 		try {
 			Transformer transformer = TransformerFactory.newInstance().newTransformer();
-			transformer.transform(new SAXSource(new TaskListWriter(), new TaskListInputSource(taskList, orphans)),
-					new StreamResult(outputStream));
+			transformer.transform(new SAXSource(new TaskListWriter(), inputSource), new StreamResult(outputStream));
 		} catch (TransformerException e) {
 			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Could not write task list", e)); //$NON-NLS-1$
 			throw new IOException(e.getMessage(), e);
@@ -75,23 +92,45 @@ public class SaxTaskListWriter {
 	}
 
 	private static class TaskListInputSource extends InputSource {
-		private final ITransferList taskList;
+		private final Collection<AbstractTask> tasks;
+
+		private final Collection<AbstractTaskCategory> categories;
+
+		private final Collection<RepositoryQuery> queries;
 
 		private final Document orphans;
 
-		public TaskListInputSource(ITransferList taskList, Document orphans) {
-			this.taskList = taskList;
+		private final Collection<TaskListJournal.Removal> removals;
+
+		public TaskListInputSource(Collection<AbstractTask> tasks, Collection<AbstractTaskCategory> categories,
+				Collection<RepositoryQuery> queries, Document orphans, Collection<TaskListJournal.Removal> removals) {
+			this.tasks = tasks;
+			this.categories = categories;
+			this.queries = queries;
 			this.orphans = orphans;
+			this.removals = removals;
+		}
+
+		public Collection<AbstractTask> getTasks() {
+			return tasks;
+		}
+
+		public Collection<AbstractTaskCategory> getCategories() {
+			return categories;
 		}
 
-		public ITransferList getTaskList() {
-			return taskList;
+		public Collection<RepositoryQuery> getQueries() {
+			return queries;
 		}
 
 		public Document getOrphans() {
 			return orphans;
 		}
 
+		public Collection<TaskListJournal.Removal> getRemovals() {
+			return removals;
+		}
+
 	}
 
 	private static class TaskListWriter implements XMLReader {
@@ -162,24 +201,35 @@ public class SaxTaskListWriter {
 				throw new SAXException("Can only parse writable input sources"); //$NON-NLS-1$
 			}
 			handler.getHandler().startDocument();
-			writeTaskList(taskListInputSource.getTaskList(), taskListInputSource.getOrphans());
+			writeTaskList(taskListInputSource);
 			handler.getHandler().endDocument();
 		}
 
-		private void writeTaskList(ITransferList taskList, Document orphanDocument) throws IOException, SAXException {
+		private void writeTaskList(TaskListInputSource input) throws IOException, SAXException {
 			AttributesWrapper attributes = new AttributesWrapper();
 			attributes.addAttribute(ATTRIBUTE_VERSION, VALUE_VERSION);
 			handler.startElement(TaskListExternalizationConstants.NODE_TASK_LIST, attributes);
 
-			writeTaskListElements(new SaxTaskWriter(handler), taskList.getAllTasks());
-			writeTaskListElements(new SaxCategoryWriter(handler), taskList.getCategories());
-			writeTaskListElements(new SaxQueryWriter(handler), taskList.getQueries());
+			writeTaskListElements(new SaxTaskWriter(handler), input.getTasks());
+			writeTaskListElements(new SaxCategoryWriter(handler), input.getCategories());
+			writeTaskListElements(new SaxQueryWriter(handler), input.getQueries());
 
-			writeOrphans(orphanDocument);
+			writeOrphans(input.getOrphans());
+			writeRemovals(input.getRemovals());
 
 			handler.endElement(TaskListExternalizationConstants.NODE_TASK_LIST);
 		}
 
+		private void writeRemovals(Collection<TaskListJournal.Removal> removals) throws SAXException {
+			for (TaskListJournal.Removal removal : removals) {
+				AttributesWrapper attributes = new AttributesWrapper();
+				attributes.addAttribute(TaskListExternalizationConstants.KEY_KIND, removal.node());
+				attributes.addAttribute(TaskListExternalizationConstants.KEY_HANDLE, removal.handle());
+				handler.startElement(TaskListExternalizationConstants.NODE_REMOVED, attributes);
+				handler.endElement(TaskListExternalizationConstants.NODE_REMOVED);
+			}
+		}
+
 		private <T extends IRepositoryElement> void writeTaskListElements(SaxTaskListElementWriter<T> writer,
 				Collection<T> elements) throws SAXException {
 			for (T element : elements) {
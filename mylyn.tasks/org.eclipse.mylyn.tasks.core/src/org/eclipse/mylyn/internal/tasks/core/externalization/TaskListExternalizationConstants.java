@@ -98,4 +98,6 @@ public class TaskListExternalizationConstants {
 	public static final String NODE_TASK_REFERENCE = "TaskReference"; //$NON-NLS-1$
 
 	public static final String NODE_ATTRIBUTE = "Attribute"; //$NON-NLS-1$
+
+	public static final String NODE_REMOVED = "Removed"; //$NON-NLS-1$
 }
@@ -14,16 +14,28 @@
 package org.eclipse.mylyn.internal.tasks.core.externalization;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListRunnable;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
@@ -33,6 +45,9 @@ import org.eclipse.mylyn.tasks.core.ITaskActivationListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 
 /**
+ * Saves the task list. Changed elements are tracked through task list deltas and appended to a {@link TaskListJournal}
+ * on regular saves. The journal is folded into a full snapshot of the task list periodically and on shutdown.
+ *
  * @author Rob Elves
  */
 public class TaskListExternalizationParticipant extends AbstractExternalizationParticipant
@@ -40,6 +55,16 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 
 	private static final String DESCRIPTION = Messages.TaskListExternalizationParticipant_Task_List;
 
+	/**
+	 * Maximum time between full saves of the task list.
+	 */
+	static final long FULL_SAVE_INTERVAL = 30 * 60 * 1000;
+
+	/**
+	 * Maximum number of journal entries before the task list is saved in full.
+	 */
+	static final int MAX_JOURNAL_ENTRIES = 200;
+
 	private final ExternalizationManager manager;
 
 	private final TaskListExternalizer taskListWriter;
@@ -52,6 +77,18 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 
 	private final RepositoryModel repositoryModel;
 
+	private final Set<String> dirtyTasks = new HashSet<>();
+
+	private final Set<String> dirtyQueries = new HashSet<>();
+
+	private final Set<String> dirtyCategories = new HashSet<>();
+
+	private boolean fullSaveRequired = true;
+
+	private long lastFullSave;
+
+	private TaskListJournal journal;
+
 	public TaskListExternalizationParticipant(RepositoryModel repositoryModel, TaskList taskList,
 			TaskListExternalizer taskListExternalizer, ExternalizationManager manager,
 			TaskRepositoryManager repositoryManager) {
@@ -72,18 +109,59 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		return dirty;
 	}
 
+	/**
+	 * Requests a full save when the workbench is shutting down to fold the journal into the snapshot.
+	 */
+	@Override
+	public synchronized boolean isDirty(boolean full) {
+		if (full && (dirty || (journal != null && journal.getEntryCount() > 0))) {
+			fullSaveRequired = true;
+			return true;
+		}
+		return dirty;
+	}
+
+	@Override
+	public void execute(IExternalizationContext context, IProgressMonitor monitor) throws CoreException {
+		if (context.getKind() == IExternalizationContext.Kind.SAVE) {
+			File dataFile = getFile(context.getRootPath());
+			if (!isFullSaveRequired(dataFile)) {
+				saveChanges(monitor);
+				return;
+			}
+		}
+		super.execute(context, monitor);
+	}
+
+	private synchronized boolean isFullSaveRequired(File dataFile) {
+		return fullSaveRequired || journal == null || !journal.isAttached()
+				|| !journal.getSnapshotFile().equals(dataFile.getAbsoluteFile())
+				|| journal.getEntryCount() >= MAX_JOURNAL_ENTRIES
+				|| System.currentTimeMillis() - lastFullSave >= FULL_SAVE_INTERVAL;
+	}
+
 	@Override
 	public void load(final File sourceFile, IProgressMonitor monitor) throws CoreException {
 		ITaskListRunnable loadRunnable = monitor1 -> {
 			resetTaskList();
-			taskListWriter.readTaskList(taskList, sourceFile);
+			taskListWriter.readTaskList(taskList, sourceFile, journal);
 		};
 
 		taskList.run(loadRunnable, monitor);
+
+		// elements added while loading do not need to be saved
+		synchronized (this) {
+			clearChanges();
+			fullSaveRequired = journal == null || !journal.isAttached();
+			lastFullSave = System.currentTimeMillis();
+		}
 	}
 
 	@Override
 	protected boolean performLoad(File dataFile, IProgressMonitor monitor) throws CoreException {
+		synchronized (this) {
+			journal = new TaskListJournal(dataFile);
+		}
 		if (super.performLoad(dataFile, monitor)) {
 			return true;
 		} else {
@@ -124,13 +202,119 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 		ITaskListRunnable saveRunnable = monitor1 -> {
 			synchronized (TaskListExternalizationParticipant.this) {
 				dirty = false;
+				clearChanges();
+				fullSaveRequired = true;
 			}
 			taskListWriter.writeTaskList(taskList, targetFile);
+			resetJournal(targetFile);
 		};
 
 		taskList.run(saveRunnable, monitor);
 	}
 
+	private void resetJournal(File targetFile) {
+		TaskListJournal journal = new TaskListJournal(targetFile);
+		try {
+			journal.reset();
+			synchronized (this) {
+				this.journal = journal;
+				fullSaveRequired = false;
+				lastFullSave = System.currentTimeMillis();
+			}
+		} catch (IOException e) {
+			journal.delete();
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+					"Failed to create task list journal, changes will be saved in full", e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Appends the elements that changed since the last save to the journal.
+	 */
+	private void saveChanges(IProgressMonitor monitor) throws CoreException {
+		ITaskListRunnable saveRunnable = monitor1 -> {
+			Set<String> taskHandles;
+			Set<String> queryHandles;
+			Set<String> categoryHandles;
+			TaskListJournal journal;
+			synchronized (TaskListExternalizationParticipant.this) {
+				dirty = false;
+				taskHandles = new HashSet<>(dirtyTasks);
+				queryHandles = new HashSet<>(dirtyQueries);
+				categoryHandles = new HashSet<>(dirtyCategories);
+				clearChanges();
+				journal = this.journal;
+			}
+			if (taskHandles.isEmpty() && queryHandles.isEmpty() && categoryHandles.isEmpty()) {
+				return;
+			}
+
+			List<TaskListJournal.Removal> removals = new ArrayList<>();
+			List<AbstractTask> tasks = new ArrayList<>();
+			for (String handle : taskHandles) {
+				AbstractTask task = taskList.getTask(handle);
+				if (task != null) {
+					tasks.add(task);
+				} else {
+					removals.add(new TaskListJournal.Removal(TaskListExternalizationConstants.NODE_TASK, handle));
+				}
+			}
+			List<RepositoryQuery> queries = new ArrayList<>();
+			if (!queryHandles.isEmpty()) {
+				Map<String, RepositoryQuery> queryByHandle = new HashMap<>();
+				for (RepositoryQuery query : taskList.getQueries()) {
+					queryByHandle.put(query.getHandleIdentifier(), query);
+				}
+				for (String handle : queryHandles) {
+					RepositoryQuery query = queryByHandle.get(handle);
+					if (query != null) {
+						queries.add(query);
+					} else {
+						removals.add(new TaskListJournal.Removal(TaskListExternalizationConstants.NODE_QUERY, handle));
+					}
+				}
+			}
+			List<AbstractTaskCategory> categories = new ArrayList<>();
+			for (String handle : categoryHandles) {
+				AbstractTaskCategory category = taskList.getContainerForHandle(handle);
+				if (category != null) {
+					categories.add(category);
+				} else {
+					removals.add(new TaskListJournal.Removal(TaskListExternalizationConstants.NODE_CATEGORY, handle));
+				}
+			}
+
+			try {
+				taskListWriter.writeTaskListChanges(journal, tasks, categories, queries, removals);
+			} catch (CoreException e) {
+				// the changes are lost from the journal, make sure the next save captures them
+				synchronized (TaskListExternalizationParticipant.this) {
+					dirty = true;
+					fullSaveRequired = true;
+				}
+				throw e;
+			}
+		};
+
+		taskList.run(saveRunnable, monitor);
+	}
+
+	private void markChanged(Object element) {
+		if (element instanceof AbstractTask task) {
+			dirtyTasks.add(task.getHandleIdentifier());
+		} else if (element instanceof RepositoryQuery query) {
+			dirtyQueries.add(query.getHandleIdentifier());
+		} else if (element instanceof AbstractTaskCategory category) {
+			dirtyCategories.add(category.getHandleIdentifier());
+		}
+	}
+
+	private void clearChanges() {
+		dirtyTasks.clear();
+		dirtyQueries.clear();
+		dirtyCategories.clear();
+	}
+
 	@Override
 	public String getDescription() {
 		return DESCRIPTION;
@@ -143,15 +327,29 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 
 	@Override
 	public void containersChanged(Set<TaskContainerDelta> containers) {
-		for (TaskContainerDelta taskContainerDelta : containers) {
-			if (!taskContainerDelta.isTransient()) {
-				synchronized (TaskListExternalizationParticipant.this) {
-					dirty = true;
+		boolean changed = false;
+		synchronized (TaskListExternalizationParticipant.this) {
+			for (TaskContainerDelta taskContainerDelta : containers) {
+				if (taskContainerDelta.isTransient()) {
+					// transient changes do not trigger a save but the element is included in the next journal entry
+					// since a full save would also have written its current state
+					markChanged(taskContainerDelta.getElement());
+					continue;
+				}
+				changed = true;
+				dirty = true;
+				if (taskContainerDelta.getKind() == TaskContainerDelta.Kind.ROOT) {
+					fullSaveRequired = true;
+				} else {
+					markChanged(taskContainerDelta.getElement());
+					// containers persist references to their children
+					markChanged(taskContainerDelta.getParent());
 				}
-				manager.requestSave();
-				return;
 			}
 		}
+		if (changed) {
+			manager.requestSave();
+		}
 	}
 
 	@Override
@@ -170,6 +368,7 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 	public void taskActivated(ITask task) {
 		synchronized (TaskListExternalizationParticipant.this) {
 			dirty = true;
+			markChanged(task);
 		}
 		manager.requestSave();
 		return;
@@ -179,6 +378,7 @@ public class TaskListExternalizationParticipant extends AbstractExternalizationP
 	public void taskDeactivated(ITask task) {
 		synchronized (TaskListExternalizationParticipant.this) {
 			dirty = true;
+			markChanged(task);
 		}
 		manager.requestSave();
 		return;
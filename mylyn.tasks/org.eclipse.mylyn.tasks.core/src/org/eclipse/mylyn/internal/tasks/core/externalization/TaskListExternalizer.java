@@ -16,11 +16,15 @@
 package org.eclipse.mylyn.internal.tasks.core.externalization;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -28,9 +32,12 @@ import java.util.zip.ZipOutputStream;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTaskCategory;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITransferList;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryModel;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.XmlReaderUtil;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.w3c.dom.Document;
@@ -78,7 +85,33 @@ public class TaskListExternalizer {
 		}
 	}
 
+	/**
+	 * Appends the specified elements and removals to <code>journal</code>.
+	 */
+	public void writeTaskListChanges(TaskListJournal journal, Collection<AbstractTask> tasks,
+			Collection<AbstractTaskCategory> categories, Collection<RepositoryQuery> queries,
+			Collection<TaskListJournal.Removal> removals) throws CoreException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			SaxTaskListWriter writer = new SaxTaskListWriter();
+			writer.setOutputStream(out);
+			writer.writeChangesToStream(tasks, categories, queries, removals);
+			journal.append(out.toByteArray());
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Saving Task List changes failed", e)); //$NON-NLS-1$
+		}
+	}
+
 	public void readTaskList(ITransferList taskList, File inFile) throws CoreException {
+		readTaskList(taskList, inFile, null);
+	}
+
+	/**
+	 * Reads the task list from <code>inFile</code> and applies the changes recorded in <code>journal</code>, if the
+	 * journal applies to <code>inFile</code>.
+	 */
+	public void readTaskList(ITransferList taskList, File inFile, TaskListJournal journal) throws CoreException {
 		if (!inFile.exists()) {
 			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
 					"Task list file not found \"" + inFile.getAbsolutePath() + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
@@ -91,7 +124,12 @@ public class TaskListExternalizer {
 		try (InputStream taskListFile = openTaskList(inFile)) {
 			XMLReader reader = XmlReaderUtil.createXmlReader();
 			SaxTaskListHandler handler = new SaxTaskListHandler(taskList, repositoryModel, repositoryManager);
-			reader.setContentHandler(handler);
+			List<byte[]> entries = (journal != null) ? journal.read(inFile) : Collections.emptyList();
+			if (entries.isEmpty()) {
+				reader.setContentHandler(handler);
+			} else {
+				reader.setContentHandler(new SaxTaskListJournalFilter(handler, entries));
+			}
 			reader.parse(new InputSource(taskListFile));
 			orphanDocument = handler.getOrphans();
 		} catch (SAXException | IOException e) {
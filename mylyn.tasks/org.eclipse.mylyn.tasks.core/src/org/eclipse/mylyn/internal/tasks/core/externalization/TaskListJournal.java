@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.externalization;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+
+/**
+ * An append-only log of task list changes that is stored next to the task list snapshot. Each entry is a deflated task
+ * list document that contains the elements that changed since the previous entry.
+ * <p>
+ * The journal header records the length and checksum of the snapshot it applies to. Entries are ignored if the
+ * snapshot was replaced by other means, e.g. when a backup was restored.
+ */
+public class TaskListJournal {
+
+	/**
+	 * Records that the top-level task list element of type <code>node</code> with <code>handle</code> was removed.
+	 */
+	public record Removal(String node, String handle) {
+	}
+
+	public static final String FILE_SUFFIX = ".journal"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x4D544C4A;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_LENGTH = 24;
+
+	private static final int ENTRY_HEADER_LENGTH = 8;
+
+	private static final int MAX_ENTRY_LENGTH = 64 * 1024 * 1024;
+
+	private final File snapshotFile;
+
+	private final File file;
+
+	private int entryCount;
+
+	private boolean attached;
+
+	/**
+	 * Creates a journal for changes to <code>snapshotFile</code> that is stored next to the snapshot.
+	 */
+	public TaskListJournal(File snapshotFile) {
+		this.snapshotFile = snapshotFile.getAbsoluteFile();
+		file = new File(this.snapshotFile.getParentFile(), this.snapshotFile.getName() + FILE_SUFFIX);
+	}
+
+	public File getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the number of entries that were appended or read since the journal was last reset.
+	 */
+	public int getEntryCount() {
+		return entryCount;
+	}
+
+	public long length() {
+		return file.length();
+	}
+
+	/**
+	 * Returns true, if the journal was last read or reset for the snapshot it is stored next to and entries may be
+	 * appended.
+	 */
+	public boolean isAttached() {
+		return attached;
+	}
+
+	/**
+	 * Discards all entries and starts a new journal for the current content of the snapshot.
+	 */
+	public void reset() throws IOException {
+		entryCount = 0;
+		attached = false;
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			DataOutputStream dataOut = new DataOutputStream(out);
+			dataOut.writeInt(MAGIC);
+			dataOut.writeInt(VERSION);
+			dataOut.writeLong(snapshotFile.length());
+			dataOut.writeLong(checksum(snapshotFile));
+			dataOut.flush();
+			out.getFD().sync();
+		}
+		attached = true;
+	}
+
+	public void append(byte[] document) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(document.length / 4 + 16);
+		try (DeflaterOutputStream deflater = new DeflaterOutputStream(buffer, new Deflater(Deflater.BEST_SPEED))) {
+			deflater.write(document);
+		}
+		byte[] payload = buffer.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		try (FileOutputStream out = new FileOutputStream(file, true)) {
+			DataOutputStream dataOut = new DataOutputStream(out);
+			dataOut.writeInt(payload.length);
+			dataOut.writeInt((int) crc.getValue());
+			dataOut.write(payload);
+			dataOut.flush();
+			out.getFD().sync();
+		}
+		entryCount++;
+	}
+
+	/**
+	 * Returns the documents of all complete entries in the order they were appended. Returns an empty list if the
+	 * journal does not apply to <code>sourceFile</code>, e.g. when loading a backup of the snapshot. A partially
+	 * written entry at the end of the journal, e.g. due to a crash, is discarded so that subsequent entries can be
+	 * appended.
+	 */
+	public List<byte[]> read(File sourceFile) {
+		List<byte[]> entries = new ArrayList<>();
+		entryCount = 0;
+		attached = false;
+		if (!file.exists() || !sourceFile.exists()) {
+			return entries;
+		}
+		long validLength = HEADER_LENGTH;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (!readHeader(in, sourceFile)) {
+				return entries;
+			}
+			attached = snapshotFile.equals(sourceFile.getAbsoluteFile());
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				int crc = in.readInt();
+				if (length < 0 || length > MAX_ENTRY_LENGTH) {
+					throw new IOException("Invalid journal entry length " + length); //$NON-NLS-1$
+				}
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				CRC32 actual = new CRC32();
+				actual.update(payload);
+				if ((int) actual.getValue() != crc) {
+					throw new IOException("Journal entry checksum mismatch"); //$NON-NLS-1$
+				}
+				try (InputStream inflater = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+					entries.add(inflater.readAllBytes());
+				}
+				validLength += ENTRY_HEADER_LENGTH + length;
+			}
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+					"Ignoring incomplete entries in task list journal \"" + file + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+			truncate(validLength);
+		}
+		entryCount = entries.size();
+		return entries;
+	}
+
+	public void delete() {
+		entryCount = 0;
+		attached = false;
+		file.delete();
+	}
+
+	private void truncate(long length) {
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			out.setLength(length);
+		} catch (IOException e) {
+			// the journal is reset on the next full save
+		}
+	}
+
+	private boolean readHeader(DataInputStream in, File sourceFile) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			return false;
+		}
+		long length = in.readLong();
+		long checksum = in.readLong();
+		return length == sourceFile.length() && checksum == checksum(sourceFile);
+	}
+
+	private static long checksum(File file) throws IOException {
+		try (CheckedInputStream in = new CheckedInputStream(new FileInputStream(file), new CRC32())) {
+			byte[] buffer = new byte[8192];
+			while (in.read(buffer) != -1) {
+				// consume
+			}
+			return in.getChecksum().getValue();
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Decides which queries are synchronized by background synchronizations. The scheduler learns the rate at which the
+ * results of each query change from past synchronizations and synchronizes busy queries more often than quiet ones.
+ * Queries without changes and queries that fail to synchronize are backed off exponentially. Intervals are randomized
+ * to spread synchronizations of queries that would otherwise always run together.
+ * <p>
+ * The number of requests per hour is limited by a global budget that is shared by all repositories. Queries that were
+ * synchronized explicitly by the user count towards the budget but are never limited by it.
+ * <p>
+ * Queries are identified by keys, typically their handle identifiers. Time is measured by a clock that can be replaced
+ * for simulations.
+ */
+public class AdaptiveSynchronizationScheduler {
+
+	public static final long DEFAULT_MIN_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+	public static final long DEFAULT_INTERVAL = TimeUnit.MINUTES.toMillis(20);
+
+	public static final long DEFAULT_MAX_INTERVAL = TimeUnit.HOURS.toMillis(4);
+
+	public static final int DEFAULT_REQUEST_BUDGET = 120;
+
+	static final long BUDGET_PERIOD = TimeUnit.HOURS.toMillis(1);
+
+	/**
+	 * Weight of the most recent observation in the estimated change rate.
+	 */
+	static final double RATE_WEIGHT = 0.3;
+
+	/**
+	 * Queries are synchronized about as often as their results are expected to change once.
+	 */
+	static final double TARGET_CHANGES = 1.0;
+
+	static final double BACKOFF_FACTOR = 2.0;
+
+	/**
+	 * Maximum relative deviation of the randomized interval.
+	 */
+	static final double JITTER = 0.2;
+
+	private static class QueryState {
+
+		/**
+		 * Estimated changes per millisecond or a negative value if no estimate is available.
+		 */
+		private double changeRate = -1;
+
+		private long interval;
+
+		private boolean synchronizedBefore;
+
+		private long lastSynchronization;
+
+		private long nextSynchronization;
+
+	}
+
+	private final LongSupplier clock;
+
+	private final Random random;
+
+	private final Map<String, QueryState> stateByKey = new HashMap<>();
+
+	private final Deque<Long> requestTimes = new ArrayDeque<>();
+
+	private long minInterval = DEFAULT_MIN_INTERVAL;
+
+	private long interval = DEFAULT_INTERVAL;
+
+	private long maxInterval = DEFAULT_MAX_INTERVAL;
+
+	private int requestBudget = DEFAULT_REQUEST_BUDGET;
+
+	public AdaptiveSynchronizationScheduler() {
+		this(System::currentTimeMillis, new Random());
+	}
+
+	public AdaptiveSynchronizationScheduler(LongSupplier clock, Random random) {
+		Assert.isNotNull(clock);
+		Assert.isNotNull(random);
+		this.clock = clock;
+		this.random = random;
+	}
+
+	/**
+	 * Sets the bounds for synchronization intervals and the interval that is used for queries that have not been
+	 * synchronized before.
+	 */
+	public synchronized void setIntervals(long minInterval, long interval, long maxInterval) {
+		Assert.isLegal(0 < minInterval && minInterval <= interval && interval <= maxInterval);
+		this.minInterval = minInterval;
+		this.interval = interval;
+		this.maxInterval = maxInterval;
+	}
+
+	public synchronized long getMinInterval() {
+		return minInterval;
+	}
+
+	/**
+	 * Sets the maximum number of requests per hour for background synchronizations.
+	 */
+	public synchronized void setRequestBudget(int requestBudget) {
+		Assert.isLegal(requestBudget > 0);
+		this.requestBudget = requestBudget;
+	}
+
+	public synchronized int getRemainingBudget() {
+		pruneRequests(clock.getAsLong());
+		return Math.max(0, requestBudget - requestTimes.size());
+	}
+
+	/**
+	 * Returns the keys of the queries that are due for synchronization, most overdue first. Queries that have not been
+	 * synchronized before are always due. The number of queries is limited by the remaining budget and one request is
+	 * accounted for each query that is returned.
+	 */
+	public synchronized List<String> selectDue(Collection<String> keys) {
+		long now = clock.getAsLong();
+		List<String> due = new ArrayList<>();
+		for (String key : keys) {
+			QueryState state = stateByKey.get(key);
+			if (state == null || state.nextSynchronization <= now) {
+				due.add(key);
+			}
+		}
+		due.sort(Comparator.comparingDouble((String key) -> getOverdueRatio(stateByKey.get(key), now)).reversed());
+
+		pruneRequests(now);
+		int remaining = Math.max(0, requestBudget - requestTimes.size());
+		if (due.size() > remaining) {
+			due = new ArrayList<>(due.subList(0, remaining));
+		}
+		for (int i = 0; i < due.size(); i++) {
+			requestTimes.addLast(now);
+		}
+		return due;
+	}
+
+	/**
+	 * Records that the query with <code>key</code> was synchronized successfully and <code>changedCount</code> of its
+	 * results had changed since the previous synchronization.
+	 */
+	public synchronized void synchronizationCompleted(String key, int changedCount) {
+		long now = clock.getAsLong();
+		QueryState state = getState(key);
+		if (state.synchronizedBefore && now > state.lastSynchronization) {
+			double rate = (double) changedCount / (now - state.lastSynchronization);
+			state.changeRate = (state.changeRate < 0) ? rate : RATE_WEIGHT * rate + (1 - RATE_WEIGHT) * state.changeRate;
+		}
+		state.synchronizedBefore = true;
+		state.lastSynchronization = now;
+
+		long nextInterval;
+		if (state.changeRate > 0) {
+			nextInterval = (long) Math.min(TARGET_CHANGES / state.changeRate, Long.MAX_VALUE);
+		} else if (state.changeRate == 0) {
+			nextInterval = (long) (state.interval * BACKOFF_FACTOR);
+		} else {
+			nextInterval = interval;
+		}
+		schedule(state, now, nextInterval);
+	}
+
+	/**
+	 * Records that synchronizing the query with <code>key</code> failed. The query is backed off without affecting
+	 * its estimated change rate.
+	 */
+	public synchronized void synchronizationFailed(String key) {
+		long now = clock.getAsLong();
+		QueryState state = getState(key);
+		schedule(state, now, (long) (state.interval * BACKOFF_FACTOR));
+	}
+
+	/**
+	 * Accounts for requests that are not covered by {@link #selectDue(Collection)}, e.g. for synchronizing tasks or
+	 * for synchronizations that were triggered by the user.
+	 */
+	public synchronized void recordRequests(int count) {
+		long now = clock.getAsLong();
+		for (int i = 0; i < count; i++) {
+			requestTimes.addLast(now);
+		}
+		pruneRequests(now);
+	}
+
+	/**
+	 * Returns the time at which the next query is due or {@link Long#MAX_VALUE} if no query is known.
+	 */
+	public synchronized long getNextSynchronizationTime() {
+		long next = Long.MAX_VALUE;
+		for (QueryState state : stateByKey.values()) {
+			next = Math.min(next, state.nextSynchronization);
+		}
+		return next;
+	}
+
+	/**
+	 * Returns the interval that was last scheduled for the query with <code>key</code> or <code>-1</code> if the
+	 * query is not known.
+	 */
+	public synchronized long getInterval(String key) {
+		QueryState state = stateByKey.get(key);
+		return (state != null) ? state.interval : -1;
+	}
+
+	/**
+	 * Discards the state of the query with <code>key</code>, e.g. when the query has been deleted.
+	 */
+	public synchronized void remove(String key) {
+		stateByKey.remove(key);
+	}
+
+	private QueryState getState(String key) {
+		return stateByKey.computeIfAbsent(key, k -> {
+			QueryState state = new QueryState();
+			state.interval = interval;
+			return state;
+		});
+	}
+
+	private void schedule(QueryState state, long now, long nextInterval) {
+		state.interval = Math.max(minInterval, Math.min(maxInterval, nextInterval));
+		double jitter = 1 + JITTER * (2 * random.nextDouble() - 1);
+		state.nextSynchronization = now + (long) (state.interval * jitter);
+	}
+
+	private double getOverdueRatio(QueryState state, long now) {
+		if (state == null) {
+			return Double.MAX_VALUE;
+		}
+		return (double) (now - state.nextSynchronization) / state.interval;
+	}
+
+	private void pruneRequests(long now) {
+		while (!requestTimes.isEmpty() && requestTimes.peekFirst() <= now - BUDGET_PERIOD) {
+			requestTimes.removeFirst();
+		}
+	}
+
+}
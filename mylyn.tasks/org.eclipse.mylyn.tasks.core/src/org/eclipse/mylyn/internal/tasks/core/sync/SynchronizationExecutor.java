@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.mylyn.commons.net.Policy;
+import org.eclipse.mylyn.internal.tasks.core.util.WorkerMonitor;
+import org.eclipse.mylyn.internal.tasks.core.util.WorkerThreadFactory;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+
+/**
+ * Runs synchronization operations for a repository either sequentially or with bounded parallelism. The number of
+ * operations that run in parallel is limited by {@link TaskRepository#SYNCHRONIZATION_MAX_CONCURRENCY} and the number
+ * of operations that access the same host across all repositories by the smallest
+ * {@link TaskRepository#SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST} of the repositories on the host.
+ * <p>
+ * Parallel synchronization is opt-in since connectors are not required to be thread-safe.
+ */
+class SynchronizationExecutor {
+
+	interface Operation<T> {
+
+		void run(T item, IProgressMonitor monitor);
+
+	}
+
+	interface Call<V> {
+
+		V call() throws CoreException;
+
+	}
+
+	/**
+	 * Upper bound for configured limits to avoid exhausting threads or connections through misconfiguration.
+	 */
+	static final int MAX_CONCURRENCY = 16;
+
+	private static final long POLL_INTERVAL = 100;
+
+	/**
+	 * Number of operations that may access a host in parallel if no repository on the host configures a limit.
+	 */
+	static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+	private static final Map<String, HostPermits> permitsByHost = new ConcurrentHashMap<>();
+
+	/**
+	 * The permits of a host. The semaphore is never replaced so that permits that are held while the limit changes
+	 * are still accounted for, the number of permits is adjusted instead.
+	 */
+	static class HostPermits extends Semaphore {
+
+		private static final long serialVersionUID = 1L;
+
+		private int limit = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
+		private boolean configured;
+
+		public HostPermits() {
+			super(DEFAULT_MAX_CONNECTIONS_PER_HOST, true);
+		}
+
+		/**
+		 * Limits the permits to the smallest limit that is configured by a repository on the host.
+		 */
+		synchronized void limit(int configuredLimit) {
+			if (configuredLimit <= 0 || (configured && configuredLimit >= limit)) {
+				return;
+			}
+			if (configuredLimit > limit) {
+				release(configuredLimit - limit);
+			} else if (configuredLimit < limit) {
+				// permits that are currently held are returned before new permits are granted
+				reducePermits(limit - configuredLimit);
+			}
+			limit = configuredLimit;
+			configured = true;
+		}
+
+		synchronized int getLimit() {
+			return limit;
+		}
+
+	}
+
+	private final TaskRepository repository;
+
+	private final int concurrency;
+
+	public SynchronizationExecutor(TaskRepository repository) {
+		this(repository, getMaxConcurrency(repository));
+	}
+
+	/**
+	 * Creates an executor that runs up to <code>concurrency</code> operations in parallel. If <code>repository</code>
+	 * is <code>null</code> operations are not subject to host limits, e.g. when each operation synchronizes a different
+	 * repository and enforces limits itself.
+	 */
+	public SynchronizationExecutor(TaskRepository repository, int concurrency) {
+		this.repository = repository;
+		this.concurrency = Math.max(1, Math.min(concurrency, MAX_CONCURRENCY));
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Runs <code>operation</code> for each item and reports <code>ticksPerItem</code> to <code>monitor</code> for
+	 * each completed item. Returns after all started operations have completed.
+	 *
+	 * @throws OperationCanceledException
+	 *             if <code>monitor</code> was canceled
+	 */
+	public <T> void run(Collection<T> items, Operation<T> operation, IProgressMonitor monitor, int ticksPerItem) {
+		if (concurrency == 1 || items.size() <= 1) {
+			for (T item : items) {
+				Policy.checkCanceled(monitor);
+				runWithPermit(item, operation, SubMonitor.convert(monitor, ticksPerItem), monitor);
+			}
+		} else {
+			runParallel(items, operation, monitor, ticksPerItem);
+		}
+	}
+
+	private <T> void runParallel(Collection<T> items, final Operation<T> operation, final IProgressMonitor monitor,
+			int ticksPerItem) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, items.size()),
+				new WorkerThreadFactory("Mylyn Synchronization Worker")); //$NON-NLS-1$
+		try {
+			CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+			final IProgressMonitor workerMonitor = new WorkerMonitor(monitor);
+			List<Future<T>> futures = new ArrayList<>(items.size());
+			for (final T item : items) {
+				futures.add(completionService.submit(() -> {
+					Policy.checkCanceled(workerMonitor);
+					runWithPermit(item, operation, workerMonitor, workerMonitor);
+					return item;
+				}));
+			}
+
+			RuntimeException failure = null;
+			Error error = null;
+			boolean canceled = false;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					completionService.take().get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					monitor.setCanceled(true);
+					canceled = true;
+					for (Future<T> future : futures) {
+						future.cancel(false);
+					}
+					break;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof OperationCanceledException) {
+						canceled = true;
+					} else if (cause instanceof Error && error == null) {
+						error = (Error) cause;
+					} else if (cause instanceof RuntimeException && failure == null) {
+						failure = (RuntimeException) cause;
+					}
+				}
+				monitor.worked(ticksPerItem);
+			}
+
+			if (error != null) {
+				throw error;
+			}
+			if (canceled || monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		} finally {
+			executor.shutdown();
+			awaitTermination(executor, monitor);
+		}
+	}
+
+	/**
+	 * Waits until all workers of <code>executor</code> have completed so that no operation outlives the caller.
+	 * Workers are interrupted when <code>monitor</code> is canceled.
+	 */
+	private static void awaitTermination(ExecutorService executor, IProgressMonitor monitor) {
+		boolean workersInterrupted = false;
+		try {
+			while (!executor.awaitTermination(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+				if (!workersInterrupted && monitor.isCanceled()) {
+					executor.shutdownNow();
+					workersInterrupted = true;
+				}
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private <T> void runWithPermit(T item, Operation<T> operation, IProgressMonitor operationMonitor,
+			IProgressMonitor cancelMonitor) {
+		if (repository == null) {
+			operation.run(item, operationMonitor);
+			return;
+		}
+		Semaphore semaphore = getHostPermits(repository);
+		acquire(semaphore, cancelMonitor);
+		try {
+			operation.run(item, operationMonitor);
+		} finally {
+			semaphore.release();
+		}
+	}
+
+	/**
+	 * Runs <code>call</code> while holding a permit for the host of <code>repository</code>, e.g. for requests that
+	 * are issued by other executors.
+	 */
+	static <V> V callWithHostPermit(TaskRepository repository, IProgressMonitor monitor, Call<V> call)
+			throws CoreException {
+		Semaphore semaphore = getHostPermits(repository);
+		acquire(semaphore, monitor);
+		try {
+			return call.call();
+		} finally {
+			semaphore.release();
+		}
+	}
+
+	private static void acquire(Semaphore semaphore, IProgressMonitor monitor) {
+		try {
+			while (!semaphore.tryAcquire(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+				Policy.checkCanceled(monitor);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * Returns the permits shared by all repositories on the host of <code>repository</code>. The permits are limited
+	 * to the smallest limit that is configured by any repository on the host, or
+	 * {@link #DEFAULT_MAX_CONNECTIONS_PER_HOST} if no repository configures a limit.
+	 */
+	static HostPermits getHostPermits(TaskRepository repository) {
+		String host = getHost(repository.getRepositoryUrl());
+		HostPermits permits = permitsByHost.computeIfAbsent(host, key -> new HostPermits());
+		permits.limit(getMaxConnectionsPerHost(repository));
+		return permits;
+	}
+
+	static String getHost(String repositoryUrl) {
+		try {
+			String host = new URI(repositoryUrl).getHost();
+			if (host != null) {
+				return host.toLowerCase();
+			}
+		} catch (URISyntaxException e) {
+			// fall through
+		}
+		return repositoryUrl;
+	}
+
+	/**
+	 * Returns the number of operations that may run in parallel for <code>repository</code>, defaults to 1.
+	 */
+	static int getMaxConcurrency(TaskRepository repository) {
+		return Math.max(1, parseLimit(repository.getProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY)));
+	}
+
+	/**
+	 * Returns the number of operations that may access the host of <code>repository</code> in parallel or 0, if
+	 * neither a host limit nor a concurrency limit is set and the default applies.
+	 */
+	static int getMaxConnectionsPerHost(TaskRepository repository) {
+		int limit = parseLimit(repository.getProperty(TaskRepository.SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST));
+		if (limit <= 0) {
+			limit = parseLimit(repository.getProperty(TaskRepository.SYNCHRONIZATION_MAX_CONCURRENCY));
+		}
+		return limit;
+	}
+
+	private static int parseLimit(String value) {
+		if (value != null) {
+			try {
+				return Math.min(Integer.parseInt(value.trim()), MAX_CONCURRENCY);
+			} catch (NumberFormatException e) {
+				// ignore
+			}
+		}
+		return 0;
+	}
+
+}
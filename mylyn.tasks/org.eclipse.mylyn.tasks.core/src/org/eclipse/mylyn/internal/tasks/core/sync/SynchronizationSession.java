@@ -13,9 +13,8 @@
 
 package org.eclipse.mylyn.internal.tasks.core.sync;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -39,7 +38,7 @@ public class SynchronizationSession implements ISynchronizationSession {
 
 	private boolean performQueries;
 
-	private Set<ITask> staleTasks;
+	private final Set<ITask> staleTasks = ConcurrentHashMap.newKeySet();
 
 	private IStatus status;
 
@@ -68,12 +67,12 @@ public class SynchronizationSession implements ISynchronizationSession {
 		return data;
 	}
 
+	/**
+	 * Returns the tasks that were marked stale. Tasks may be marked concurrently while queries are synchronized in
+	 * parallel.
+	 */
 	public Set<ITask> getStaleTasks() {
-		if (staleTasks == null) {
-			return Collections.emptySet();
-		} else {
-			return staleTasks;
-		}
+		return staleTasks;
 	}
 
 	@Override
@@ -108,9 +107,6 @@ public class SynchronizationSession implements ISynchronizationSession {
 
 	@Override
 	public void markStale(ITask task) {
-		if (staleTasks == null) {
-			staleTasks = new HashSet<>();
-		}
 		staleTasks.add(task);
 	}
 
@@ -20,11 +20,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -61,15 +61,56 @@ import org.eclipse.osgi.util.NLS;
  */
 public class SynchronizeQueriesJob extends SynchronizationJob {
 
+	private class QuerySynchronizationSession extends SynchronizationSession {
+
+		private final Map<String, TaskRelation[]> relationsByTaskId = new ConcurrentHashMap<>();
+
+		public QuerySynchronizationSession() {
+			super(taskDataManager);
+		}
+
+		@Override
+		public void putTaskData(ITask task, TaskData taskData) throws CoreException {
+			updateTaskData(task, taskData);
+		}
+
+		/**
+		 * Stores <code>taskData</code> for <code>task</code>.
+		 *
+		 * @return true, if the connector reported the task as changed
+		 */
+		public boolean updateTaskData(ITask task, TaskData taskData) throws CoreException {
+			boolean changed = connector.hasTaskChanged(repository, task, taskData);
+			taskDataManager.putUpdatedTaskData(task, taskData, isUser(), this, monitor);
+			if (taskData.isPartial()) {
+				if (changed && connector.canSynchronizeTask(repository, task)) {
+					markStale(task);
+				}
+			} else {
+				Collection<TaskRelation> relations = connector.getTaskRelations(taskData);
+				if (relations != null) {
+					relationsByTaskId.put(task.getTaskId(), relations.toArray(new TaskRelation[0]));
+				}
+			}
+			return changed;
+		}
+
+	}
+
 	private class TaskCollector extends TaskDataCollector {
 
 		private final Set<ITask> removedQueryResults;
 
 		private final RepositoryQuery repositoryQuery;
 
-		private final SynchronizationSession session;
+		private final QuerySynchronizationSession session;
 
-		public TaskCollector(RepositoryQuery repositoryQuery, SynchronizationSession session) {
+		/**
+		 * Results of the query that are new or were reported as changed by the connector.
+		 */
+		private final Set<ITask> changedResults = new HashSet<>();
+
+		public TaskCollector(RepositoryQuery repositoryQuery, QuerySynchronizationSession session) {
 			this.repositoryQuery = repositoryQuery;
 			this.session = session;
 			removedQueryResults = new HashSet<>(repositoryQuery.getChildren());
@@ -77,19 +118,26 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 
 		@Override
 		public void accept(TaskData taskData) {
-			ITask task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
-			if (task == null) {
-				task = tasksModel.createTask(repository, taskData.getTaskId());
-				((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
-				if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
-					session.markStale(task);
+			ITask task;
+			// queries may be synchronized in parallel, avoid creating duplicate tasks for results of several queries
+			synchronized (taskCreationLock) {
+				task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
+				if (task == null) {
+					task = tasksModel.createTask(repository, taskData.getTaskId());
+					((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
+					changedResults.add(task);
+					if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
+						session.markStale(task);
+					}
+				} else {
+					removedQueryResults.remove(task);
 				}
-			} else {
-				removedQueryResults.remove(task);
+				taskList.addTask(task, repositoryQuery);
 			}
-			taskList.addTask(task, repositoryQuery);
 			try {
-				session.putTaskData(task, taskData);
+				if (session.updateTaskData(task, taskData)) {
+					changedResults.add(task);
+				}
 			} catch (CoreException e) {
 				StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed to save task", e)); //$NON-NLS-1$
 			}
@@ -99,6 +147,13 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 			return removedQueryResults;
 		}
 
+		/**
+		 * Returns the number of results that were added or changed.
+		 */
+		public int getChangedCount() {
+			return changedResults.size() + removedQueryResults.size();
+		}
+
 		@Override
 		public void failed(String taskId, IStatus status) {
 			ITask task = taskList.getTask(repositoryQuery.getRepositoryUrl(), taskId);
@@ -128,6 +183,10 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 
 	private final List<IStatus> statuses;
 
+	private final Object taskCreationLock = new Object();
+
+	private AdaptiveSynchronizationScheduler scheduler;
+
 	public SynchronizeQueriesJob(TaskList taskList, TaskDataManager taskDataManager, IRepositoryModel tasksModel,
 			AbstractRepositoryConnector connector, TaskRepository repository, Set<RepositoryQuery> queries) {
 		super(Messages.SynchronizeQueriesJob_Synchronizing_Queries + " (" + repository.getRepositoryLabel() + ")"); //$NON-NLS-1$//$NON-NLS-2$
@@ -137,7 +196,7 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		this.connector = connector;
 		this.repository = repository;
 		this.queries = queries;
-		statuses = new ArrayList<>();
+		statuses = Collections.synchronizedList(new ArrayList<>());
 	}
 
 	@Override
@@ -162,24 +221,7 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 				try {
 					Job.getJobManager().beginRule(rule, monitor);
 
-					final Map<String, TaskRelation[]> relationsByTaskId = new HashMap<>();
-					SynchronizationSession session = new SynchronizationSession(taskDataManager) {
-						@Override
-						public void putTaskData(ITask task, TaskData taskData) throws CoreException {
-							boolean changed = connector.hasTaskChanged(repository, task, taskData);
-							taskDataManager.putUpdatedTaskData(task, taskData, isUser(), this, monitor);
-							if (taskData.isPartial()) {
-								if (changed && connector.canSynchronizeTask(repository, task)) {
-									markStale(task);
-								}
-							} else {
-								Collection<TaskRelation> relations = connector.getTaskRelations(taskData);
-								if (relations != null) {
-									relationsByTaskId.put(task.getTaskId(), relations.toArray(new TaskRelation[0]));
-								}
-							}
-						}
-					};
+					QuerySynchronizationSession session = new QuerySynchronizationSession();
 					session.setTaskRepository(repository);
 					session.setFullSynchronization(isFullSynchronization());
 					session.setTasks(Collections.unmodifiableSet(allTasks));
@@ -195,6 +237,16 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 							synchronizeQueries(monitor, session);
 						} else {
 							monitor.worked(queries.size() * 20);
+							if (scheduler != null) {
+								for (RepositoryQuery repositoryQuery : queries) {
+									if (success) {
+										// the connector determined that the queries are unchanged
+										scheduler.synchronizationCompleted(repositoryQuery.getHandleIdentifier(), 0);
+									} else {
+										scheduler.synchronizationFailed(repositoryQuery.getHandleIdentifier());
+									}
+								}
+							}
 						}
 					} finally {
 						for (RepositoryQuery repositoryQuery : queries) {
@@ -223,8 +275,16 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 						}
 						statuses.addAll(job.getStatuses());
 					}
+					if (scheduler != null) {
+						scheduler.recordRequests(tasksToBeSynchronized.size());
+						if (queries.isEmpty()) {
+							// the repository is scheduled by itself if it has no queries
+							scheduler.synchronizationCompleted(repository.getRepositoryUrl(),
+									tasksToBeSynchronized.size());
+						}
+					}
 					monitor.subTask(Messages.SynchronizeQueriesJob_Receiving_related_tasks);
-					job.synchronizedTaskRelations(monitor, relationsByTaskId);
+					job.synchronizedTaskRelations(monitor, session.relationsByTaskId);
 					monitor.worked(10);
 
 					session.setChangedTasks(tasksToBeSynchronized);
@@ -256,13 +316,13 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		return Status.OK_STATUS;
 	}
 
-	private void synchronizeQueries(IProgressMonitor monitor, SynchronizationSession session) {
-		for (RepositoryQuery repositoryQuery : queries) {
-			Policy.checkCanceled(monitor);
-			monitor.subTask(MessageFormat.format(Messages.SynchronizeQueriesJob_Synchronizing_query_X,
+	private void synchronizeQueries(IProgressMonitor monitor, QuerySynchronizationSession session) {
+		SynchronizationExecutor executor = new SynchronizationExecutor(repository);
+		executor.run(queries, (repositoryQuery, queryMonitor) -> {
+			queryMonitor.subTask(MessageFormat.format(Messages.SynchronizeQueriesJob_Synchronizing_query_X,
 					repositoryQuery.getSummary()));
-			synchronizeQuery(repositoryQuery, session, SubMonitor.convert(monitor, 20));
-		}
+			synchronizeQuery(repositoryQuery, session, queryMonitor);
+		}, monitor, 20);
 	}
 
 	private boolean postSynchronization(SynchronizationSession event, IProgressMonitor monitor) {
@@ -297,7 +357,7 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		}
 	}
 
-	private void synchronizeQuery(RepositoryQuery repositoryQuery, SynchronizationSession event,
+	private void synchronizeQuery(RepositoryQuery repositoryQuery, QuerySynchronizationSession event,
 			IProgressMonitor monitor) {
 		TaskCollector collector = new TaskCollector(repositoryQuery, event);
 
@@ -312,11 +372,17 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 			}
 
 			repositoryQuery.setLastSynchronizedStamp(new SimpleDateFormat("MMM d, H:mm:ss").format(new Date())); //$NON-NLS-1$
+			if (scheduler != null) {
+				scheduler.synchronizationCompleted(repositoryQuery.getHandleIdentifier(), collector.getChangedCount());
+			}
 		} else if (result.getSeverity() == IStatus.CANCEL) {
 			throw new OperationCanceledException();
 		} else {
 			repositoryQuery.setStatus(result);
 			statuses.add(result);
+			if (scheduler != null) {
+				scheduler.synchronizationFailed(repositoryQuery.getHandleIdentifier());
+			}
 		}
 	}
 
@@ -327,6 +393,13 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		taskList.notifySynchronizationStateChanged(queries);
 	}
 
+	/**
+	 * Sets the scheduler that is informed about the results of each query synchronization.
+	 */
+	public void setScheduler(AdaptiveSynchronizationScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
 	public Collection<IStatus> getStatuses() {
 		return Collections.unmodifiableCollection(statuses);
 	}
@@ -18,6 +18,7 @@ import java.text.MessageFormat;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -55,6 +56,13 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 	private static final boolean TRACE_ENABLED = Boolean
 			.parseBoolean(Platform.getDebugOption("org.eclipse.mylyn.tasks.core/debug/synchronization")); //$NON-NLS-1$
 
+	/**
+	 * System property that sets the maximum number of repositories that are synchronized in parallel. Repositories are
+	 * synchronized sequentially by default since connectors are not required to be thread-safe. Limits for requests to
+	 * a single host are enforced by {@link SynchronizationExecutor} for each query and task.
+	 */
+	static final String PROP_MAX_CONCURRENT_REPOSITORIES = "org.eclipse.mylyn.tasks.synchronization.max.concurrent.repositories"; //$NON-NLS-1$
+
 	private final TaskList taskList;
 
 	private final TaskDataManager taskDataManager;
@@ -67,6 +75,10 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 
 	private final Map<QualifiedName, Object> properties = new ConcurrentHashMap<>();
 
+	private AdaptiveSynchronizationScheduler scheduler;
+
+	private int maxConcurrentRepositories = Integer.getInteger(PROP_MAX_CONCURRENT_REPOSITORIES, 1);
+
 	public SynchronizeRepositoriesJob(TaskList taskList, TaskDataManager taskDataManager, IRepositoryModel tasksModel,
 			IRepositoryManager repositoryManager) {
 		super(Messages.SynchronizeRepositoriesJob_Synchronizing_Task_List);
@@ -80,6 +92,30 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 		return Collections.unmodifiableCollection(repositories);
 	}
 
+	public AdaptiveSynchronizationScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * Sets a scheduler that selects the queries for background synchronizations. If not set, all queries that are
+	 * configured for automatic updates are synchronized.
+	 */
+	public void setScheduler(AdaptiveSynchronizationScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	public int getMaxConcurrentRepositories() {
+		return maxConcurrentRepositories;
+	}
+
+	/**
+	 * Sets the maximum number of repositories that are synchronized in parallel. Only set a value greater than 1 if the
+	 * connectors of all repositories are thread-safe. Defaults to 1.
+	 */
+	public void setMaxConcurrentRepositories(int maxConcurrentRepositories) {
+		this.maxConcurrentRepositories = maxConcurrentRepositories;
+	}
+
 	public void setRepositories(Collection<TaskRepository> repositories) {
 		if (repositories != null) {
 			this.repositories = new HashSet<>(repositories);
@@ -105,47 +141,8 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 				if (TRACE_ENABLED) {
 					trace("Starting repository synchronization"); //$NON-NLS-1$
 				}
-				for (TaskRepository repository : repositories) {
-					if (monitor.isCanceled()) {
-						return Status.CANCEL_STATUS;
-					}
-
-					if (repository.isOffline()) {
-						if (TRACE_ENABLED) {
-							trace("Skipping synchronization for " + repository.getRepositoryLabel()); //$NON-NLS-1$
-						}
-						monitor.worked(100);
-						continue;
-					}
-
-					monitor.setTaskName(MessageFormat.format(Messages.SynchronizeRepositoriesJob_Processing_,
-							repository.getRepositoryLabel()));
-
-					final AbstractRepositoryConnector connector = repositoryManager
-							.getRepositoryConnector(repository.getConnectorKind());
-					Set<RepositoryQuery> queries = new HashSet<>(
-							taskList.getRepositoryQueries(repository.getRepositoryUrl()));
-					// remove queries that are not configured for auto update
-					if (!isUser()) {
-						for (Iterator<RepositoryQuery> it = queries.iterator(); it.hasNext();) {
-							if (!it.next().getAutoUpdate()) {
-								it.remove();
-							}
-						}
-					}
-
-					if (isUser() || queries.isEmpty()) {
-						monitor.worked(20);
-					} else {
-						// occasionally request update of repository configuration attributes as part of background synchronizations
-						updateRepositoryConfiguration(repository, connector, SubMonitor.convert(monitor, 20));
-					}
-
-					if (TRACE_ENABLED) {
-						trace("Synchronizing queries for " + repository.getRepositoryLabel()); //$NON-NLS-1$
-					}
-					updateQueries(repository, connector, queries, monitor);
-				}
+				SynchronizationExecutor executor = new SynchronizationExecutor(null, maxConcurrentRepositories);
+				executor.run(repositories, this::synchronizeRepository, monitor, 100);
 				if (TRACE_ENABLED) {
 					trace("Completed repository synchronization"); //$NON-NLS-1$
 				}
@@ -164,6 +161,72 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 		return Status.OK_STATUS;
 	}
 
+	private void synchronizeRepository(TaskRepository repository, IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, 100);
+		if (repository.isOffline()) {
+			if (TRACE_ENABLED) {
+				trace("Skipping synchronization for " + repository.getRepositoryLabel()); //$NON-NLS-1$
+			}
+			return;
+		}
+
+		progress.setTaskName(
+				MessageFormat.format(Messages.SynchronizeRepositoriesJob_Processing_, repository.getRepositoryLabel()));
+
+		final AbstractRepositoryConnector connector = repositoryManager
+				.getRepositoryConnector(repository.getConnectorKind());
+		Set<RepositoryQuery> queries = new HashSet<>(taskList.getRepositoryQueries(repository.getRepositoryUrl()));
+		// remove queries that are not configured for auto update
+		if (!isUser()) {
+			for (Iterator<RepositoryQuery> it = queries.iterator(); it.hasNext();) {
+				if (!it.next().getAutoUpdate()) {
+					it.remove();
+				}
+			}
+			if (scheduler != null && !selectDueQueries(repository, queries)) {
+				if (TRACE_ENABLED) {
+					trace("No queries due for " + repository.getRepositoryLabel()); //$NON-NLS-1$
+				}
+				return;
+			}
+		} else if (scheduler != null) {
+			scheduler.recordRequests(Math.max(1, queries.size()));
+		}
+
+		if (isUser() || queries.isEmpty()) {
+			progress.worked(20);
+		} else {
+			// occasionally request update of repository configuration attributes as part of background synchronizations
+			updateRepositoryConfiguration(repository, connector, progress.newChild(20));
+		}
+
+		if (TRACE_ENABLED) {
+			trace("Synchronizing queries for " + repository.getRepositoryLabel()); //$NON-NLS-1$
+		}
+		updateQueries(repository, connector, queries, progress.newChild(80));
+	}
+
+	/**
+	 * Removes queries that are not due from <code>queries</code>. A repository without queries is scheduled by its
+	 * URL.
+	 *
+	 * @return false, if the repository does not need to be synchronized
+	 */
+	private boolean selectDueQueries(TaskRepository repository, Set<RepositoryQuery> queries) {
+		if (queries.isEmpty()) {
+			return !scheduler.selectDue(Set.of(repository.getRepositoryUrl())).isEmpty();
+		}
+		Map<String, RepositoryQuery> queryByHandle = new HashMap<>();
+		for (RepositoryQuery query : queries) {
+			queryByHandle.put(query.getHandleIdentifier(), query);
+		}
+		queries.clear();
+		for (String handle : scheduler.selectDue(queryByHandle.keySet())) {
+			queries.add(queryByHandle.get(handle));
+		}
+		return !queries.isEmpty();
+	}
+
 	private void updateQueries(TaskRepository repository, final AbstractRepositoryConnector connector,
 			Set<RepositoryQuery> queries, IProgressMonitor monitor) {
 		if (isUser()) {
@@ -183,13 +246,14 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 		job.setFetchSubtasks(getFetchSubtasks());
 		job.setUser(isUser());
 		job.setFullSynchronization(true);
+		job.setScheduler(scheduler);
 		job.setPriority(Job.DECORATE);
 		// propagate all properties from the current job to the newly created job to make sure the job icon, showing progress on the system taskbar, etc. are maintained.
 		copyPropertiesTo(job);
 		if (isUser()) {
 			job.schedule();
 		} else {
-			job.run(SubMonitor.convert(monitor, 80));
+			job.run(monitor);
 		}
 	}
 
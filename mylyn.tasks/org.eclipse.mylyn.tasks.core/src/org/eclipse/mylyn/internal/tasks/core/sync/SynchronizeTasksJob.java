@@ -20,9 +20,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -48,6 +50,7 @@ import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.eclipse.mylyn.tasks.core.data.TaskDataFetcher;
 import org.eclipse.mylyn.tasks.core.data.TaskRelation;
 import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
 import org.eclipse.osgi.util.NLS;
@@ -96,7 +99,7 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 		this.connector = connector;
 		this.repositoryManager = repositoryManager;
 		allTasks = tasks;
-		statuses = new ArrayList<>();
+		statuses = Collections.synchronizedList(new ArrayList<>());
 		setRule(new MutexSchedulingRule());
 	}
 
@@ -149,7 +152,7 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 	}
 
 	private void run(Set<ITask> tasks, IProgressMonitor monitor) {
-		relationsByTaskId = new HashMap<>();
+		relationsByTaskId = new ConcurrentHashMap<>();
 		updateRelations = true;
 		runInternal(tasks, monitor);
 		synchronizedTaskRelations(monitor, relationsByTaskId);
@@ -199,11 +202,11 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 		}
 		try {
 			monitor.beginTask(Messages.SynchronizeTasksJob_Processing, tasks.size() * 100);
+			for (ITask task : tasks) {
+				resetStatus(task);
+			}
 			if (canGetMultiTaskData(taskRepository)) {
 				try {
-					for (ITask task : tasks) {
-						resetStatus(task);
-					}
 					synchronizeTasks(SubMonitor.convert(monitor, tasks.size() * 100), taskRepository, tasks);
 				} catch (CoreException e) {
 					for (ITask task : tasks) {
@@ -211,15 +214,7 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 					}
 				}
 			} else {
-				for (ITask task : tasks) {
-					Policy.checkCanceled(monitor);
-					resetStatus(task);
-					try {
-						synchronizeTask(SubMonitor.convert(monitor, 100), task);
-					} catch (CoreException e) {
-						updateStatus(taskRepository, task, e.getStatus());
-					}
-				}
+				fetchTasks(SubMonitor.convert(monitor, tasks.size() * 100), taskRepository, tasks);
 			}
 		} catch (OperationCanceledException e) {
 			throw e;
@@ -235,22 +230,6 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 		return taskDataHandler != null && taskDataHandler.canGetMultiTaskData(taskRepository);
 	}
 
-	private void synchronizeTask(IProgressMonitor monitor, ITask task) throws CoreException {
-		monitor.subTask(MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_task_X, task.getSummary()));
-		resetStatus(task);
-		if (!isUser()) {
-			monitor = Policy.backgroundMonitorFor(monitor);
-		}
-		String taskId = task.getTaskId();
-		TaskData taskData = connector.getTaskData(taskRepository, taskId, monitor);
-		if (taskData != null) {
-			updateFromTaskData(taskRepository, task, taskData, monitor);
-			return;
-		}
-		throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
-				"Connector failed to return task data for task \"" + task + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
-	}
-
 	private ITask synchronizeTask(IProgressMonitor monitor, String taskId) throws CoreException {
 		monitor.subTask(MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_task_X, taskId));
 		if (!isUser()) {
@@ -283,7 +262,62 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 			idToTask.put(task.getTaskId(), task);
 		}
 
-		TaskDataCollector collector = new TaskDataCollector() {
+		Set<String> taskIds = Collections.unmodifiableSet(new HashSet<>(idToTask.keySet()));
+		connector.getTaskDataHandler()
+				.getMultiTaskData(repository, taskIds, createCollector(monitor, repository, idToTask), monitor);
+	}
+
+	/**
+	 * Retrieves tasks one at a time for connectors that do not support retrieving multiple tasks in one request.
+	 * Requests run concurrently if the repository opts in through
+	 * {@link TaskRepository#SYNCHRONIZATION_MAX_CONCURRENCY} while task data is processed on the job thread.
+	 */
+	private void fetchTasks(final IProgressMonitor monitor, final TaskRepository repository, Set<ITask> tasks) {
+		monitor.subTask(MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_X_tasks_from_X, tasks.size(),
+				repository.getRepositoryLabel()));
+
+		final Map<String, ITask> tasksById = new LinkedHashMap<>();
+		for (ITask task : tasks) {
+			tasksById.put(task.getTaskId(), task);
+		}
+		List<String> taskIds = new ArrayList<>(tasksById.keySet());
+
+		TaskDataFetcher fetcher = new TaskDataFetcher(SynchronizationExecutor.getMaxConcurrency(repository));
+		fetcher.fetch(taskIds, (taskId, taskMonitor) -> SynchronizationExecutor.callWithHostPermit(repository,
+				taskMonitor, () -> getTaskData(repository, tasksById.get(taskId), taskMonitor)),
+				new TaskDataFetcher.RequestCollector() {
+					@Override
+					public void accept(String taskId, TaskData taskData) {
+						// match results by the requested id since connectors may return a different id, e.g. a key
+						ITask task = tasksById.get(taskId);
+						monitor.subTask(
+								MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_task_X, task.getSummary()));
+						updateFromTaskData(repository, task, taskData, monitor);
+					}
+
+					@Override
+					public void failed(String taskId, IStatus status) {
+						updateStatus(repository, tasksById.get(taskId), status);
+					}
+				}, monitor);
+	}
+
+	private TaskData getTaskData(TaskRepository repository, ITask task, IProgressMonitor monitor)
+			throws CoreException {
+		if (!isUser()) {
+			monitor = Policy.backgroundMonitorFor(monitor);
+		}
+		TaskData taskData = connector.getTaskData(repository, task.getTaskId(), monitor);
+		if (taskData != null) {
+			return taskData;
+		}
+		throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+				"Connector failed to return task data for task \"" + task + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private TaskDataCollector createCollector(final IProgressMonitor monitor, final TaskRepository repository,
+			final Map<String, ITask> idToTask) {
+		return new TaskDataCollector() {
 			@Override
 			public void accept(TaskData taskData) {
 				ITask task = idToTask.remove(taskData.getTaskId());
@@ -296,13 +330,10 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 			public void failed(String taskId, IStatus status) {
 				ITask task = idToTask.get(taskId);
 				if (task != null) {
-					updateStatus(taskRepository, task, status);
+					updateStatus(repository, task, status);
 				}
 			}
 		};
-
-		Set<String> taskIds = Collections.unmodifiableSet(new HashSet<>(idToTask.keySet()));
-		connector.getTaskDataHandler().getMultiTaskData(repository, taskIds, collector, monitor);
 	}
 
 	private void updateFromTaskData(TaskRepository taskRepository, ITask task, TaskData taskData,
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.util;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+/**
+ * Delegates cancellation to the monitor of the caller but ignores progress reported by workers which is tracked per
+ * completed item by the caller instead. Wrapping preserves access to the delegating monitor of the caller.
+ */
+public class WorkerMonitor extends ProgressMonitorWrapper {
+
+	public WorkerMonitor(IProgressMonitor monitor) {
+		super(monitor);
+	}
+
+	@Override
+	public void beginTask(String name, int totalWork) {
+	}
+
+	@Override
+	public void done() {
+	}
+
+	@Override
+	public void internalWorked(double work) {
+	}
+
+	@Override
+	public void setTaskName(String name) {
+	}
+
+	@Override
+	public void subTask(String name) {
+	}
+
+	@Override
+	public void worked(int work) {
+	}
+
+}
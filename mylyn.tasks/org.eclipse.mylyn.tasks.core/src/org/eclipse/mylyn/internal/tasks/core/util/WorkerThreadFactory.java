@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates numbered daemon threads for executors that run synchronization requests in parallel.
+ */
+public class WorkerThreadFactory implements ThreadFactory {
+
+	private final String name;
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	public WorkerThreadFactory(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet()); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
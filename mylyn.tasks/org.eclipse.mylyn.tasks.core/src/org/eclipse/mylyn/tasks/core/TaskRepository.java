@@ -159,6 +159,26 @@ public final class TaskRepository extends PlatformObject {
 	 */
 	public static final String CATEGORY_REVIEW = "org.eclipse.mylyn.category.review"; //$NON-NLS-1$
 
+	/**
+	 * Property for the maximum number of queries or tasks that are synchronized in parallel for this repository. If
+	 * not set, synchronization is sequential.
+	 *
+	 * @see #setProperty(String, String)
+	 * @since 4.3
+	 */
+	public static final String SYNCHRONIZATION_MAX_CONCURRENCY = "org.eclipse.mylyn.tasklist.repositories.synchronization.maxConcurrency"; //$NON-NLS-1$
+
+	/**
+	 * Property for the maximum number of synchronization requests that may be in progress at the same time for the
+	 * host of this repository, including requests for other repositories on the same host. Defaults to
+	 * {@link #SYNCHRONIZATION_MAX_CONCURRENCY}. If repositories on the same host set different limits, the smallest
+	 * limit applies to all of them.
+	 *
+	 * @see #setProperty(String, String)
+	 * @since 4.3
+	 */
+	public static final String SYNCHRONIZATION_MAX_CONNECTIONS_PER_HOST = "org.eclipse.mylyn.tasklist.repositories.synchronization.maxConnectionsPerHost"; //$NON-NLS-1$
+
 	private final Set<PropertyChangeListener> propertyChangeListeners = new HashSet<>();
 
 	private static String CREATED_FROM_TEMPLATE = "org.eclipse.mylyn.tasklist.repositories.template"; //$NON-NLS-1$
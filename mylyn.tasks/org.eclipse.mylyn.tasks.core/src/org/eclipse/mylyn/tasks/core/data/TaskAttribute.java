@@ -9,20 +9,27 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.tasks.core.data;
 
+import java.util.AbstractList;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryPerson;
+import org.eclipse.mylyn.internal.tasks.core.data.ArrayMap;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskAttributeAccess;
 
 /**
  * Encapsulates attributes for task data.
@@ -396,22 +403,37 @@ public final class TaskAttribute {
 	 */
 	public static final String VERSION = "task.common.version"; //$NON-NLS-1$
 
-	private Map<String, TaskAttribute> attributeById;
+	private static final String[] NO_VALUES = new String[0];
+
+	static {
+		TaskAttributeAccess.setSharer(TaskAttribute::shareOptionsAndMetaData);
+	}
+
+	private ArrayMap<String, TaskAttribute> attributeById;
 
 	private final String attributeId;
 
-	private Map<String, String> metaData;
+	/**
+	 * Meta-data and options of copies and of task data that is read from disk are canonicalized since attributes of
+	 * tasks from the same repository typically have identical meta-data and options. Shared maps are copied before
+	 * they are modified.
+	 */
+	private ArrayMap<String, String> metaData;
 
-	private Map<String, String> optionByKey;
+	private ArrayMap<String, String> optionByKey;
 
 	private final TaskAttribute parentAttribute;
 
 	private final TaskData taskData;
 
 	/**
-	 * Attribute's values (selected or added)
+	 * Attribute's values (selected or added). Only the first {@link #valueCount} elements are used. Arrays with unused
+	 * capacity are owned by this attribute and grown in place by {@link #addValue(String)}, arrays without unused
+	 * capacity may be shared and are replaced on modification.
 	 */
-	private final List<String> values;
+	private String[] values;
+
+	private int valueCount;
 
 	public TaskAttribute(TaskAttribute parentAttribute, String attributeId) {
 		Assert.isNotNull(parentAttribute);
@@ -419,7 +441,7 @@ public final class TaskAttribute {
 		this.parentAttribute = parentAttribute;
 		this.attributeId = attributeId.intern();
 		taskData = parentAttribute.getTaskData();
-		values = new ArrayList<>(1);
+		values = NO_VALUES;
 		parentAttribute.add(this);
 	}
 
@@ -431,19 +453,22 @@ public final class TaskAttribute {
 		parentAttribute = null;
 		this.taskData = taskData;
 		attributeId = "root"; //$NON-NLS-1$
-		values = new ArrayList<>(1);
+		values = NO_VALUES;
 	}
 
 	private void add(TaskAttribute attribute) {
 		if (attributeById == null) {
-			attributeById = new LinkedHashMap<>();
+			attributeById = new ArrayMap<>();
 		}
 		attributeById.put(attribute.getId(), attribute);
 	}
 
 	public void addValue(String value) {
 		Assert.isNotNull(value);
-		values.add(value);
+		if (valueCount == values.length) {
+			values = Arrays.copyOf(values, valueCount + (valueCount >> 1) + 1);
+		}
+		values[valueCount++] = value;
 	}
 
 	public void clearAttributes() {
@@ -459,7 +484,8 @@ public final class TaskAttribute {
 	}
 
 	public void clearValues() {
-		values.clear();
+		values = NO_VALUES;
+		valueCount = 0;
 	}
 
 	public TaskAttribute createAttribute(String attributeId) {
@@ -468,12 +494,18 @@ public final class TaskAttribute {
 
 	public void deepAddCopy(TaskAttribute source) {
 		TaskAttribute target = createAttribute(source.getId());
-		target.values.addAll(source.values);
+		if (source.valueCount > 0) {
+			// arrays without unused capacity are never modified in place
+			target.values = (source.values.length == source.valueCount)
+					? source.values
+					: Arrays.copyOf(source.values, source.valueCount);
+			target.valueCount = source.valueCount;
+		}
 		if (source.metaData != null) {
-			target.metaData = new LinkedHashMap<>(source.metaData);
+			target.metaData = ArrayMap.internCopy(source.metaData);
 		}
 		if (source.optionByKey != null) {
-			target.optionByKey = new LinkedHashMap<>(source.optionByKey);
+			target.optionByKey = ArrayMap.internCopy(source.optionByKey);
 		}
 		if (source.attributeById != null) {
 			for (TaskAttribute child : source.attributeById.values()) {
@@ -537,11 +569,12 @@ public final class TaskAttribute {
 	}
 
 	Map<String, String> getMetaDataMap() {
-		if (metaData != null) {
-			return Collections.unmodifiableMap(metaData);
-		} else {
-			return Collections.emptyMap();
-		}
+		return new MapView() {
+			@Override
+			Map<String, String> getMap() {
+				return metaData;
+			}
+		};
 	}
 
 	public String getOption(String key) {
@@ -549,11 +582,12 @@ public final class TaskAttribute {
 	}
 
 	public Map<String, String> getOptions() {
-		if (optionByKey != null) {
-			return Collections.unmodifiableMap(optionByKey);
-		} else {
-			return Collections.emptyMap();
-		}
+		return new MapView() {
+			@Override
+			Map<String, String> getMap() {
+				return optionByKey;
+			}
+		};
 	}
 
 	public TaskAttribute getParentAttribute() {
@@ -585,15 +619,15 @@ public final class TaskAttribute {
 	 * explicitly set, use {@link #hasValue()}.
 	 */
 	public String getValue() {
-		if (values.size() > 0) {
-			return values.get(0);
+		if (valueCount > 0) {
+			return values[0];
 		} else {
 			return ""; //$NON-NLS-1$
 		}
 	}
 
 	public List<String> getValues() {
-		return Collections.unmodifiableList(values);
+		return new ValuesView();
 	}
 
 	/**
@@ -605,7 +639,7 @@ public final class TaskAttribute {
 	 * @since 3.9
 	 */
 	public boolean hasValue() {
-		return values.size() > 0;
+		return valueCount > 0;
 	}
 
 	@Override
@@ -617,7 +651,9 @@ public final class TaskAttribute {
 		Assert.isNotNull(key);
 		Assert.isNotNull(value);
 		if (metaData == null) {
-			metaData = new LinkedHashMap<>();
+			metaData = new ArrayMap<>();
+		} else if (metaData.isShared()) {
+			metaData = metaData.copy();
 		}
 		metaData.put(key.intern(), value);
 	}
@@ -634,7 +670,9 @@ public final class TaskAttribute {
 		Assert.isNotNull(key);
 		Assert.isNotNull(value);
 		if (optionByKey == null) {
-			optionByKey = new LinkedHashMap<>();
+			optionByKey = new ArrayMap<>();
+		} else if (optionByKey.isShared()) {
+			optionByKey = optionByKey.copy();
 		}
 		optionByKey.put(key.intern(), value);
 	}
@@ -646,21 +684,31 @@ public final class TaskAttribute {
 	}
 
 	void removeMetaDatum(String metaDataId) {
-		if (metaData != null) {
+		if (metaData != null && metaData.containsKey(metaDataId)) {
+			if (metaData.isShared()) {
+				metaData = metaData.copy();
+			}
 			metaData.remove(metaDataId);
 		}
 	}
 
 	public void removeValue(String value) {
-		values.remove(value);
+		for (int i = 0; i < valueCount; i++) {
+			if (Objects.equals(values[i], value)) {
+				String[] newValues = new String[valueCount - 1];
+				System.arraycopy(values, 0, newValues, 0, i);
+				System.arraycopy(values, i + 1, newValues, i, valueCount - i - 1);
+				values = newValues;
+				valueCount--;
+				return;
+			}
+		}
 	}
 
 	public void setValue(String value) {
 		Assert.isNotNull(value);
-		if (values.size() > 0) {
-			values.clear();
-		}
-		values.add(value);
+		values = new String[] { value };
+		valueCount = 1;
 	}
 
 	public void setValues(List<String> values) {
@@ -673,8 +721,8 @@ public final class TaskAttribute {
 			Assert.isNotNull(value);
 		}
 
-		this.values.clear();
-		this.values.addAll(values);
+		this.values = values.isEmpty() ? NO_VALUES : values.toArray(new String[values.size()]);
+		this.valueCount = this.values.length;
 	}
 
 	@Override
@@ -689,7 +737,7 @@ public final class TaskAttribute {
 		sb.append("TaskAttribute[id="); //$NON-NLS-1$
 		sb.append(attributeId);
 		sb.append(",values="); //$NON-NLS-1$
-		sb.append(values);
+		sb.append(getValues());
 		sb.append(",options="); //$NON-NLS-1$
 		sb.append(optionByKey);
 		sb.append(",metaData="); //$NON-NLS-1$
@@ -710,4 +758,71 @@ public final class TaskAttribute {
 		return new TaskAttribute(this, mappedAttributeId);
 	}
 
+	/**
+	 * Replaces the options and meta-data of this attribute by canonical instances that are shared with all attributes
+	 * that have identical options and meta-data.
+	 *
+	 * @see TaskAttributeAccess#shareOptionsAndMetaData(TaskAttribute)
+	 */
+	private void shareOptionsAndMetaData() {
+		if (metaData != null) {
+			metaData = ArrayMap.intern(metaData);
+		}
+		if (optionByKey != null) {
+			optionByKey = ArrayMap.intern(optionByKey);
+		}
+	}
+
+	/**
+	 * An unmodifiable view of the values that reflects subsequent changes to the attribute.
+	 */
+	private final class ValuesView extends AbstractList<String> implements RandomAccess {
+
+		@Override
+		public String get(int index) {
+			Objects.checkIndex(index, valueCount);
+			return values[index];
+		}
+
+		@Override
+		public int size() {
+			return valueCount;
+		}
+
+	}
+
+	/**
+	 * An unmodifiable view of options or meta-data that reflects subsequent changes to the attribute, including
+	 * replacement of shared maps by modifiable copies.
+	 */
+	private abstract static class MapView extends AbstractMap<String, String> {
+
+		abstract Map<String, String> getMap();
+
+		@Override
+		public boolean containsKey(Object key) {
+			Map<String, String> map = getMap();
+			return map != null && map.containsKey(key);
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			Map<String, String> map = getMap();
+			return (map != null) ? Collections.unmodifiableMap(map).entrySet() : Collections.emptySet();
+		}
+
+		@Override
+		public String get(Object key) {
+			Map<String, String> map = getMap();
+			return (map != null) ? map.get(key) : null;
+		}
+
+		@Override
+		public int size() {
+			Map<String, String> map = getMap();
+			return (map != null) ? map.size() : 0;
+		}
+
+	}
+
 }
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.core.data;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.eclipse.mylyn.internal.tasks.core.util.WorkerMonitor;
+import org.eclipse.mylyn.internal.tasks.core.util.WorkerThreadFactory;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+
+/**
+ * Retrieves task data for multiple tasks from connectors that only support retrieving a single task at a time. Up to
+ * {@link #getParallelism()} tasks are retrieved concurrently while results are passed to the {@link TaskDataCollector}
+ * in the order of the requested task ids on the calling thread, so collectors do not need to be thread-safe.
+ * <p>
+ * Connectors can use this class to implement
+ * {@link AbstractTaskDataHandler#getMultiTaskData(TaskRepository, java.util.Set, TaskDataCollector, IProgressMonitor)}
+ * on top of their single task retrieval. Since retrievals run concurrently the connector must be thread-safe if the
+ * parallelism is greater than 1.
+ *
+ * @since 4.3
+ */
+public class TaskDataFetcher {
+
+	/**
+	 * Retrieves the task data for a single task.
+	 *
+	 * @since 4.3
+	 */
+	@FunctionalInterface
+	public interface SingleTaskDataProvider {
+
+		/**
+		 * Returns the task data for <code>taskId</code>. Implementations may return <code>null</code> or throw a
+		 * {@link CoreException} if the task data could not be retrieved which is reported through
+		 * {@link TaskDataCollector#failed(String, IStatus)}.
+		 */
+		TaskData getTaskData(String taskId, IProgressMonitor monitor) throws CoreException;
+
+	}
+
+	/**
+	 * Upper bound for the parallelism to avoid exhausting threads or connections through misconfiguration.
+	 */
+	public static final int MAX_PARALLELISM = 16;
+
+	/**
+	 * Number of retrievals that may be started ahead of the result that is delivered next, relative to the
+	 * parallelism. Bounds the number of results that are held back for ordered delivery.
+	 */
+	private static final int PIPELINE_DEPTH = 2;
+
+	private static final long POLL_INTERVAL = 100;
+
+	/**
+	 * Maximum time to wait for retrievals to stop after they were interrupted.
+	 */
+	private static final long SHUTDOWN_TIMEOUT = 10 * 1000;
+
+	private static class Result {
+
+		private final String taskId;
+
+		private final TaskData taskData;
+
+		private final IStatus status;
+
+		public Result(String taskId, TaskData taskData, IStatus status) {
+			this.taskId = taskId;
+			this.taskData = taskData;
+			this.status = status;
+		}
+
+	}
+
+	/**
+	 * A collector that is passed the requested task id along with the retrieved task data. The id of the task data may
+	 * differ from the requested id if a connector retrieves tasks by key but returns them with a numeric id or
+	 * normalizes the case of ids.
+	 *
+	 * @since 4.3
+	 */
+	public static abstract class RequestCollector extends TaskDataCollector {
+
+		/**
+		 * Invoked with the requested <code>taskId</code> and the task data that was retrieved for it.
+		 */
+		public abstract void accept(String taskId, TaskData taskData);
+
+		@Override
+		public void accept(TaskData taskData) {
+			accept(taskData.getTaskId(), taskData);
+		}
+
+	}
+
+	private final int parallelism;
+
+	/**
+	 * Creates a fetcher that retrieves up to <code>parallelism</code> tasks concurrently. The parallelism is limited
+	 * to {@link #MAX_PARALLELISM}, a value of 1 retrieves all tasks sequentially on the calling thread.
+	 */
+	public TaskDataFetcher(int parallelism) {
+		this.parallelism = Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Retrieves the task data for <code>taskIds</code> using
+	 * {@link AbstractRepositoryConnector#getTaskData(TaskRepository, String, IProgressMonitor)}.
+	 *
+	 * @see #fetch(Collection, SingleTaskDataProvider, TaskDataCollector, IProgressMonitor)
+	 */
+	public void fetch(AbstractRepositoryConnector connector, TaskRepository repository, Collection<String> taskIds,
+			TaskDataCollector collector, IProgressMonitor monitor) {
+		Assert.isNotNull(connector);
+		Assert.isNotNull(repository);
+		fetch(taskIds, (taskId, taskMonitor) -> connector.getTaskData(repository, taskId, taskMonitor), collector,
+				monitor);
+	}
+
+	/**
+	 * Retrieves the task data for each of <code>taskIds</code> from <code>provider</code> and passes it to
+	 * <code>collector</code> in the iteration order of <code>taskIds</code>. Failures to retrieve a task are passed to
+	 * {@link TaskDataCollector#failed(String, IStatus)} and do not affect the remaining tasks. If <code>collector</code>
+	 * is a {@link RequestCollector} retrieved task data is passed along with the requested task id. Returns after all
+	 * results have been delivered.
+	 *
+	 * @throws OperationCanceledException
+	 *             if <code>monitor</code> was canceled or a provider threw {@link OperationCanceledException}
+	 */
+	public void fetch(Collection<String> taskIds, SingleTaskDataProvider provider, TaskDataCollector collector,
+			IProgressMonitor monitor) {
+		Assert.isNotNull(taskIds);
+		Assert.isNotNull(provider);
+		Assert.isNotNull(collector);
+		SubMonitor progress = SubMonitor.convert(monitor, taskIds.size());
+		IProgressMonitor workerMonitor = new WorkerMonitor((monitor != null) ? monitor : new NullProgressMonitor());
+		if (parallelism == 1 || taskIds.size() <= 1) {
+			for (String taskId : taskIds) {
+				checkCanceled(workerMonitor);
+				deliver(fetch(provider, taskId, workerMonitor), collector);
+				progress.worked(1);
+			}
+		} else {
+			fetchParallel(taskIds, provider, collector, workerMonitor, progress);
+		}
+	}
+
+	private void fetchParallel(Collection<String> taskIds, SingleTaskDataProvider provider,
+			TaskDataCollector collector, IProgressMonitor workerMonitor, SubMonitor progress) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, taskIds.size()),
+				new WorkerThreadFactory("Mylyn Task Data Fetcher")); //$NON-NLS-1$
+		Deque<Future<Result>> pending = new ArrayDeque<>();
+		try {
+			Iterator<String> it = taskIds.iterator();
+			while (true) {
+				checkCanceled(workerMonitor);
+				while (pending.size() < parallelism * PIPELINE_DEPTH && it.hasNext()) {
+					final String taskId = it.next();
+					pending.addLast(executor.submit(() -> {
+						checkCanceled(workerMonitor);
+						return fetch(provider, taskId, workerMonitor);
+					}));
+				}
+				Future<Result> next = pending.pollFirst();
+				if (next == null) {
+					break;
+				}
+				deliver(await(next, workerMonitor), collector);
+				progress.worked(1);
+			}
+		} finally {
+			for (Future<Result> future : pending) {
+				future.cancel(false);
+			}
+			// retrievals that are still running were abandoned due to cancellation or a failure
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	/**
+	 * Waits until the workers of <code>executor</code> have stopped so that no retrieval outlives the fetch. Providers
+	 * that do not respond to interruption are abandoned after {@link #SHUTDOWN_TIMEOUT}.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				StatusHandler.log(new Status(IStatus.WARNING, ITasksCoreConstants.ID_PLUGIN,
+						"Task data retrieval did not stop after it was interrupted")); //$NON-NLS-1$
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Result fetch(SingleTaskDataProvider provider, String taskId, IProgressMonitor monitor) {
+		try {
+			TaskData taskData = provider.getTaskData(taskId, monitor);
+			if (taskData != null) {
+				return new Result(taskId, taskData, null);
+			}
+			return new Result(taskId, null, new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Connector failed to return task data for task \"" + taskId + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (CoreException e) {
+			return new Result(taskId, null, e.getStatus());
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			return new Result(taskId, null, new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Unexpected error while retrieving task data for task \"" + taskId + "\"", e)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static Result await(Future<Result> future, IProgressMonitor monitor) {
+		try {
+			while (true) {
+				try {
+					return future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					checkCanceled(monitor);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static void deliver(Result result, TaskDataCollector collector) {
+		if (result.taskData != null) {
+			if (collector instanceof RequestCollector requestCollector) {
+				requestCollector.accept(result.taskId, result.taskData);
+			} else {
+				collector.accept(result.taskData);
+			}
+		} else {
+			collector.failed(result.taskId, result.status);
+		}
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Comments and attachments are indexed as documents of their own that are linked to the document of their task by the handle identifier
+ * of the task. Each child document records a digest of its fields so that a task can be reindexed incrementally: only child documents
+ * that were added or changed since the task was last indexed are written, and child documents of comments or attachments that no longer
+ * exist are deleted. The text of comments and attachments is also part of the content of the document of the task, so queries whose
+ * terms are split between a comment and the task match the task, while child documents identify the comments that match.
+ */
+class ChildDocuments {
+
+	public static final String KIND_COMMENT = "comment"; //$NON-NLS-1$
+
+	public static final String KIND_ATTACHMENT = "attachment"; //$NON-NLS-1$
+
+	/**
+	 * uniquely identifies a child document, composed of the handle identifier of the task and the id of the task attribute
+	 */
+	static final String FIELD_KEY = "child:key"; //$NON-NLS-1$
+
+	static final String FIELD_KIND = "child:kind"; //$NON-NLS-1$
+
+	static final String FIELD_ATTRIBUTE = "child:attribute"; //$NON-NLS-1$
+
+	static final String FIELD_DIGEST = "child:digest"; //$NON-NLS-1$
+
+	private ChildDocuments() {
+	}
+
+	/**
+	 * Creates a child document of <code>kind</code> for the task attribute with id <code>attributeId</code>. Searches resolve matching
+	 * child documents to the task since the handle identifier is indexed in the same way as for the document of the task.
+	 */
+	public static Document create(String handleIdentifier, String kind, String attributeId) {
+		Document document = new Document();
+		document.add(new TextField(TaskListIndex.FIELD_IDENTIFIER.getIndexKey(), handleIdentifier, Store.YES));
+		document.add(new SortedDocValuesField(TaskListIndex.FIELD_IDENTIFIER.getIndexKey(), new BytesRef(handleIdentifier)));
+		document.add(new StringField(FIELD_KEY, handleIdentifier + '#' + attributeId, Store.YES));
+		document.add(new StringField(FIELD_KIND, kind, Store.NO));
+		document.add(new StoredField(FIELD_ATTRIBUTE, attributeId));
+		return document;
+	}
+
+	/**
+	 * Returns a query that matches the document of the task but none of its child documents.
+	 */
+	public static Query computeTaskQuery(String handleIdentifier) {
+		return new BooleanQuery.Builder()
+				.add(new TermQuery(new Term(TaskListIndex.FIELD_IDENTIFIER.getIndexKey(), handleIdentifier)), Occur.MUST)
+				.add(new TermQuery(new Term(FIELD_KIND, KIND_COMMENT)), Occur.MUST_NOT)
+				.add(new TermQuery(new Term(FIELD_KIND, KIND_ATTACHMENT)), Occur.MUST_NOT)
+				.build();
+	}
+
+	/**
+	 * Returns a query that matches the child documents of <code>kind</code> of the task.
+	 */
+	public static Query computeChildQuery(String handleIdentifier, String kind) {
+		return new BooleanQuery.Builder()
+				.add(new TermQuery(new Term(TaskListIndex.FIELD_IDENTIFIER.getIndexKey(), handleIdentifier)),
+						Occur.FILTER)
+				.add(new TermQuery(new Term(FIELD_KIND, kind)), Occur.FILTER)
+				.build();
+	}
+
+	/**
+	 * Writes the child documents of a task, replacing all child documents that were previously indexed for the task.
+	 *
+	 * @param searcher
+	 *            a searcher that reflects the child documents that are currently indexed for the task, or null if the task has no child
+	 *            documents in the index
+	 * @return the number of child documents that were written
+	 */
+	public static int update(IndexWriter writer, IndexSearcher searcher, String handleIdentifier, List<Document> children)
+			throws IOException {
+		Map<String, String> indexed = (searcher != null) ? readDigests(searcher, handleIdentifier) : new HashMap<>();
+		int written = 0;
+		for (Document child : children) {
+			String digest = computeDigest(child);
+			child.add(new StoredField(FIELD_DIGEST, digest));
+			String key = child.get(FIELD_KEY);
+			String indexedDigest = indexed.remove(key);
+			if (digest.equals(indexedDigest)) {
+				continue;
+			}
+			if (indexedDigest != null) {
+				writer.updateDocument(new Term(FIELD_KEY, key), child);
+			} else {
+				writer.addDocument(child);
+			}
+			written++;
+		}
+		for (String key : indexed.keySet()) {
+			writer.deleteDocuments(new Term(FIELD_KEY, key));
+		}
+		return written;
+	}
+
+	private static Map<String, String> readDigests(IndexSearcher searcher, String handleIdentifier) throws IOException {
+		Query query = new BooleanQuery.Builder()
+				.add(computeChildQuery(handleIdentifier, KIND_COMMENT), Occur.SHOULD)
+				.add(computeChildQuery(handleIdentifier, KIND_ATTACHMENT), Occur.SHOULD)
+				.build();
+		Map<String, String> digests = new HashMap<>();
+		int count = searcher.count(query);
+		if (count > 0) {
+			StoredFields storedFields = searcher.storedFields();
+			for (ScoreDoc scoreDoc : searcher.search(query, count).scoreDocs) {
+				Document document = storedFields.document(scoreDoc.doc);
+				digests.put(document.get(FIELD_KEY), document.get(FIELD_DIGEST));
+			}
+		}
+		return digests;
+	}
+
+	private static String computeDigest(Document document) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+		for (IndexableField field : document.getFields()) {
+			if (field.stringValue() != null) {
+				digest.update(field.name().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				digest.update(field.stringValue().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+}
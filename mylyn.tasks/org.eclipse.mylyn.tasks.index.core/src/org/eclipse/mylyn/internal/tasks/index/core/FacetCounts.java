@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+
+/**
+ * Counts the values of a facet field that is indexed as sorted set doc values over the documents that match a query. Values are counted
+ * by ordinal in a single pass over the matching documents of each segment and are only converted to strings once per segment.
+ */
+class FacetCounts {
+
+	private FacetCounts() {
+	}
+
+	/**
+	 * Returns the number of matching documents for each value of <code>field</code> sorted by decreasing count.
+	 */
+	public static Map<String, Integer> count(IndexSearcher searcher, Query query, String field) throws IOException {
+		Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+		Map<String, Integer> counts = new HashMap<>();
+		for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+			SortedSetDocValues values = DocValues.getSortedSet(context.reader(), field);
+			Scorer scorer = weight.scorer(context);
+			if (scorer == null || values.getValueCount() == 0) {
+				continue;
+			}
+			int[] ordCounts = new int[(int) values.getValueCount()];
+			Bits liveDocs = context.reader().getLiveDocs();
+			DocIdSetIterator iterator = scorer.iterator();
+			for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+				if ((liveDocs == null || liveDocs.get(doc)) && values.advanceExact(doc)) {
+					for (int i = 0; i < values.docValueCount(); i++) {
+						ordCounts[(int) values.nextOrd()]++;
+					}
+				}
+			}
+			for (int ord = 0; ord < ordCounts.length; ord++) {
+				if (ordCounts[ord] > 0) {
+					counts.merge(values.lookupOrd(ord).utf8ToString(), ordCounts[ord], Integer::sum);
+				}
+			}
+		}
+		return sortByCount(counts);
+	}
+
+	private static Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+		List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+		entries.sort(Map.Entry.<String, Integer> comparingByValue()
+				.reversed()
+				.thenComparing(Map.Entry.comparingByKey()));
+		Map<String, Integer> result = new LinkedHashMap<>();
+		for (Map.Entry<String, Integer> entry : entries) {
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+}
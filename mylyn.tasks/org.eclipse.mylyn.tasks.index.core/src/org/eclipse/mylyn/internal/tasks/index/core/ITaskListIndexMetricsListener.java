@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+/**
+ * Receives measurements of a {@link TaskListIndex}, for example to publish them to a monitoring system. Methods are invoked on the thread
+ * that performed the measured operation and must return quickly.
+ *
+ * @see TaskListIndex#addMetricsListener(ITaskListIndexMetricsListener)
+ */
+public interface ITaskListIndexMetricsListener {
+
+	/**
+	 * The kind of operation that searched the index.
+	 */
+	enum QueryKind {
+		MATCHES, FIND, QUICK_FIND, FACET_COUNTS, SEARCH, FIND_COMMENTS
+	}
+
+	/**
+	 * Invoked after the index was searched.
+	 *
+	 * @param kind
+	 *            the operation
+	 * @param durationNanos
+	 *            the time that the search took
+	 */
+	void queryExecuted(QueryKind kind, long durationNanos);
+
+	/**
+	 * Invoked after a run of the index maintenance job.
+	 *
+	 * @param durationNanos
+	 *            the time that the run took
+	 * @param documents
+	 *            the number of documents that were written
+	 * @param rebuild
+	 *            true, if the index was rebuilt completely
+	 */
+	void maintenanceCompleted(long durationNanos, int documents, boolean rebuild);
+
+	/**
+	 * Invoked when searches start to use a reader that reflects changes to the index.
+	 */
+	void readerReopened();
+
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Records durations in buckets of exponentially increasing size: bucket <code>i</code> counts durations of less than
+ * <code>2<sup>i</sup></code> microseconds. Percentiles are therefore estimated with a precision of a factor of two which is sufficient to
+ * spot regressions while recording in constant space. All methods are thread-safe.
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 40;
+
+	private final long[] buckets = new long[BUCKETS];
+
+	private long count;
+
+	private long totalNanos;
+
+	private long maxNanos;
+
+	public synchronized void record(long durationNanos) {
+		long nanos = Math.max(0, durationNanos);
+		long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket]++;
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public synchronized long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public synchronized long getMeanNanos() {
+		return (count > 0) ? totalNanos / count : 0;
+	}
+
+	/**
+	 * Returns an upper bound of the duration that <code>percentile</code> percent of the recorded durations do not exceed.
+	 *
+	 * @param percentile
+	 *            a value between 0 and 100
+	 * @return the duration in nanoseconds, or 0 if no durations were recorded
+	 */
+	public synchronized long getPercentileNanos(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 100);
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				return Math.min(maxNanos, TimeUnit.MICROSECONDS.toNanos(1L << i));
+			}
+		}
+		return maxNanos;
+	}
+
+	/**
+	 * Returns a copy that is not affected by subsequently recorded durations.
+	 */
+	public synchronized LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram();
+		System.arraycopy(buckets, 0, copy.buckets, 0, BUCKETS);
+		copy.count = count;
+		copy.totalNanos = totalNanos;
+		copy.maxNanos = maxNanos;
+		return copy;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms", count, getMeanNanos() / 1e6, //$NON-NLS-1$
+				getPercentileNanos(50) / 1e6, getPercentileNanos(99) / 1e6, maxNanos / 1e6);
+	}
+
+}
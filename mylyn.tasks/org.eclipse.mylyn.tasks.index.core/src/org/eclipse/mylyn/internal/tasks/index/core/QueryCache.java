@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.internal.tasks.index.core.TaskHits.SegmentHits;
+import org.eclipse.mylyn.tasks.core.ITask;
+
+/**
+ * A bounded cache of parsed queries and their hits, evicting the least recently used query. Hits are cached per segment so that only
+ * segments that were added or changed by a refresh of the index need to be searched again. Hits of a segment are discarded when the
+ * segment is closed.
+ */
+class QueryCache {
+
+	private static class Entry {
+
+		private final Query query;
+
+		private final Map<IndexReader.CacheKey, SegmentHits> segments = new ConcurrentHashMap<>();
+
+		Entry(Query query) {
+			this.query = query;
+		}
+
+	}
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > maxSize;
+		}
+
+	};
+
+	/**
+	 * segments that have a listener registered that removes cached hits when the segment is closed
+	 */
+	private final Set<IndexReader.CacheKey> registeredSegments = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * 'entries' must be synchronized before accessing or modifying
+	 */
+	private int maxSize;
+
+	public QueryCache(int maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * Returns the parsed query for <code>key</code>, invoking <code>parser</code> if the query is not cached.
+	 */
+	public Query getQuery(String key, Supplier<Query> parser) {
+		return getEntry(key, parser).query;
+	}
+
+	/**
+	 * Returns the tasks that match the query for <code>key</code> in the reader of <code>searcher</code>. Segments that have been searched
+	 * before with the same or a higher limit are served from the cache. If more than <code>limit</code> tasks match, the tasks of the top
+	 * scoring documents are returned.
+	 */
+	public TaskHits getHits(String key, Supplier<Query> parser, IndexSearcher searcher, TaskResolver resolver, int limit)
+			throws IOException {
+		Entry entry = getEntry(key, parser);
+		Weight weight = null;
+		List<SegmentHits> segments = new ArrayList<>();
+		for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+			IndexReader.CacheHelper cacheHelper = context.reader().getReaderCacheHelper();
+			SegmentHits hits = (cacheHelper != null) ? entry.segments.get(cacheHelper.getKey()) : null;
+			if (hits != null && hits.getLimit() >= limit) {
+				hitCount.incrementAndGet();
+			} else {
+				missCount.incrementAndGet();
+				if (weight == null) {
+					weight = searcher.createWeight(searcher.rewrite(entry.query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+				}
+				hits = SegmentHits.collect(weight, context, resolver, limit);
+				if (cacheHelper != null) {
+					register(cacheHelper);
+					entry.segments.put(cacheHelper.getKey(), hits);
+				}
+			}
+			segments.add(hits);
+		}
+		TaskHits hits = TaskHits.of(segments, limit);
+		if (hits.isTruncated()) {
+			// hits are collected in index order, only the best matches are relevant if there are too many
+			return TaskHits.ofTopScoring(segments, searcher, entry.query, resolver, limit);
+		}
+		return hits;
+	}
+
+	/**
+	 * Discards the cached hits of segments that may resolve to different tasks since tasks with the handle identifiers
+	 * <code>addedHandles</code> were added to the task list or <code>deletedTasks</code> were deleted from the task list. Parsed queries
+	 * and the hits of other segments are kept.
+	 */
+	public void invalidate(Set<String> addedHandles, Set<ITask> deletedTasks) {
+		for (Entry entry : getEntries()) {
+			entry.segments.values().removeIf(hits -> hits.isAffected(addedHandles, deletedTasks));
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * the number of segments for which cached hits were used
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * the number of segments that were searched since hits were not cached
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public int getMaxSize() {
+		synchronized (entries) {
+			return maxSize;
+		}
+	}
+
+	public void setMaxSize(int maxSize) {
+		Assert.isTrue(maxSize >= 0);
+		synchronized (entries) {
+			this.maxSize = maxSize;
+			while (entries.size() > maxSize) {
+				entries.remove(entries.keySet().iterator().next());
+			}
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	private Entry getEntry(String key, Supplier<Query> parser) {
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry(parser.get());
+				entries.put(key, entry);
+			}
+			return entry;
+		}
+	}
+
+	private List<Entry> getEntries() {
+		synchronized (entries) {
+			return new ArrayList<>(entries.values());
+		}
+	}
+
+	private void register(IndexReader.CacheHelper cacheHelper) {
+		if (registeredSegments.add(cacheHelper.getKey())) {
+			cacheHelper.addClosedListener(key -> {
+				registeredSegments.remove(key);
+				for (Entry entry : getEntries()) {
+					entry.segments.remove(key);
+				}
+			});
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+/**
+ * The tasks that are waiting to be reindexed in the order they were first queued. Repeated updates of a task are coalesced into a single
+ * entry that refers to the most recent task data. Task data is only softly referenced and the estimated size of the task data that is
+ * referenced by all entries is bounded, entries without task data are reloaded from the task data manager, which keeps task data on disk,
+ * when they are indexed. All methods are thread-safe.
+ */
+class ReindexQueue {
+
+	static class Item {
+
+		private final ITask task;
+
+		private SoftReference<TaskData> taskData;
+
+		private long size;
+
+		private Item(ITask task) {
+			this.task = task;
+		}
+
+		public ITask getTask() {
+			return task;
+		}
+
+		/**
+		 * Returns the queued task data, or null if the task data was not retained or has been reclaimed.
+		 */
+		public TaskData getTaskData() {
+			return (taskData != null) ? taskData.get() : null;
+		}
+
+	}
+
+	/**
+	 * maps handle identifiers to queued tasks, 'this' must be synchronized before accessing or modifying
+	 */
+	private final Map<String, Item> items = new LinkedHashMap<>();
+
+	/**
+	 * the estimated size in bytes of the task data that items refer to, 'this' must be synchronized before accessing or
+	 * modifying
+	 */
+	private long retainedSize;
+
+	private long maxRetainedSize;
+
+	public ReindexQueue(long maxRetainedSize) {
+		setMaxRetainedSize(maxRetainedSize);
+	}
+
+	/**
+	 * Queues <code>task</code> for reindexing. If the task is already queued the previously queued task data is replaced.
+	 *
+	 * @param taskData
+	 *            the task data, or null if it should be loaded when the task is indexed
+	 */
+	public synchronized void add(ITask task, TaskData taskData) {
+		Item item = items.get(task.getHandleIdentifier());
+		if (item == null) {
+			item = new Item(task);
+			items.put(task.getHandleIdentifier(), item);
+		}
+		long size = (taskData != null) ? estimateSize(taskData) : 0;
+		if (taskData != null && retainedSize - item.size + size <= maxRetainedSize) {
+			setTaskData(item, taskData, size);
+		} else {
+			setTaskData(item, null, 0);
+		}
+	}
+
+	/**
+	 * Removes and returns all queued tasks.
+	 */
+	public synchronized List<Item> drain() {
+		List<Item> result = new ArrayList<>(items.values());
+		items.clear();
+		retainedSize = 0;
+		return result;
+	}
+
+	public synchronized void clear() {
+		items.clear();
+		retainedSize = 0;
+	}
+
+	public synchronized boolean isEmpty() {
+		return items.isEmpty();
+	}
+
+	public synchronized int size() {
+		return items.size();
+	}
+
+	public synchronized long getMaxRetainedSize() {
+		return maxRetainedSize;
+	}
+
+	/**
+	 * Sets the maximum estimated size in bytes of the task data that queued tasks refer to. Task data of the most recently queued tasks is
+	 * released if the limit is exceeded.
+	 */
+	public synchronized void setMaxRetainedSize(long maxRetainedSize) {
+		Assert.isTrue(maxRetainedSize >= 0);
+		this.maxRetainedSize = maxRetainedSize;
+		if (retainedSize > maxRetainedSize) {
+			List<Item> values = new ArrayList<>(items.values());
+			for (int i = values.size() - 1; i >= 0 && retainedSize > maxRetainedSize; i--) {
+				setTaskData(values.get(i), null, 0);
+			}
+		}
+	}
+
+	/**
+	 * 'this' must be synchronized
+	 */
+	private void setTaskData(Item item, TaskData taskData, long size) {
+		retainedSize -= item.size;
+		item.taskData = (taskData != null) ? new SoftReference<>(taskData) : null;
+		item.size = size;
+		retainedSize += size;
+	}
+
+	/**
+	 * Returns an estimate of the heap that is retained by the attributes of <code>taskData</code>. Options and meta data are not included
+	 * since they are typically shared between tasks.
+	 */
+	static long estimateSize(TaskData taskData) {
+		return estimateSize(taskData.getRoot());
+	}
+
+	private static long estimateSize(TaskAttribute attribute) {
+		// object headers and references of the attribute, its values and its maps
+		long size = 96 + estimateSize(attribute.getId());
+		for (String value : attribute.getValues()) {
+			size += 8 + estimateSize(value);
+		}
+		for (TaskAttribute child : attribute.getAttributes().values()) {
+			size += 32 + estimateSize(child);
+		}
+		return size;
+	}
+
+	private static long estimateSize(String value) {
+		// assumes that strings are stored with one byte per character
+		return (value != null) ? 40 + value.length() : 0;
+	}
+
+}
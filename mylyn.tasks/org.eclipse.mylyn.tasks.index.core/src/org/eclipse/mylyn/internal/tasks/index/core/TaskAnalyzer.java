@@ -13,13 +13,24 @@
  *******************************************************************************/
 package org.eclipse.mylyn.internal.tasks.index.core;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 
 /**
  * An analyzer that is aware of task fields
@@ -28,12 +39,86 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
  */
 class TaskAnalyzer {
 
+	/**
+	 * the words of the summary and task key, split on case changes and numbers, used for exact and fuzzy quick find matches
+	 */
+	public static final String FIELD_QUICK_FIND = "quickFind"; //$NON-NLS-1$
+
+	/**
+	 * the leading characters of the words in {@link #FIELD_QUICK_FIND}, used for quick find matches on partial words
+	 */
+	public static final String FIELD_QUICK_FIND_NGRAM = "quickFindNGram"; //$NON-NLS-1$
+
+	/**
+	 * the shortest word prefix that is indexed in {@link #FIELD_QUICK_FIND_NGRAM}
+	 */
+	public static final int MIN_GRAM = 2;
+
+	/**
+	 * the longest word prefix that is indexed in {@link #FIELD_QUICK_FIND_NGRAM}
+	 */
+	public static final int MAX_GRAM = 20;
+
+	private static final int WORD_DELIMITER_FLAGS = WordDelimiterGraphFilter.GENERATE_WORD_PARTS
+			| WordDelimiterGraphFilter.GENERATE_NUMBER_PARTS | WordDelimiterGraphFilter.SPLIT_ON_CASE_CHANGE
+			| WordDelimiterGraphFilter.SPLIT_ON_NUMERICS | WordDelimiterGraphFilter.PRESERVE_ORIGINAL;
+
+	private static class QuickFindAnalyzer extends Analyzer {
+
+		private final boolean edgeNGrams;
+
+		QuickFindAnalyzer(boolean edgeNGrams) {
+			this.edgeNGrams = edgeNGrams;
+		}
+
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+			Tokenizer source = new StandardTokenizer();
+			// split identifiers such as TaskSelectionDialog so that words within them can be matched
+			TokenStream result = new WordDelimiterGraphFilter(source, WORD_DELIMITER_FLAGS, null);
+			result = new FlattenGraphFilter(result);
+			result = new LowerCaseFilter(result);
+			if (edgeNGrams) {
+				result = new EdgeNGramTokenFilter(result, MIN_GRAM, MAX_GRAM, true);
+			}
+			return new TokenStreamComponents(source, result);
+		}
+
+		@Override
+		protected TokenStream normalize(String fieldName, TokenStream in) {
+			return new LowerCaseFilter(in);
+		}
+
+	}
+
 	public static PerFieldAnalyzerWrapper instance() {
 		Map<String, Analyzer> analyzerPerField = new HashMap<>();
 		analyzerPerField.put(TaskListIndex.FIELD_IDENTIFIER.getIndexKey(), new KeywordAnalyzer());
 		analyzerPerField.put(TaskListIndex.FIELD_TASK_KEY.getIndexKey(), new KeywordAnalyzer());
 		analyzerPerField.put(TaskListIndex.FIELD_REPOSITORY_URL.getIndexKey(), new KeywordAnalyzer());
+		analyzerPerField.put(FIELD_QUICK_FIND, new QuickFindAnalyzer(false));
+		analyzerPerField.put(FIELD_QUICK_FIND_NGRAM, new QuickFindAnalyzer(true));
 		PerFieldAnalyzerWrapper wrapper = new PerFieldAnalyzerWrapper(new StandardAnalyzer(), analyzerPerField);
 		return wrapper;
 	}
+
+	/**
+	 * Splits text that was typed by a user into lower case words.
+	 */
+	public static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		try (Analyzer analyzer = new StandardAnalyzer();
+				TokenStream stream = analyzer.tokenStream(FIELD_QUICK_FIND, text)) {
+			CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+			stream.reset();
+			while (stream.incrementToken()) {
+				tokens.add(term.toString());
+			}
+			stream.end();
+		} catch (IOException e) {
+			// cannot happen when reading from a string
+			throw new IllegalStateException(e);
+		}
+		return tokens;
+	}
 }
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.tasks.core.ITask;
+
+/**
+ * The tasks that match a query. Matching documents are kept as a bitset per segment of the reader the query was executed on, and are
+ * resolved to tasks while collecting so that membership can be tested after the reader has been released.
+ */
+class TaskHits {
+
+	/**
+	 * The matching documents of a single segment. Since the bitset reflects the deleted documents of the segment at the time it was
+	 * collected it is keyed by the reader cache key, which changes when documents of the segment are deleted.
+	 */
+	static class SegmentHits {
+
+		private final IndexReader.CacheKey key;
+
+		private final FixedBitSet docs;
+
+		private final List<AbstractTask> tasks;
+
+		/**
+		 * the handle identifiers of matching documents that did not resolve to a task in the task list
+		 */
+		private final Set<String> unresolvedHandles;
+
+		private final int limit;
+
+		private final boolean truncated;
+
+		SegmentHits(IndexReader.CacheKey key, FixedBitSet docs, List<AbstractTask> tasks,
+				Set<String> unresolvedHandles, int limit, boolean truncated) {
+			this.key = key;
+			this.docs = docs;
+			this.tasks = tasks;
+			this.unresolvedHandles = unresolvedHandles;
+			this.limit = limit;
+			this.truncated = truncated;
+		}
+
+		/**
+		 * Collects up to <code>limit</code> live documents of the segment that match <code>weight</code> in index order.
+		 */
+		static SegmentHits collect(Weight weight, LeafReaderContext context, TaskResolver resolver, int limit)
+				throws IOException {
+			IndexReader.CacheHelper cacheHelper = context.reader().getReaderCacheHelper();
+			FixedBitSet docs = new FixedBitSet(context.reader().maxDoc());
+			List<AbstractTask> tasks = new ArrayList<>();
+			Set<String> unresolvedHandles = Collections.emptySet();
+			boolean truncated = false;
+			Scorer scorer = weight.scorer(context);
+			if (scorer != null) {
+				TaskResolver.SegmentResolver segment = resolver.forSegment(context);
+				Bits liveDocs = context.reader().getLiveDocs();
+				DocIdSetIterator iterator = scorer.iterator();
+				int count = 0;
+				for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+					if (liveDocs == null || liveDocs.get(doc)) {
+						if (count == limit) {
+							truncated = true;
+							break;
+						}
+						count++;
+						docs.set(doc);
+						AbstractTask task = segment.resolve(doc);
+						if (task != null) {
+							tasks.add(task);
+						} else if (segment.getUnresolvedHandle() != null) {
+							if (unresolvedHandles.isEmpty()) {
+								unresolvedHandles = new HashSet<>();
+							}
+							unresolvedHandles.add(segment.getUnresolvedHandle());
+						}
+					}
+				}
+			}
+			return new SegmentHits((cacheHelper != null) ? cacheHelper.getKey() : null, docs, tasks,
+					unresolvedHandles, limit, truncated);
+		}
+
+		/**
+		 * Returns true, if the hits may resolve to different tasks since tasks with the handle identifiers <code>addedHandles</code> were
+		 * added to the task list or <code>deletedTasks</code> were deleted from the task list.
+		 */
+		public boolean isAffected(Set<String> addedHandles, Set<ITask> deletedTasks) {
+			for (String handle : addedHandles) {
+				if (unresolvedHandles.contains(handle)) {
+					return true;
+				}
+			}
+			if (!deletedTasks.isEmpty()) {
+				for (AbstractTask task : tasks) {
+					if (deletedTasks.contains(task)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * the reader cache key of the segment, or null if the segment does not support caching
+		 */
+		public IndexReader.CacheKey getKey() {
+			return key;
+		}
+
+		public FixedBitSet getDocs() {
+			return docs;
+		}
+
+		/**
+		 * the maximum number of documents that were collected
+		 */
+		public int getLimit() {
+			return limit;
+		}
+
+		/**
+		 * true, if more than {@link #getLimit()} documents matched
+		 */
+		public boolean isTruncated() {
+			return truncated;
+		}
+
+	}
+
+	private final List<SegmentHits> segments;
+
+	private final Set<ITask> tasks;
+
+	private final boolean truncated;
+
+	private TaskHits(List<SegmentHits> segments, Set<ITask> tasks, boolean truncated) {
+		this.segments = Collections.unmodifiableList(segments);
+		this.tasks = tasks;
+		this.truncated = truncated;
+	}
+
+	/**
+	 * Combines the hits of all segments of a reader, up to <code>limit</code> tasks in index order.
+	 */
+	public static TaskHits of(List<SegmentHits> segments, int limit) {
+		Set<ITask> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+		boolean truncated = false;
+		outer: for (SegmentHits segment : segments) {
+			truncated |= segment.isTruncated();
+			for (AbstractTask task : segment.tasks) {
+				if (tasks.size() >= limit && !tasks.contains(task)) {
+					truncated = true;
+					break outer;
+				}
+				tasks.add(task);
+			}
+		}
+		return new TaskHits(segments, tasks, truncated);
+	}
+
+	/**
+	 * Returns hits that consist of up to <code>limit</code> tasks of the top scoring documents that match <code>query</code>. Since the
+	 * comments and attachments of a task are indexed as separate documents, a task may be matched by several documents.
+	 */
+	public static TaskHits ofTopScoring(List<SegmentHits> segments, IndexSearcher searcher, Query query,
+			TaskResolver resolver, int limit) throws IOException {
+		Set<ITask> tasks = Collections.newSetFromMap(new IdentityHashMap<>());
+		ScoreDoc after = null;
+		while (tasks.size() < limit) {
+			TopDocs results = (after == null)
+					? searcher.search(query, limit)
+					: searcher.searchAfter(after, query, limit);
+			ScoreDoc[] scoreDocs = results.scoreDocs;
+			AbstractTask[] resolved = resolver.resolve(searcher.getIndexReader(), scoreDocs);
+			for (int i = 0; i < resolved.length && tasks.size() < limit; i++) {
+				if (resolved[i] != null) {
+					tasks.add(resolved[i]);
+				}
+			}
+			if (scoreDocs.length < limit) {
+				break;
+			}
+			after = scoreDocs[scoreDocs.length - 1];
+		}
+		return new TaskHits(segments, tasks, true);
+	}
+
+	/**
+	 * Returns true, if the hits may resolve to different tasks since tasks with the handle identifiers <code>addedHandles</code> were added
+	 * to the task list or <code>deletedTasks</code> were deleted from the task list. Truncated hits are affected by any added task since
+	 * the added task may be one of the best matches.
+	 */
+	public boolean isAffected(Set<String> addedHandles, Set<ITask> deletedTasks) {
+		if (truncated && !addedHandles.isEmpty()) {
+			return true;
+		}
+		for (ITask task : deletedTasks) {
+			if (tasks.contains(task)) {
+				return true;
+			}
+		}
+		for (SegmentHits segment : segments) {
+			if (segment.isAffected(addedHandles, Collections.emptySet())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true, if <code>task</code> is one of the tasks in the task list that matched. Tasks are compared by identity.
+	 */
+	public boolean contains(ITask task) {
+		return tasks.contains(task);
+	}
+
+	/**
+	 * true, if more tasks matched than were collected
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * the number of matching tasks that were found in the task list
+	 */
+	public int size() {
+		return tasks.size();
+	}
+
+	/**
+	 * the matching tasks that were found in the task list
+	 */
+	public Set<ITask> getTasks() {
+		return Collections.unmodifiableSet(tasks);
+	}
+
+	public List<SegmentHits> getSegments() {
+		return segments;
+	}
+
+}
@@ -19,52 +19,79 @@ import static org.eclipse.mylyn.tasks.core.data.TaskAttribute.META_INDEXED_AS_CO
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.apache.lucene.document.DateTools;
 import org.apache.lucene.document.DateTools.Resolution;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.CorruptIndexException;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexNotFoundException;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.FuzzyQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermInSetQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.InfoStream;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -76,11 +103,14 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.commons.core.CommonListenerList;
+import org.eclipse.mylyn.commons.core.CommonListenerList.Notifier;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.ITaskList;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
 import org.eclipse.mylyn.internal.tasks.core.ITaskListRunnable;
+import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
 import org.eclipse.mylyn.internal.tasks.core.TaskAttachment;
 import org.eclipse.mylyn.internal.tasks.core.TaskComment;
 import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
@@ -88,6 +118,7 @@ import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.data.ITaskDataManagerListener;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManagerEvent;
+import org.eclipse.mylyn.internal.tasks.index.core.ITaskListIndexMetricsListener.QueryKind;
 import org.eclipse.mylyn.tasks.core.IRepositoryElement;
 import org.eclipse.mylyn.tasks.core.IRepositoryListener;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
@@ -99,6 +130,7 @@ import org.eclipse.mylyn.tasks.core.data.DefaultTaskSchema;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataManager;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.osgi.util.NLS;
 
 /**
  * An index on a task list, provides a way to {@link #find(String, TaskCollector, int) search for tasks}, and a way to
@@ -117,6 +149,11 @@ import org.eclipse.mylyn.tasks.core.data.TaskData;
  * in the search string. Reindexing is potentially an expensive, IO intensive long-running operation. With about 20,000 tasks in my task
  * list and an SSD, reindexing takes about 90 seconds.
  * </p>
+ * <p>
+ * Queue depth, indexing throughput, maintenance and query durations, reader reopens and the size of the index are measured and can be
+ * {@link #getStatistics() retrieved} or {@link #addMetricsListener(ITaskListIndexMetricsListener) observed}. Including "index:stats" in
+ * the search string logs the current statistics.
+ * </p>
  *
  * @author David Green
  * @author Steffen Pingel
@@ -125,6 +162,51 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private static final Object COMMAND_RESET_INDEX = "index:reset"; //$NON-NLS-1$
 
+	private static final Object COMMAND_STATS = "index:stats"; //$NON-NLS-1$
+
+	private static final int DEFAULT_MAX_REBUILD_PARALLELISM = 4;
+
+	private static final int DEFAULT_QUERY_CACHE_SIZE = 32;
+
+	private static final long DEFAULT_MAX_QUEUED_TASK_DATA_SIZE = 16 * 1024 * 1024;
+
+	private static final String COMMIT_DATA_FORMAT = "format"; //$NON-NLS-1$
+
+	private static final String COMMIT_DATA_QUICK_FIND = "quickFind"; //$NON-NLS-1$
+
+	/**
+	 * the version of the fields that are indexed, indexes with a different version are rebuilt
+	 */
+	private static final String INDEX_FORMAT = "5"; //$NON-NLS-1$
+
+	private static final String FACET_FIELD_PREFIX = "facet:"; //$NON-NLS-1$
+
+	private static final String SORT_FIELD_PREFIX = "sort:"; //$NON-NLS-1$
+
+	/**
+	 * present on the documents of tasks but not on child documents
+	 */
+	private static final String FIELD_COMPLETED = "filter:completed"; //$NON-NLS-1$
+
+	private static final String FIELD_SORT_PRIORITY = SORT_FIELD_PREFIX + "priority"; //$NON-NLS-1$
+
+	private static final String FIELD_SORT_SUMMARY = SORT_FIELD_PREFIX + "summary"; //$NON-NLS-1$
+
+	/**
+	 * longer summaries are truncated for sorting
+	 */
+	private static final int MAX_SORT_SUMMARY_LENGTH = 256;
+
+	/**
+	 * longer values are not indexed as facets
+	 */
+	private static final int MAX_FACET_VALUE_LENGTH = 1024;
+
+	/**
+	 * the number of tasks per rebuild thread that may be queued for indexing
+	 */
+	private static final int REBUILD_QUEUE_DEPTH = 4;
+
 	private static final String INDEX_TASK_ATTRIBUTE_PREFIX = "index:"; //$NON-NLS-1$
 
 	private static final String TASK_ATTRIBUTE_IDENTIFIER = INDEX_TASK_ATTRIBUTE_PREFIX + "handle-identifier"; //$NON-NLS-1$
@@ -235,6 +317,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		addIndexedField(DefaultTaskSchema.getInstance().DATE_MODIFICATION);
 		addIndexedField(DefaultTaskSchema.getInstance().DESCRIPTION);
 		addIndexedField(DefaultTaskSchema.getInstance().KEYWORDS);
+		addIndexedField(DefaultTaskSchema.getInstance().PRIORITY);
 		addIndexedField(DefaultTaskSchema.getInstance().PRODUCT);
 		addIndexedField(DefaultTaskSchema.getInstance().RESOLUTION);
 		addIndexedField(DefaultTaskSchema.getInstance().SEVERITY);
@@ -250,15 +333,21 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private MaintainIndexJob maintainIndexJob;
 
+	private final ReindexQueue reindexQueue = new ReindexQueue(DEFAULT_MAX_QUEUED_TASK_DATA_SIZE);
+
 	/**
-	 * must be synchronized before accessing or modifying
+	 * do not access directly, instead use {@link #getSearcherManager()}. 'this' must be synchronized before accessing or modifying.
+	 * Searchers acquired from the manager are reference counted so that the manager can be refreshed or replaced while searches are in
+	 * progress.
 	 */
-	private final Map<ITask, TaskData> reindexQueue = new HashMap<>();
+	private SearcherManager searcherManager;
 
 	/**
-	 * do not access directly, instead use {@link #getIndexReader()}. 'this' must be synchronized before accessing or modifying
+	 * the writer that is kept open across maintenance passes so that changes become visible to searches by refreshing the
+	 * {@link #searcherManager} without reopening the index. Only accessed by the maintenance process and while closing the index. 'this'
+	 * must be synchronized before modifying.
 	 */
-	private IndexReader indexReader;
+	private IndexWriter indexWriter;
 
 	/**
 	 * indicate the need to rebuild the whole index
@@ -273,7 +362,12 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	/**
 	 * 'this' must be synchronized before accessing or modifying
 	 */
-	private Set<String> lastResults;
+	private TaskHits lastResults;
+
+	/**
+	 * the reader that {@link #lastResults} were computed with, 'this' must be synchronized before accessing or modifying
+	 */
+	private IndexReader lastResultsReader;
 
 	private AbstractTaskSchema.Field defaultField = FIELD_SUMMARY;
 
@@ -283,17 +377,35 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	private final IRepositoryManager repositoryManager;
 
+	private final TaskResolver taskResolver;
+
 	private long startupDelay = 6000L;
 
 	private long reindexDelay = 3000L;
 
 	private int maxMatchSearchHits = 1500;
 
+	private volatile boolean quickFindEnabled;
+
+	private final QueryCache queryCache = new QueryCache(DEFAULT_QUERY_CACHE_SIZE);
+
+	private final TaskListIndexStatistics.Recorder statistics = new TaskListIndexStatistics.Recorder();
+
+	private final CommonListenerList<ITaskListIndexMetricsListener> metricsListeners = new CommonListenerList<>(
+			TasksIndexCore.ID_PLUGIN);
+
 	/**
-	 * must hold this lock as a read lock when accessing the index, and must hold this lock as a write lock when closing or reassigning
-	 * {@link #indexReader}.
+	 * the number of documents that were written since the index was created, including child documents
 	 */
-	private final ReadWriteLock indexReaderLock = new ReentrantReadWriteLock(true);
+	private final AtomicLong documentsWritten = new AtomicLong();
+
+	/**
+	 * the last pattern string that was handled as the stats command, prevents logging the statistics for every task that is matched
+	 */
+	private volatile String lastCommandString;
+
+	private int rebuildParallelism = Math.max(1,
+			Math.min(DEFAULT_MAX_REBUILD_PARALLELISM, Runtime.getRuntime().availableProcessors()));
 
 	private TaskListIndex(TaskList taskList, TaskDataManager dataManager, IRepositoryManager repositoryManager) {
 		Assert.isNotNull(taskList);
@@ -303,6 +415,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		this.taskList = taskList;
 		this.dataManager = dataManager;
 		this.repositoryManager = repositoryManager;
+		this.taskResolver = new TaskResolver(taskList, FIELD_IDENTIFIER.getIndexKey());
 	}
 
 	private void addIndexedField(org.eclipse.mylyn.tasks.core.data.AbstractTaskSchema.Field field) {
@@ -394,6 +507,25 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		initialize();
 	}
 
+	/**
+	 * the number of threads that load task data and build documents when the index is rebuilt completely
+	 */
+	public int getRebuildParallelism() {
+		return rebuildParallelism;
+	}
+
+	/**
+	 * the number of threads that load task data and build documents when the index is rebuilt completely. Subclasses that override
+	 * {@link #taskIsIndexable(ITask, TaskData)} must be thread-safe if the parallelism is greater than 1.
+	 *
+	 * @param rebuildParallelism
+	 *            The number of threads. Specify 1 to rebuild the index on the indexer thread only.
+	 */
+	public void setRebuildParallelism(int rebuildParallelism) {
+		Assert.isTrue(rebuildParallelism >= 1);
+		this.rebuildParallelism = rebuildParallelism;
+	}
+
 	/**
 	 * the delay before reindexing occurs after a task has changed or after {@link #reindex()} is called
 	 */
@@ -432,39 +564,18 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 			}
 		}
 
-		Lock writeLock = indexReaderLock.writeLock();
-		writeLock.lock();
-		try {
-			synchronized (this) {
-				if (indexReader != null) {
-					try {
-						indexReader.close();
-					} catch (IOException e) {
-						// ignore
-					}
-					indexReader = null;
-				}
-
-				if (indexLocation.exists() && indexLocation.isDirectory()) {
-					if (directory != null) {
-						try {
-							directory.close();
-						} catch (IOException e) {
-							StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
-									"Cannot close index: " + e.getMessage(), e)); //$NON-NLS-1$
-						}
-					}
-					try {
-						directory = new NIOFSDirectory(indexLocation.toPath());
-					} catch (IOException e) {
-						StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
-								"Cannot create task list index", e)); //$NON-NLS-1$
-					}
+		synchronized (this) {
+			closeSearcherManager();
+			closeIndexWriter();
+			if (indexLocation.exists() && indexLocation.isDirectory()) {
+				closeDirectory();
+				try {
+					directory = new NIOFSDirectory(indexLocation.toPath());
+				} catch (IOException e) {
+					StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+							"Cannot create task list index", e)); //$NON-NLS-1$
 				}
-
 			}
-		} finally {
-			writeLock.unlock();
 		}
 	}
 
@@ -512,15 +623,171 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		this.maxMatchSearchHits = maxMatchSearchHits;
 	}
 
+	/**
+	 * indicates if summaries and task keys are indexed for {@link #quickFind(String, TaskCollector, int) quick find}
+	 */
+	public boolean isQuickFindEnabled() {
+		return quickFindEnabled;
+	}
+
+	/**
+	 * Enables indexing of word prefixes of summaries and task keys, which enables {@link #quickFind(String, TaskCollector, int) quick
+	 * find} to match partial words and increases the size of the index. Changing this setting causes the index to be rebuilt.
+	 *
+	 * @param quickFindEnabled
+	 *            true to index word prefixes, false to match partial words using prefix queries
+	 */
+	public void setQuickFindEnabled(boolean quickFindEnabled) {
+		if (this.quickFindEnabled != quickFindEnabled) {
+			this.quickFindEnabled = quickFindEnabled;
+			reindex();
+		}
+	}
+
+	/**
+	 * the maximum estimated size in bytes of the task data that tasks waiting to be reindexed refer to
+	 */
+	public long getMaxQueuedTaskDataSize() {
+		return reindexQueue.getMaxRetainedSize();
+	}
+
+	/**
+	 * the maximum estimated size in bytes of the task data that tasks waiting to be reindexed refer to. Task data is only softly
+	 * referenced while tasks are queued and is loaded from the task data manager when a task is indexed if it is not referenced, has
+	 * been reclaimed or did not fit within this limit.
+	 *
+	 * @param maxQueuedTaskDataSize
+	 *            The size in bytes. Specify 0 to always load task data when tasks are indexed.
+	 */
+	public void setMaxQueuedTaskDataSize(long maxQueuedTaskDataSize) {
+		reindexQueue.setMaxRetainedSize(maxQueuedTaskDataSize);
+	}
+
+	/**
+	 * the maximum number of queries for which parsed queries and hits are cached
+	 */
+	public int getQueryCacheSize() {
+		return queryCache.getMaxSize();
+	}
+
+	/**
+	 * the maximum number of queries for which parsed queries and hits are cached, the least recently used query is evicted when the
+	 * cache is full
+	 *
+	 * @param queryCacheSize
+	 *            The number of queries. Specify 0 to disable caching.
+	 */
+	public void setQueryCacheSize(int queryCacheSize) {
+		queryCache.setMaxSize(queryCacheSize);
+	}
+
+	/**
+	 * the number of times that cached hits of an index segment were used by {@link #matches(ITask, String)}
+	 */
+	public long getQueryCacheHitCount() {
+		return queryCache.getHitCount();
+	}
+
+	/**
+	 * the number of times that an index segment was searched by {@link #matches(ITask, String)} since hits were not cached
+	 */
+	public long getQueryCacheMissCount() {
+		return queryCache.getMissCount();
+	}
+
+	/**
+	 * Adds a listener that is notified of measurements of the index. Adding a listener that is already registered has no effect.
+	 */
+	public void addMetricsListener(ITaskListIndexMetricsListener listener) {
+		Assert.isNotNull(listener);
+		metricsListeners.add(listener);
+	}
+
+	public void removeMetricsListener(ITaskListIndexMetricsListener listener) {
+		metricsListeners.remove(listener);
+	}
+
+	/**
+	 * Returns the measurements of the index since it was created. Segment count and size reflect the index that searches currently use.
+	 */
+	public TaskListIndexStatistics getStatistics() {
+		int segmentCount = -1;
+		long indexSize = -1;
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			try {
+				segmentCount = indexSearcher.getIndexReader().leaves().size();
+				indexSize = computeIndexSize();
+			} catch (IOException e) {
+				// the files of the index may change concurrently
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+			}
+		}
+		return statistics.snapshot(reindexQueue.size(), segmentCount, indexSize);
+	}
+
+	private long computeIndexSize() throws IOException {
+		Directory indexDirectory;
+		synchronized (this) {
+			indexDirectory = directory;
+		}
+		long size = 0;
+		for (String file : indexDirectory.listAll()) {
+			try {
+				size += indexDirectory.fileLength(file);
+			} catch (FileNotFoundException | NoSuchFileException e) {
+				// deleted by a merge
+			}
+		}
+		return size;
+	}
+
+	private void logStatistics() {
+		StatusHandler.log(new Status(IStatus.INFO, TasksIndexCore.ID_PLUGIN,
+				"Task list index statistics:\n" + getStatistics())); //$NON-NLS-1$
+	}
+
+	private void fireQueryExecuted(QueryKind kind, long durationNanos) {
+		statistics.queryExecuted(kind, durationNanos);
+		metricsListeners.notify(new Notifier<>() {
+			@Override
+			public void run(ITaskListIndexMetricsListener listener) throws Exception {
+				listener.queryExecuted(kind, durationNanos);
+			}
+		});
+	}
+
+	private void fireMaintenanceCompleted(long durationNanos, int documents, boolean rebuild) {
+		statistics.maintenanceCompleted(durationNanos, documents, rebuild);
+		metricsListeners.notify(new Notifier<>() {
+			@Override
+			public void run(ITaskListIndexMetricsListener listener) throws Exception {
+				listener.maintenanceCompleted(durationNanos, documents, rebuild);
+			}
+		});
+	}
+
+	private void fireReaderReopened() {
+		statistics.readerReopened();
+		metricsListeners.notify(new Notifier<>() {
+			@Override
+			public void run(ITaskListIndexMetricsListener listener) throws Exception {
+				listener.readerReopened();
+			}
+		});
+	}
+
 	private void initialize() {
 		if (!rebuildIndex) {
-			IndexReader indexReader = null;
+			SearcherManager searcherManager = null;
 			try {
-				indexReader = getIndexReader();
+				searcherManager = getSearcherManager();
 			} catch (Exception e) {
 				// ignore, this can happen if the index is corrupt
 			}
-			if (indexReader == null) {
+			if (searcherManager == null) {
 				rebuildIndex = true;
 			}
 		}
@@ -565,7 +832,8 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	 * Indicates if the given task matches the given pattern string. Uses the backing index to detect a match by looking for tasks that
 	 * match the given pattern string. The results of the search are cached such that future calls to this method using the same pattern
 	 * string do not require use of the backing index, making this method very efficient for multiple calls with the same pattern string.
-	 * Cached results for a given pattern string are discarded if this method is called with a different pattern string.
+	 * Cached results for a given pattern string are discarded if this method is called with a different pattern string. If more than
+	 * {@link #getMaxMatchSearchHits()} tasks match the pattern string, only the best matching tasks match.
 	 *
 	 * @param task
 	 *            the task to match
@@ -576,52 +844,51 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		if (patternString.equals(COMMAND_RESET_INDEX)) {
 			reindex();
 		}
-		Lock readLock = indexReaderLock.readLock();
-		readLock.lock();
-		try {
-
-			IndexReader indexReader = getIndexReader();
-			if (indexReader != null) {
-				Set<String> hits;
+		if (patternString.equals(COMMAND_STATS)) {
+			if (!patternString.equals(lastCommandString)) {
+				lastCommandString = patternString;
+				logStatistics();
+			}
+		} else {
+			lastCommandString = null;
+		}
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			try {
+				IndexReader indexReader = indexSearcher.getIndexReader();
+				TaskHits hits;
 
 				final boolean needIndexHit;
 				synchronized (this) {
 					needIndexHit = lastResults == null || lastPatternString == null
-							|| !lastPatternString.equals(patternString);
+							|| !lastPatternString.equals(patternString) || lastResultsReader != indexReader;
+					hits = lastResults;
 				}
 				if (needIndexHit) {
-					lastPatternString = patternString;
-
-					hits = new HashSet<>();
-
-					IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+					long start = System.nanoTime();
 					try {
-						Query query = computeQuery(patternString);
-						TopDocs results = indexSearcher.search(query, maxMatchSearchHits);
-						for (ScoreDoc scoreDoc : results.scoreDocs) {
-							Document document = indexReader.document(scoreDoc.doc);
-							hits.add(document.get(FIELD_IDENTIFIER.getIndexKey()));
-						}
+						hits = queryCache.getHits(computeQueryCacheKey(patternString), () -> computeQuery(patternString),
+								indexSearcher, taskResolver, maxMatchSearchHits);
 					} catch (IOException e) {
+						hits = null;
 						StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
 								"Unexpected failure within task list index", e)); //$NON-NLS-1$
 					}
+					fireQueryExecuted(QueryKind.MATCHES, System.nanoTime() - start);
 
-				} else {
-					hits = lastResults;
-				}
-				synchronized (this) {
-					if (this.indexReader == indexReader) {
-						lastPatternString = patternString;
-						lastResults = hits;
+					synchronized (this) {
+						if (this.searcherManager == searcherManager) {
+							lastPatternString = patternString;
+							lastResults = hits;
+							lastResultsReader = indexReader;
+						}
 					}
 				}
-				String taskIdentifier = task.getHandleIdentifier();
-				return hits != null && hits.contains(taskIdentifier);
+				return hits != null && hits.contains(task);
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
 			}
-
-		} finally {
-			readLock.unlock();
 		}
 		return false;
 	}
@@ -661,31 +928,300 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		Assert.isNotNull(collector);
 		Assert.isTrue(resultsLimit > 0);
 
-		Lock readLock = indexReaderLock.readLock();
-		readLock.lock();
-		try {
-			IndexReader indexReader = getIndexReader();
-			if (indexReader != null) {
-				IndexSearcher indexSearcher = new IndexSearcher(indexReader);
-				try {
-					Query query = computeQuery(patternString);
-					TopDocs results = indexSearcher.search(query, resultsLimit);
-					for (ScoreDoc scoreDoc : results.scoreDocs) {
-						Document document = indexReader.document(scoreDoc.doc);
-						String taskIdentifier = document.get(FIELD_IDENTIFIER.getIndexKey());
-						AbstractTask task = taskList.getTask(taskIdentifier);
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			long start = System.nanoTime();
+			try {
+				Query query = queryCache.getQuery(computeQueryCacheKey(patternString), () -> computeQuery(patternString));
+				collect(indexSearcher, query, collector, resultsLimit);
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Unexpected failure within task list index", e)); //$NON-NLS-1$
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+				fireQueryExecuted(QueryKind.FIND, System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Finds the tasks that best match text that is typed by a user, such as a partial summary or a task key. Unlike
+	 * {@link #find(String, TaskCollector, int)} the text is not parsed as a query: each word matches words of the summary or task key
+	 * that start with it or that differ from it by a typing error, and words within identifiers such as <code>TaskSelectionDialog</code>
+	 * can be matched individually. Tasks are collected in order of decreasing relevance, exact matches of the task key rank first.
+	 *
+	 * @param text
+	 *            the text that was typed
+	 * @param collector
+	 *            the collector that receives tasks
+	 * @param resultsLimit
+	 *            the maximum number of tasks to find
+	 * @see #setQuickFindEnabled(boolean)
+	 */
+	public void quickFind(String text, TaskCollector collector, int resultsLimit) {
+		Assert.isNotNull(text);
+		Assert.isNotNull(collector);
+		Assert.isTrue(resultsLimit > 0);
+
+		Query query = computeQuickFindQuery(text);
+		if (query == null) {
+			return;
+		}
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			long start = System.nanoTime();
+			try {
+				collect(indexSearcher, query, collector, resultsLimit);
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Unexpected failure within task list index", e)); //$NON-NLS-1$
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+				fireQueryExecuted(QueryKind.QUICK_FIND, System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Collects the tasks of the top scoring documents. Since the comments and attachments of a task are indexed as separate documents,
+	 * several documents may resolve to the same task, each task is only collected for its top scoring document.
+	 */
+	private void collect(IndexSearcher indexSearcher, Query query, TaskCollector collector, int resultsLimit)
+			throws IOException {
+		Set<ITask> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+		ScoreDoc after = null;
+		while (collected.size() < resultsLimit) {
+			TopDocs results = (after == null)
+					? indexSearcher.search(query, resultsLimit)
+					: indexSearcher.searchAfter(after, query, resultsLimit);
+			ScoreDoc[] scoreDocs = results.scoreDocs;
+			AbstractTask[] tasks = taskResolver.resolve(indexSearcher.getIndexReader(), scoreDocs);
+			for (int i = 0; i < tasks.length && collected.size() < resultsLimit; i++) {
+				if (tasks[i] != null && collected.add(tasks[i])) {
+					collector.collect(tasks[i]);
+				}
+			}
+			if (scoreDocs.length < resultsLimit) {
+				break;
+			}
+			after = scoreDocs[scoreDocs.length - 1];
+		}
+	}
+
+	/**
+	 * Collects a page of the tasks that pass the filters of <code>query</code> in the order of its sort keys. Filters and sort keys are
+	 * evaluated on doc values of the index, only tasks on the requested page are resolved.
+	 *
+	 * @param query
+	 *            the filters and sort keys
+	 * @param offset
+	 *            the number of tasks to skip
+	 * @param limit
+	 *            the maximum number of tasks to collect
+	 * @param collector
+	 *            the collector that receives tasks
+	 * @return the total number of tasks that pass the filters, or -1 if the index is not available
+	 */
+	public int search(TaskListIndexQuery query, int offset, int limit, TaskCollector collector) {
+		Assert.isNotNull(query);
+		Assert.isNotNull(collector);
+		Assert.isTrue(offset >= 0);
+		Assert.isTrue(limit > 0);
+
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			long start = System.nanoTime();
+			try {
+				Query luceneQuery = computeQuery(query, indexSearcher);
+				int total = indexSearcher.count(luceneQuery);
+				if (offset < total) {
+					TopDocs results = indexSearcher.search(luceneQuery, (int) Math.min(total, (long) offset + limit),
+							computeSort(query));
+					ScoreDoc[] scoreDocs = Arrays.copyOfRange(results.scoreDocs, Math.min(offset, results.scoreDocs.length),
+							results.scoreDocs.length);
+					for (AbstractTask task : taskResolver.resolve(indexSearcher.getIndexReader(), scoreDocs)) {
 						if (task != null) {
 							collector.collect(task);
 						}
 					}
-				} catch (IOException e) {
-					StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
-							"Unexpected failure within task list index", e)); //$NON-NLS-1$
 				}
+				return total;
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Unexpected failure within task list index", e)); //$NON-NLS-1$
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+				fireQueryExecuted(QueryKind.SEARCH, System.nanoTime() - start);
 			}
-		} finally {
-			readLock.unlock();
 		}
+		return -1;
+	}
+
+	private Query computeQuery(TaskListIndexQuery query, IndexSearcher indexSearcher) throws IOException {
+		// only documents of tasks have the completed doc value
+		BooleanQuery.Builder builder = new BooleanQuery.Builder();
+		builder.add(new FieldExistsQuery(FIELD_COMPLETED), Occur.FILTER);
+		if (query.getPatternString() != null) {
+			builder.add(computeMatchingTasksQuery(query.getPatternString(), indexSearcher), Occur.FILTER);
+		}
+		if (query.isHideCompleted()) {
+			builder.add(NumericDocValuesField.newSlowExactQuery(FIELD_COMPLETED, 0), Occur.FILTER);
+		}
+		if (query.getMaxPriority() != null) {
+			// consistent with the priority filter of the task list, priorities that are not a priority level are included
+			builder.add(SortedDocValuesField.newSlowRangeQuery(FIELD_SORT_PRIORITY,
+					new BytesRef(query.getMaxPriority().toString()), new BytesRef("Q"), false, false), Occur.MUST_NOT); //$NON-NLS-1$
+		}
+		if (query.getOwners() != null) {
+			BooleanQuery.Builder owners = new BooleanQuery.Builder();
+			owners.add(new TermQuery(new Term(FIELD_REPOSITORY_URL.getIndexKey(), LocalRepositoryConnector.REPOSITORY_URL)),
+					Occur.SHOULD);
+			String field = FACET_FIELD_PREFIX + DefaultTaskSchema.getInstance().USER_ASSIGNED.getIndexKey();
+			for (String owner : query.getOwners()) {
+				owners.add(SortedSetDocValuesField.newSlowExactQuery(field, new BytesRef(owner)), Occur.SHOULD);
+			}
+			builder.add(owners.build(), Occur.FILTER);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns a query that matches the documents of all tasks that match <code>patternString</code>. The pattern may match child documents
+	 * of comments and attachments, these are resolved to the handle identifier of their task. Unlike {@link #matches(ITask, String)} the
+	 * matching tasks are not limited by {@link #getMaxMatchSearchHits()} since totals and pages of results would be incomplete otherwise.
+	 */
+	private Query computeMatchingTasksQuery(String patternString, IndexSearcher indexSearcher) throws IOException {
+		TaskHits hits = queryCache.getHits(computeQueryCacheKey(patternString), () -> computeQuery(patternString),
+				indexSearcher, taskResolver, Integer.MAX_VALUE);
+		List<BytesRef> handles = new ArrayList<>(hits.size());
+		for (ITask task : hits.getTasks()) {
+			handles.add(new BytesRef(task.getHandleIdentifier()));
+		}
+		return new TermInSetQuery(FIELD_IDENTIFIER.getIndexKey(), handles);
+	}
+
+	private Sort computeSort(TaskListIndexQuery query) {
+		List<SortField> sortFields = new ArrayList<>();
+		for (TaskListIndexQuery.SortOrder order : query.getSortOrders()) {
+			String field = computeSortField(order.getKey());
+			SortField sortField = switch (order.getKey()) {
+				case PRIORITY, SUMMARY -> {
+					SortField stringField = new SortField(field, SortField.Type.STRING, order.isDescending());
+					stringField.setMissingValue(SortField.STRING_LAST);
+					yield stringField;
+				}
+				default -> {
+					SortField longField = new SortField(field, SortField.Type.LONG, order.isDescending());
+					longField.setMissingValue(order.isDescending() ? Long.MIN_VALUE : Long.MAX_VALUE);
+					yield longField;
+				}
+			};
+			sortFields.add(sortField);
+		}
+		// a total order is needed to page consistently
+		sortFields.add(new SortField(FIELD_IDENTIFIER.getIndexKey(), SortField.Type.STRING));
+		return new Sort(sortFields.toArray(new SortField[0]));
+	}
+
+	/**
+	 * Finds the comments of a task that match the given pattern string, for example to highlight the comments that caused a task to be
+	 * found.
+	 *
+	 * @param task
+	 *            the task
+	 * @param patternString
+	 *            the pattern string, used to match comments
+	 * @return the ids of the matching comment attributes in order of decreasing relevance, empty if no comment matches or the index is
+	 *         not available
+	 */
+	public List<String> findMatchingComments(ITask task, String patternString) {
+		Assert.isNotNull(task);
+		Assert.isNotNull(patternString);
+
+		List<String> attributeIds = new ArrayList<>();
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			long start = System.nanoTime();
+			try {
+				Query query = new BooleanQuery.Builder()
+						.add(queryCache.getQuery(computeQueryCacheKey(patternString), () -> computeQuery(patternString)),
+								Occur.MUST)
+						.add(ChildDocuments.computeChildQuery(task.getHandleIdentifier(), ChildDocuments.KIND_COMMENT),
+								Occur.FILTER)
+						.build();
+				int count = indexSearcher.count(query);
+				if (count > 0) {
+					StoredFields storedFields = indexSearcher.storedFields();
+					for (ScoreDoc scoreDoc : indexSearcher.search(query, count).scoreDocs) {
+						attributeIds.add(storedFields.document(scoreDoc.doc).get(ChildDocuments.FIELD_ATTRIBUTE));
+					}
+				}
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Unexpected failure within task list index", e)); //$NON-NLS-1$
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+				fireQueryExecuted(QueryKind.FIND_COMMENTS, System.nanoTime() - start);
+			}
+		}
+		return attributeIds;
+	}
+
+	/**
+	 * Returns a query that requires each word of <code>text</code> to match, or null if the text contains no words.
+	 */
+	private Query computeQuickFindQuery(String text) {
+		List<String> tokens = TaskAnalyzer.tokenize(text);
+		if (tokens.isEmpty()) {
+			return null;
+		}
+		boolean indexed = quickFindEnabled;
+		String wordField = indexed ? TaskAnalyzer.FIELD_QUICK_FIND : FIELD_SUMMARY.getIndexKey();
+
+		BooleanQuery.Builder words = new BooleanQuery.Builder();
+		for (String token : tokens) {
+			BooleanQuery.Builder word = new BooleanQuery.Builder();
+			word.add(new BoostQuery(new TermQuery(new Term(wordField, token)), 4f), Occur.SHOULD);
+			if (indexed && token.length() >= TaskAnalyzer.MIN_GRAM && token.length() <= TaskAnalyzer.MAX_GRAM) {
+				word.add(new BoostQuery(new TermQuery(new Term(TaskAnalyzer.FIELD_QUICK_FIND_NGRAM, token)), 2f),
+						Occur.SHOULD);
+			} else {
+				word.add(new BoostQuery(new PrefixQuery(new Term(wordField, token)), 2f), Occur.SHOULD);
+			}
+			int maxEdits = computeMaxEdits(token);
+			if (maxEdits > 0) {
+				word.add(new FuzzyQuery(new Term(wordField, token), maxEdits, 1), Occur.SHOULD);
+			}
+			words.add(word.build(), Occur.MUST);
+		}
+
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		query.add(words.build(), Occur.SHOULD);
+		query.add(new BoostQuery(new TermQuery(new Term(FIELD_TASK_KEY.getIndexKey(), text.trim())), 8f), Occur.SHOULD);
+		return query.build();
+	}
+
+	/**
+	 * short words are not matched fuzzily since too many words are within a small edit distance of them
+	 */
+	private int computeMaxEdits(String token) {
+		if (token.length() >= 8) {
+			return 2;
+		} else if (token.length() >= 4) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * parsed queries depend on the default field
+	 */
+	private String computeQueryCacheKey(String patternString) {
+		return defaultField.getIndexKey() + '\n' + patternString;
 	}
 
 	private Query computeQuery(String patternString) {
@@ -754,40 +1290,94 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 			// ignore
 		}
 
-		Lock writeLock = indexReaderLock.writeLock();
-		writeLock.lock();
-		try {
-			synchronized (this) {
-				if (indexReader != null) {
-					try {
-						indexReader.close();
-					} catch (IOException e) {
-						// ignore
-					}
-					indexReader = null;
-				}
+		synchronized (this) {
+			closeIndex();
+		}
+	}
+
+	/**
+	 * Closes the searcher manager, the writer and the directory. Searches that are in progress keep their reader open until the searcher
+	 * is released. 'this' must be synchronized.
+	 */
+	private void closeIndex() {
+		closeSearcherManager();
+		closeIndexWriter();
+		closeDirectory();
+	}
+
+	/**
+	 * 'this' must be synchronized
+	 */
+	private void closeIndexWriter() {
+		if (indexWriter != null) {
+			try {
+				indexWriter.close();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Cannot close index: " + e.getMessage(), e)); //$NON-NLS-1$
 			}
-			if (directory != null) {
-				try {
-					directory.close();
-				} catch (IOException e) {
-					StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
-							"Cannot close index: " + e.getMessage(), e)); //$NON-NLS-1$
-				}
+			indexWriter = null;
+		}
+	}
+
+	/**
+	 * 'this' must be synchronized
+	 */
+	private void closeDirectory() {
+		if (directory != null) {
+			try {
+				directory.close();
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Cannot close index: " + e.getMessage(), e)); //$NON-NLS-1$
 			}
-		} finally {
-			writeLock.unlock();
 		}
 	}
 
-	private IndexReader getIndexReader() {
+	/**
+	 * 'this' must be synchronized
+	 */
+	private void closeSearcherManager() {
+		if (searcherManager != null) {
+			try {
+				searcherManager.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			searcherManager = null;
+			lastResults = null;
+			lastResultsReader = null;
+		}
+	}
+
+	/**
+	 * Returns the searcher manager, opening it on the {@link #indexWriter} or, if there is no writer yet, on the last commit of the index.
+	 * Returns null if the index does not exist or cannot be read.
+	 */
+	private SearcherManager getSearcherManager() {
 		try {
 			synchronized (this) {
-				if (indexReader == null) {
-					indexReader = DirectoryReader.open(directory);
+				if (searcherManager == null) {
+					if (indexWriter != null && indexWriter.isOpen()) {
+						searcherManager = new SearcherManager(indexWriter, null);
+					} else {
+						searcherManager = new SearcherManager(directory, null);
+					}
+					searcherManager.addListener(new ReferenceManager.RefreshListener() {
+						@Override
+						public void beforeRefresh() {
+						}
+
+						@Override
+						public void afterRefresh(boolean didRefresh) {
+							if (didRefresh) {
+								fireReaderReopened();
+							}
+						}
+					});
 					lastResults = null;
 				}
-				return indexReader;
+				return searcherManager;
 			}
 		} catch (CorruptIndexException e) {
 			rebuildIndex = true;
@@ -803,6 +1393,26 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		return null;
 	}
 
+	private IndexSearcher acquireSearcher(SearcherManager searcherManager) {
+		if (searcherManager != null) {
+			try {
+				return searcherManager.acquire();
+			} catch (AlreadyClosedException e) {
+				// the index was closed or replaced concurrently
+			}
+		}
+		return null;
+	}
+
+	private void releaseSearcher(SearcherManager searcherManager, IndexSearcher indexSearcher) {
+		try {
+			searcherManager.release(indexSearcher);
+		} catch (IOException e) {
+			StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+					"Unexpected failure within task list index", e)); //$NON-NLS-1$
+		}
+	}
+
 	@Override
 	public void taskDataUpdated(TaskDataManagerEvent event) {
 		reindex(event.getTask(), event.getTaskData());
@@ -815,9 +1425,16 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 	@Override
 	public void containersChanged(Set<TaskContainerDelta> containers) {
+		Set<String> addedHandles = new HashSet<>();
+		Set<ITask> deletedTasks = Collections.newSetFromMap(new IdentityHashMap<>());
 		for (TaskContainerDelta delta : containers) {
 			switch (delta.getKind()) {
 				case ADDED:
+					// tasks are also added when they are moved between containers, only hits that did not resolve to a task with
+					// the same handle are affected
+					if (delta.getElement() instanceof ITask task) {
+						addedHandles.add(task.getHandleIdentifier());
+					}
 				case REMOVED:
 				case CONTENT:
 					IRepositoryElement element = delta.getElement();
@@ -826,6 +1443,36 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 							reindex(task, null);
 						}
 					}
+					break;
+				case DELETED:
+					if (delta.getElement() instanceof ITask task) {
+						deletedTasks.add(task);
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		if (!addedHandles.isEmpty() || !deletedTasks.isEmpty()) {
+			invalidate(addedHandles, deletedTasks);
+		}
+	}
+
+	/**
+	 * Discards cached tasks and hits that may resolve to different tasks since tasks were added to or deleted from the task list.
+	 */
+	private void invalidate(Set<String> addedHandles, Set<ITask> deletedTasks) {
+		if (!deletedTasks.isEmpty()) {
+			Set<String> deletedHandles = new HashSet<>();
+			for (ITask task : deletedTasks) {
+				deletedHandles.add(task.getHandleIdentifier());
+			}
+			taskResolver.invalidate(deletedHandles);
+		}
+		queryCache.invalidate(addedHandles, deletedTasks);
+		synchronized (this) {
+			if (lastResults != null && lastResults.isAffected(addedHandles, deletedTasks)) {
+				lastResults = null;
 			}
 		}
 	}
@@ -842,13 +1489,11 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		if (task == null || !taskIsIndexable(task, taskData)) {
 			return;
 		}
-		synchronized (reindexQueue) {
-			reindexQueue.put(task, taskData);
-		}
+		reindexQueue.add(task, taskData);
 		scheduleIndexMaintenance(MaintainIndexType.REINDEX);
 	}
 
-	private void addIndexedAttributes(Document document, ITask task, TaskAttribute root) {
+	private void addIndexedAttributes(Document document, ITask task, TaskAttribute root, List<Document> children) {
 		addIndexedAttribute(document, FIELD_TASK_KEY, task.getTaskKey());
 		addIndexedAttribute(document, FIELD_REPOSITORY_URL, task.getRepositoryUrl());
 		addIndexedAttribute(document, FIELD_SUMMARY, root.getMappedAttribute(TaskAttribute.SUMMARY));
@@ -873,7 +1518,12 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 			String text = taskComment.getText();
 			if (text.length() != 0) {
+				// also indexed on the task so that the terms of a query may be split between the task and its comments
 				addIndexedAttribute(document, FIELD_CONTENT, text);
+				Document child = ChildDocuments.create(task.getHandleIdentifier(), ChildDocuments.KIND_COMMENT,
+						commentAttribute.getId());
+				addIndexedAttribute(child, FIELD_CONTENT, text, false);
+				children.add(child);
 			}
 			IRepositoryPerson author = taskComment.getAuthor();
 			if (author != null) {
@@ -902,6 +1552,11 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 					addIndexedAttribute(document, FIELD_ATTACHMENT_NAME, taskAttachment.getFileName());
 				}
 				addIndexedAttribute(document, FIELD_CONTENT, taskAttachment.getDescription());
+				Document child = ChildDocuments.create(task.getHandleIdentifier(), ChildDocuments.KIND_ATTACHMENT,
+						attribute.getId());
+				addIndexedAttribute(child, FIELD_ATTACHMENT_NAME, taskAttachment.getFileName(), false);
+				addIndexedAttribute(child, FIELD_CONTENT, taskAttachment.getDescription(), false);
+				children.add(child);
 			}
 		}
 
@@ -944,11 +1599,61 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		addIndexedAttribute(document, FIELD_REPOSITORY_URL, task.getRepositoryUrl());
 		addIndexedAttribute(document, FIELD_SUMMARY, task.getSummary());
 		addIndexedAttribute(document, FIELD_CONTENT, task.getSummary());
+		addIndexedAttribute(document, DefaultTaskSchema.getInstance().PRIORITY, task.getPriority());
 		addIndexedAttribute(document, FIELD_CONTENT, ((AbstractTask) task).getNotes());
 		addIndexedAttribute(document, FIELD_NOTES, ((AbstractTask) task).getNotes());
 		addIndexedDateAttributes(document, task);
 	}
 
+	/**
+	 * adds doc values that are used to filter and sort tasks by {@link #search(TaskListIndexQuery, int, int, TaskCollector)}
+	 */
+	private void addSortFields(Document document, ITask task) {
+		document.add(new NumericDocValuesField(FIELD_COMPLETED, task.isCompleted() ? 1 : 0));
+		if (task.getPriority() != null) {
+			document.add(new SortedDocValuesField(FIELD_SORT_PRIORITY, new BytesRef(task.getPriority())));
+		}
+		String summary = task.getSummary();
+		if (summary != null) {
+			summary = summary.toLowerCase(Locale.ROOT);
+			if (summary.length() > MAX_SORT_SUMMARY_LENGTH) {
+				summary = summary.substring(0, MAX_SORT_SUMMARY_LENGTH);
+			}
+			document.add(new SortedDocValuesField(FIELD_SORT_SUMMARY, new BytesRef(summary)));
+		}
+		addSortField(document, TaskListIndexQuery.SortKey.DATE_CREATION, task.getCreationDate());
+		addSortField(document, TaskListIndexQuery.SortKey.DATE_MODIFICATION, task.getModificationDate());
+		addSortField(document, TaskListIndexQuery.SortKey.DATE_DUE, task.getDueDate());
+	}
+
+	private void addSortField(Document document, TaskListIndexQuery.SortKey key, Date date) {
+		if (date != null) {
+			document.add(new NumericDocValuesField(computeSortField(key), date.getTime()));
+		}
+	}
+
+	private String computeSortField(TaskListIndexQuery.SortKey key) {
+		return switch (key) {
+			case PRIORITY -> FIELD_SORT_PRIORITY;
+			case SUMMARY -> FIELD_SORT_SUMMARY;
+			default -> SORT_FIELD_PREFIX + key.name().toLowerCase(Locale.ROOT);
+		};
+	}
+
+	private void addQuickFindFields(Document document) {
+		StringBuilder text = new StringBuilder();
+		for (AbstractTaskSchema.Field field : List.of(FIELD_TASK_KEY, FIELD_SUMMARY)) {
+			String value = document.get(field.getIndexKey());
+			if (value != null) {
+				text.append(value).append(' ');
+			}
+		}
+		if (text.length() > 0) {
+			document.add(new TextField(TaskAnalyzer.FIELD_QUICK_FIND, text.toString(), Store.NO));
+			document.add(new TextField(TaskAnalyzer.FIELD_QUICK_FIND_NGRAM, text.toString(), Store.NO));
+		}
+	}
+
 	private void addIndexedDateAttributes(Document document, ITask task) {
 		addIndexedAttribute(document, DefaultTaskSchema.getInstance().DATE_COMPLETION, task.getCompletionDate());
 		addIndexedAttribute(document, DefaultTaskSchema.getInstance().DATE_CREATION, task.getCreationDate());
@@ -990,14 +1695,23 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	private void addIndexedAttribute(Document document, AbstractTaskSchema.Field indexField, IRepositoryPerson person) {
 		if (person != null) {
 			addIndexedAttribute(document, indexField, person.getPersonId());
-			addIndexedAttribute(document, indexField, person.getName());
+			// only the id is counted as a facet value to avoid counting each person twice
+			addIndexedAttribute(document, indexField, person.getName(), false);
 		}
 	}
 
 	private void addIndexedAttribute(Document document, AbstractTaskSchema.Field indexField, String value) {
+		addIndexedAttribute(document, indexField, value, true);
+	}
+
+	private void addIndexedAttribute(Document document, AbstractTaskSchema.Field indexField, String value,
+			boolean facet) {
 		if (value == null) {
 			return;
 		}
+		if (facet) {
+			addFacetValue(document, indexField, value);
+		}
 		IndexableField field = document.getField(indexField.getIndexKey());
 		if (field == null) {
 			field = new TextField(indexField.getIndexKey(), value, Store.YES);
@@ -1018,6 +1732,7 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		// move the date by the GMT offset if there is any
 
 		String value = DateTools.dateToString(date, Resolution.HOUR);
+		addFacetValue(document, indexField, value);
 		IndexableField field = document.getField(indexField.getIndexKey());
 		if (field == null) {
 			field = new StringField(indexField.getIndexKey(), value, Store.YES);
@@ -1027,6 +1742,61 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		}
 	}
 
+	private void addFacetValue(Document document, AbstractTaskSchema.Field indexField, String value) {
+		if (isFacetField(indexField) && value.length() != 0 && value.length() <= MAX_FACET_VALUE_LENGTH) {
+			document.add(new SortedSetDocValuesField(FACET_FIELD_PREFIX + indexField.getIndexKey(), new BytesRef(value)));
+		}
+	}
+
+	/**
+	 * Indicates if values of the given field can be counted using {@link #computeFacetCounts(String, AbstractTaskSchema.Field)}. All
+	 * indexed fields except for long text fields are facets.
+	 *
+	 * @param field
+	 *            the field
+	 * @return true if the field is a facet, otherwise false
+	 */
+	public boolean isFacetField(AbstractTaskSchema.Field field) {
+		return indexedFields.contains(field) && !TaskAttribute.TYPE_LONG_TEXT.equals(field.getType())
+				&& !TaskAttribute.TYPE_LONG_RICH_TEXT.equals(field.getType());
+	}
+
+	/**
+	 * Counts the values of a field over the tasks that match the given pattern string. Counts are computed from doc values in a single
+	 * pass over the matching tasks without loading stored fields. Tasks that have multiple values for the field are counted once for each
+	 * value. Tasks that match the pattern only through their comments or attachments are counted.
+	 *
+	 * @param patternString
+	 *            the pattern string used to match tasks, or null to count over all indexed tasks
+	 * @param field
+	 *            the field, must be a {@link #isFacetField(AbstractTaskSchema.Field) facet}
+	 * @return the number of tasks for each value sorted by decreasing count, empty if the index is not available
+	 */
+	public Map<String, Integer> computeFacetCounts(String patternString, AbstractTaskSchema.Field field) {
+		Assert.isNotNull(field);
+		Assert.isTrue(isFacetField(field));
+
+		SearcherManager searcherManager = getSearcherManager();
+		IndexSearcher indexSearcher = acquireSearcher(searcherManager);
+		if (indexSearcher != null) {
+			long start = System.nanoTime();
+			try {
+				// only documents of tasks have facet values, matching child documents are counted through their task
+				Query query = (patternString != null)
+						? computeMatchingTasksQuery(patternString, indexSearcher)
+						: new MatchAllDocsQuery();
+				return FacetCounts.count(indexSearcher, query, FACET_FIELD_PREFIX + field.getIndexKey());
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+						"Unexpected failure within task list index", e)); //$NON-NLS-1$
+			} finally {
+				releaseSearcher(searcherManager, indexSearcher);
+				fireQueryExecuted(QueryKind.FACET_COUNTS, System.nanoTime() - start);
+			}
+		}
+		return Collections.emptyMap();
+	}
+
 	/**
 	 * Computes a query element for a field that must lie in a specified date range.
 	 *
@@ -1076,19 +1846,22 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	private void maintainIndex(IProgressMonitor m) throws CoreException {
 		final int WORK_PER_SEGMENT = 1000;
 		SubMonitor monitor = SubMonitor.convert(m, 2 * WORK_PER_SEGMENT);
+		long start = System.nanoTime();
+		long documentsBefore = documentsWritten.get();
+		boolean rebuild = false;
 		try {
 			try {
 				if (!rebuildIndex) {
-					try (IndexReader reader = DirectoryReader.open(directory)) {
-					} catch (CorruptIndexException e) {
+					try {
+						getIndexWriter();
+					} catch (CorruptIndexException | IndexFormatTooOldException | IndexNotFoundException e) {
 						rebuildIndex = true;
 					}
 				}
 
 				if (rebuildIndex) {
-					synchronized (reindexQueue) {
-						reindexQueue.clear();
-					}
+					rebuild = true;
+					reindexQueue.clear();
 
 					IStatus status = rebuildIndexCompletely(monitor.newChild(WORK_PER_SEGMENT));
 					if (!status.isOK()) {
@@ -1101,91 +1874,149 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 				// index any tasks that have been changed
 				indexQueuedTasks(monitor.newChild(WORK_PER_SEGMENT));
 
-				// prevent new searches from reading the now-stale index
-				closeIndexReader();
+				// make changes visible to new searches
+				publishChanges();
 			} catch (IOException e) {
+				rollbackIndexWriter();
 				throw new CoreException(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
 						"Unexpected exception: " + e.getMessage(), e)); //$NON-NLS-1$
 			}
 		} finally {
 			monitor.done();
+			fireMaintenanceCompleted(System.nanoTime() - start, (int) (documentsWritten.get() - documentsBefore), rebuild);
 		}
 	}
 
-	private void closeIndexReader() throws IOException {
-		Lock writeLock = indexReaderLock.writeLock();
-		writeLock.lock();
-		try {
-			synchronized (this) {
-				if (indexReader != null) {
-					indexReader.close();
-					indexReader = null;
-				}
+	/**
+	 * Refreshes the searcher manager so that new searches see the changes of the writer without reopening the index and commits the
+	 * changes to disk.
+	 */
+	private void publishChanges() throws IOException {
+		IndexWriter writer;
+		SearcherManager manager;
+		synchronized (this) {
+			writer = indexWriter;
+			manager = searcherManager;
+		}
+		if (writer != null && writer.hasUncommittedChanges()) {
+			if (manager != null) {
+				manager.maybeRefreshBlocking();
 			}
-		} finally {
-			writeLock.unlock();
+			writer.commit();
 		}
 	}
 
-	private void indexQueuedTasks(SubMonitor monitor)
-			throws CorruptIndexException, LockObtainFailedException, IOException, CoreException {
+	/**
+	 * Discards changes since the last commit after a failure, the writer is reopened by the next maintenance pass.
+	 */
+	private synchronized void rollbackIndexWriter() {
+		if (indexWriter != null) {
+			try {
+				indexWriter.rollback();
+			} catch (IOException e) {
+				// ignore
+			}
+			indexWriter = null;
+			closeSearcherManager();
+		}
+	}
 
-		synchronized (reindexQueue) {
-			if (reindexQueue.isEmpty()) {
-				return;
+	/**
+	 * Returns the writer, opening it on the existing index if necessary.
+	 */
+	private IndexWriter getIndexWriter() throws IOException {
+		synchronized (this) {
+			if (indexWriter == null || !indexWriter.isOpen()) {
+				IndexWriter writer = createIndexWriter(false);
+				if (!isCurrentFormat(writer)) {
+					writer.close();
+					throw new IndexFormatTooOldException(directory.toString(),
+							"Index was created by an earlier version"); //$NON-NLS-1$
+				}
+				setIndexWriter(writer);
 			}
+			return indexWriter;
+		}
+	}
 
-			monitor.beginTask(Messages.TaskListIndex_task_rebuilding_index, reindexQueue.size());
+	/**
+	 * Indexes created by earlier versions lack fields, such as the doc values of the handle identifier or facets, and need to be rebuilt
+	 * since the doc values type of an existing field cannot be changed.
+	 */
+	private boolean isCurrentFormat(IndexWriter writer) {
+		Map<String, String> commitData = new HashMap<>();
+		Iterable<Map.Entry<String, String>> liveCommitData = writer.getLiveCommitData();
+		if (liveCommitData != null) {
+			for (Map.Entry<String, String> entry : liveCommitData) {
+				commitData.put(entry.getKey(), entry.getValue());
+			}
 		}
+		return computeCommitData().equals(commitData);
+	}
 
-		try {
-			IndexWriter writer = null;
-			try {
-				Map<ITask, TaskData> workingQueue = new HashMap<>();
+	/**
+	 * the format of the index and the settings that affect which fields are indexed
+	 */
+	private Map<String, String> computeCommitData() {
+		return Map.of(COMMIT_DATA_FORMAT, INDEX_FORMAT, COMMIT_DATA_QUICK_FIND, Boolean.toString(quickFindEnabled));
+	}
 
-				// reindex tasks that are in the reindexQueue, making multiple passes so that we catch anything
-				// added/changed while we were reindexing
-				for (;;) {
-					workingQueue.clear();
+	/**
+	 * 'this' must be synchronized
+	 */
+	private void setIndexWriter(IndexWriter writer) {
+		writer.setLiveCommitData(computeCommitData().entrySet());
+		indexWriter = writer;
+		// searches must use a reader obtained from the writer to see changes that have not been committed
+		closeSearcherManager();
+	}
 
-					synchronized (reindexQueue) {
-						if (reindexQueue.isEmpty()) {
-							break;
-						}
-						// move items from the reindexQueue to the temporary working queue
-						workingQueue.putAll(reindexQueue);
-						reindexQueue.keySet().removeAll(workingQueue.keySet());
-					}
+	private void indexQueuedTasks(SubMonitor monitor)
+			throws CorruptIndexException, LockObtainFailedException, IOException, CoreException {
 
-					if (writer == null) {
-						try {
-							writer = createIndexWriter(false);
-						} catch (CorruptIndexException e) {
-							rebuildIndex = true;
-							synchronized (reindexQueue) {
-								reindexQueue.clear();
-							}
-							rebuildIndexCompletely(monitor);
-							return;
-						}
-					}
+		int size = reindexQueue.size();
+		if (size == 0) {
+			return;
+		}
+		monitor.beginTask(Messages.TaskListIndex_task_rebuilding_index, size);
 
-					monitor.setWorkRemaining(workingQueue.size());
+		try {
+			IndexWriter writer = null;
 
-					for (Entry<ITask, TaskData> entry : workingQueue.entrySet()) {
-						ITask task = entry.getKey();
-						TaskData taskData = entry.getValue();
+			// reindex tasks that are in the reindexQueue, making multiple passes so that we catch anything
+			// added/changed while we were reindexing
+			for (;;) {
+				// move items from the reindexQueue to the temporary working queue
+				List<ReindexQueue.Item> workingQueue = reindexQueue.drain();
+				if (workingQueue.isEmpty()) {
+					break;
+				}
 
-						writer.deleteDocuments(new Term(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier()));
+				if (writer == null) {
+					try {
+						writer = getIndexWriter();
+					} catch (CorruptIndexException e) {
+						rebuildIndex = true;
+						reindexQueue.clear();
+						rebuildIndexCompletely(monitor);
+						return;
+					}
+				}
 
-						add(writer, task, taskData);
+				monitor.setWorkRemaining(workingQueue.size());
 
-						monitor.worked(1);
-					}
+				// child documents are compared to those that are indexed to only write comments and attachments that changed
+				SearcherManager searcherManager = getSearcherManager();
+				if (searcherManager != null) {
+					searcherManager.maybeRefreshBlocking();
 				}
-			} finally {
-				if (writer != null) {
-					writer.close();
+				IndexSearcher searcher = acquireSearcher(searcherManager);
+				try {
+					indexQueuedTasks(writer, searcher, workingQueue, monitor);
+				} finally {
+					if (searcher != null) {
+						releaseSearcher(searcherManager, searcher);
+					}
 				}
 			}
 		} finally {
@@ -1193,6 +2024,35 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 		}
 	}
 
+	private void indexQueuedTasks(IndexWriter writer, IndexSearcher searcher, List<ReindexQueue.Item> workingQueue,
+			SubMonitor monitor) throws IOException {
+		for (ReindexQueue.Item item : workingQueue) {
+			ITask task = item.getTask();
+			TaskData taskData = item.getTaskData();
+			if (taskData == null && !"local".equals(((AbstractTask) task).getConnectorKind())) { //$NON-NLS-1$
+				// the task data was not retained or has been reclaimed
+				try {
+					taskData = dataManager.getTaskData(task);
+				} catch (CoreException e) {
+					StatusHandler.log(new Status(IStatus.ERROR, TasksIndexCore.ID_PLUGIN,
+							"Failed to load task data for " + task.getHandleIdentifier(), e)); //$NON-NLS-1$
+					monitor.worked(1);
+					continue;
+				}
+			}
+
+			if (searcher != null) {
+				writer.deleteDocuments(ChildDocuments.computeTaskQuery(task.getHandleIdentifier()));
+			} else {
+				writer.deleteDocuments(new Term(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier()));
+			}
+
+			add(writer, searcher, task, taskData);
+
+			monitor.worked(1);
+		}
+	}
+
 	private class TaskListState implements ITaskListRunnable {
 		List<ITask> indexableTasks;
 
@@ -1221,30 +2081,157 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 
 		monitor.beginTask(Messages.TaskListIndex_task_rebuilding_index, taskListState.indexableTasks.size());
 		try {
-			try (IndexWriter writer = createIndexWriter()) {
+			IndexWriter writer = resetIndexWriter();
+			RebuildProgress progress = new RebuildProgress(monitor, taskListState.indexableTasks.size());
 
+			if (rebuildParallelism > 1 && taskListState.indexableTasks.size() > 1) {
+				addAllInParallel(writer, taskListState.indexableTasks, multiStatus, progress);
+			} else {
 				for (ITask task : taskListState.indexableTasks) {
-					if (taskIsIndexable(task, null)) {
-						try {
-							TaskData taskData = dataManager.getTaskData(task);
-							add(writer, task, taskData);
-						} catch (CoreException e) {
-							// an individual task data error should not prevent the index from updating
-							multiStatus.add(e.getStatus());
-						}
+					try {
+						addWithTaskData(writer, task);
+					} catch (CoreException e) {
+						// an individual task data error should not prevent the index from updating
+						multiStatus.add(e.getStatus());
 					}
-					monitor.worked(1);
-				}
-				synchronized (this) {
-					rebuildIndex = false;
+					progress.worked();
 				}
 			}
+			synchronized (this) {
+				rebuildIndex = false;
+			}
 		} finally {
 			monitor.done();
 		}
 		return multiStatus;
 	}
 
+	/**
+	 * Loads task data and builds documents on a pool of {@link #rebuildParallelism} threads which add the documents to the shared
+	 * <code>writer</code>. The number of tasks that are queued for the pool is bounded so that loaded task data does not accumulate
+	 * faster than it can be indexed. Progress is reported on the calling thread.
+	 */
+	private void addAllInParallel(IndexWriter writer, List<ITask> tasks, MultiStatus multiStatus,
+			RebuildProgress progress) throws IOException {
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism, runnable -> {
+			Thread thread = new Thread(runnable, "Task List Indexer-" + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+		AtomicBoolean aborted = new AtomicBoolean();
+		int maxPending = rebuildParallelism * REBUILD_QUEUE_DEPTH;
+		int pending = 0;
+		try {
+			Iterator<ITask> it = tasks.iterator();
+			while (pending > 0 || it.hasNext()) {
+				while (pending < maxPending && it.hasNext()) {
+					final ITask task = it.next();
+					completionService.submit(() -> {
+						if (!aborted.get()) {
+							addWithTaskData(writer, task);
+						}
+						return null;
+					});
+					pending++;
+				}
+				Future<Void> future = completionService.take();
+				pending--;
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof CoreException coreException) {
+						// an individual task data error should not prevent the index from updating
+						multiStatus.add(coreException.getStatus());
+					} else if (cause instanceof IOException ioException) {
+						throw ioException;
+					} else if (cause instanceof RuntimeException runtimeException) {
+						throw runtimeException;
+					} else if (cause instanceof Error error) {
+						throw error;
+					} else {
+						throw new IOException(cause);
+					}
+				}
+				progress.worked();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} finally {
+			// workers must not modify the index after a failure since the changes are rolled back
+			aborted.set(true);
+			executor.shutdown();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void addWithTaskData(IndexWriter writer, ITask task) throws CoreException, IOException {
+		if (taskIsIndexable(task, null)) {
+			TaskData taskData = dataManager.getTaskData(task);
+			add(writer, null, task, taskData);
+		}
+	}
+
+	/**
+	 * Reports progress and throughput of a rebuild, must only be used by a single thread.
+	 */
+	private static class RebuildProgress {
+
+		private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+		private final SubMonitor monitor;
+
+		private final int total;
+
+		private final long start = System.nanoTime();
+
+		private long lastReport = start;
+
+		private int count;
+
+		public RebuildProgress(SubMonitor monitor, int total) {
+			this.monitor = monitor;
+			this.total = total;
+		}
+
+		public void worked() {
+			monitor.worked(1);
+			count++;
+			long now = System.nanoTime();
+			if (now - lastReport >= REPORT_INTERVAL || count == total) {
+				lastReport = now;
+				long tasksPerSecond = count * TimeUnit.SECONDS.toNanos(1) / Math.max(1, now - start);
+				monitor.subTask(NLS.bind(Messages.TaskListIndex_task_rebuilding_index_progress,
+						new Object[] { count, total, tasksPerSecond }));
+			}
+		}
+
+	}
+
+	/**
+	 * Returns a writer on an empty index. Searches continue to see the previous contents of the index until the changes are
+	 * {@link #publishChanges() published}.
+	 */
+	private IndexWriter resetIndexWriter() throws IOException {
+		synchronized (this) {
+			if (indexWriter != null && indexWriter.isOpen()) {
+				indexWriter.deleteAll();
+				// settings may have changed since the writer was opened
+				indexWriter.setLiveCommitData(computeCommitData().entrySet());
+				return indexWriter;
+			}
+			setIndexWriter(createIndexWriter());
+			return indexWriter;
+		}
+	}
+
 	private IndexWriter createIndexWriter()
 			throws LockObtainFailedException, IOException, CorruptIndexException {
 		IndexWriter writer;
@@ -1284,7 +2271,12 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	}
 
 	/**
+	 * Adds the document of a task and writes its child documents. The document of the task must have been deleted before.
+	 *
 	 * @param writer
+	 * @param searcher
+	 *            a searcher that reflects the indexed child documents of the task, or null if the task has no child documents in the
+	 *            index
 	 * @param task
 	 *            the task
 	 * @param taskData
@@ -1292,24 +2284,35 @@ public class TaskListIndex implements ITaskDataManagerListener, ITaskListChangeL
 	 * @throws CorruptIndexException
 	 * @throws IOException
 	 */
-	private void add(IndexWriter writer, ITask task, TaskData taskData) throws CorruptIndexException, IOException {
-		if (!taskIsIndexable(task, taskData)) {
+	private void add(IndexWriter writer, IndexSearcher searcher, ITask task, TaskData taskData)
+			throws CorruptIndexException, IOException {
+		if (!taskIsIndexable(task, taskData)
+				|| (taskData == null && !"local".equals(((AbstractTask) task).getConnectorKind()))) { //$NON-NLS-1$
+			if (searcher != null) {
+				// remove child documents that were indexed previously
+				writer.deleteDocuments(new Term(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier()));
+			}
 			return;
 		}
 
 		Document document = new Document();
 
 		document.add(new TextField(FIELD_IDENTIFIER.getIndexKey(), task.getHandleIdentifier(), Store.YES));
+		// used to resolve hits without loading stored fields
+		document.add(new SortedDocValuesField(FIELD_IDENTIFIER.getIndexKey(), new BytesRef(task.getHandleIdentifier())));
+		List<Document> children = new ArrayList<>();
 		if (taskData == null) {
-			if ("local".equals(((AbstractTask) task).getConnectorKind())) { //$NON-NLS-1$
-				addIndexedAttributes(document, task);
-			} else {
-				return;
-			}
+			addIndexedAttributes(document, task);
 		} else {
-			addIndexedAttributes(document, task, taskData.getRoot());
+			addIndexedAttributes(document, task, taskData.getRoot(), children);
+		}
+		addSortFields(document, task);
+		if (quickFindEnabled) {
+			addQuickFindFields(document);
 		}
 		writer.addDocument(document);
+		int written = ChildDocuments.update(writer, searcher, task.getHandleIdentifier(), children);
+		documentsWritten.addAndGet(1 + written);
 	}
 
 	@Override
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.tasks.core.ITask.PriorityLevel;
+
+/**
+ * Describes the tasks that are presented in a task list: the filters that tasks must pass and the order in which they are sorted. A query
+ * is evaluated by {@link TaskListIndex#search(TaskListIndexQuery, int, int, TaskListIndex.TaskCollector)} using doc values so that only
+ * the requested page of tasks needs to be materialized. Instances are immutable and are created using a {@link Builder}.
+ */
+public final class TaskListIndexQuery {
+
+	public enum SortKey {
+		PRIORITY, SUMMARY, DATE_CREATION, DATE_MODIFICATION, DATE_DUE
+	}
+
+	public static final class SortOrder {
+
+		private final SortKey key;
+
+		private final boolean descending;
+
+		private SortOrder(SortKey key, boolean descending) {
+			this.key = key;
+			this.descending = descending;
+		}
+
+		public SortKey getKey() {
+			return key;
+		}
+
+		public boolean isDescending() {
+			return descending;
+		}
+
+	}
+
+	public static final class Builder {
+
+		private String patternString;
+
+		private boolean hideCompleted;
+
+		private PriorityLevel maxPriority;
+
+		private Set<String> owners;
+
+		private final List<SortOrder> sortOrders = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Only includes tasks that {@link TaskListIndex#matches(org.eclipse.mylyn.tasks.core.ITask, String) match} the pattern string.
+		 */
+		public Builder pattern(String patternString) {
+			this.patternString = patternString;
+			return this;
+		}
+
+		/**
+		 * Excludes completed tasks.
+		 */
+		public Builder hideCompleted() {
+			this.hideCompleted = true;
+			return this;
+		}
+
+		/**
+		 * Excludes tasks with a lower priority than <code>priority</code>. Tasks without a priority are included.
+		 */
+		public Builder maxPriority(PriorityLevel priority) {
+			this.maxPriority = priority;
+			return this;
+		}
+
+		/**
+		 * Only includes local tasks and tasks that are assigned to one of the given persons.
+		 *
+		 * @param personIds
+		 *            the ids of the persons
+		 */
+		public Builder ownedBy(Collection<String> personIds) {
+			Assert.isNotNull(personIds);
+			this.owners = Collections.unmodifiableSet(new LinkedHashSet<>(personIds));
+			return this;
+		}
+
+		/**
+		 * Adds a sort key, tasks that are equal according to all sort keys are sorted by handle identifier.
+		 */
+		public Builder sortBy(SortKey key, boolean descending) {
+			Assert.isNotNull(key);
+			sortOrders.add(new SortOrder(key, descending));
+			return this;
+		}
+
+		public TaskListIndexQuery build() {
+			return new TaskListIndexQuery(this);
+		}
+
+	}
+
+	private final String patternString;
+
+	private final boolean hideCompleted;
+
+	private final PriorityLevel maxPriority;
+
+	private final Set<String> owners;
+
+	private final List<SortOrder> sortOrders;
+
+	private TaskListIndexQuery(Builder builder) {
+		this.patternString = builder.patternString;
+		this.hideCompleted = builder.hideCompleted;
+		this.maxPriority = builder.maxPriority;
+		this.owners = builder.owners;
+		this.sortOrders = Collections.unmodifiableList(new ArrayList<>(builder.sortOrders));
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * the pattern string, or null if tasks are not matched by pattern
+	 */
+	public String getPatternString() {
+		return patternString;
+	}
+
+	public boolean isHideCompleted() {
+		return hideCompleted;
+	}
+
+	/**
+	 * the lowest priority that is included, or null if tasks are not filtered by priority
+	 */
+	public PriorityLevel getMaxPriority() {
+		return maxPriority;
+	}
+
+	/**
+	 * the ids of the persons that tasks must be assigned to, or null if tasks are not filtered by owner
+	 */
+	public Set<String> getOwners() {
+		return owners;
+	}
+
+	public List<SortOrder> getSortOrders() {
+		return sortOrders;
+	}
+
+}
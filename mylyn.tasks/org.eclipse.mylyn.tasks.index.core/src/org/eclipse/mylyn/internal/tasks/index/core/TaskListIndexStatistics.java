@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.mylyn.internal.tasks.index.core.ITaskListIndexMetricsListener.QueryKind;
+
+/**
+ * A snapshot of the measurements of a {@link TaskListIndex} since it was created.
+ *
+ * @see TaskListIndex#getStatistics()
+ */
+public final class TaskListIndexStatistics {
+
+	/**
+	 * Aggregates the measurements that are reported to listeners, all methods are thread-safe.
+	 */
+	static class Recorder implements ITaskListIndexMetricsListener {
+
+		private final Map<QueryKind, LatencyHistogram> queries = new EnumMap<>(QueryKind.class);
+
+		private final LatencyHistogram maintenance = new LatencyHistogram();
+
+		private long documents;
+
+		private long readerReopenCount;
+
+		public Recorder() {
+			for (QueryKind kind : QueryKind.values()) {
+				queries.put(kind, new LatencyHistogram());
+			}
+		}
+
+		@Override
+		public void queryExecuted(QueryKind kind, long durationNanos) {
+			queries.get(kind).record(durationNanos);
+		}
+
+		@Override
+		public synchronized void maintenanceCompleted(long durationNanos, int documents, boolean rebuild) {
+			maintenance.record(durationNanos);
+			this.documents += documents;
+		}
+
+		@Override
+		public synchronized void readerReopened() {
+			readerReopenCount++;
+		}
+
+		public synchronized TaskListIndexStatistics snapshot(int queueDepth, int segmentCount, long indexSize) {
+			Map<QueryKind, LatencyHistogram> queryCopies = new EnumMap<>(QueryKind.class);
+			for (Map.Entry<QueryKind, LatencyHistogram> entry : queries.entrySet()) {
+				queryCopies.put(entry.getKey(), entry.getValue().copy());
+			}
+			return new TaskListIndexStatistics(queueDepth, documents, maintenance.copy(), readerReopenCount, queryCopies,
+					segmentCount, indexSize);
+		}
+
+	}
+
+	private final int queueDepth;
+
+	private final long documents;
+
+	private final LatencyHistogram maintenance;
+
+	private final long readerReopenCount;
+
+	private final Map<QueryKind, LatencyHistogram> queries;
+
+	private final int segmentCount;
+
+	private final long indexSize;
+
+	private TaskListIndexStatistics(int queueDepth, long documents, LatencyHistogram maintenance, long readerReopenCount,
+			Map<QueryKind, LatencyHistogram> queries, int segmentCount, long indexSize) {
+		this.queueDepth = queueDepth;
+		this.documents = documents;
+		this.maintenance = maintenance;
+		this.readerReopenCount = readerReopenCount;
+		this.queries = Collections.unmodifiableMap(queries);
+		this.segmentCount = segmentCount;
+		this.indexSize = indexSize;
+	}
+
+	/**
+	 * the number of tasks that are waiting to be reindexed
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * the number of documents that were written by index maintenance, including the child documents of comments and attachments
+	 */
+	public long getDocumentCount() {
+		return documents;
+	}
+
+	/**
+	 * the number of documents that were written per second of index maintenance
+	 */
+	public long getDocumentsPerSecond() {
+		return documents * TimeUnit.SECONDS.toNanos(1) / Math.max(1, maintenance.getTotalNanos());
+	}
+
+	/**
+	 * the durations of index maintenance runs
+	 */
+	public LatencyHistogram getMaintenanceDurations() {
+		return maintenance;
+	}
+
+	/**
+	 * the number of times that searches started to use a reader that reflects changes to the index
+	 */
+	public long getReaderReopenCount() {
+		return readerReopenCount;
+	}
+
+	/**
+	 * the durations of searches of <code>kind</code>
+	 */
+	public LatencyHistogram getQueryDurations(QueryKind kind) {
+		return queries.get(kind);
+	}
+
+	/**
+	 * the number of segments of the index, or -1 if the index is not available
+	 */
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+
+	/**
+	 * the size of the index files in bytes, or -1 if the index is not available
+	 */
+	public long getIndexSize() {
+		return indexSize;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("queueDepth=").append(queueDepth); //$NON-NLS-1$
+		sb.append(", documents=").append(documents); //$NON-NLS-1$
+		sb.append(", documentsPerSecond=").append(getDocumentsPerSecond()); //$NON-NLS-1$
+		sb.append(", readerReopenCount=").append(readerReopenCount); //$NON-NLS-1$
+		sb.append(", segmentCount=").append(segmentCount); //$NON-NLS-1$
+		sb.append(", indexSize=").append(indexSize); //$NON-NLS-1$
+		sb.append("\nmaintenance: ").append(maintenance); //$NON-NLS-1$
+		for (Map.Entry<QueryKind, LatencyHistogram> entry : queries.entrySet()) {
+			sb.append("\nquery ").append(entry.getKey()).append(": ").append(entry.getValue()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.core;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+
+/**
+ * Resolves documents to tasks using the handle identifier that is indexed as a sorted doc value. Resolved tasks are cached per segment by
+ * ordinal so that repeated searches neither load stored fields nor look up tasks by handle. Segments that were written before the handle
+ * identifier was indexed as a doc value are resolved through the stored field.
+ */
+class TaskResolver {
+
+	/**
+	 * Resolves documents of a single segment, documents must be resolved in increasing order.
+	 */
+	class SegmentResolver {
+
+		private final LeafReaderContext context;
+
+		private final SortedDocValues handles;
+
+		private final AbstractTask[] tasks;
+
+		private String unresolvedHandle;
+
+		private SegmentResolver(LeafReaderContext context) throws IOException {
+			this.context = context;
+			this.handles = context.reader().getSortedDocValues(field);
+			this.tasks = (handles != null) ? getTasks(context, handles.getValueCount()) : null;
+		}
+
+		public LeafReaderContext getContext() {
+			return context;
+		}
+
+		/**
+		 * Returns the task for the segment relative <code>doc</code> or null, if the task is not in the task list.
+		 */
+		public AbstractTask resolve(int doc) throws IOException {
+			unresolvedHandle = null;
+			if (handles == null) {
+				String handle = context.reader().document(doc).get(field);
+				AbstractTask task = taskList.getTask(handle);
+				if (task == null) {
+					unresolvedHandle = handle;
+				}
+				return task;
+			}
+			if (!handles.advanceExact(doc)) {
+				return null;
+			}
+			int ord = handles.ordValue();
+			AbstractTask task = (tasks != null) ? tasks[ord] : null;
+			if (task == null) {
+				String handle = handles.lookupOrd(ord).utf8ToString();
+				task = taskList.getTask(handle);
+				if (task == null) {
+					unresolvedHandle = handle;
+				} else if (tasks != null) {
+					tasks[ord] = task;
+				}
+			}
+			return task;
+		}
+
+		/**
+		 * Returns the handle identifier of the document passed to the last invocation of {@link #resolve(int)} if no task with that handle
+		 * was in the task list, null otherwise.
+		 */
+		public String getUnresolvedHandle() {
+			return unresolvedHandle;
+		}
+
+	}
+
+	private final TaskList taskList;
+
+	private final String field;
+
+	/**
+	 * maps ordinals of the handle identifier to tasks for each segment, entries are removed when the segment is closed
+	 */
+	private final Map<IndexReader.CacheKey, AbstractTask[]> segmentTasks = new ConcurrentHashMap<>();
+
+	public TaskResolver(TaskList taskList, String field) {
+		this.taskList = taskList;
+		this.field = field;
+	}
+
+	public SegmentResolver forSegment(LeafReaderContext context) throws IOException {
+		return new SegmentResolver(context);
+	}
+
+	/**
+	 * Resolves top level documents, returns an array in the order of <code>scoreDocs</code> that contains null for documents that are not
+	 * in the task list.
+	 */
+	public AbstractTask[] resolve(IndexReader reader, ScoreDoc[] scoreDocs) throws IOException {
+		Integer[] order = new Integer[scoreDocs.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		// doc values can only be advanced forward
+		Arrays.sort(order, Comparator.comparingInt(i -> scoreDocs[i].doc));
+
+		List<LeafReaderContext> leaves = reader.leaves();
+		AbstractTask[] result = new AbstractTask[scoreDocs.length];
+		SegmentResolver segment = null;
+		for (int i : order) {
+			int doc = scoreDocs[i].doc;
+			if (segment == null || doc >= segment.context.docBase + segment.context.reader().maxDoc()) {
+				segment = forSegment(leaves.get(ReaderUtil.subIndex(doc, leaves)));
+			}
+			result[i] = segment.resolve(doc - segment.context.docBase);
+		}
+		return result;
+	}
+
+	/**
+	 * Discards the cached tasks of <code>handleIdentifiers</code>, needs to be invoked when tasks are deleted from the task list. Tasks that
+	 * are added to the task list need no invalidation since documents that do not resolve to a task are not cached.
+	 */
+	public void invalidate(Set<String> handleIdentifiers) {
+		for (AbstractTask[] tasks : segmentTasks.values()) {
+			for (int i = 0; i < tasks.length; i++) {
+				AbstractTask task = tasks[i];
+				if (task != null && handleIdentifiers.contains(task.getHandleIdentifier())) {
+					tasks[i] = null;
+				}
+			}
+		}
+	}
+
+	private AbstractTask[] getTasks(LeafReaderContext context, int valueCount) {
+		IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+		if (cacheHelper == null) {
+			return null;
+		}
+		return segmentTasks.computeIfAbsent(cacheHelper.getKey(), key -> {
+			cacheHelper.addClosedListener(segmentTasks::remove);
+			return new AbstractTask[valueCount];
+		});
+	}
+
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     See git history
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.index.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.mylyn.commons.sdk.util.CommonTestUtil;
+import org.eclipse.mylyn.internal.tasks.core.LocalTask;
+import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndex.TaskCollector;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures quick find on a large task list. Indexing 100,000 tasks takes too long for the heartbeat suite, the tests only
+ * run when all tests are enabled through the <code>org.eclipse.mylyn.tests.all</code> system property.
+ */
+@SuppressWarnings("nls")
+public class TaskListIndexPerformanceTest extends AbstractTaskListIndexTest {
+
+	private static final int TASK_COUNT = 100000;
+
+	private static final long MAX_MEDIAN_QUICK_FIND_MILLIS = 20;
+
+	private static class TestTaskCollector extends TaskCollector {
+
+		private final List<ITask> tasks = new ArrayList<>();
+
+		@Override
+		public void collect(ITask task) {
+			tasks.add(task);
+		}
+
+		public List<ITask> getTasks() {
+			return tasks;
+		}
+	}
+
+	@Before
+	public void assumeAllTests() {
+		assumeFalse(CommonTestUtil.runHeartbeatTestsOnly());
+	}
+
+	@Test
+	public void testQuickFindPerformance() throws InterruptedException {
+		String[] words = { "editor", "synchronization", "repository", "query", "attachment", "comment", "context",
+				"TaskListView", "NullPointerException", "dialog", "selection", "index", "performance", "planning", "bug",
+				"connector", "wizard", "preferences", "notification", "scheduling" };
+		for (int i = 0; i < TASK_COUNT; i++) {
+			StringBuilder summary = new StringBuilder();
+			for (int j = 0; j < 6; j++) {
+				summary.append(words[(i * 7 + j * 13 + i / (j + 1)) % words.length]).append(' ');
+			}
+			summary.append(i);
+			context.getTaskList().addTask(new LocalTask("perf" + i, summary.toString()));
+		}
+
+		setupIndex();
+		index.setQuickFindEnabled(true);
+		index.waitUntilIdle();
+
+		String[] inputs = { "sync", "synchronisation", "TaskList", "nullpointer", "repo qu", "atachment", "12345", "edit",
+				"prefrences notif", "view" };
+		// warm up
+		for (String input : inputs) {
+			quickFind(input);
+		}
+		final int runs = 20;
+		long[] times = new long[runs * inputs.length];
+		for (int run = 0; run < runs; run++) {
+			for (int i = 0; i < inputs.length; i++) {
+				long start = System.nanoTime();
+				List<ITask> tasks = quickFind(inputs[i]);
+				times[run * inputs.length + i] = System.nanoTime() - start;
+				assertFalse(tasks.isEmpty());
+			}
+		}
+		Arrays.sort(times);
+		long median = TimeUnit.NANOSECONDS.toMillis(times[times.length / 2]);
+		assertTrue("expected median quick find time over " + TASK_COUNT + " tasks (" + median + " ms) to be less than "
+				+ MAX_MEDIAN_QUICK_FIND_MILLIS + " ms", median < MAX_MEDIAN_QUICK_FIND_MILLIS);
+	}
+
+	private List<ITask> quickFind(String text) {
+		TestTaskCollector collector = new TestTaskCollector();
+		index.quickFind(text, collector, 50);
+		return collector.getTasks();
+	}
+
+}
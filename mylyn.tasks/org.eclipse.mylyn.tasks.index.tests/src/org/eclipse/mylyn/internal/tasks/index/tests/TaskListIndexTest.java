@@ -29,7 +29,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -41,14 +43,23 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.mylyn.commons.core.DelegatingProgressMonitor;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.LocalTask;
+import org.eclipse.mylyn.internal.tasks.core.TaskCategory;
+import org.eclipse.mylyn.internal.tasks.index.core.ITaskListIndexMetricsListener;
+import org.eclipse.mylyn.internal.tasks.index.core.ITaskListIndexMetricsListener.QueryKind;
 import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndex;
 import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndex.TaskCollector;
+import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndexQuery;
+import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndexQuery.SortKey;
+import org.eclipse.mylyn.internal.tasks.index.core.TaskListIndexStatistics;
 import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.ITask.PriorityLevel;
 import org.eclipse.mylyn.tasks.core.data.DefaultTaskSchema;
 import org.eclipse.mylyn.tasks.core.data.TaskAttachmentMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskCommentMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskMapper;
+import org.eclipse.mylyn.tasks.tests.connector.MockTask;
 import org.junit.Test;
 
 /**
@@ -302,6 +313,30 @@ public class TaskListIndexTest extends AbstractTaskListIndexTest {
 		assertFalse(index.matches(task, "one AND four"));
 	}
 
+	@Test
+	public void testMatchesChangedTaskWithSamePattern() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createLocalTask();
+		task.setSummary("alpha");
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task, "alpha"));
+
+		task.setSummary("beta");
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		// results cached for the same pattern must not survive a refresh of the index
+		assertFalse(index.matches(task, "alpha"));
+		assertTrue(index.matches(task, "beta"));
+		assertCanFindTask(task);
+	}
+
 	@Test
 	public void testMatchesNotesWithExpectedQueryBehaviourWithRepositoryTask()
 			throws InterruptedException, CoreException {
@@ -596,6 +631,285 @@ public class TaskListIndexTest extends AbstractTaskListIndexTest {
 		}
 	}
 
+	@Test
+	public void testComputeFacetCounts() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task1 = context.createLocalTask();
+		((AbstractTask) task1).setPriority("P1");
+		ITask task2 = context.createLocalTask();
+		((AbstractTask) task2).setPriority("P3");
+		ITask task3 = context.createLocalTask();
+		((AbstractTask) task3).setPriority("P3");
+		task3.setSummary("other");
+		context.getTaskList().notifyElementsChanged(Set.of(task1, task2, task3));
+		context.createRepositoryTask();
+		context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		org.eclipse.mylyn.tasks.core.data.AbstractTaskSchema.Field priority = DefaultTaskSchema.getInstance().PRIORITY;
+		assertTrue(index.isFacetField(priority));
+		assertEquals(Map.of("P3", 2, "P1", 1),
+				filterKeys(index.computeFacetCounts(null, priority), "P1", "P3"));
+		assertEquals(List.of("P3", "P1"), new ArrayList<>(
+				filterKeys(index.computeFacetCounts(null, priority), "P1", "P3").keySet()));
+		assertEquals(Map.of("P1", 1, "P3", 1), filterKeys(index.computeFacetCounts("summary", priority), "P1", "P3"));
+
+		org.eclipse.mylyn.tasks.core.data.AbstractTaskSchema.Field owner = DefaultTaskSchema.getInstance().USER_ASSIGNED;
+		assertEquals(Map.of("assignee@example.com", 2), index.computeFacetCounts(null, owner));
+
+		assertFalse(index.isFacetField(TaskListIndex.FIELD_CONTENT));
+	}
+
+	private static Map<String, Integer> filterKeys(Map<String, Integer> counts, String... keys) {
+		Map<String, Integer> result = new LinkedHashMap<>(counts);
+		result.keySet().retainAll(List.of(keys));
+		return result;
+	}
+
+	@Test
+	public void testQueryCache() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createLocalTask();
+		task.setSummary("alpha");
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task, "alpha"));
+		assertFalse(index.matches(task, "beta"));
+		long misses = index.getQueryCacheMissCount();
+		long hits = index.getQueryCacheHitCount();
+		assertTrue(misses > 0);
+
+		// switching back to a previous pattern is served from the cache
+		assertTrue(index.matches(task, "alpha"));
+		assertEquals(misses, index.getQueryCacheMissCount());
+		assertTrue(index.getQueryCacheHitCount() > hits);
+
+		task.setSummary("beta");
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		// changed segments are searched again
+		assertTrue(index.matches(task, "beta"));
+		assertFalse(index.matches(task, "alpha"));
+		assertTrue(index.getQueryCacheMissCount() > misses);
+
+		index.setQueryCacheSize(0);
+		assertTrue(index.matches(task, "beta"));
+		assertFalse(index.matches(task, "alpha"));
+	}
+
+	@Test
+	public void testQueryCacheKeptWhenTaskIsMoved() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task, "summary"));
+		long misses = index.getQueryCacheMissCount();
+
+		// moving a task fires an added delta for the new container
+		TaskCategory category = new TaskCategory("category");
+		context.getTaskList().addCategory(category);
+		context.getTaskList().addTask(task, category);
+
+		assertTrue(index.matches(task, "summary"));
+		index.setDefaultField(FIELD_SUMMARY);
+		assertTrue(index.matches(task, "summary"));
+		assertEquals(misses, index.getQueryCacheMissCount());
+	}
+
+	@Test
+	public void testMatchesTaskThatIsAddedAgain() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task, "summary"));
+
+		context.getTaskList().deleteTask(task);
+
+		assertFalse(index.matches(task, "summary"));
+
+		// the document of the deleted task is still indexed and resolves to the task that replaces it
+		MockTask newTask = new MockTask(task.getTaskId());
+		context.getTaskList().addTask(newTask);
+
+		assertTrue(index.matches(newTask, "summary"));
+		assertFalse(index.matches(task, "summary"));
+	}
+
+	@Test
+	public void testFindDeletedTask() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		ITask task = context.createLocalTask();
+
+		index.waitUntilIdle();
+
+		assertCanFindTask(task);
+
+		context.getTaskList().deleteTask(task);
+
+		index.waitUntilIdle();
+
+		TestTaskCollector collector = new TestTaskCollector();
+		index.find(task.getSummary(), collector, 1000);
+		assertEquals(0, collector.getTasks().size());
+		assertFalse(index.matches(task, task.getSummary()));
+	}
+
+	@Test
+	public void testRebuildInParallel() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		List<ITask> tasks = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			tasks.add(context.createLocalTask());
+			tasks.add(context.createRepositoryTask());
+		}
+		index.waitUntilIdle();
+
+		index.setRebuildParallelism(4);
+		index.reindex();
+		index.waitUntilIdle();
+
+		assertFindsAll(tasks, "summary");
+
+		index.setRebuildParallelism(1);
+		index.reindex();
+		index.waitUntilIdle();
+
+		assertFindsAll(tasks, "summary");
+	}
+
+	private void assertFindsAll(List<ITask> tasks, String patternString) {
+		TestTaskCollector collector = new TestTaskCollector();
+		index.find(patternString, collector, 1000);
+
+		assertEquals(new HashSet<>(tasks), new HashSet<>(collector.getTasks()));
+		assertEquals(tasks.size(), collector.getTasks().size());
+	}
+
+	@Test
+	public void testFindMatchingComments() throws CoreException, InterruptedException {
+		setupIndex();
+
+		ITask task = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		TaskData taskData = context.getDataManager().getTaskData(task);
+		addComment(taskData, "1", "unicorn sighting");
+		addComment(taskData, "2", "rainbow unicorn");
+		addComment(taskData, "3", "nothing to see");
+		context.getDataManager().putSubmittedTaskData(task, taskData, new DelegatingProgressMonitor());
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertEquals(Set.of(TaskAttribute.PREFIX_COMMENT + "1", TaskAttribute.PREFIX_COMMENT + "2"),
+				new HashSet<>(index.findMatchingComments(task, "unicorn")));
+		assertEquals(List.of(TaskAttribute.PREFIX_COMMENT + "2"), index.findMatchingComments(task, "rainbow"));
+		assertEquals(List.of(), index.findMatchingComments(task, "description"));
+		assertTrue(index.matches(task, "rainbow"));
+
+		// a task is found once even if several of its comments match
+		TestTaskCollector collector = new TestTaskCollector();
+		index.find("unicorn OR description", collector, 10);
+		assertEquals(List.of(task), collector.getTasks());
+
+		taskData = context.getDataManager().getTaskData(task);
+		taskData.getRoot().removeAttribute(TaskAttribute.PREFIX_COMMENT + "2");
+		taskData.getRoot()
+				.getAttribute(TaskAttribute.PREFIX_COMMENT + "3")
+				.getAttribute(TaskAttribute.COMMENT_TEXT)
+				.setValue("unicorn again");
+		context.getDataManager().putSubmittedTaskData(task, taskData, new DelegatingProgressMonitor());
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertEquals(Set.of(TaskAttribute.PREFIX_COMMENT + "1", TaskAttribute.PREFIX_COMMENT + "3"),
+				new HashSet<>(index.findMatchingComments(task, "unicorn")));
+		assertFalse(index.matches(task, "rainbow"));
+		assertFalse(index.matches(task, "nothing"));
+	}
+
+	@Test
+	public void testMatchesQuerySplitBetweenCommentAndTask() throws CoreException, InterruptedException {
+		setupIndex();
+
+		ITask task = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		TaskData taskData = context.getDataManager().getTaskData(task);
+		addComment(taskData, "1", "unicorn sighting");
+		context.getDataManager().putSubmittedTaskData(task, taskData, new DelegatingProgressMonitor());
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertTrue(index.matches(task, "unicorn AND description"));
+		assertFalse(index.matches(task, "unicorn AND rainbow"));
+
+		TestTaskCollector collector = new TestTaskCollector();
+		index.find("unicorn AND description", collector, 10);
+		assertEquals(List.of(task), collector.getTasks());
+
+		// only the comment matches the terms that it contains
+		assertEquals(List.of(TaskAttribute.PREFIX_COMMENT + "1"), index.findMatchingComments(task, "unicorn"));
+		assertEquals(List.of(), index.findMatchingComments(task, "unicorn AND description"));
+	}
+
+	@Test
+	public void testComputeFacetCountsMatchingComment() throws CoreException, InterruptedException {
+		setupIndex();
+
+		ITask task = context.createRepositoryTask();
+		context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		TaskData taskData = context.getDataManager().getTaskData(task);
+		addComment(taskData, "1", "unicorn sighting");
+		context.getDataManager().putSubmittedTaskData(task, taskData, new DelegatingProgressMonitor());
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		org.eclipse.mylyn.tasks.core.data.AbstractTaskSchema.Field owner = DefaultTaskSchema.getInstance().USER_ASSIGNED;
+		assertEquals(Map.of("assignee@example.com", 2), index.computeFacetCounts(null, owner));
+		// the task matches through its comment only
+		assertEquals(Map.of("assignee@example.com", 1), index.computeFacetCounts("unicorn", owner));
+		assertEquals(Map.of(), index.computeFacetCounts("rainbow", owner));
+	}
+
+	private void addComment(TaskData taskData, String number, String text) {
+		TaskAttribute attribute = taskData.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + number);
+		TaskCommentMapper mapper = new TaskCommentMapper();
+		mapper.setCommentId(number);
+		mapper.setNumber(Integer.valueOf(number));
+		mapper.setText(text);
+		mapper.applyTo(attribute);
+	}
+
 	@Test
 	public void testFindByTaskAttachmentName() throws CoreException, InterruptedException {
 		setupIndex();
@@ -667,6 +981,217 @@ public class TaskListIndexTest extends AbstractTaskListIndexTest {
 		assertFalse(index.matches(task3, query));
 	}
 
+	@Test
+	public void testReindexLoadsTaskDataThatIsNotQueued() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+		index.setMaxQueuedTaskDataSize(0);
+
+		ITask task = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		setSummary(task, "first");
+		setSummary(task, "second");
+
+		index.waitUntilIdle();
+
+		assertFalse(index.matches(task, "first"));
+		assertTrue(index.matches(task, "second"));
+	}
+
+	@Test
+	public void testQuickFind() throws InterruptedException, CoreException {
+		setupIndex();
+		index.setQuickFindEnabled(true);
+
+		ITask task1 = context.createLocalTask();
+		task1.setSummary("TaskSelectionDialog misses matches");
+		ITask task2 = context.createLocalTask();
+		task2.setSummary("Synchronize repository queries");
+		ITask task3 = context.createLocalTask();
+		task3.setSummary("Selection provider leaks");
+		context.getTaskList().notifyElementsChanged(Set.of(task1, task2, task3));
+		ITask task4 = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		assertEquals(List.of(task1), quickFind("Dialog"));
+		assertEquals(Set.of(task1, task3), new HashSet<>(quickFind("selec")));
+		assertEquals(List.of(task2), quickFind("sychronize"));
+		assertEquals(List.of(task1), quickFind("task sel dia"));
+		assertEquals(task4, quickFind(task4.getTaskKey()).get(0));
+		assertEquals(List.of(), quickFind("unlikely"));
+
+		index.setQuickFindEnabled(false);
+		index.waitUntilIdle();
+
+		assertEquals(List.of(task2), quickFind("sychronize"));
+		assertEquals(List.of(task3), quickFind("prov"));
+		assertEquals(List.of(), quickFind("Dialog"));
+	}
+
+	private List<ITask> quickFind(String text) {
+		TestTaskCollector collector = new TestTaskCollector();
+		index.quickFind(text, collector, 10);
+		return collector.getTasks();
+	}
+
+	@Test
+	public void testSearch() throws InterruptedException, CoreException {
+		setupIndex();
+
+		ITask task1 = context.createLocalTask();
+		task1.setSummary("beta");
+		task1.setPriority(PriorityLevel.P1.toString());
+		ITask task2 = context.createLocalTask();
+		task2.setSummary("alpha");
+		task2.setPriority(PriorityLevel.P3.toString());
+		ITask task3 = context.createLocalTask();
+		task3.setSummary("gamma");
+		task3.setPriority(PriorityLevel.P5.toString());
+		((AbstractTask) task3).setCompleted(true);
+		context.getTaskList().notifyElementsChanged(Set.of(task1, task2, task3));
+		ITask repositoryTask = context.createRepositoryTask();
+
+		index.waitUntilIdle();
+
+		TaskListIndexQuery query = TaskListIndexQuery.builder().sortBy(SortKey.SUMMARY, false).build();
+		TestTaskCollector collector = new TestTaskCollector();
+		assertEquals(4, index.search(query, 0, 2, collector));
+		assertEquals(List.of(task2, task1), collector.getTasks());
+		collector = new TestTaskCollector();
+		assertEquals(4, index.search(query, 2, 2, collector));
+		assertEquals(List.of(task3, repositoryTask), collector.getTasks());
+
+		assertEquals(List.of(task2, task1, repositoryTask),
+				search(TaskListIndexQuery.builder().hideCompleted().sortBy(SortKey.SUMMARY, false).build()));
+		assertEquals(List.of(task1, task2), search(TaskListIndexQuery.builder()
+				.maxPriority(PriorityLevel.P3)
+				.ownedBy(Set.of("someone@example.com"))
+				.sortBy(SortKey.PRIORITY, false)
+				.build()));
+		assertEquals(List.of(repositoryTask, task1, task2), search(TaskListIndexQuery.builder()
+				.hideCompleted()
+				.ownedBy(Set.of("assignee@example.com"))
+				.sortBy(SortKey.SUMMARY, true)
+				.build()));
+		assertEquals(List.of(task1), search(TaskListIndexQuery.builder().pattern("beta").build()));
+	}
+
+	@Test
+	public void testMatchesBestTasksWhenMaxMatchSearchHitsExceeded() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+		index.setMaxMatchSearchHits(3);
+
+		List<ITask> weakMatches = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ITask task = context.createLocalTask();
+			task.setSummary("epsilon with a long summary that contains many other words " + i);
+			weakMatches.add(task);
+		}
+		// tasks that are indexed last match best
+		List<ITask> bestMatches = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ITask task = context.createLocalTask();
+			task.setSummary("epsilon epsilon");
+			bestMatches.add(task);
+		}
+		Set<ITask> tasks = new HashSet<>(weakMatches);
+		tasks.addAll(bestMatches);
+		context.getTaskList().notifyElementsChanged(tasks);
+
+		index.waitUntilIdle();
+
+		for (ITask task : bestMatches) {
+			assertTrue(index.matches(task, "epsilon"));
+		}
+		for (ITask task : weakMatches) {
+			assertFalse(index.matches(task, "epsilon"));
+		}
+	}
+
+	@Test
+	public void testSearchPatternMatchesMoreThanMaxMatchSearchHits() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+		index.setMaxMatchSearchHits(5);
+
+		List<ITask> tasks = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			ITask task = context.createLocalTask();
+			task.setSummary("delta " + (char) ('a' + i));
+			tasks.add(task);
+		}
+		context.getTaskList().notifyElementsChanged(new HashSet<>(tasks));
+
+		index.waitUntilIdle();
+
+		TaskListIndexQuery query = TaskListIndexQuery.builder().pattern("delta").sortBy(SortKey.SUMMARY, false).build();
+		assertEquals(tasks, search(query));
+		TestTaskCollector collector = new TestTaskCollector();
+		assertEquals(12, index.search(query, 10, 5, collector));
+		assertEquals(tasks.subList(10, 12), collector.getTasks());
+	}
+
+	@Test
+	public void testStatistics() throws InterruptedException {
+		setupIndex();
+		index.setDefaultField(FIELD_SUMMARY);
+
+		List<QueryKind> queries = new ArrayList<>();
+		List<Integer> documents = new ArrayList<>();
+		index.addMetricsListener(new ITaskListIndexMetricsListener() {
+			@Override
+			public void queryExecuted(QueryKind kind, long durationNanos) {
+				queries.add(kind);
+			}
+
+			@Override
+			public void maintenanceCompleted(long durationNanos, int documentCount, boolean rebuild) {
+				documents.add(documentCount);
+			}
+
+			@Override
+			public void readerReopened() {
+			}
+		});
+
+		ITask task = context.createLocalTask();
+		task.setSummary("alpha");
+		context.getTaskList().notifyElementsChanged(Collections.singleton(task));
+
+		index.waitUntilIdle();
+
+		assertFalse(documents.isEmpty());
+		assertEquals(1, documents.get(documents.size() - 1).intValue());
+		assertTrue(index.matches(task, "alpha"));
+		index.find("alpha", new TestTaskCollector(), 10);
+		assertEquals(List.of(QueryKind.MATCHES, QueryKind.FIND), queries);
+
+		TaskListIndexStatistics statistics = index.getStatistics();
+		assertEquals(0, statistics.getQueueDepth());
+		assertTrue(statistics.getDocumentCount() >= 1);
+		assertTrue(statistics.getMaintenanceDurations().getCount() >= 1);
+		assertTrue(statistics.getReaderReopenCount() >= 1);
+		assertEquals(1, statistics.getQueryDurations(QueryKind.MATCHES).getCount());
+		assertEquals(1, statistics.getQueryDurations(QueryKind.FIND).getCount());
+		assertEquals(0, statistics.getQueryDurations(QueryKind.SEARCH).getCount());
+		assertTrue(statistics.getSegmentCount() > 0);
+		assertTrue(statistics.getIndexSize() > 0);
+
+		// the stats command is handled like a pattern that matches no task
+		assertFalse(index.matches(task, "index:stats"));
+	}
+
+	private List<ITask> search(TaskListIndexQuery query) {
+		TestTaskCollector collector = new TestTaskCollector();
+		int total = index.search(query, 0, 100, collector);
+		assertEquals(total, collector.getTasks().size());
+		return collector.getTasks();
+	}
+
 	private void setSummary(ITask task, String summary) throws CoreException {
 		task.setSummary(summary);
 		TaskData taskData = context.getDataManager().getTaskData(task);
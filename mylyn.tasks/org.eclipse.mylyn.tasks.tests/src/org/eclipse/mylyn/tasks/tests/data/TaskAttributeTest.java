@@ -14,9 +14,13 @@
 
 package org.eclipse.mylyn.tasks.tests.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+import org.eclipse.mylyn.internal.tasks.core.data.TaskAttributeAccess;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
@@ -71,6 +75,101 @@ public class TaskAttributeTest extends TestCase {
 		assertTrue(attribute.hasValue());
 	}
 
+	public void testAddValue() {
+		for (int i = 0; i < 1000; i++) {
+			attribute.addValue(Integer.toString(i));
+		}
+		List<String> values = attribute.getValues();
+		assertEquals(1000, values.size());
+		assertEquals("999", values.get(999));
+
+		TaskAttribute copy = attribute.getParentAttribute().createAttribute("copy");
+		copy.deepAddCopy(attribute);
+		attribute.addValue("added");
+		copy.getAttribute("test").addValue("copied");
+
+		// values are a live view
+		assertEquals(1001, values.size());
+		assertEquals("added", values.get(1000));
+		assertEquals("copied", copy.getAttribute("test").getValues().get(1000));
+
+		attribute.removeValue("0");
+		assertEquals("1", attribute.getValue());
+		assertEquals("1", values.get(0));
+		assertEquals(1000, values.size());
+
+		try {
+			values.add("other");
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	public void testGetOptionsIsLiveView() {
+		Map<String, String> options = attribute.getOptions();
+		Map<String, String> metaData = attribute.getMetaData().getValues();
+		assertTrue(options.isEmpty());
+
+		attribute.putOption("a", "A");
+		attribute.getMetaData().setLabel("Test");
+		TaskAttribute copy = attribute.getParentAttribute().createAttribute("copy");
+		copy.deepAddCopy(attribute);
+		attribute.putOption("b", "B");
+
+		assertEquals(2, options.size());
+		assertEquals("B", options.get("b"));
+		assertEquals("Test", metaData.get(TaskAttribute.META_LABEL));
+		assertEquals(Collections.singletonMap("a", "A"), copy.getAttribute("test").getOptions());
+
+		try {
+			options.put("c", "C");
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	public void testDeepAddCopyLeavesSourceUnchanged() {
+		attribute.putOption("a", "A");
+		attribute.getMetaData().setLabel("Test");
+		attribute.addValue("1");
+		TaskAttribute copy = attribute.getParentAttribute().createAttribute("copy");
+		copy.deepAddCopy(attribute);
+		TaskAttribute copiedAttribute = copy.getAttribute("test");
+
+		// the source remains modifiable in place and changes to either side are not visible to the other
+		attribute.addValue("2");
+		attribute.putOption("b", "B");
+		attribute.getMetaData().setReadOnly(true);
+		copiedAttribute.putOption("c", "C");
+
+		assertEquals(Arrays.asList("1", "2"), attribute.getValues());
+		assertEquals(Collections.singletonList("1"), copiedAttribute.getValues());
+		assertEquals(Arrays.asList("a", "b"), new ArrayList<>(attribute.getOptions().keySet()));
+		assertEquals(Arrays.asList("a", "c"), new ArrayList<>(copiedAttribute.getOptions().keySet()));
+		assertTrue(attribute.getMetaData().isReadOnly());
+		assertFalse(copiedAttribute.getMetaData().isReadOnly());
+	}
+
+	public void testShareOptionsAndMetaData() {
+		attribute.putOption("a", "A");
+		attribute.getMetaData().setLabel("Test");
+		TaskAttribute other = attribute.getParentAttribute().createAttribute("other");
+		other.putOption("a", "A");
+		other.getMetaData().setLabel("Test");
+
+		TaskAttributeAccess.shareOptionsAndMetaData(attribute);
+		TaskAttributeAccess.shareOptionsAndMetaData(other);
+		attribute.putOption("b", "B");
+		attribute.getMetaData().setReadOnly(true);
+
+		assertEquals(2, attribute.getOptions().size());
+		assertEquals(Collections.singletonMap("a", "A"), other.getOptions());
+		assertTrue(attribute.getMetaData().isReadOnly());
+		assertFalse(other.getMetaData().isReadOnly());
+	}
+
 	public void testNullValue() throws Exception {
 		try {
 			attribute.setValue(null);
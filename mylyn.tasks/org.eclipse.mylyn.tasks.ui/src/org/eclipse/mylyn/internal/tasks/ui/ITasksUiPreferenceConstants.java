@@ -88,6 +88,12 @@ public interface ITasksUiPreferenceConstants {
 
 	String REPOSITORY_SYNCH_SCHEDULE_MILISECONDS = "org.eclipse.mylyn.tasks.ui.repositories.synch.schedule.miliseconds"; //$NON-NLS-1$
 
+	/**
+	 * If enabled, queries that frequently change are synchronized more often than the configured interval and queries
+	 * that rarely change less often.
+	 */
+	String REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE = "org.eclipse.mylyn.tasks.ui.repositories.synch.schedule.adaptive"; //$NON-NLS-1$
+
 	String RELEVANT_SYNCH_SCHEDULE_ENABLED = "org.eclipse.mylyn.tasks.ui.relevant.tasks.synch.schedule"; //$NON-NLS-1$
 
 	String RELEVANT_TASKS_SCHEDULE_MILISECONDS = "org.eclipse.mylyn.tasks.ui.relevant.tasks.synch.schedule.miliseconds"; //$NON-NLS-1$
@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui;
@@ -19,14 +20,32 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.mylyn.internal.monitor.ui.MonitorUiPlugin;
 import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
+import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskActivityManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryAdapter;
+import org.eclipse.mylyn.internal.tasks.core.sync.AdaptiveSynchronizationScheduler;
+import org.eclipse.mylyn.internal.tasks.core.sync.SynchronizeRepositoriesJob;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
 
 class TaskListScheduledSynchronizationManager {
 
 	private static final int DELAY_QUERY_REFRESH_ON_STARTUP = 20 * 1000;
 
+	/**
+	 * Busy queries are synchronized up to four times as often as the configured interval.
+	 */
+	private static final int MIN_INTERVAL_DIVISOR = 4;
+
+	/**
+	 * Quiet queries are synchronized at least every twelve configured intervals.
+	 */
+	private static final int MAX_INTERVAL_FACTOR = 12;
+
 	private static final List<String> FULL_REFRESH_ENABLEMENT_KEYS = List
 			.of(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED);
 
@@ -38,10 +57,44 @@ class TaskListScheduledSynchronizationManager {
 
 	private final TaskListSynchronizationScheduler relevantTaskScheduler;
 
+	private final AdaptiveSynchronizationScheduler adaptiveScheduler = new AdaptiveSynchronizationScheduler();
+
+	private SynchronizeRepositoriesJob adaptiveRefreshJob;
+
+	/**
+	 * Discards the state of the adaptive scheduler for deleted queries.
+	 */
+	private final ITaskListChangeListener taskListChangeListener = containers -> {
+		for (TaskContainerDelta delta : containers) {
+			if (delta.getKind() == TaskContainerDelta.Kind.DELETED
+					&& delta.getElement() instanceof RepositoryQuery query) {
+				adaptiveScheduler.remove(query.getHandleIdentifier());
+			}
+		}
+	};
+
+	/**
+	 * Discards the state of the adaptive scheduler for removed repositories which are keyed by their URL.
+	 */
+	private final TaskRepositoryAdapter repositoryListener = new TaskRepositoryAdapter() {
+		@Override
+		public void repositoryRemoved(TaskRepository repository) {
+			adaptiveScheduler.remove(repository.getRepositoryUrl());
+		}
+
+		@Override
+		public void repositoryUrlChanged(TaskRepository repository, String oldUrl) {
+			adaptiveScheduler.remove(oldUrl);
+		}
+	};
+
 	public TaskListScheduledSynchronizationManager(ITaskJobFactory taskJobFactory,
-			TaskActivityManager taskActivityManager, IRepositoryManager repositoryManager) {
+			TaskActivityManager taskActivityManager, IRepositoryManager repositoryManager, TaskList taskList) {
 		SynchronizationJob refreshJob = taskJobFactory.createSynchronizeRepositoriesJob(null);
 		refreshJob.setFullSynchronization(true);
+		if (refreshJob instanceof SynchronizeRepositoriesJob synchronizeRepositoriesJob) {
+			adaptiveRefreshJob = synchronizeRepositoriesJob;
+		}
 
 		fullRefreshScheduler = new TaskListSynchronizationScheduler(refreshJob);
 		updateSynchronizationScheduler(fullRefreshScheduler, true,
@@ -55,11 +108,15 @@ class TaskListScheduledSynchronizationManager {
 
 		MonitorUiPlugin.getDefault().getActivityContextManager().addListener(fullRefreshScheduler);
 		MonitorUiPlugin.getDefault().getActivityContextManager().addListener(relevantTaskScheduler);
+
+		taskList.addChangeListener(taskListChangeListener);
+		repositoryManager.addListener(repositoryListener);
 	}
 
 	public void processPreferenceChange(PropertyChangeEvent event) {
 		if (event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS)
-				|| event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED)) {
+				|| event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED)
+				|| event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE)) {
 			updateSynchronizationScheduler(fullRefreshScheduler, false,
 					ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS, FULL_REFRESH_ENABLEMENT_KEYS);
 		}
@@ -99,6 +156,18 @@ class TaskListScheduledSynchronizationManager {
 
 		if (enabled) {
 			long interval = TasksUiPlugin.getDefault().getPreferenceStore().getLong(intervalKey);
+			if (scheduler == fullRefreshScheduler && adaptiveRefreshJob != null) {
+				boolean adaptive = interval > 0 && TasksUiPlugin.getDefault()
+						.getPreferenceStore()
+						.getBoolean(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE);
+				if (adaptive) {
+					// the adaptive scheduler selects the queries that are due each time the job runs
+					adaptiveScheduler.setIntervals(Math.max(1, interval / MIN_INTERVAL_DIVISOR), interval,
+							interval * MAX_INTERVAL_FACTOR);
+					interval = adaptiveScheduler.getMinInterval();
+				}
+				adaptiveRefreshJob.setScheduler(adaptive ? adaptiveScheduler : null);
+			}
 			if (isInitialInvocation) {
 				scheduler.setInterval(DELAY_QUERY_REFRESH_ON_STARTUP, interval);
 			} else {
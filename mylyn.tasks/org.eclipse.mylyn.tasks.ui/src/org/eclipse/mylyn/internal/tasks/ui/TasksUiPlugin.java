@@ -86,6 +86,7 @@ import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryDelta;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryDelta.Type;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.internal.tasks.core.data.SegmentedTaskDataStore;
 import org.eclipse.mylyn.internal.tasks.core.data.SynchronizationManger;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataStore;
@@ -160,6 +161,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 	private static final String PROP_FORCE_CREDENTIALS_MIGRATION = "org.eclipse.mylyn.tasks.force.credentials.migration"; //$NON-NLS-1$
 
+	private static final String PROP_SEGMENTED_TASK_DATA_STORE = "org.eclipse.mylyn.tasks.segmented.task.data.store"; //$NON-NLS-1$
+
 	private static final boolean DEBUG_HTTPCLIENT = "true" //$NON-NLS-1$
 			.equalsIgnoreCase(Platform.getDebugOption("org.eclipse.mylyn.tasks.ui/debug/httpclient")); //$NON-NLS-1$
 
@@ -173,6 +176,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 	private static TaskDataManager taskDataManager;
 
+	private static TaskDataStore taskDataStore;
+
 	private static Map<String, AbstractRepositoryConnectorUi> repositoryConnectorUiMap = new HashMap<>();
 
 	private static AbstractTaskContextStore contextStore;
@@ -540,7 +545,9 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 			TasksUiExtensionReader.initStartupExtensions(connectorLoader.getBlackList());
 
 			// instantiate taskDataManager
-			TaskDataStore taskDataStore = new TaskDataStore(repositoryManager);
+			taskDataStore = Boolean.getBoolean(PROP_SEGMENTED_TASK_DATA_STORE)
+					? new SegmentedTaskDataStore(repositoryManager)
+					: new TaskDataStore(repositoryManager);
 			synchronizationManger = new SynchronizationManger(repositoryModel);
 			taskDataManager = new TaskDataManager(taskDataStore, repositoryManager, taskList, taskActivityManager,
 					synchronizationManger);
@@ -569,6 +576,9 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 					if (context.getKind() == ISaveContext.FULL_SAVE) {
 						externalizationManager.stop();
 					}
+					if (taskDataStore instanceof SegmentedTaskDataStore segmentedStore) {
+						segmentedStore.flush();
+					}
 				}
 			};
 			ResourcesPlugin.getWorkspace().addSaveParticipant(this, saveParticipant);
@@ -785,6 +795,9 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 			if (taskActivityMonitor != null) {
 				taskActivityMonitor.stop();
 			}
+			if (taskDataStore instanceof SegmentedTaskDataStore segmentedStore) {
+				segmentedStore.close();
+			}
 
 			if (ResourcesPlugin.getWorkspace() != null) {
 				ResourcesPlugin.getWorkspace().removeSaveParticipant(this);
@@ -976,6 +989,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		store.setDefault(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED, true);
 		store.setDefault(ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED, true);
 		store.setDefault(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS, "" + 20 * 60 * 1000); //$NON-NLS-1$
+		store.setDefault(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE, false);
 		store.setDefault(ITasksUiPreferenceConstants.RELEVANT_TASKS_SCHEDULE_MILISECONDS, "" + 5 * 60 * 1000); //$NON-NLS-1$
 
 		store.setDefault(ITasksUiPreferenceConstants.BACKUP_MAXFILES, 20);
@@ -1434,7 +1448,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 			getBackupManager();
 
 			synchronizationManager = new TaskListScheduledSynchronizationManager(taskJobFactory, taskActivityManager,
-					repositoryManager);
+					repositoryManager, taskList);
 		} catch (Throwable t) {
 			StatusHandler.log(new Status(IStatus.ERROR, TasksUiPlugin.ID_PLUGIN,
 					"Could not initialize task list backup and synchronization", t)); //$NON-NLS-1$
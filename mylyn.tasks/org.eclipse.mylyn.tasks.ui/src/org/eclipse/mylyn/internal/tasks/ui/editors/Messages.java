@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.editors;
@@ -155,6 +156,8 @@ public class Messages extends NLS {
 
 	public static String TaskEditorCommentPart_Expand_Comments;
 
+	public static String TaskEditorCommentPart_Next_Matching_Comment;
+
 	public static String TaskEditorDescriptionPart_Description;
 
 	public static String TaskEditorDescriptionPart_Detector;
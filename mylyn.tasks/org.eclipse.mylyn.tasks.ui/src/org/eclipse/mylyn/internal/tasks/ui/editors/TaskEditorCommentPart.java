@@ -10,12 +10,15 @@
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
  *     Jingwen Ou - comment grouping
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.editors;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jface.action.Action;
@@ -36,6 +39,7 @@ import org.eclipse.mylyn.commons.workbench.forms.ScalingHyperlink;
 import org.eclipse.mylyn.internal.tasks.core.TaskComment;
 import org.eclipse.mylyn.internal.tasks.ui.actions.CommentActionGroup;
 import org.eclipse.mylyn.internal.tasks.ui.editors.CommentGroupStrategy.CommentGroup;
+import org.eclipse.mylyn.internal.tasks.ui.views.TaskListView;
 import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
 import org.eclipse.mylyn.tasks.core.ITaskComment;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
@@ -131,6 +135,9 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		private Section createSection(Composite parent, FormToolkit toolkit) {
 			int style = ExpandableComposite.TWISTIE | ExpandableComposite.SHORT_TITLE_BAR
 					| ExpandableComposite.LEFT_TEXT_CLIENT_ALIGNMENT;
+			if (containsMatchingComment(commentGroup.getCommentAttributes())) {
+				style |= ExpandableComposite.EXPANDED;
+			}
 
 			groupSection = toolkit.createSection(parent, style);
 			groupSection.clientVerticalSpacing = 0;
@@ -307,7 +314,8 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 			getTaskData().getAttributeMapper().updateTaskComment(taskComment, commentAttribute);
 			int style = ExpandableComposite.TREE_NODE | ExpandableComposite.LEFT_TEXT_CLIENT_ALIGNMENT
 					| ExpandableComposite.COMPACT;
-			if (hasIncomingChanges || expandAllInProgress && !suppressExpandViewers) {
+			if (hasIncomingChanges || matchingComments.contains(commentAttribute)
+					|| expandAllInProgress && !suppressExpandViewers) {
 				style |= ExpandableComposite.EXPANDED;
 			}
 			commentComposite = toolkit.createExpandableComposite(composite, style);
@@ -670,6 +678,13 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 
 	private boolean suppressExpandViewers;
 
+	/**
+	 * the comments that match the filter of the task list when the editor was opened, in the order of the comments
+	 */
+	private List<TaskAttribute> matchingComments;
+
+	private int nextMatchingComment;
+
 	public TaskEditorCommentPart() {
 		commentGroupStrategy = new CommentGroupStrategy() {
 			@Override
@@ -776,12 +791,12 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		getTaskEditorPage().getEditorSite().registerContextMenu(ID_POPUP_MENU, menuManager, selectionProvider, false);
 		commentMenu = menuManager.createContextMenu(parent);
 
-		section = createSection(parent, toolkit, hasIncoming);
+		section = createSection(parent, toolkit, hasIncoming || !matchingComments.isEmpty());
 		section.setText(section.getText() + " (" + commentAttributes.size() + ")"); //$NON-NLS-1$ //$NON-NLS-2$
 
 		if (commentAttributes.isEmpty()) {
 			section.setEnabled(false);
-		} else if (hasIncoming) {
+		} else if (hasIncoming || !matchingComments.isEmpty()) {
 			expandSection(toolkit, section);
 		} else {
 			section.addExpansionListener(new ExpansionAdapter() {
@@ -881,6 +896,18 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		expandAllAction.setToolTipText(Messages.TaskEditorCommentPart_Expand_Comments);
 		barManager.add(expandAllAction);
 
+		if (!matchingComments.isEmpty()) {
+			Action nextMatchingCommentAction = new Action("") { //$NON-NLS-1$
+				@Override
+				public void run() {
+					revealNextMatchingComment();
+				}
+			};
+			nextMatchingCommentAction.setImageDescriptor(CommonImages.FIND);
+			nextMatchingCommentAction.setToolTipText(Messages.TaskEditorCommentPart_Next_Matching_Comment);
+			barManager.add(nextMatchingCommentAction);
+		}
+
 		if (commentAttributes.isEmpty()) {
 			collapseAllAction.setEnabled(false);
 			expandAllAction.setEnabled(false);
@@ -935,6 +962,45 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 				}
 			}
 		}
+		matchingComments = computeMatchingComments();
+	}
+
+	/**
+	 * Returns the comments that caused the task to pass the filter of the task list, these are expanded and can be navigated.
+	 */
+	private List<TaskAttribute> computeMatchingComments() {
+		List<TaskAttribute> comments = new ArrayList<>();
+		TaskListView taskListView = TaskListView.getFromActivePerspective();
+		if (taskListView != null && !commentAttributes.isEmpty() && getModel().getTask() != null) {
+			Set<String> ids = new HashSet<>(taskListView.findMatchingComments(getModel().getTask()));
+			for (TaskAttribute commentAttribute : commentAttributes) {
+				if (ids.contains(commentAttribute.getId())) {
+					comments.add(commentAttribute);
+				}
+			}
+		}
+		return comments;
+	}
+
+	private boolean containsMatchingComment(List<TaskAttribute> comments) {
+		for (TaskAttribute commentAttribute : comments) {
+			if (matchingComments.contains(commentAttribute)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void revealNextMatchingComment() {
+		if (matchingComments.isEmpty()) {
+			return;
+		}
+		TaskAttribute commentAttribute = matchingComments.get(nextMatchingComment);
+		nextMatchingComment = (nextMatchingComment + 1) % matchingComments.size();
+		CommentViewer viewer = selectReveal(commentAttribute);
+		if (viewer != null) {
+			viewer.setExpanded(true);
+		}
 	}
 
 	@Override
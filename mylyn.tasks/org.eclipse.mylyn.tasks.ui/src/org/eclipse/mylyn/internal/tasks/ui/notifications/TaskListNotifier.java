@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.notifications;
@@ -31,13 +32,13 @@ import org.eclipse.mylyn.internal.tasks.core.data.SynchronizationManger;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataDiff;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManagerEvent;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataState;
 import org.eclipse.mylyn.internal.tasks.core.sync.SynchronizeTasksJob;
 import org.eclipse.mylyn.internal.tasks.ui.ITaskListNotificationProvider;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.views.PresentationFilter;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
-import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.ui.AbstractRepositoryConnectorUi;
 import org.eclipse.mylyn.tasks.ui.TasksUi;
 
@@ -79,12 +80,11 @@ public class TaskListNotifier implements ITaskDataManagerListener, ITaskListNoti
 	}
 
 	public TaskDataDiff getDiff(ITask task) {
-		ITaskDataWorkingCopy workingCopy;
+		TaskDataState state;
 		try {
-			workingCopy = taskDataManager.getTaskDataState(task);
-			if (workingCopy != null) {
-				return synchronizationManger.createDiff(workingCopy.getRepositoryData(), workingCopy.getLastReadData(),
-						new NullProgressMonitor());
+			state = taskDataManager.getTaskDataState(task);
+			if (state != null) {
+				return synchronizationManger.createDiff(state, new NullProgressMonitor());
 			}
 		} catch (CoreException e) {
 			StatusHandler.log(new Status(IStatus.ERROR, TasksUiPlugin.ID_PLUGIN, "Failed to get task data for task: \"" //$NON-NLS-1$
@@ -113,7 +113,9 @@ public class TaskListNotifier implements ITaskDataManagerListener, ITaskListNoti
 		ITask task = event.getTask();
 		SynchronizationState state = task.getSynchronizationState();
 		String notificationText = null;
-		if (state.isIncoming()) {
+		// skip computing the diff again if no attribute changed since the task was last read
+		if (state.isIncoming()
+				&& (event.getChangedAttributeIds() == null || !event.getChangedAttributeIds().isEmpty())) {
 			notificationText = computeNotificationText(task);
 		}
 		task.setAttribute(KEY_INCOMING_NOTIFICATION_TEXT, notificationText);
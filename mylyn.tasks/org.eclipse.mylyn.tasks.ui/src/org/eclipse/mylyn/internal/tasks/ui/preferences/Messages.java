@@ -9,6 +9,7 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.preferences;
@@ -35,6 +36,10 @@ public class Messages extends NLS {
 
 	public static String NotificationsLinkPreferencesPage_Mylyn_Notifications;
 
+	public static String TasksUiPreferencePage_Adapt_Query_Synchronization;
+
+	public static String TasksUiPreferencePage_Adapt_Query_Synchronization_Help;
+
 	public static String TasksUiPreferencePage_Advanced;
 
 	public static String TasksUiPreferencePage_Browse_;
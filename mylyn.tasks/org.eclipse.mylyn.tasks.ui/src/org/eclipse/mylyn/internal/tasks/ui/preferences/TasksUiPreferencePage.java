@@ -10,6 +10,7 @@
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
  *     Abner Ballardo - fix for bug 276113
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.preferences;
@@ -104,6 +105,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 
 	private Button enableFullTaskListSynch;
 
+	private Button adaptiveTaskListSynch;
+
 	private Button enableRelevantTasksSynch;
 
 	private Text taskDirectoryText;
@@ -238,6 +241,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 
 		getPreferenceStore().setValue(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED,
 				enableFullTaskListSynch.getSelection());
+		getPreferenceStore().setValue(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE,
+				adaptiveTaskListSynch.getSelection());
 		getPreferenceStore().setValue(ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED,
 				enableRelevantTasksSynch.getSelection());
 
@@ -332,6 +337,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 				.getBoolean(ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED);
 
 		enableFullTaskListSynch.setSelection(shouldSyncTaskList);
+		adaptiveTaskListSynch.setSelection(
+				getPreferenceStore().getBoolean(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE));
 		enableRelevantTasksSynch.setSelection(shouldSyncRelevantTasks);
 		fullSyncScheduleTime.setText(repositorySyncMinutes);
 		relevantTasksSyncScheduleTime.setText(relevantSyncMinutes);
@@ -381,6 +388,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 
 		enableFullTaskListSynch.setSelection(
 				getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED));
+		adaptiveTaskListSynch.setSelection(
+				getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE));
 		enableRelevantTasksSynch.setSelection(
 				getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED));
 		fullSyncScheduleTime.setText(toMinutesString(getPreferenceStore()
@@ -442,6 +451,16 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 		new Label(backgroundSync, SWT.NONE).setText(Messages.TasksUiPreferencePage_minutes);
 		new Label(backgroundSync, SWT.NONE);
 
+		//Adapt query synchronization to the rate of changes
+		adaptiveTaskListSynch = new Button(backgroundSync, SWT.CHECK);
+		adaptiveTaskListSynch.setText(Messages.TasksUiPreferencePage_Adapt_Query_Synchronization);
+		adaptiveTaskListSynch.setSelection(
+				getPreferenceStore().getBoolean(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ADAPTIVE));
+		GridDataFactory.defaultsFor(adaptiveTaskListSynch).span(3, 1).applyTo(adaptiveTaskListSynch);
+		Label adaptiveHelp = new Label(backgroundSync, SWT.NONE);
+		adaptiveHelp.setImage(CommonImages.getImage(CommonImages.QUESTION));
+		adaptiveHelp.setToolTipText(Messages.TasksUiPreferencePage_Adapt_Query_Synchronization_Help);
+
 		//Synchronize Relevant Tasks
 		enableRelevantTasksSynch = new Button(backgroundSync, SWT.CHECK);
 		enableRelevantTasksSynch.setText(Messages.TasksUiPreferencePage_Synchronize_Relevant_Tasks);
@@ -705,6 +724,7 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 		boolean synchronizeRelevantTasks = synchronizeTaskList && enableRelevantTasksSynch.getSelection();
 		enableRelevantTasksSynch.setEnabled(synchronizeTaskList);
 		fullSyncScheduleTime.setEnabled(synchronizeTaskList);
+		adaptiveTaskListSynch.setEnabled(synchronizeTaskList);
 		relevantTasksSyncScheduleTime.setEnabled(synchronizeRelevantTasks);
 	}
 
@@ -9,13 +9,16 @@
  *
  * Contributors:
  *     Tasktop Technologies - initial API and implementation
+ *     See git history
  *******************************************************************************/
 
 package org.eclipse.mylyn.internal.tasks.ui.search;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.dialogs.PatternFilter;
@@ -78,4 +81,18 @@ public abstract class AbstractSearchHandler {
 	public void adaptTextSearchControl(Text textControl) {
 
 	}
+
+	/**
+	 * Returns the ids of the comments of <code>task</code> that match <code>patternString</code>, for example to reveal the comments
+	 * that caused a task to pass the filter of the task list. The default implementation returns an empty list.
+	 *
+	 * @param task
+	 *            the task
+	 * @param patternString
+	 *            the text of the filter
+	 * @return the ids of the matching comment attributes in order of decreasing relevance
+	 */
+	public List<String> findMatchingComments(ITask task, String patternString) {
+		return Collections.emptyList();
+	}
 }
@@ -16,6 +16,8 @@ package org.eclipse.mylyn.internal.tasks.ui.util;
 import java.io.File;
 import java.util.Set;
 
+import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListJournal;
+
 /**
  * @author Robert Elves
  */
@@ -29,6 +31,11 @@ public class TaskDataSnapshotOperation extends TaskDataExportOperation {
 	protected void selectFiles(Set<File> filesToExport) {
 
 		filesToExport.add(new File(getSourceFolder(), "tasks.xml.zip")); //$NON-NLS-1$
+		// changes since the last full save of the task list
+		File journal = new File(getSourceFolder(), "tasks.xml.zip" + TaskListJournal.FILE_SUFFIX); //$NON-NLS-1$
+		if (journal.exists()) {
+			filesToExport.add(journal);
+		}
 		filesToExport.add(new File(getSourceFolder(), "repositories.xml.zip")); //$NON-NLS-1$
 		filesToExport.add(new File(getSourceFolder(), "contexts/activity.xml.zip")); //$NON-NLS-1$
 	}
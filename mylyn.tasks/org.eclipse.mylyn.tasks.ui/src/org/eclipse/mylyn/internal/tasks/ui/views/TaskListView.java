@@ -19,6 +19,7 @@
 package org.eclipse.mylyn.internal.tasks.ui.views;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -1223,6 +1224,21 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 		return filteredTree;
 	}
 
+	/**
+	 * Returns the ids of the comments of <code>task</code> that match the filter text of the task list, empty if no filter text is
+	 * entered.
+	 */
+	public List<String> findMatchingComments(ITask task) {
+		if (searchHandler == null || filteredTree == null || filteredTree.isDisposed()) {
+			return Collections.emptyList();
+		}
+		String filterText = filteredTree.getFilterString();
+		if (filterText == null || filterText.isBlank()) {
+			return Collections.emptyList();
+		}
+		return searchHandler.findMatchingComments(task, filterText);
+	}
+
 	public void selectedAndFocusTask(ITask task) {
 		if (task == null || getViewer().getControl().isDisposed()) {
 			return;